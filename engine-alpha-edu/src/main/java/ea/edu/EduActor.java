@@ -305,7 +305,7 @@ public abstract class EduActor<T extends Actor> {
 
     @API
     public void machePartikel(double lebenszeit) {
-        this.actor.animateParticle((float) lebenszeit);
+        this.actor.tweenParticle((float) lebenszeit);
     }
 
     @API
@@ -354,7 +354,7 @@ public abstract class EduActor<T extends Actor> {
             throw new IllegalArgumentException("Transparenzen müssen stets zwischen 0 und 1 sein");
         }
 
-        this.actor.animateOpacity((float) zeitInSekunden, (float) (1 - nachTransparenz));
+        this.actor.tweenOpacity((float) zeitInSekunden, (float) (1 - nachTransparenz));
     }
 
     /**
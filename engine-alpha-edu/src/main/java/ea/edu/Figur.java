@@ -1,15 +1,14 @@
 package ea.edu;
 
 import ea.Camera;
-import ea.Vector;
 import ea.actor.Animation;
 import ea.actor.StatefulAnimation;
 import ea.internal.annotations.API;
 import ea.internal.annotations.Internal;
-import ea.internal.io.ImageLoader;
+import ea.internal.io.FrameSequenceCache;
 import ea.internal.io.ResourceLoader;
 
-import java.awt.image.BufferedImage;
+import java.awt.Dimension;
 import java.io.File;
 import java.io.IOException;
 
@@ -32,7 +31,12 @@ public class Figur extends EduActor<StatefulAnimation<String>> {
      */
     @API
     public Figur(String zustandsname, String gifBildPfad) {
-        super(new StatefulAnimation<>(ImageLoader.load(gifBildPfad).getWidth() / Camera.DEFAULT_ZOOM, ImageLoader.load(gifBildPfad).getHeight() / Camera.DEFAULT_ZOOM));
+        this(zustandsname, gifBildPfad, FrameSequenceCache.getImageSize(gifBildPfad));
+    }
+
+    @Internal
+    private Figur(String zustandsname, String gifBildPfad, Dimension groesse) {
+        super(new StatefulAnimation<>(groesse.width / Camera.DEFAULT_ZOOM, groesse.height / Camera.DEFAULT_ZOOM));
 
         fuegeZustandVonGifHinzu(zustandsname, gifBildPfad);
     }
@@ -47,7 +51,12 @@ public class Figur extends EduActor<StatefulAnimation<String>> {
      */
     @API
     public Figur(String zustandsname, String spriteSheetPfad, int anzahlX, int anzahlY) {
-        super(new StatefulAnimation<>(ImageLoader.load(spriteSheetPfad).getWidth() / Camera.DEFAULT_ZOOM / anzahlX, ImageLoader.load(spriteSheetPfad).getHeight() / Camera.DEFAULT_ZOOM / anzahlY));
+        this(zustandsname, spriteSheetPfad, anzahlX, anzahlY, FrameSequenceCache.getImageSize(spriteSheetPfad));
+    }
+
+    @Internal
+    private Figur(String zustandsname, String spriteSheetPfad, int anzahlX, int anzahlY, Dimension groesse) {
+        super(new StatefulAnimation<>(groesse.width / Camera.DEFAULT_ZOOM / anzahlX, groesse.height / Camera.DEFAULT_ZOOM / anzahlY));
 
         fuegeZustandVonSpritesheetHinzu(zustandsname, spriteSheetPfad, anzahlX, anzahlY);
     }
@@ -62,7 +71,12 @@ public class Figur extends EduActor<StatefulAnimation<String>> {
      */
     @API
     public Figur(String zustandname, String verzeichnisPfad, String praefix) {
-        super(new StatefulAnimation<>(getWidthHeightFromPrefixed(verzeichnisPfad, praefix).getX() / Camera.DEFAULT_ZOOM, getWidthHeightFromPrefixed(verzeichnisPfad, praefix).getY() / Camera.DEFAULT_ZOOM));
+        this(zustandname, verzeichnisPfad, praefix, getWidthHeightFromPrefixed(verzeichnisPfad, praefix));
+    }
+
+    @Internal
+    private Figur(String zustandname, String verzeichnisPfad, String praefix, Dimension groesse) {
+        super(new StatefulAnimation<>(groesse.width / Camera.DEFAULT_ZOOM, groesse.height / Camera.DEFAULT_ZOOM));
 
         fuegeZustandVonPraefixHinzu(zustandname, verzeichnisPfad, praefix);
     }
@@ -179,7 +193,7 @@ public class Figur extends EduActor<StatefulAnimation<String>> {
     }
 
     @Internal
-    private static Vector getWidthHeightFromPrefixed(String directoryPath, String prefix) {
+    private static Dimension getWidthHeightFromPrefixed(String directoryPath, String prefix) {
         try {
             File directory = ResourceLoader.loadAsFile(directoryPath);
             if (!directory.isDirectory()) {
@@ -190,8 +204,7 @@ public class Figur extends EduActor<StatefulAnimation<String>> {
             if (children != null) {
                 for (File file : children) {
                     if (!file.isDirectory() && file.getName().startsWith(prefix)) {
-                        BufferedImage image = ImageLoader.load(file.getAbsolutePath());
-                        return new Vector(image.getWidth(), image.getHeight());
+                        return FrameSequenceCache.getImageSize(file.getAbsolutePath());
                     }
                 }
             }
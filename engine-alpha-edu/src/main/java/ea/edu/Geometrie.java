@@ -49,6 +49,6 @@ public abstract class Geometrie<Actor extends Geometry> extends EduActor<Actor>
      */
     @API
     public void animiereFarbe(double dauerInSekunden, String farbe) {
-        getActor().animateColor((float) dauerInSekunden, Spiel.konvertiereVonFarbname(farbe));
+        getActor().tweenColor((float) dauerInSekunden, Spiel.konvertiereVonFarbname(farbe));
     }
 }
@@ -4,6 +4,7 @@ import ea.Game;
 import ea.Vector;
 import ea.edu.event.*;
 import ea.edu.internal.EduScene;
+import ea.edu.internal.EduScheduler;
 import ea.internal.annotations.API;
 import ea.internal.annotations.Internal;
 import ea.internal.util.Logger;
@@ -65,10 +66,13 @@ public class Spiel {
      * Führt das übergebene Runnable parallel aus.
      * <p>
      * Die einfachste Verwendung ist über eine Methodenreferenz: {@code Spiel.parallel(this::schalteAmpel)}
+     * <p>
+     * Ab Java 21 läuft jede Aufgabe auf einem virtuellen Thread, sodass auch sehr viele gleichzeitig wartende
+     * Aufgaben kaum Speicher belegen.
      */
     @API
     public static void parallel(Runnable runnable) {
-        new Thread(runnable).start();
+        EduScheduler.starte(runnable);
     }
 
     /**
@@ -176,7 +180,8 @@ public class Spiel {
     public static EduScene getActiveScene() {
         if (activeScene == null) {
             activeScene = new EduScene();
-            parallel(() -> Game.start(fensterBreite, fensterHoehe, activeScene));
+            // Eigener Plattform-Thread, da virtuelle Threads die JVM nicht am Leben halten
+            new Thread(() -> Game.start(fensterBreite, fensterHoehe, activeScene), "ea.edu-start").start();
         }
 
         return activeScene;
@@ -0,0 +1,224 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.edu.internal;
+
+import ea.Game;
+import ea.GameLogic;
+import ea.Layer;
+import ea.Scene;
+import ea.actor.Actor;
+import ea.event.FrameUpdateListenerContainer;
+import ea.internal.annotations.Internal;
+import ea.internal.util.Logger;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Führt Schüler-Code parallel aus und lässt ihn an Frame-Grenzen warten.
+ * <p>
+ * Parallele Aufgaben laufen auf virtuellen Threads, sofern die Java-Version sie anbietet (ab Java 21). Ein wartender
+ * virtueller Thread belegt keinen Betriebssystem-Thread, sodass auch hunderte gleichzeitig wartende Abläufe kaum
+ * Ressourcen kosten. Jede Aufgabe erhält dabei einen eigenen Thread, virtuelle Threads werden nicht in einem Pool
+ * gehalten. Auf älteren Java-Versionen werden die Threads eines gemeinsamen Pools wiederverwendet.
+ * <p>
+ * Gewartet wird nicht nach Uhrzeit, sondern nach Spielzeit: Ein Ablauf wird in dem Frame fortgesetzt, in dem die
+ * Wartezeit abgelaufen ist. Damit verhalten sich Skripte relativ zu den Frames deterministisch, auch wenn das Spiel
+ * einmal langsamer läuft. Läuft für das wartende Objekt keine Spielzeit, wird nach Uhrzeit gewartet.
+ */
+@Internal
+public final class EduScheduler {
+    /**
+     * Der Executor entsteht erst mit der ersten parallelen Aufgabe, nicht schon beim ersten Warten.
+     */
+    private static final class Pool {
+        private static final ExecutorService executor = createExecutor();
+    }
+
+    /**
+     * Abstand in Millisekunden, in dem ein wartender Ablauf prüft, ob für sein Objekt noch Spielzeit vergeht.
+     */
+    private static final long POLL_MILLIS = 50;
+
+    private EduScheduler() {
+        // keine Objekte erlaubt!
+    }
+
+    /**
+     * Erzeugt einen Executor, der jede Aufgabe auf einem eigenen virtuellen Thread ausführt. Die Engine wird mit
+     * Java 17 übersetzt, daher wird die API per Reflection angesprochen. Ohne virtuelle Threads wird ein Pool aus
+     * Daemon-Threads genutzt.
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            Logger.verboseInfo("EDU", "Keine virtuellen Threads verfügbar, parallele Aufgaben nutzen einen Thread-Pool.");
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "ea.edu-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Führt eine Aufgabe parallel aus. Exceptions werden ausgegeben und beenden nur diese Aufgabe.
+     *
+     * @param runnable Die auszuführende Aufgabe.
+     */
+    public static void starte(Runnable runnable) {
+        Pool.executor.execute(() -> {
+            try {
+                runnable.run();
+            } catch (RuntimeException e) {
+                Thread current = Thread.currentThread();
+                current.getUncaughtExceptionHandler().uncaughtException(current, e);
+            }
+        });
+    }
+
+    /**
+     * Blockiert den aufrufenden Ablauf für eine Spielzeit. Der Ablauf wird im ersten Frame fortgesetzt, nachdem die
+     * Zeit verstrichen ist. Vergeht für das Objekt keine Spielzeit, weil das Spiel nicht läuft, das Objekt nicht in
+     * der aktiven Scene ist oder die Zeit seines Layers stillsteht, wird stattdessen nach Uhrzeit gewartet.
+     *
+     * @param owner    Objekt, dessen Frame-Updates die Zeit messen.
+     * @param sekunden Wartezeit in Sekunden.
+     *
+     * @throws IllegalStateException Wenn im Spiel-Thread aufgerufen, z.B. aus einem Frame-Update. Der Spiel-Thread
+     *                               würde sonst auf sich selbst warten und das Spiel anhalten.
+     */
+    public static void warte(FrameUpdateListenerContainer owner, double sekunden) {
+        pruefeThread();
+
+        if (sekunden <= 0) {
+            return;
+        }
+
+        long ende = System.nanoTime() + (long) (sekunden * 1_000_000_000L);
+
+        if (!vergehtSpielzeit(owner)) {
+            schlafeBis(ende);
+            return;
+        }
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        owner.delay((float) sekunden, () -> future.complete(null));
+
+        try {
+            while (!future.isDone()) {
+                try {
+                    future.get(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // Wechselt die Scene oder steht die Zeit still, würde die Verzögerung nicht mehr auslösen
+                    if (!vergehtSpielzeit(owner)) {
+                        future.cancel(false);
+                        schlafeBis(ende);
+                        return;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Prüft, ob die Frame-Updates des Objekts gerade mit fortschreitender Spielzeit aufgerufen werden.
+     */
+    private static boolean vergehtSpielzeit(FrameUpdateListenerContainer owner) {
+        if (!Game.isRunning()) {
+            return false;
+        }
+
+        Layer layer = null;
+        Scene scene;
+
+        if (owner instanceof Actor) {
+            layer = ((Actor) owner).getLayer();
+            scene = layer == null ? null : layer.getParent();
+        } else if (owner instanceof Layer) {
+            layer = (Layer) owner;
+            scene = layer.getParent();
+        } else if (owner instanceof Scene) {
+            scene = (Scene) owner;
+        } else {
+            return true;
+        }
+
+        return scene != null && scene == Game.getActiveScene() && (layer == null || layer.getTimeDistort() > 0);
+    }
+
+    private static void schlafeBis(long ende) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(ende - System.nanoTime());
+
+        if (millis <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Blockiert den aufrufenden Ablauf, bis ein vom Spiel-Thread erfülltes Ergebnis vorliegt.
+     *
+     * @param future Wird im Spiel-Thread erfüllt, z.B. am Ende einer Animation.
+     *
+     * @throws IllegalStateException Wenn im Spiel-Thread aufgerufen und das Ergebnis noch nicht vorliegt.
+     */
+    public static void warteAuf(CompletableFuture<?> future) {
+        if (!future.isDone()) {
+            pruefeThread();
+        }
+
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void pruefeThread() {
+        if (GameLogic.isGameThread()) {
+            throw new IllegalStateException("Im Spiel-Thread, z.B. in einem Frame-Update oder Tasten-Ereignis, kann nicht gewartet werden, da das Spiel sonst stehen bleibt. Starte den Ablauf stattdessen parallel oder nutze eine Verzögerung.");
+        }
+    }
+}
@@ -22,16 +22,15 @@ package ea.edu.turtle;
 import ea.Game;
 import ea.Scene;
 import ea.Vector;
-import ea.actor.BodyType;
+import ea.actor.DrawingCanvas;
 import ea.actor.Rectangle;
 import ea.animation.ValueAnimator;
 import ea.animation.interpolation.LinearFloat;
 import ea.edu.Spiel;
+import ea.edu.internal.EduScheduler;
 
 import java.awt.Color;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 public class Turtle {
@@ -42,6 +41,11 @@ public class Turtle {
     private final Scene scene;
     private final Rectangle turtle;
 
+    /**
+     * Nimmt alle gezeichneten Linien auf, statt für jede Linie einen eigenen Actor anzulegen.
+     */
+    private final DrawingCanvas canvas;
+
     private boolean drawLine;
     private Color lineColor = Color.BLACK;
     private float speed = 100;
@@ -50,6 +54,11 @@ public class Turtle {
         scene = new Scene();
         scene.setBackgroundColor(new Color(240, 240, 240));
 
+        canvas = new DrawingCanvas();
+        canvas.setLayerPosition(-1);
+
+        scene.add(canvas);
+
         turtle = new Rectangle(1, 1);
         turtle.setCenter(0, 0);
         turtle.setColor(Color.RED);
@@ -105,11 +114,7 @@ public class Turtle {
     }
 
     protected final void warte(double sekunden) {
-        try {
-            Thread.sleep((long) (1000 * sekunden));
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        EduScheduler.warte(turtle, sekunden);
     }
 
     protected final void setzeFarbe(String farbe) {
@@ -130,25 +135,18 @@ public class Turtle {
 
         float duration = (float) meter / speed;
 
-        AtomicReference<Rectangle> line = new AtomicReference<>();
+        Vector[] last = {initial};
 
         animate(duration, progress -> {
-            turtle.setCenter(initial.add(move.multiply(progress)));
+            Vector current = initial.add(move.multiply(progress));
+            turtle.setCenter(current);
 
+            // Nur das seit dem letzten Frame gelaufene Stück wird gezeichnet
             if (drawLine) {
-                if (line.get() != null) {
-                    line.get().remove();
-                }
-
-                line.set(new Rectangle((float) meter * progress, 0.1f));
-                line.get().setRotation(turtle.getRotation());
-                line.get().setCenter(turtle.getCenter().subtract(move.multiply(progress * 0.5f)));
-                line.get().setColor(lineColor);
-                line.get().setBorderRadius(1);
-                line.get().setBodyType(BodyType.PARTICLE);
-
-                scene.add(line.get());
+                canvas.drawLine(last[0], current, lineColor, 0.1f);
             }
+
+            last[0] = current;
         });
     }
 
@@ -176,10 +174,6 @@ public class Turtle {
 
         turtle.addFrameUpdateListener(animator);
 
-        try {
-            future.get();
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException(e);
-        }
+        EduScheduler.warteAuf(future);
     }
 }
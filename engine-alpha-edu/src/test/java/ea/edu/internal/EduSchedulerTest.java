@@ -0,0 +1,84 @@
+package ea.edu.internal;
+
+import ea.GameLogic;
+import ea.Layer;
+import ea.Scene;
+import ea.internal.graphics.PresentationMonitor;
+import org.junit.Test;
+
+import java.awt.GraphicsEnvironment;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+public class EduSchedulerTest {
+    /**
+     * Führt einen Frame mit dem übergebenen Frame-Update aus und liefert, was dieses geworfen hat.
+     */
+    private static Throwable runFrame(Scene scene, Runnable update) throws InterruptedException {
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+
+        scene.addFrameUpdateListener(deltaSeconds -> {
+            try {
+                update.run();
+            } catch (RuntimeException e) {
+                thrown.set(e);
+            }
+
+            Thread.currentThread().interrupt(); // nur ein Frame
+        });
+
+        GameLogic gameLogic = new GameLogic(source -> {
+            // kein Rendern
+        }, () -> scene, () -> false, new PresentationMonitor());
+
+        Thread gameThread = new Thread(gameLogic::run);
+        gameThread.start();
+        gameThread.join(5000);
+
+        assertFalse("Das Spiel wartet auf sich selbst", gameThread.isAlive());
+
+        return thrown.get();
+    }
+
+    @Test
+    public void warteInFrameUpdateBlockiertNicht () throws Exception {
+        Scene scene = new Scene();
+
+        assertTrue(runFrame(scene, () -> EduScheduler.warte(scene, 0.5)) instanceof IllegalStateException);
+    }
+
+    @Test
+    public void warteAufInFrameUpdateBlockiertNicht () throws Exception {
+        Scene scene = new Scene();
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        assertTrue(runFrame(scene, () -> EduScheduler.warteAuf(future)) instanceof IllegalStateException);
+    }
+
+    @Test
+    public void erfuelltesErgebnisIstAuchImSpielThreadErlaubt () throws Exception {
+        Scene scene = new Scene();
+
+        assertTrue(runFrame(scene, () -> EduScheduler.warteAuf(CompletableFuture.completedFuture(null))) == null);
+    }
+
+    @Test
+    public void warteOhneSpielzeitWartetNachUhrzeit () throws Exception {
+        assumeFalse(GraphicsEnvironment.isHeadless());
+
+        Layer layer = new Layer();
+        layer.setTimeDistort(0);
+
+        Thread thread = new Thread(() -> EduScheduler.warte(layer, 0.1));
+        long start = System.nanoTime();
+        thread.start();
+        thread.join(5000);
+
+        assertFalse("Ohne Spielzeit wird nie fortgesetzt", thread.isAlive());
+        assertTrue(System.nanoTime() - start >= 100_000_000L);
+    }
+}
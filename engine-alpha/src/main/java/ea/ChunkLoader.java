@@ -0,0 +1,97 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea;
+
+import ea.actor.Actor;
+import ea.internal.annotations.API;
+import ea.internal.io.ResourceLoader;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+
+/**
+ * Lädt den Inhalt eines Chunks für einen {@link ChunkStreamer}.
+ * <p>
+ * {@link #load(int, int)} läuft in einem Hintergrund-Thread. Die Actors dürfen dort erstellt und eingerichtet werden,
+ * aber weder an einer Szene angemeldet werden noch andere Teile der Szene verändern. Angemeldet werden sie später im
+ * Spiel-Thread durch den {@link ChunkStreamer}.
+ *
+ * @see ChunkStreamer
+ */
+@API
+@FunctionalInterface
+public interface ChunkLoader {
+    /**
+     * Lädt einen Chunk.
+     *
+     * @param chunkX X-Index des Chunks. Der Chunk deckt die Weltkoordinaten <code>[chunkX * chunkSize; (chunkX + 1)
+     *               * chunkSize)</code> ab.
+     * @param chunkY Y-Index des Chunks.
+     *
+     * @return Die Actors des Chunks in Weltkoordinaten. <code>null</code> oder leer, wenn der Chunk nichts enthält.
+     */
+    @API
+    Collection<? extends Actor> load(int chunkX, int chunkY) throws IOException;
+
+    /**
+     * Erstellt einen Loader, der jeden Chunk aus einer eigenen Datei liest. Die Dateien werden über
+     * {@link ResourceLoader#loadAsBuffer(String)} geladen, können also auch in einem Asset-Archiv liegen. Fehlt die
+     * Datei zu einem Chunk, ist der Chunk leer.
+     *
+     * @param pattern Pfad mit zwei Platzhaltern für die Chunk-Indizes, z.B. <code>"level/chunk_%d_%d.txt"</code>.
+     * @param parser  Erstellt die Actors aus dem Inhalt einer Datei.
+     */
+    @API
+    static ChunkLoader fromFiles(String pattern, Parser parser) {
+        return (chunkX, chunkY) -> {
+            ByteBuffer data;
+
+            try {
+                data = ResourceLoader.loadAsBuffer(String.format(Locale.ROOT, pattern, chunkX, chunkY));
+            } catch (NoSuchFileException | FileNotFoundException e) {
+                return Collections.emptyList();
+            }
+
+            return parser.parse(data, chunkX, chunkY);
+        };
+    }
+
+    /**
+     * Liest den Inhalt einer Chunk-Datei für {@link #fromFiles(String, Parser)}.
+     */
+    @API
+    @FunctionalInterface
+    interface Parser {
+        /**
+         * @param data   Inhalt der Datei, nur lesbar.
+         * @param chunkX X-Index des Chunks.
+         * @param chunkY Y-Index des Chunks.
+         *
+         * @return Die Actors des Chunks in Weltkoordinaten.
+         */
+        @API
+        Collection<? extends Actor> parse(ByteBuffer data, int chunkX, int chunkY) throws IOException;
+    }
+}
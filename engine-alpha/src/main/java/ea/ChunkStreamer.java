@@ -0,0 +1,407 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea;
+
+import ea.actor.Actor;
+import ea.internal.annotations.API;
+import ea.internal.util.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lädt große Level stückweise: Die Welt wird in quadratische Chunks eingeteilt, und nur die Chunks in der Nähe der
+ * Kamera (oder eines Fokus-Actors) sind an einem {@link Layer} angemeldet. Speicher und Rechenzeit der Physik hängen
+ * damit von der Umgebung ab, nicht von der Größe des Levels.
+ * <p>
+ * Chunks werden über einen {@link ChunkLoader} in Hintergrund-Threads geladen, nahe Chunks zuerst. Geladene Actors
+ * werden im Spiel-Thread in Portionen von höchstens {@link #setMountBudget(int)} Actors pro Frame angemeldet, damit
+ * große Chunks keinen Ruckler verursachen. Chunks, die sich weiter als der Entladeradius entfernen, werden abgemeldet
+ * und nicht weiter referenziert. Ein größerer Entlade- als Laderadius verhindert, dass Chunks an der Grenze bei jeder
+ * kleinen Bewegung neu geladen werden.
+ * <pre>
+ * ChunkStreamer streamer = new ChunkStreamer(scene.getMainLayer(), 32, ChunkLoader.fromFiles("level/%d_%d.txt", parser));
+ * streamer.start();
+ * </pre>
+ * Alle Methoden dürfen nur aus dem Spiel-Thread aufgerufen werden.
+ *
+ * @see ChunkLoader
+ */
+@API
+public final class ChunkStreamer implements FrameUpdateListener {
+    private static final Actor[] EMPTY = new Actor[0];
+
+    private static final int LOADER_THREADS = 2;
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private static final class Chunk {
+        private final int x;
+        private final int y;
+
+        private Future<?> future;
+
+        /**
+         * Ergebnis des Hintergrund-Threads.
+         */
+        private volatile Actor[] loaded;
+
+        /**
+         * Die Actors des Chunks, <code>null</code> solange er lädt.
+         */
+        private Actor[] actors;
+
+        /**
+         * Anzahl der bereits angemeldeten Actors, immer ein Präfix von {@link #actors}.
+         */
+        private int mounted;
+
+        private Chunk(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    private final Layer layer;
+    private final float chunkSize;
+    private final ChunkLoader loader;
+
+    private final Map<Long, Chunk> chunks = new HashMap<>();
+
+    /**
+     * Fertig geladene Chunks, werden vom Hintergrund-Thread befüllt.
+     */
+    private final Queue<Chunk> completed = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Geladene Chunks, deren Actors noch nicht alle angemeldet sind.
+     */
+    private final ArrayDeque<Chunk> mountQueue = new ArrayDeque<>();
+
+    private int loadRadius = 1;
+    private int unloadRadius = 2;
+    private int mountBudget = 64;
+
+    private Actor focus;
+
+    private ExecutorService executor;
+
+    /**
+     * Chunk, in dem der Fokus beim letzten Abgleich lag.
+     */
+    private int centerX, centerY;
+
+    /**
+     * Ob die benötigten Chunks auch ohne Chunk-Wechsel neu bestimmt werden müssen.
+     */
+    private boolean dirty = true;
+
+    private int mountedActors;
+
+    /**
+     * Erstellt einen Streamer. Geladen wird erst nach {@link #start()}.
+     *
+     * @param layer     Das Layer, an dem die Actors angemeldet werden.
+     * @param chunkSize Kantenlänge eines Chunks in Metern.
+     * @param loader    Lädt den Inhalt der Chunks.
+     */
+    @API
+    public ChunkStreamer(Layer layer, float chunkSize, ChunkLoader loader) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Die Chunk-Größe muss größer als 0 sein, war " + chunkSize);
+        }
+
+        this.layer = layer;
+        this.chunkSize = chunkSize;
+        this.loader = loader;
+    }
+
+    /**
+     * Startet das Laden der Chunks um den Fokus.
+     */
+    @API
+    public void start() {
+        if (executor != null) {
+            throw new IllegalStateException("Der ChunkStreamer läuft bereits");
+        }
+
+        executor = Executors.newFixedThreadPool(LOADER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "ea.chunks-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        dirty = true;
+        layer.addFrameUpdateListener(this);
+    }
+
+    /**
+     * Hält den Streamer an und meldet alle geladenen Actors ab. Laufende Ladevorgänge werden verworfen.
+     */
+    @API
+    public void stop() {
+        if (executor == null) {
+            return;
+        }
+
+        layer.removeFrameUpdateListener(this);
+
+        for (Chunk chunk : chunks.values()) {
+            unload(chunk);
+        }
+
+        chunks.clear();
+        mountQueue.clear();
+        completed.clear();
+
+        executor.shutdownNow();
+        executor = null;
+    }
+
+    /**
+     * Setzt, wie viele Chunks um den Chunk des Fokus geladen werden.
+     *
+     * @param loadRadius   Radius in Chunks, in dem Chunks geladen werden. <code>1</code> lädt die 3 × 3 Chunks um den
+     *                     Fokus.
+     * @param unloadRadius Radius in Chunks, ab dem Chunks wieder entladen werden. Mindestens so groß wie
+     *                     <code>loadRadius</code>.
+     */
+    @API
+    public void setRadius(int loadRadius, int unloadRadius) {
+        if (loadRadius < 0 || unloadRadius < loadRadius) {
+            throw new IllegalArgumentException("Ungültige Radien: Laden " + loadRadius + ", Entladen " + unloadRadius);
+        }
+
+        this.loadRadius = loadRadius;
+        this.unloadRadius = unloadRadius;
+        this.dirty = true;
+    }
+
+    /**
+     * @param actorsPerFrame Höchstens so viele Actors werden pro Frame angemeldet. Standard ist <code>64</code>.
+     */
+    @API
+    public void setMountBudget(int actorsPerFrame) {
+        if (actorsPerFrame < 1) {
+            throw new IllegalArgumentException("Es muss mindestens ein Actor pro Frame angemeldet werden können");
+        }
+
+        this.mountBudget = actorsPerFrame;
+    }
+
+    /**
+     * Setzt den Actor, um den herum Chunks geladen werden.
+     *
+     * @param focus Der Fokus oder <code>null</code>, um der Kamera der Szene zu folgen (Standard).
+     */
+    @API
+    public void setFocus(Actor focus) {
+        this.focus = focus;
+    }
+
+    /**
+     * @return Anzahl der Chunks, deren Actors vollständig angemeldet sind.
+     */
+    @API
+    public int getLoadedChunkCount() {
+        int count = 0;
+
+        for (Chunk chunk : chunks.values()) {
+            if (chunk.actors != null && chunk.mounted == chunk.actors.length) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * @return Anzahl der Chunks, die noch laden oder noch nicht vollständig angemeldet sind.
+     */
+    @API
+    public int getPendingChunkCount() {
+        return chunks.size() - getLoadedChunkCount();
+    }
+
+    /**
+     * @return Anzahl der Actors, die dieser Streamer aktuell angemeldet hat.
+     */
+    @API
+    public int getMountedActorCount() {
+        return mountedActors;
+    }
+
+    /**
+     * @return Ob der Chunk vollständig angemeldet ist.
+     */
+    @API
+    public boolean isChunkLoaded(int chunkX, int chunkY) {
+        Chunk chunk = chunks.get(key(chunkX, chunkY));
+
+        return chunk != null && chunk.actors != null && chunk.mounted == chunk.actors.length;
+    }
+
+    @Override
+    public void onFrameUpdate(float deltaSeconds) {
+        Vector position;
+
+        if (focus != null) {
+            position = focus.getCenter();
+        } else if (layer.getParent() != null) {
+            position = layer.getCameraCenter(layer.getParent().getCamera());
+        } else {
+            return;
+        }
+
+        int x = (int) Math.floor(position.getX() / chunkSize);
+        int y = (int) Math.floor(position.getY() / chunkSize);
+
+        if (dirty || x != centerX || y != centerY) {
+            centerX = x;
+            centerY = y;
+            dirty = false;
+
+            updateChunks();
+        }
+
+        Chunk chunk;
+
+        while ((chunk = completed.poll()) != null) {
+            if (chunks.get(key(chunk.x, chunk.y)) != chunk) {
+                continue; // inzwischen entladen
+            }
+
+            chunk.actors = chunk.loaded;
+            chunk.loaded = null;
+
+            if (chunk.actors.length > 0) {
+                mountQueue.add(chunk);
+            }
+        }
+
+        mount();
+    }
+
+    private void updateChunks() {
+        Iterator<Chunk> iterator = chunks.values().iterator();
+
+        while (iterator.hasNext()) {
+            Chunk chunk = iterator.next();
+
+            if (Math.abs(chunk.x - centerX) > unloadRadius || Math.abs(chunk.y - centerY) > unloadRadius) {
+                unload(chunk);
+                iterator.remove();
+            }
+        }
+
+        // Ringweise von innen nach außen, damit nahe Chunks zuerst geladen werden
+        for (int radius = 0; radius <= loadRadius; radius++) {
+            for (int dy = -radius; dy <= radius; dy++) {
+                for (int dx = -radius; dx <= radius; dx++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dy)) == radius) {
+                        request(centerX + dx, centerY + dy);
+                    }
+                }
+            }
+        }
+    }
+
+    private void request(int x, int y) {
+        long key = key(x, y);
+
+        if (chunks.containsKey(key)) {
+            return;
+        }
+
+        Chunk chunk = new Chunk(x, y);
+        chunks.put(key, chunk);
+        chunk.future = executor.submit(() -> load(chunk));
+    }
+
+    /**
+     * Läuft im Hintergrund-Thread.
+     */
+    private void load(Chunk chunk) {
+        Actor[] actors;
+
+        try {
+            Collection<? extends Actor> content = loader.load(chunk.x, chunk.y);
+            actors = content == null ? EMPTY : content.toArray(EMPTY);
+        } catch (Exception e) {
+            Logger.error("Chunks", "Chunk (" + chunk.x + ", " + chunk.y + ") konnte nicht geladen werden: " + e.getMessage());
+            actors = EMPTY;
+        }
+
+        chunk.loaded = actors;
+        completed.add(chunk);
+    }
+
+    private void mount() {
+        int budget = mountBudget;
+
+        while (budget > 0 && !mountQueue.isEmpty()) {
+            Chunk chunk = mountQueue.peek();
+            int count = Math.min(budget, chunk.actors.length - chunk.mounted);
+
+            // Ein Aufruf pro Portion, damit das Layer nur einmal sortiert
+            layer.add(Arrays.copyOfRange(chunk.actors, chunk.mounted, chunk.mounted + count));
+
+            chunk.mounted += count;
+            mountedActors += count;
+            budget -= count;
+
+            if (chunk.mounted == chunk.actors.length) {
+                mountQueue.poll();
+            }
+        }
+    }
+
+    private void unload(Chunk chunk) {
+        chunk.future.cancel(false);
+
+        if (chunk.mounted > 0) {
+            layer.remove(Arrays.copyOf(chunk.actors, chunk.mounted));
+            mountedActors -= chunk.mounted;
+        }
+
+        if (chunk.actors != null && chunk.mounted < chunk.actors.length) {
+            mountQueue.remove(chunk);
+        }
+
+        chunk.actors = null;
+        chunk.loaded = null;
+        chunk.mounted = 0;
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea;
+
+import ea.internal.annotations.API;
+
+/**
+ * Ein Flussfeld zu einem Ziel: Für jede Zelle eines {@link NavigationGrid} ist gespeichert, in welche Richtung der
+ * kürzeste Weg zum Ziel führt. Viele Actors mit demselben Ziel können so mit einer einzigen Berechnung navigieren,
+ * jede Abfrage ist ein Array-Zugriff.
+ * <p>
+ * Ein Flussfeld ist unveränderlich und bezieht sich auf den Stand des Gitters bei seiner Berechnung.
+ *
+ * @see NavigationGrid#computeFlowField(Vector)
+ */
+@API
+public final class FlowField {
+    private final NavigationGrid grid;
+
+    /**
+     * Index in {@link NavigationGrid#DX} / {@link NavigationGrid#DY} pro Zelle, <code>-1</code> am Ziel und für
+     * unerreichbare Zellen.
+     */
+    private final byte[] directions;
+
+    /**
+     * Weglänge zum Ziel in Zehnteln einer Zellbreite, {@link Integer#MAX_VALUE} für unerreichbare Zellen.
+     */
+    private final int[] distances;
+
+    FlowField(NavigationGrid grid, byte[] directions, int[] distances) {
+        this.grid = grid;
+        this.directions = directions;
+        this.distances = distances;
+    }
+
+    /**
+     * @param position Position in Weltkoordinaten.
+     *
+     * @return Einheitsvektor in Richtung des nächsten Schritts zum Ziel. {@link Vector#NULL}, wenn die Position in der
+     * Zielzelle liegt oder das Ziel von dort nicht erreichbar ist.
+     */
+    @API
+    public Vector getDirection(Vector position) {
+        int cell = grid.getCell(position);
+
+        if (cell < 0 || directions[cell] < 0) {
+            return Vector.NULL;
+        }
+
+        int direction = directions[cell];
+
+        return new Vector(NavigationGrid.DX[direction], NavigationGrid.DY[direction]).normalize();
+    }
+
+    /**
+     * @param position Position in Weltkoordinaten.
+     *
+     * @return Länge des kürzesten Wegs zum Ziel in Metern oder <code>-1</code>, wenn das Ziel nicht erreichbar ist.
+     */
+    @API
+    public float getDistance(Vector position) {
+        int cell = grid.getCell(position);
+
+        if (cell < 0 || distances[cell] == Integer.MAX_VALUE) {
+            return -1;
+        }
+
+        return distances[cell] * grid.getCellSize() / NavigationGrid.STRAIGHT_COST;
+    }
+
+    /**
+     * @param position Position in Weltkoordinaten.
+     *
+     * @return Ob das Ziel von der Position aus erreichbar ist.
+     */
+    @API
+    public boolean isReachable(Vector position) {
+        int cell = grid.getCell(position);
+
+        return cell >= 0 && distances[cell] != Integer.MAX_VALUE;
+    }
+}
@@ -20,10 +20,14 @@
 package ea;
 
 import ea.event.MouseButton;
-import ea.event.MouseWheelEvent;
 import ea.internal.annotations.API;
 import ea.internal.annotations.Internal;
+import ea.internal.graphics.PresentationMonitor;
 import ea.internal.graphics.RenderPanel;
+import ea.internal.input.InputRecorder;
+import ea.internal.input.InputReplay;
+import ea.internal.input.KeyStates;
+import ea.internal.io.FrameRecorder;
 import ea.internal.io.ImageLoader;
 import ea.internal.io.ImageWriter;
 
@@ -33,8 +37,13 @@ import java.awt.Frame;
 import java.awt.Graphics2D;
 import java.awt.event.*;
 import java.awt.image.BufferedImage;
-import java.util.Collection;
-import java.util.concurrent.ConcurrentHashMap;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Diese Klasse gibt Zugriff auf das aktuelle Spiel.
@@ -45,13 +54,51 @@ import java.util.concurrent.ConcurrentHashMap;
 @SuppressWarnings ( "StaticVariableOfConcreteClass" )
 public final class Game {
 
+    /**
+     * Systemeigenschaft zur Wahl der Java2D-Pipeline, muss beim Start der JVM gesetzt werden, z.B.
+     * <code>-Dea.pipeline=xrender</code>:
+     * <ul>
+     * <li><code>opengl</code>: OpenGL-Pipeline (Standard)</li>
+     * <li><code>xrender</code>: XRender-Pipeline, unter Linux oft stabiler als OpenGL</li>
+     * <li><code>software</code>: Keine Hardwarebeschleunigung</li>
+     * <li><code>system</code>: Die Voreinstellung der JVM wird nicht verändert</li>
+     * </ul>
+     * Explizit gesetzte <code>sun.java2d.*</code>-Eigenschaften haben immer Vorrang.
+     */
+    public static final String PIPELINE_PROPERTY = "ea.pipeline";
+
     static {
-        System.setProperty("sun.java2d.opengl", "true"); // ok
-        System.setProperty("sun.java2d.d3d", "true"); // ok
-        System.setProperty("sun.java2d.noddraw", "false"); // set false if possible, linux
-        System.setProperty("sun.java2d.pmoffscreen", "true"); // set true if possible, linux
-        System.setProperty("sun.java2d.ddoffscreen", "true"); // ok, windows
-        System.setProperty("sun.java2d.ddscale", "true"); // ok, hardware accelerated image scaling on windows
+        switch (System.getProperty(PIPELINE_PROPERTY, "opengl")) {
+            case "system":
+                break;
+
+            case "xrender":
+                setPropertyIfAbsent("sun.java2d.xrender", "true");
+                setPropertyIfAbsent("sun.java2d.opengl", "false");
+                break;
+
+            case "software":
+                setPropertyIfAbsent("sun.java2d.opengl", "false");
+                setPropertyIfAbsent("sun.java2d.xrender", "false");
+                setPropertyIfAbsent("sun.java2d.d3d", "false");
+                break;
+
+            default:
+                setPropertyIfAbsent("sun.java2d.opengl", "true"); // ok
+                setPropertyIfAbsent("sun.java2d.d3d", "true"); // ok
+                break;
+        }
+
+        setPropertyIfAbsent("sun.java2d.noddraw", "false"); // set false if possible, linux
+        setPropertyIfAbsent("sun.java2d.pmoffscreen", "true"); // set true if possible, linux
+        setPropertyIfAbsent("sun.java2d.ddoffscreen", "true"); // ok, windows
+        setPropertyIfAbsent("sun.java2d.ddscale", "true"); // ok, hardware accelerated image scaling on windows
+    }
+
+    private static void setPropertyIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
     }
 
     /**
@@ -83,6 +130,23 @@ public final class Game {
 
     private static RenderPanel renderPanel;
 
+    /**
+     * Anzahl der Buffer der BufferStrategy, siehe {@link #setBufferCount(int)}.
+     */
+    private static int bufferCount = 2;
+
+    /**
+     * Ob die Buffer per Page-Flipping getauscht werden sollen, siehe {@link #setPageFlipping(boolean)}.
+     */
+    private static boolean pageFlipping = false;
+
+    /**
+     * Ob nach jedem Frame mit der Anzeige synchronisiert wird, siehe {@link #setDisplaySync(boolean)}.
+     */
+    private static boolean displaySync = true;
+
+    private static final PresentationMonitor presentationMonitor = new PresentationMonitor();
+
     /**
      * Gibt an, ob bei Escape-Druck das Spiel beendet werden soll.
      */
@@ -95,18 +159,54 @@ public final class Game {
 
     private static GameLogic gameLogic;
 
+    private static final AtomicInteger preparationThreadCount = new AtomicInteger();
+
+    /**
+     * Threads für {@link #prepareScene(Supplier)}, die nach kurzer Leerlaufzeit wieder beendet werden.
+     */
+    private static final ExecutorService scenePreparation = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "ea.scene-preparation-" + preparationThreadCount.incrementAndGet());
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1); // Der Spiel-Thread hat Vorrang
+
+        return thread;
+    });
+
     private static Thread mainThread;
 
     /**
-     * Speichert den Zustand von Tasten der Tastatur. Ist ein Wert <code>true</code>, so ist die entsprechende Taste
-     * gedrückt, sonst ist der Wert <code>false</code>.
+     * Laufende Aufzeichnung der Eingaben, sonst <code>null</code>.
+     */
+    private static volatile InputRecorder recorder;
+
+    /**
+     * Abzuspielende Aufzeichnung, sonst <code>null</code>.
+     */
+    private static InputReplay replay;
+
+    private static float replaySpeed = 1;
+
+    private static volatile LockstepSession lockstep;
+
+    /**
+     * Bildrate aufgezeichneter Videos, entspricht der angestrebten Bildrate der Spielschleife.
+     */
+    private static final int VIDEO_FRAMES_PER_SECOND = 60;
+
+    /**
+     * Laufende Bildaufzeichnung, sonst <code>null</code>.
+     */
+    private static volatile FrameRecorder frameRecorder;
+
+    /**
+     * Speichert den Zustand von Tasten der Tastatur als Bitset.
      */
-    private static final Collection<Integer> pressedKeys = ConcurrentHashMap.newKeySet();
+    private static final KeyStates pressedKeys = new KeyStates();
 
     /**
-     * Letzte Mausposition.
+     * Letzte Mausposition. Alle Mausbewegungen zwischen zwei Frames fallen hier zusammen.
      */
-    private static java.awt.Point mousePosition;
+    private static volatile java.awt.Point mousePosition;
 
     /**
      * Setzt den Titel des Spielfensters.
@@ -128,6 +228,166 @@ public final class Game {
         exitOnEsc = value;
     }
 
+    /**
+     * Setzt die Anzahl der Bildpuffer. Muss vor {@link #start(int, int, Scene)} aufgerufen werden.
+     *
+     * @param count <code>2</code> für Double-Buffering (Standard), <code>3</code> für Triple-Buffering. Triple-Buffering
+     *              glättet die Framerate, erhöht aber die Latenz um bis zu einen Frame.
+     */
+    @API
+    public static void setBufferCount(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Es wird mindestens ein Buffer benötigt, war " + count);
+        }
+
+        assertNotStarted();
+        bufferCount = count;
+    }
+
+    /**
+     * Setzt, ob die Bildpuffer per Page-Flipping statt durch Kopieren getauscht werden. Muss vor
+     * {@link #start(int, int, Scene)} aufgerufen werden. Unterstützt das System kein Page-Flipping, wird
+     * automatisch kopiert.
+     *
+     * @param value <code>true</code>, um Page-Flipping zu verwenden, sonst <code>false</code> (Standard).
+     */
+    @API
+    public static void setPageFlipping(boolean value) {
+        assertNotStarted();
+        pageFlipping = value;
+    }
+
+    /**
+     * Setzt, ob nach jedem Frame mit der Anzeige synchronisiert wird. Ohne Synchronisation entfällt unter Linux
+     * ein blockierender Round-Trip zum X-Server pro Frame, dafür kann die Ausgabe leicht verzögert erfolgen.
+     * Kann jederzeit geändert werden.
+     *
+     * @param value <code>true</code>, um zu synchronisieren (Standard), sonst <code>false</code>.
+     */
+    @API
+    public static void setDisplaySync(boolean value) {
+        displaySync = value;
+
+        if (renderPanel != null) {
+            renderPanel.setDisplaySync(value);
+        }
+    }
+
+    /**
+     * Gibt die durchschnittliche Eingabelatenz aus: Die Zeit vom Eintreffen einer Eingabe (Taste oder Maus) bis
+     * das erste Bild, das die Eingabe berücksichtigt, an den Bildschirm übergeben wurde.
+     *
+     * @return Die durchschnittliche Eingabelatenz in Sekunden, <code>0</code>, solange noch keine Eingabe erfolgt ist.
+     */
+    @API
+    public static float getInputLatency() {
+        return presentationMonitor.getInputLatency();
+    }
+
+    /**
+     * Gibt aus, wie lange die Übergabe eines Bildes an den Bildschirm durchschnittlich blockiert.
+     *
+     * @return Die durchschnittliche Dauer in Sekunden.
+     *
+     * @see #setDisplaySync(boolean)
+     * @see #setPageFlipping(boolean)
+     */
+    @API
+    public static float getPresentDuration() {
+        return presentationMonitor.getPresentDuration();
+    }
+
+    /**
+     * Beginnt, alle Eingaben zusammen mit der Dauer jedes Frames aufzuzeichnen. Wird die Aufzeichnung vor
+     * {@link #start(int, int, Scene)} begonnen, enthält sie die gesamte Sitzung und kann später mit
+     * {@link #replay(String, float)} exakt wiederholt werden.
+     *
+     * @param filename Die Datei, in die aufgezeichnet wird. Wird überschrieben, falls sie existiert.
+     *
+     * @see #stopRecording()
+     */
+    @API
+    public static void startRecording(String filename) {
+        InputRecorder newRecorder;
+
+        try {
+            newRecorder = new InputRecorder(Paths.get(filename), () -> mousePosition);
+        } catch (IOException e) {
+            throw new RuntimeException("Die Aufzeichnung konnte nicht angelegt werden: " + filename, e);
+        }
+
+        recorder = newRecorder;
+
+        if (gameLogic != null) {
+            gameLogic.setRecorder(newRecorder);
+        }
+    }
+
+    /**
+     * Beendet die laufende Aufzeichnung. Die Datei ist vollständig geschrieben, sobald der nächste Frame beginnt.
+     * Beim Beenden des Spiels wird eine laufende Aufzeichnung automatisch abgeschlossen.
+     */
+    @API
+    public static void stopRecording() {
+        recorder = null;
+
+        if (gameLogic != null) {
+            gameLogic.setRecorder(null);
+        }
+    }
+
+    /**
+     * Spielt eine mit {@link #startRecording(String)} erstellte Aufzeichnung ab, statt echte Eingaben zu verarbeiten.
+     * Jeder Frame wird mit der aufgezeichneten Dauer gerechnet. Muss vor {@link #start(int, int, Scene)} aufgerufen
+     * werden, und das Spiel muss genauso gestartet werden wie bei der Aufzeichnung. Nach dem Ende der Aufzeichnung
+     * werden wieder echte Eingaben verarbeitet.
+     *
+     * @param filename Die Aufzeichnung.
+     * @param speed    Geschwindigkeit relativ zur Echtzeit, z.B. <code>4</code> für vierfache Geschwindigkeit oder
+     *                 <code>0</code> für so schnell wie möglich.
+     */
+    @API
+    public static void replay(String filename, float speed) {
+        if (speed < 0) {
+            throw new IllegalArgumentException("Die Geschwindigkeit darf nicht negativ sein, war " + speed);
+        }
+
+        assertNotStarted();
+
+        try {
+            replay = new InputReplay(Paths.get(filename));
+        } catch (IOException e) {
+            throw new RuntimeException("Die Aufzeichnung konnte nicht gelesen werden: " + filename, e);
+        }
+
+        replaySpeed = speed;
+    }
+
+    /**
+     * Simuliert die Szene der Sitzung ab dem nächsten Frame deterministisch in festen Ticks, statt in Echtzeit.
+     * Eingaben müssen dann über die Sitzung verarbeitet werden, siehe {@link LockstepSession}.
+     *
+     * @param session Die Sitzung oder <code>null</code>, um wieder in Echtzeit zu simulieren.
+     */
+    @API
+    public static void setLockstep(LockstepSession session) {
+        lockstep = session;
+
+        if (gameLogic != null) {
+            gameLogic.setLockstep(session);
+        }
+    }
+
+    private static boolean isReplaying() {
+        return gameLogic != null && gameLogic.getReplay() != null;
+    }
+
+    private static void assertNotStarted() {
+        if (renderPanel != null) {
+            throw new IllegalStateException("Diese Einstellung muss vor Game.start vorgenommen werden");
+        }
+    }
+
     /**
      * Gibt die Fenstergröße <b>in Pixel</b> aus.
      *
@@ -155,7 +415,8 @@ public final class Game {
         Game.height = height;
         Game.scene = scene;
 
-        renderPanel = new RenderPanel(width, height);
+        renderPanel = new RenderPanel(width, height, presentationMonitor);
+        renderPanel.setDisplaySync(displaySync);
 
         frame.setResizable(false);
         frame.add(renderPanel);
@@ -167,7 +428,7 @@ public final class Game {
         // pack() already allows to create the buffer strategy for rendering (but not on Windows?)
         frame.setVisible(true);
 
-        renderPanel.allocateBuffers();
+        renderPanel.allocateBuffers(bufferCount, pageFlipping);
 
         frame.addWindowListener(new WindowAdapter() {
             @Override
@@ -203,7 +464,18 @@ public final class Game {
     }
 
     private static void run() {
-        gameLogic = new GameLogic(renderPanel, Game::getActiveScene, Game::isDebug);
+        GameLogic logic = new GameLogic(renderPanel, Game::getActiveScene, Game::isDebug, presentationMonitor);
+
+        if (replay != null) {
+            logic.setReplay(replay, replaySpeed);
+        }
+
+        logic.setLockstep(lockstep);
+        logic.setInputSources(pressedKeys, () -> mousePosition);
+
+        gameLogic = logic;
+        gameLogic.setRecorder(recorder);
+        gameLogic.setFrameRecorder(frameRecorder);
         gameLogic.run();
 
         frame.setVisible(false);
@@ -212,8 +484,21 @@ public final class Game {
         System.exit(0);
     }
 
+    /**
+     * Rechnet eine Mausposition im Fenster in eine Position auf der Hauptebene um. Liegen Viewports im Fenster, wird
+     * über die Kamera des Viewports unter der Maus gerechnet, sonst und zwischen den Viewports über
+     * {@link Scene#getCamera()}.
+     */
     @Internal
     public static Vector convertMousePosition(Scene scene, java.awt.Point mousePosition) {
+        if (scene.hasFrameViewports()) {
+            Vector position = scene.convertViewportPosition(mousePosition.x, mousePosition.y, width, height);
+
+            if (position != null) {
+                return position;
+            }
+        }
+
         // Finde Klick auf Zeichenebene, die Position relativ zum Ursprung des RenderPanel-Canvas.
         // Mausklick-Position muss mit Zoom-Wert verrechnet werden
         float zoom = scene.getCamera().getZoom();
@@ -230,20 +515,77 @@ public final class Game {
      * @param mouseWheelEvent das Event.
      */
     private static void enqueueMouseWheelEvent(java.awt.event.MouseWheelEvent mouseWheelEvent) {
-        MouseWheelEvent mouseWheelAction = new MouseWheelEvent((float) mouseWheelEvent.getPreciseWheelRotation());
-        gameLogic.enqueue(() -> scene.invokeMouseWheelMoveListeners(mouseWheelAction));
+        if (isReplaying()) {
+            return;
+        }
+
+        presentationMonitor.inputReceived();
+
+        gameLogic.getInputQueue().addMouseWheelRotation((float) mouseWheelEvent.getPreciseWheelRotation());
     }
 
     /**
-     * TODO : Dokumentation!
+     * Wechselt zu Beginn des nächsten Frames zu einer anderen Szene.
+     *
+     * @param scene Die neue Szene. Bei <code>null</code> wird zu einer leeren Szene gewechselt.
+     *
+     * @see #prepareScene(Supplier)
      */
     @API
     public static void transitionToScene(Scene scene) {
-        if (scene == null) {
-            gameLogic.enqueue(() -> Game.scene = new Scene());
-        } else {
-            gameLogic.enqueue(() -> Game.scene = scene);
+        transitionToScene(scene, 0);
+    }
+
+    /**
+     * Wechselt zu Beginn des nächsten Frames zu einer anderen Szene und blendet das letzte Bild der bisherigen Szene
+     * dabei langsam aus.
+     *
+     * @param scene            Die neue Szene. Bei <code>null</code> wird zu einer leeren Szene gewechselt.
+     * @param crossFadeSeconds Dauer der Überblendung in Sekunden, bei <code>0</code> wird hart geschnitten.
+     *
+     * @see #prepareScene(Supplier)
+     */
+    @API
+    public static void transitionToScene(Scene scene, float crossFadeSeconds) {
+        if (crossFadeSeconds < 0) {
+            throw new IllegalArgumentException("Die Dauer der Überblendung darf nicht negativ sein, war " + crossFadeSeconds);
         }
+
+        Scene next = scene == null ? new Scene() : scene;
+
+        gameLogic.enqueue(() -> {
+            gameLogic.startCrossFade(Game.scene, crossFadeSeconds);
+            Game.scene = next;
+        });
+    }
+
+    /**
+     * Erstellt eine Szene in einem Hintergrund-Thread und bereitet sie auf ihren ersten Frame vor, sodass der
+     * anschließende Wechsel nicht ruckelt: Bilder und Schriften werden schon beim Erstellen geladen, angemeldete
+     * Actors übernommen, die Physik-Welt vorbereitet und die Szene einmal unsichtbar gezeichnet.
+     * <p>
+     * Die Szene wird dabei nicht aktiv, z.B. so:
+     * <pre>
+     * Game.prepareScene(Level2::new).thenAccept(scene -&gt; Game.transitionToScene(scene, 0.5f));
+     * </pre>
+     * Bis zum Wechsel laufen weder Frame-Update- noch Kollisions-Listener der neuen Szene. Die Fabrik darf nicht auf
+     * die aktive Szene zugreifen, da diese parallel im Spiel-Thread weiterläuft.
+     *
+     * @param factory Erstellt die Szene, läuft im Hintergrund-Thread.
+     *
+     * @return Wird mit der vorbereiteten Szene erfüllt oder mit der Exception der Fabrik abgebrochen.
+     */
+    @API
+    public static CompletableFuture<Scene> prepareScene(Supplier<Scene> factory) {
+        int width = Game.width;
+        int height = Game.height;
+
+        return CompletableFuture.supplyAsync(() -> {
+            Scene scene = factory.get();
+            scene.prepare(width, height);
+
+            return scene;
+        }, scenePreparation);
     }
 
     /**
@@ -270,7 +612,26 @@ public final class Game {
      */
     @API
     public static boolean isKeyPressed(int keyCode) {
-        return pressedKeys.contains(keyCode);
+        InputReplay currentReplay = gameLogic == null ? null : gameLogic.getReplay();
+
+        if (currentReplay != null) {
+            return currentReplay.isKeyPressed(keyCode);
+        }
+
+        return pressedKeys.isPressed(keyCode);
+    }
+
+    /**
+     * Gibt den Zustand von Tastatur und Maus zu Beginn des aktuellen Frames zurück. Im Gegensatz zu
+     * {@link #isKeyPressed(int)} ändert er sich während eines Frames nicht und kennt auch Tasten, die seit dem
+     * letzten Frame gedrückt oder losgelassen wurden.
+     *
+     * @return Der Zustand. Das Objekt wird wiederverwendet und darf nur im Spiel-Thread gelesen werden. Wurde das
+     * Spiel noch nicht gestartet, ist die Rückgabe <code>null</code>.
+     */
+    @API
+    public static InputSnapshot getInput() {
+        return gameLogic == null ? null : gameLogic.getInput();
     }
 
     /**
@@ -411,6 +772,12 @@ public final class Game {
 
     @Internal
     public static java.awt.Point getMousePositionInFrame() {
+        InputReplay currentReplay = gameLogic == null ? null : gameLogic.getReplay();
+
+        if (currentReplay != null) {
+            return currentReplay.getMousePosition();
+        }
+
         return mousePosition;
     }
 
@@ -491,6 +858,60 @@ public final class Game {
         ImageWriter.writeImage(screenshot, filename);
     }
 
+    /**
+     * Beginnt, jeden gezeichneten Frame aufzuzeichnen. Die Frames werden im Hintergrund kodiert, das Spiel wartet
+     * nicht darauf. Kommen die Kodierer nicht hinterher, werden einzelne Frames verworfen.
+     *
+     * @param filename Endet der Name auf <code>.avi</code>, wird ein MJPEG-Video geschrieben, sonst eine PNG-Folge
+     *                 in das Verzeichnis mit diesem Namen.
+     *
+     * @see #stopVideoRecording()
+     */
+    @API
+    public static void startVideoRecording(String filename) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalStateException("Die Bildaufzeichnung kann erst nach dem Start des Spiels beginnen");
+        }
+
+        FrameRecorder.Format format = filename.toLowerCase().endsWith(".avi") ? FrameRecorder.Format.MJPEG_AVI : FrameRecorder.Format.PNG_SEQUENCE;
+        FrameRecorder newRecorder;
+
+        try {
+            newRecorder = new FrameRecorder(Paths.get(filename), format, width, height, VIDEO_FRAMES_PER_SECOND);
+        } catch (IOException e) {
+            throw new RuntimeException("Die Bildaufzeichnung konnte nicht angelegt werden: " + filename, e);
+        }
+
+        frameRecorder = newRecorder;
+
+        if (gameLogic != null) {
+            gameLogic.setFrameRecorder(newRecorder);
+        }
+    }
+
+    /**
+     * Beendet die laufende Bildaufzeichnung. Noch ausstehende Frames werden im Hintergrund fertig geschrieben.
+     */
+    @API
+    public static void stopVideoRecording() {
+        frameRecorder = null;
+
+        if (gameLogic != null) {
+            gameLogic.setFrameRecorder(null);
+        }
+    }
+
+    /**
+     * @return Durchschnittliche Zeit in Sekunden, die die Bildaufzeichnung den Spiel-Thread pro Frame kostet, oder
+     * <code>0</code>, wenn nicht aufgezeichnet wird.
+     */
+    @API
+    public static float getVideoCaptureDuration() {
+        FrameRecorder current = frameRecorder;
+
+        return current == null ? 0 : current.getCaptureDuration();
+    }
+
     @SuppressWarnings ( "AssignmentToStaticFieldFromInstanceMethod" )
     private static class MouseListener extends MouseAdapter {
         @Override
@@ -519,6 +940,10 @@ public final class Game {
         }
 
         private void enqueueMouseEvent(MouseEvent e, boolean down) {
+            if (isReplaying()) {
+                return;
+            }
+
             Vector sourcePosition = convertMousePosition(scene, e.getPoint());
             MouseButton button;
 
@@ -536,13 +961,9 @@ public final class Game {
                     return;
             }
 
-            gameLogic.enqueue(() -> {
-                if (down) {
-                    scene.invokeMouseDownListeners(sourcePosition, button);
-                } else {
-                    scene.invokeMouseUpListeners(sourcePosition, button);
-                }
-            });
+            presentationMonitor.inputReceived();
+
+            gameLogic.getInputQueue().pushMouseButton(sourcePosition, button, down);
         }
     }
 
@@ -562,25 +983,21 @@ public final class Game {
                 Game.exit();
             }
 
-            boolean pressed = pressedKeys.contains(e.getKeyCode());
+            if (isReplaying()) {
+                return;
+            }
 
             if (down) {
-                if (pressed) {
+                if (!pressedKeys.press(e.getKeyCode())) {
                     return; // Ignore duplicate presses, because they're system dependent
                 }
-
-                pressedKeys.add(e.getKeyCode());
             } else {
-                pressedKeys.remove(e.getKeyCode());
+                pressedKeys.release(e.getKeyCode());
             }
 
-            gameLogic.enqueue(() -> {
-                if (down) {
-                    scene.invokeKeyDownListeners(e);
-                } else {
-                    scene.invokeKeyUpListeners(e);
-                }
-            });
+            presentationMonitor.inputReceived();
+
+            gameLogic.getInputQueue().pushKey(e, down);
         }
     }
 }
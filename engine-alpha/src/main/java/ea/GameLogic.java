@@ -19,13 +19,27 @@
 
 package ea;
 
+import ea.event.MouseButton;
+import ea.event.MouseWheelEvent;
 import ea.internal.DebugInfo;
 import ea.internal.annotations.Internal;
+import ea.internal.graphics.PresentationMonitor;
 import ea.internal.graphics.RenderTarget;
+import ea.internal.input.InputQueue;
+import ea.internal.input.InputRecorder;
+import ea.internal.input.InputReplay;
+import ea.internal.input.KeyStates;
+import ea.internal.io.FrameRecorder;
+import ea.internal.monitoring.EngineStatistics;
+import ea.internal.monitoring.FrameEvent;
+import ea.internal.util.Logger;
 
 import java.awt.*;
+import java.awt.event.KeyEvent;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
@@ -38,6 +52,8 @@ public final class GameLogic {
     private static final Color COLOR_FPS_BORDER = new Color(0, 106, 214);
     private static final Color COLOR_BODY_COUNT_BORDER = new Color(0, 214, 84);
     private static final Color COLOR_BODY_COUNT_BACKGROUND = new Color(255, 255, 255, 50);
+    private static final Color COLOR_LATENCY_BORDER = new Color(214, 130, 0);
+    private static final Color COLOR_LATENCY_BACKGROUND = new Color(255, 255, 255, 50);
     private static final int DEBUG_INFO_HEIGHT = 20;
     private static final int DEBUG_INFO_LEFT = 10;
     private static final int DEBUG_INFO_TEXT_OFFSET = 16;
@@ -50,6 +66,28 @@ public final class GameLogic {
 
     private static final int NANOSECONDS_PER_SECOND = 1000000000;
 
+    /**
+     * Die Spiellogik, deren {@link #run()} im aktuellen Thread läuft.
+     */
+    private static final ThreadLocal<GameLogic> RUNNING_LOGIC = new ThreadLocal<>();
+
+    /**
+     * Gelten für alles, was gezeichnet wird, und müssen zu {@link Game#writeScreenshot(String)} passen.
+     */
+    static final RenderingHints RENDERING_HINTS = new RenderingHints(null);
+
+    static {
+        RENDERING_HINTS.put(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        RENDERING_HINTS.put(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        RENDERING_HINTS.put(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+    }
+
+    /**
+     * Spätestens nach so vielen Frames ohne Änderung wird bei inkrementellem Zeichnen wieder ein Bild übergeben, z.B.
+     * falls das Fenster zwischenzeitlich verdeckt war.
+     */
+    private static final int MAX_SKIPPED_PRESENTS = 30;
+
     private final ExecutorService threadPoolExecutor = Executors.newCachedThreadPool();
 
     private final RenderTarget render;
@@ -57,54 +95,342 @@ public final class GameLogic {
     private final Supplier<Scene> currentScene;
     private final Supplier<Boolean> isDebug;
 
+    private final PresentationMonitor presentationMonitor;
+
     /**
      * Queue aller Dispatchables, die im nächsten Frame ausgeführt werden.
      */
     private final Queue<Runnable> dispatchableQueue = new ConcurrentLinkedQueue<>();
 
+    /**
+     * Eingaben von Tastatur und Maus, die im nächsten Frame ausgeliefert werden.
+     */
+    private final InputQueue inputQueue = new InputQueue();
+
+    private final InputSnapshot input = new InputSnapshot();
+
+    private KeyStates keyStates = new KeyStates();
+
+    private Supplier<Point> mousePosition = () -> null;
+
+    /**
+     * Summe der Mausrad-Drehungen, die im letzten Frame ausgeliefert wurden.
+     */
+    private float dispatchedWheelRotation = 0;
+
     private float frameDuration;
 
-    public GameLogic(RenderTarget render, Supplier<Scene> currentScene, Supplier<Boolean> isDebug) {
+    private int skippedPresents = 0;
+
+    /**
+     * Vom Benutzer gewünschte Aufzeichnung, wird zu Beginn des nächsten Frames übernommen.
+     */
+    private volatile InputRecorder requestedRecorder;
+
+    /**
+     * Aktive Aufzeichnung, nur im Spiel-Thread verwendet.
+     */
+    private InputRecorder recorder;
+
+    private volatile InputReplay replay;
+
+    /**
+     * Vom Benutzer gewünschte Bildaufzeichnung, wird zu Beginn des nächsten Frames übernommen.
+     */
+    private volatile FrameRecorder requestedFrameRecorder;
+
+    /**
+     * Aktive Bildaufzeichnung, nur im Spiel-Thread verwendet.
+     */
+    private FrameRecorder frameRecorder;
+
+    /**
+     * Abspielgeschwindigkeit einer Aufzeichnung relativ zur Echtzeit, <code>0</code> für so schnell wie möglich.
+     */
+    private volatile float replaySpeed = 1;
+
+    /**
+     * Ist dieser Wert <code>true</code>, endet {@link #run()} mit dem Ende der Aufzeichnung.
+     */
+    private boolean stopAfterReplay = false;
+
+    /**
+     * Deterministische Mehrspieler-Sitzung, die statt der Echtzeit-Simulation die Szene weiterrechnet.
+     */
+    private volatile LockstepSession lockstep;
+
+    /**
+     * Szene, deren letztes Bild gerade ausgeblendet wird, sonst <code>null</code>. Nur im Spiel-Thread verwendet.
+     */
+    private Scene fadeScene;
+
+    /**
+     * Letztes Bild von {@link #fadeScene}, wird beim ersten Zeichnen nach dem Wechsel erstellt.
+     */
+    private BufferedImage fadeImage;
+
+    private float fadeDuration;
+
+    private float fadeRemaining;
+
+    public GameLogic(RenderTarget render, Supplier<Scene> currentScene, Supplier<Boolean> isDebug, PresentationMonitor presentationMonitor) {
         this.render = render;
         this.currentScene = currentScene;
         this.isDebug = isDebug;
+        this.presentationMonitor = presentationMonitor;
     }
 
     public void enqueue(Runnable runnable) {
         dispatchableQueue.add(runnable);
     }
 
+    /**
+     * @return Die Warteschlange für Eingaben von Tastatur und Maus.
+     */
+    public InputQueue getInputQueue() {
+        return inputQueue;
+    }
+
+    /**
+     * Setzt die Quellen, aus denen zu Beginn jedes Frames der {@link InputSnapshot} gefüllt wird.
+     *
+     * @param keyStates     Zustand der Tasten.
+     * @param mousePosition Liefert die Mausposition im Fenster.
+     */
+    public void setInputSources(KeyStates keyStates, Supplier<Point> mousePosition) {
+        this.keyStates = keyStates;
+        this.mousePosition = mousePosition;
+    }
+
+    /**
+     * @return Zustand der Eingabegeräte zu Beginn des aktuellen Frames.
+     */
+    public InputSnapshot getInput() {
+        return input;
+    }
+
+    /**
+     * Spielt eine Aufzeichnung ohne Fenster und ohne Rendern so schnell wie möglich ab, z.B. um eine Sitzung zu
+     * profilen oder als Regressions-Benchmark. Blockiert, bis die Aufzeichnung zu Ende ist.
+     *
+     * @param scene  Die Szene, in dem Zustand, in dem die Aufzeichnung begonnen wurde.
+     * @param replay Die abzuspielende Aufzeichnung.
+     */
+    public static void replayHeadless(Scene scene, InputReplay replay) {
+        GameLogic gameLogic = new GameLogic(source -> {
+            // kein Rendern
+        }, () -> scene, () -> false, new PresentationMonitor());
+
+        gameLogic.setReplay(replay, 0);
+        gameLogic.setStopAfterReplay(true);
+        gameLogic.run();
+    }
+
+    /**
+     * @param stopAfterReplay Ob {@link #run()} endet, sobald die laufende Aufzeichnung zu Ende abgespielt ist.
+     */
+    public void setStopAfterReplay(boolean stopAfterReplay) {
+        this.stopAfterReplay = stopAfterReplay;
+    }
+
+    /**
+     * Startet oder beendet die Aufzeichnung der Eingaben. Wirksam ab dem nächsten Frame.
+     *
+     * @param recorder Neue Aufzeichnung oder <code>null</code>, um die laufende zu beenden.
+     */
+    public void setRecorder(InputRecorder recorder) {
+        requestedRecorder = recorder;
+    }
+
+    /**
+     * Startet oder beendet die Aufzeichnung der gezeichneten Frames. Wirksam ab dem nächsten Frame.
+     *
+     * @param frameRecorder Neue Aufzeichnung oder <code>null</code>, um die laufende zu beenden.
+     */
+    public void setFrameRecorder(FrameRecorder frameRecorder) {
+        requestedFrameRecorder = frameRecorder;
+    }
+
+    /**
+     * Setzt eine Aufzeichnung, die statt der echten Eingaben abgespielt wird.
+     *
+     * @param replay Die Aufzeichnung.
+     * @param speed  Geschwindigkeit relativ zur Echtzeit, <code>0</code> für so schnell wie möglich.
+     */
+    public void setReplay(InputReplay replay, float speed) {
+        this.replaySpeed = speed;
+        this.replay = replay;
+    }
+
+    /**
+     * Setzt die Sitzung, mit der ihre Szene in festen Ticks simuliert wird. Andere Szenen laufen weiter in Echtzeit.
+     *
+     * @param lockstep Die Sitzung oder <code>null</code>.
+     */
+    public void setLockstep(LockstepSession lockstep) {
+        this.lockstep = lockstep;
+    }
+
+    /**
+     * @return Die laufende Aufzeichnung, die abgespielt wird, sonst <code>null</code>.
+     */
+    public InputReplay getReplay() {
+        return replay;
+    }
+
+    public void dispatchKeyEvent(KeyEvent e, boolean down) {
+        if (recorder != null) {
+            recorder.recordKey(e.getKeyCode(), e.getKeyChar(), down);
+        }
+
+        if (down) {
+            currentScene.get().invokeKeyDownListeners(e);
+        } else {
+            currentScene.get().invokeKeyUpListeners(e);
+        }
+    }
+
+    public void dispatchMouseEvent(Vector position, MouseButton button, boolean down) {
+        if (recorder != null) {
+            recorder.recordMouseButton(position, button, down);
+        }
+
+        if (down) {
+            currentScene.get().invokeMouseDownListeners(position, button);
+        } else {
+            currentScene.get().invokeMouseUpListeners(position, button);
+        }
+    }
+
+    public void dispatchMouseWheelEvent(MouseWheelEvent mouseWheelEvent) {
+        if (recorder != null) {
+            recorder.recordMouseWheel(mouseWheelEvent.getPreciseWheelRotation());
+        }
+
+        currentScene.get().invokeMouseWheelMoveListeners(mouseWheelEvent);
+    }
+
+    /**
+     * @return <code>true</code>, wenn der aufrufende Thread eine Spielschleife ausführt, also z.B. aus einem
+     * {@link FrameUpdateListener} heraus. Wer hier auf den nächsten Frame wartet, wartet ewig.
+     */
+    public static boolean isGameThread() {
+        return RUNNING_LOGIC.get() != null;
+    }
+
     public void run() {
         this.frameDuration = DESIRED_FRAME_DURATION;
 
+        RUNNING_LOGIC.set(this);
+
+        EngineStatistics.register();
+
         long frameStart = System.nanoTime();
         long frameEnd;
 
         while (!Thread.currentThread().isInterrupted()) {
             Scene scene = this.currentScene.get();
 
+            FrameEvent frameEvent = new FrameEvent();
+            frameEvent.begin();
+
             try {
                 float deltaSeconds = Math.min(2 * DESIRED_FRAME_DURATION, frameDuration);
+                float desiredFrameDuration = DESIRED_FRAME_DURATION;
+
+                InputReplay replay = this.replay;
+
+                if (replay != null) {
+                    float recordedDelta = replay.nextFrame();
+
+                    if (recordedDelta < 0) {
+                        Logger.info("Replay", "Aufzeichnung nach " + replay.getFrameCount() + " Frames zu Ende abgespielt");
+                        this.replay = replay = null;
+
+                        if (stopAfterReplay) {
+                            break;
+                        }
+                    } else {
+                        deltaSeconds = recordedDelta;
+                        desiredFrameDuration = replaySpeed == 0 ? 0 : recordedDelta / replaySpeed;
+                    }
+                }
+
+                if (replay != null) {
+                    input.update(replay.getKeyStates(), replay.getMousePosition(), replay.getWheelRotation());
+                } else {
+                    input.update(keyStates, mousePosition.get(), dispatchedWheelRotation);
+                }
+
+                boolean recordingStarted = updateRecorder();
+                updateFrameRecorder(false);
+
+                if (recorder != null) {
+                    recorder.beginFrame(deltaSeconds);
+
+                    if (recordingStarted) {
+                        // Alle Generatoren an den Anfang ihrer Folge setzen, damit das Abspielen ab hier übereinstimmt
+                        long seed = Random.getSeed();
+                        Random.setSeed(seed);
+                        recorder.recordSeed(seed);
+                    }
+                }
+
+                LockstepSession lockstep = this.lockstep;
+
+                if (lockstep != null && lockstep.getScene() == scene) {
+                    stepLockstep(lockstep, deltaSeconds);
+                    scene.updateCameras();
+                } else {
+                    scene.step(deltaSeconds, threadPoolExecutor::submit);
+                    scene.updateCameras();
+                    scene.invokeFrameUpdateListeners(deltaSeconds);
+                }
+
+                if (fadeScene != null) {
+                    fadeRemaining -= deltaSeconds;
+
+                    if (fadeRemaining <= 0) {
+                        fadeScene = null;
+                        fadeImage = null;
+                    }
+                }
+
+                // Alle bis hierhin eingetroffenen Eingaben werden in diesem Frame verarbeitet
+                long inputTimestamp = presentationMonitor.takePendingInput();
+
+                // Aufgezeichnete Eingaben an derselben Stelle wie echte, damit von ihnen eingereihte Aufgaben
+                // (z.B. ein Szenenwechsel) noch im selben Frame laufen
+                if (replay != null) {
+                    replay.dispatchEvents(this);
+                }
+
+                dispatchedWheelRotation = inputQueue.drain(this);
 
-                scene.step(deltaSeconds, threadPoolExecutor::submit);
-                scene.getCamera().onFrameUpdate();
-                scene.invokeFrameUpdateListeners(deltaSeconds);
+                long dispatchStart = frameEvent.isEnabled() ? System.nanoTime() : 0;
+                int dispatchedTasks = 0;
 
                 Runnable runnable = dispatchableQueue.poll();
                 while (runnable != null) {
                     runnable.run();
+                    dispatchedTasks++;
                     runnable = dispatchableQueue.poll();
                 }
 
+                long dispatchDuration = frameEvent.isEnabled() ? System.nanoTime() - dispatchStart : 0;
+
                 render();
 
+                presentationMonitor.framePresented(inputTimestamp);
+
                 frameEnd = System.nanoTime();
+                long sleepStart = frameEnd;
                 float duration = (float) (frameEnd - frameStart) / NANOSECONDS_PER_SECOND;
 
-                if (duration < DESIRED_FRAME_DURATION) {
+                if (duration < desiredFrameDuration) {
                     try {
                         //noinspection BusyWait
-                        Thread.sleep((int) (1000 * (DESIRED_FRAME_DURATION - duration)));
+                        Thread.sleep((int) (1000 * (desiredFrameDuration - duration)));
                     } catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
                         break;
@@ -114,6 +440,18 @@ public final class GameLogic {
                 frameEnd = System.nanoTime();
                 frameDuration = ((float) (frameEnd - frameStart) / NANOSECONDS_PER_SECOND);
 
+                EngineStatistics.frameFinished(frameEnd - frameStart, frameEnd - sleepStart, dispatchedTasks);
+                frameEvent.end();
+
+                if (frameEvent.shouldCommit()) {
+                    frameEvent.frame = EngineStatistics.get().getFrameCount();
+                    frameEvent.deltaTime = (long) (deltaSeconds * NANOSECONDS_PER_SECOND);
+                    frameEvent.sleepDuration = frameEnd - sleepStart;
+                    frameEvent.dispatchDuration = dispatchDuration;
+                    frameEvent.dispatchedTasks = dispatchedTasks;
+                    frameEvent.commit();
+                }
+
                 frameStart = frameEnd;
             } catch (InterruptedException e) {
                 break;
@@ -122,6 +460,14 @@ public final class GameLogic {
             }
         }
 
+        RUNNING_LOGIC.remove();
+
+        requestedRecorder = null;
+        updateRecorder();
+
+        requestedFrameRecorder = null;
+        updateFrameRecorder(true);
+
         threadPoolExecutor.shutdown();
 
         try {
@@ -132,12 +478,126 @@ public final class GameLogic {
         }
     }
 
+    /**
+     * Blendet beim Szenenwechsel das letzte Bild der bisherigen Szene über die angegebene Dauer aus. Muss im
+     * Spiel-Thread aufgerufen werden, bevor die neue Szene aktiv wird.
+     *
+     * @param previous Die bisherige Szene.
+     * @param seconds  Dauer der Überblendung, bei <code>0</code> wird hart geschnitten.
+     */
+    public void startCrossFade(Scene previous, float seconds) {
+        fadeImage = null;
+
+        if (seconds <= 0 || previous == null) {
+            fadeScene = null;
+
+            return;
+        }
+
+        fadeScene = previous;
+        fadeDuration = seconds;
+        fadeRemaining = seconds;
+    }
+
+    private void stepLockstep(LockstepSession lockstep, float deltaSeconds) {
+        try {
+            lockstep.update(deltaSeconds);
+        } catch (IOException e) {
+            Logger.error("Lockstep", "Verbindung zu den anderen Spielern verloren, die Szene läuft lokal weiter: " + e.getMessage());
+            this.lockstep = null;
+        }
+    }
+
+    /**
+     * Übernimmt eine neu angeforderte Aufzeichnung.
+     *
+     * @return <code>true</code>, wenn eine neue Aufzeichnung begonnen wurde.
+     */
+    private boolean updateRecorder() {
+        InputRecorder requested = requestedRecorder;
+
+        if (recorder == requested) {
+            return false;
+        }
+
+        if (recorder != null) {
+            try {
+                recorder.close();
+                Logger.info("Replay", "Aufzeichnung mit " + recorder.getFrameCount() + " Frames beendet");
+            } catch (IOException e) {
+                Logger.error("Replay", "Aufzeichnung konnte nicht geschrieben werden: " + e.getMessage());
+            }
+        }
+
+        recorder = requested;
+
+        return recorder != null;
+    }
+
+    /**
+     * Übernimmt eine neu angeforderte Bildaufzeichnung. Die bisherige wird im Hintergrund abgeschlossen, damit der
+     * Spiel-Thread nicht auf ausstehende Frames warten muss.
+     *
+     * @param wait Ob auf den Abschluss der bisherigen Aufzeichnung gewartet werden soll, z.B. beim Beenden.
+     */
+    private void updateFrameRecorder(boolean wait) {
+        FrameRecorder requested = requestedFrameRecorder;
+
+        if (frameRecorder == requested) {
+            return;
+        }
+
+        if (frameRecorder != null) {
+            FrameRecorder finished = frameRecorder;
+            Runnable close = () -> {
+                try {
+                    finished.close();
+                    Logger.info("Recorder", String.format("Bildaufzeichnung mit %d Frames beendet, davon %d verworfen, %.2f ms pro Frame im Spiel-Thread", finished.getFrameCount(), finished.getDroppedFrames(), finished.getCaptureDuration() * 1000));
+                } catch (IOException e) {
+                    Logger.error("Recorder", "Bildaufzeichnung konnte nicht geschrieben werden: " + e.getMessage());
+                }
+            };
+
+            if (wait) {
+                close.run();
+            } else {
+                threadPoolExecutor.execute(close);
+            }
+        }
+
+        frameRecorder = requested;
+    }
+
     public void render(RenderTarget renderTarget) {
         renderTarget.render(this::render);
     }
 
     private void render() {
-        render.render(this::render);
+        Scene scene = currentScene.get();
+        IncrementalRenderer incremental = scene.getIncrementalRenderer();
+
+        scene.renderViewportTargets(RENDERING_HINTS);
+
+        if (incremental != null && !isDebug.get() && fadeScene == null && !scene.hasFrameViewports() && !incremental.update(scene) && skippedPresents < MAX_SKIPPED_PRESENTS && frameRecorder == null) {
+            skippedPresents++;
+
+            return; // Der Bildschirm zeigt bereits den aktuellen Stand
+        }
+
+        skippedPresents = 0;
+
+        if (frameRecorder != null) {
+            render.render(this::renderRecorded);
+        } else {
+            render.render(this::render);
+        }
+    }
+
+    /**
+     * Zeichnet den Frame einmal für die Aufzeichnung und kopiert ihn von dort ins Fenster.
+     */
+    private void renderRecorded(Graphics2D g, int width, int height) {
+        frameRecorder.capture(g, width, height, this::render);
     }
 
     /**
@@ -149,30 +609,77 @@ public final class GameLogic {
     private void render(Graphics2D g, int width, int height) {
         Scene scene = this.currentScene.get();
 
-        // have to be the same @ Game.screenshot!
-        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+        g.addRenderingHints(RENDERING_HINTS);
 
-        // Absoluter Hintergrund
-        g.setColor(scene.getBackgroundColor());
-        g.fillRect(0, 0, width, height);
-        g.setClip(0, 0, width, height);
+        IncrementalRenderer incremental = scene.getIncrementalRenderer();
+
+        if (incremental != null) {
+            if (!isDebug.get() && fadeScene == null && !scene.hasFrameViewports()) {
+                incremental.render(g, scene, width, height);
+                g.dispose();
+
+                return;
+            }
+
+            incremental.invalidate(); // Debug-Ausgaben und Überblendung liegen nicht im Zwischenspeicher
+        }
 
         AffineTransform transform = g.getTransform();
+        ParallelRenderer parallel = scene.getParallelRenderer();
 
-        scene.render(g, width, height);
+        if (scene.hasFrameViewports()) {
+            // Zwischenräume zwischen den Viewports
+            g.setColor(scene.getBackgroundColor());
+            g.fillRect(0, 0, width, height);
 
-        g.setTransform(transform);
+            scene.renderViewports(g, width, height);
+        } else if (parallel != null && !isDebug.get()) {
+            parallel.render(g, scene, width, height);
+        } else {
+            // Absoluter Hintergrund
+            g.setColor(scene.getBackgroundColor());
+            g.fillRect(0, 0, width, height);
+            g.setClip(0, 0, width, height);
+
+            scene.render(g, width, height);
+
+            g.setTransform(transform);
+        }
+
+        if (fadeScene != null) {
+            renderCrossFade(g, width, height);
+        }
 
         if (isDebug.get()) {
             renderGrid(g, scene, width, height);
-            renderInfo(g, new DebugInfo(frameDuration, currentScene.get().getWorldHandler().getWorld().getBodyCount()));
+            renderInfo(g, new DebugInfo(frameDuration, currentScene.get().getWorldHandler().getWorld().getBodyCount(), presentationMonitor.getInputLatency()));
         }
 
         g.dispose();
     }
 
+    /**
+     * Zeichnet das letzte Bild der bisherigen Szene teilweise durchsichtig über die neue Szene.
+     */
+    private void renderCrossFade(Graphics2D g, int width, int height) {
+        if (fadeImage == null || fadeImage.getWidth() != width || fadeImage.getHeight() != height) {
+            fadeImage = g.getDeviceConfiguration().createCompatibleImage(width, height);
+
+            Graphics2D fadeGraphics = fadeImage.createGraphics();
+            fadeGraphics.setRenderingHints(g.getRenderingHints());
+            fadeGraphics.setColor(fadeScene.getBackgroundColor());
+            fadeGraphics.fillRect(0, 0, width, height);
+            fadeScene.render(fadeGraphics, width, height);
+            fadeGraphics.dispose();
+        }
+
+        Composite composite = g.getComposite();
+
+        g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, Math.max(0, Math.min(1, fadeRemaining / fadeDuration))));
+        g.drawImage(fadeImage, 0, 0, null);
+        g.setComposite(composite);
+    }
+
     /**
      * Rendert Debug-Informationen auf dem Bildschirm.
      *
@@ -273,5 +780,19 @@ public final class GameLogic {
         g.setColor(Color.WHITE);
         g.setFont(displayFont);
         g.drawString(bodyMessage, DEBUG_INFO_LEFT + 10, y + 8 + fm.getHeight() - fm.getDescent());
+
+        y += fm.getHeight() + DEBUG_INFO_HEIGHT;
+
+        String latencyMessage = "Latenz: " + Math.round(debugInfo.getInputLatency() * 1000) + " ms";
+        bounds = fm.getStringBounds(latencyMessage, g);
+
+        g.setColor(COLOR_LATENCY_BORDER);
+        g.fillRect(DEBUG_INFO_LEFT, y, (int) bounds.getWidth() + DEBUG_INFO_HEIGHT, (int) bounds.getHeight() + DEBUG_INFO_TEXT_OFFSET);
+        g.setColor(COLOR_LATENCY_BACKGROUND);
+        g.drawRect(DEBUG_INFO_LEFT, y, (int) bounds.getWidth() + DEBUG_INFO_HEIGHT - 1, (int) bounds.getHeight() + DEBUG_INFO_TEXT_OFFSET - 1);
+
+        g.setColor(Color.WHITE);
+        g.setFont(displayFont);
+        g.drawString(latencyMessage, DEBUG_INFO_LEFT + 10, y + 8 + fm.getHeight() - fm.getDescent());
     }
 }
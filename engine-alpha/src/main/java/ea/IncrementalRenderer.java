@@ -0,0 +1,386 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea;
+
+import ea.actor.Actor;
+import ea.internal.annotations.Internal;
+import org.jbox2d.collision.AABB;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Zeichnet eine Szene inkrementell in einen dauerhaften Zwischenspeicher: Pro Frame werden nur die Bereiche neu
+ * gezeichnet, in denen sich ein Actor bewegt, gedreht, seine Sichtbarkeit, Deckkraft, Ebene oder sein Aussehen
+ * ({@link Actor#invalidateAppearance()}) geändert hat. Neu gezeichnet wird jeweils die alte und die neue
+ * Bildschirmfläche des Actors.
+ * <p>
+ * Die Fläche eines Actors liefert {@link Actor#computeRenderBounds(AABB)} (plus {@link #PADDING} Pixel für
+ * Kantenglättung), standardmäßig aus seinen Physik-Formen. Ist sie unbekannt, zeichnet jede Änderung des Actors das
+ * ganze Bild neu. Bewegt sich die Kamera, ändern sich die Flächen aller Actors, und die Szene wird vollständig neu
+ * gezeichnet.
+ *
+ * @see Scene#setIncrementalRendering(boolean)
+ */
+@Internal
+final class IncrementalRenderer {
+    /**
+     * Zusätzlicher Rand um jede Fläche in Pixeln.
+     */
+    private static final int PADDING = 2;
+
+    /**
+     * Ab so vielen Bereichen werden alle zu einem zusammengefasst.
+     */
+    private static final int MAX_REGIONS = 16;
+
+    /**
+     * Ab diesem Anteil der Bildschirmfläche wird alles neu gezeichnet.
+     */
+    private static final float FULL_REDRAW_RATIO = 0.5f;
+
+    private static final class ActorState {
+        private int x0, y0, x1, y1;
+        private boolean onScreen;
+        private float rotation;
+        private float opacity;
+        private int appearance;
+        private int layerIndex;
+        private int layerPosition;
+        private int frame;
+    }
+
+    private final Map<Actor, ActorState> states = new IdentityHashMap<>();
+
+    private BufferedImage buffer;
+    private int width, height;
+
+    private boolean fullRedraw = true;
+
+    /**
+     * Bereiche als x0, y0, x1, y1 (exklusiv) in Bildschirmkoordinaten.
+     */
+    private final int[] regions = new int[MAX_REGIONS * 4];
+    private int regionCount = 0;
+
+    /**
+     * Ob die Änderungen seit dem letzten Zeichnen bereits erfasst wurden.
+     */
+    private boolean collected = false;
+
+    private int frame = 0;
+    private int backgroundRgb;
+
+    private long repaintedPixels;
+
+    private final AffineTransform transform = new AffineTransform();
+    private final AABB shapeBounds = new AABB();
+    private final float[] corners = new float[8];
+    private final int[] rect = new int[4];
+
+    /**
+     * Erzwingt, dass beim nächsten Zeichnen alles neu gezeichnet wird.
+     */
+    void invalidate() {
+        fullRedraw = true;
+    }
+
+    /**
+     * Erfasst die Änderungen seit dem letzten Frame.
+     *
+     * @return <code>true</code>, wenn etwas neu gezeichnet werden muss. Sonst zeigt der Bildschirm bereits den
+     * aktuellen Stand.
+     */
+    boolean update(Scene scene) {
+        if (buffer == null) {
+            fullRedraw = true;
+
+            return true;
+        }
+
+        collect(scene);
+        collected = true;
+
+        return fullRedraw || regionCount > 0;
+    }
+
+    /**
+     * Zeichnet die geänderten Bereiche in den Zwischenspeicher und diesen vollständig auf das Ziel.
+     */
+    void render(Graphics2D g, Scene scene, int width, int height) {
+        if (buffer == null || width != this.width || height != this.height) {
+            buffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            this.width = width;
+            this.height = height;
+
+            fullRedraw = true;
+        }
+
+        if (!collected) {
+            collect(scene);
+        }
+
+        collected = false;
+
+        long area = 0;
+
+        for (int i = 0; i < regionCount; i++) {
+            area += (long) (regions[4 * i + 2] - regions[4 * i]) * (regions[4 * i + 3] - regions[4 * i + 1]);
+        }
+
+        if (area > FULL_REDRAW_RATIO * width * height) {
+            fullRedraw = true;
+        }
+
+        if (fullRedraw || regionCount > 0) {
+            Graphics2D target = buffer.createGraphics();
+            target.setRenderingHints(g.getRenderingHints());
+
+            if (fullRedraw) {
+                repaint(target, scene, 0, 0, width, height);
+            } else {
+                for (int i = 0; i < regionCount; i++) {
+                    int x0 = regions[4 * i], y0 = regions[4 * i + 1];
+                    repaint(target, scene, x0, y0, regions[4 * i + 2] - x0, regions[4 * i + 3] - y0);
+                }
+            }
+
+            target.dispose();
+
+            fullRedraw = false;
+            regionCount = 0;
+        }
+
+        g.drawImage(buffer, 0, 0, null);
+    }
+
+    private void repaint(Graphics2D g, Scene scene, int x, int y, int regionWidth, int regionHeight) {
+        AffineTransform base = g.getTransform();
+
+        g.setClip(x, y, regionWidth, regionHeight);
+        g.setColor(scene.getBackgroundColor());
+        g.fillRect(x, y, regionWidth, regionHeight);
+
+        scene.render(g, width, height);
+
+        g.setTransform(base);
+
+        repaintedPixels += (long) regionWidth * regionHeight;
+    }
+
+    /**
+     * @return Anzahl der seit dem Erstellen neu gezeichneten Pixel.
+     */
+    long getRepaintedPixels() {
+        return repaintedPixels;
+    }
+
+    private void collect(Scene scene) {
+        frame++;
+
+        int background = scene.getBackgroundColor().getRGB();
+
+        if (background != backgroundRgb) {
+            backgroundRgb = background;
+            fullRedraw = true;
+        }
+
+        Camera camera = scene.getCamera();
+        List<Layer> layers = scene.getLayers();
+
+        synchronized (layers) {
+            for (int layerIndex = 0; layerIndex < layers.size(); layerIndex++) {
+                Layer layer = layers.get(layerIndex);
+
+                layer.getScreenTransform(transform, camera, width, height);
+                float pixelPerMeter = layer.calculatePixelPerMeter();
+
+                for (Actor actor : layer.getActors()) {
+                    ActorState state = states.get(actor);
+
+                    if (state == null) {
+                        state = new ActorState();
+                        states.put(actor, state);
+
+                        collectActor(actor, state, layer, layerIndex, pixelPerMeter, true);
+                    } else {
+                        collectActor(actor, state, layer, layerIndex, pixelPerMeter, false);
+                    }
+                }
+            }
+        }
+
+        // Entfernte Actors
+        Iterator<ActorState> iterator = states.values().iterator();
+
+        while (iterator.hasNext()) {
+            ActorState state = iterator.next();
+
+            if (state.frame != frame) {
+                if (state.onScreen) {
+                    addRegion(state.x0, state.y0, state.x1, state.y1);
+                }
+
+                iterator.remove();
+            }
+        }
+    }
+
+    private void collectActor(Actor actor, ActorState state, Layer layer, int layerIndex, float pixelPerMeter, boolean added) {
+        state.frame = frame;
+
+        boolean onScreen = layer.isVisible() && actor.isVisible();
+
+        if (onScreen) {
+            computeScreenBounds(actor, pixelPerMeter);
+        }
+
+        float rotation = actor.getRotation();
+        float opacity = actor.getOpacity();
+        int appearance = actor.getAppearanceVersion();
+        int layerPosition = actor.getLayerPosition();
+
+        boolean changed = added //
+                || onScreen != state.onScreen //
+                || onScreen && (rect[0] != state.x0 || rect[1] != state.y0 || rect[2] != state.x1 || rect[3] != state.y1) //
+                || Float.compare(rotation, state.rotation) != 0 //
+                || Float.compare(opacity, state.opacity) != 0 //
+                || appearance != state.appearance //
+                || layerIndex != state.layerIndex //
+                || layerPosition != state.layerPosition;
+
+        if (!changed) {
+            return;
+        }
+
+        if (!added && state.onScreen) {
+            addRegion(state.x0, state.y0, state.x1, state.y1);
+        }
+
+        if (onScreen) {
+            addRegion(rect[0], rect[1], rect[2], rect[3]);
+        }
+
+        state.onScreen = onScreen;
+        state.x0 = rect[0];
+        state.y0 = rect[1];
+        state.x1 = rect[2];
+        state.y1 = rect[3];
+        state.rotation = rotation;
+        state.opacity = opacity;
+        state.appearance = appearance;
+        state.layerIndex = layerIndex;
+        state.layerPosition = layerPosition;
+    }
+
+    /**
+     * Berechnet die Bildschirmfläche eines Actors aus {@link Actor#computeRenderBounds(AABB)} nach {@link #rect}. Ist
+     * die Fläche unbekannt, ist es der ganze Bildschirm.
+     */
+    private void computeScreenBounds(Actor actor, float pixelPerMeter) {
+        if (!actor.computeRenderBounds(shapeBounds)) {
+            rect[0] = 0;
+            rect[1] = 0;
+            rect[2] = width;
+            rect[3] = height;
+
+            return;
+        }
+
+        float minX = shapeBounds.lowerBound.x, minY = shapeBounds.lowerBound.y;
+        float maxX = shapeBounds.upperBound.x, maxY = shapeBounds.upperBound.y;
+
+        // Meter in Pixelkoordinaten des Layers (y nach unten), dann auf den Bildschirm
+        corners[0] = minX * pixelPerMeter;
+        corners[1] = -minY * pixelPerMeter;
+        corners[2] = maxX * pixelPerMeter;
+        corners[3] = -minY * pixelPerMeter;
+        corners[4] = minX * pixelPerMeter;
+        corners[5] = -maxY * pixelPerMeter;
+        corners[6] = maxX * pixelPerMeter;
+        corners[7] = -maxY * pixelPerMeter;
+
+        transform.transform(corners, 0, corners, 0, 4);
+
+        float left = Math.min(Math.min(corners[0], corners[2]), Math.min(corners[4], corners[6]));
+        float right = Math.max(Math.max(corners[0], corners[2]), Math.max(corners[4], corners[6]));
+        float top = Math.min(Math.min(corners[1], corners[3]), Math.min(corners[5], corners[7]));
+        float bottom = Math.max(Math.max(corners[1], corners[3]), Math.max(corners[5], corners[7]));
+
+        rect[0] = (int) Math.floor(left) - PADDING;
+        rect[1] = (int) Math.floor(top) - PADDING;
+        rect[2] = (int) Math.ceil(right) + PADDING;
+        rect[3] = (int) Math.ceil(bottom) + PADDING;
+    }
+
+    private void addRegion(int x0, int y0, int x1, int y1) {
+        if (fullRedraw) {
+            return;
+        }
+
+        x0 = Math.max(x0, 0);
+        y0 = Math.max(y0, 0);
+        x1 = Math.min(x1, width);
+        y1 = Math.min(y1, height);
+
+        if (x0 >= x1 || y0 >= y1) {
+            return; // außerhalb des Bildschirms
+        }
+
+        for (int i = 0; i < regionCount; i++) {
+            int offset = 4 * i;
+
+            if (x0 < regions[offset + 2] && regions[offset] < x1 && y0 < regions[offset + 3] && regions[offset + 1] < y1) {
+                regions[offset] = Math.min(regions[offset], x0);
+                regions[offset + 1] = Math.min(regions[offset + 1], y0);
+                regions[offset + 2] = Math.max(regions[offset + 2], x1);
+                regions[offset + 3] = Math.max(regions[offset + 3], y1);
+
+                return;
+            }
+        }
+
+        if (regionCount == MAX_REGIONS) {
+            // Zu viele einzelne Bereiche: alle zu einem zusammenfassen
+            for (int i = 1; i < regionCount; i++) {
+                regions[0] = Math.min(regions[0], regions[4 * i]);
+                regions[1] = Math.min(regions[1], regions[4 * i + 1]);
+                regions[2] = Math.max(regions[2], regions[4 * i + 2]);
+                regions[3] = Math.max(regions[3], regions[4 * i + 3]);
+            }
+
+            regionCount = 1;
+            addRegion(x0, y0, x1, y1);
+
+            return;
+        }
+
+        int offset = 4 * regionCount++;
+        regions[offset] = x0;
+        regions[offset + 1] = y0;
+        regions[offset + 2] = x1;
+        regions[offset + 3] = y1;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea;
+
+import ea.internal.annotations.API;
+import ea.internal.input.KeyStates;
+
+import java.awt.Point;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Zustand der Eingabegeräte zu Beginn des aktuellen Frames. Alle Abfragen innerhalb eines Frames liefern dasselbe
+ * Ergebnis, auch wenn währenddessen neue Eingaben eintreffen, und erzeugen keine Objekte.
+ * <p>
+ * Das Objekt wird von Frame zu Frame wiederverwendet und darf nur im Spiel-Thread verwendet werden, z.B. in einem
+ * {@link FrameUpdateListener}.
+ *
+ * @see Game#getInput()
+ */
+@API
+public final class InputSnapshot {
+    private final long[] keys = new long[KeyStates.WORDS];
+    private final long[] previousKeys = new long[KeyStates.WORDS];
+
+    private final Set<Integer> extendedKeys = new HashSet<>();
+    private final Set<Integer> previousExtendedKeys = new HashSet<>();
+
+    private int mouseX, mouseY;
+    private int mouseDeltaX, mouseDeltaY;
+
+    private float mouseWheelRotation;
+
+    private long frame = -1;
+
+    InputSnapshot() {
+        // Wird von GameLogic erstellt
+    }
+
+    /**
+     * Übernimmt den aktuellen Zustand für den nächsten Frame.
+     */
+    void update(KeyStates keyStates, Point mousePosition, float wheelRotation) {
+        System.arraycopy(keys, 0, previousKeys, 0, keys.length);
+        Collection<Integer> extended = keyStates.copyTo(keys);
+
+        if (!extendedKeys.isEmpty() || !previousExtendedKeys.isEmpty() || !extended.isEmpty()) {
+            previousExtendedKeys.clear();
+            previousExtendedKeys.addAll(extendedKeys);
+            extendedKeys.clear();
+            extendedKeys.addAll(extended);
+        }
+
+        int x = mousePosition == null ? mouseX : mousePosition.x;
+        int y = mousePosition == null ? mouseY : mousePosition.y;
+
+        mouseDeltaX = frame < 0 ? 0 : x - mouseX;
+        mouseDeltaY = frame < 0 ? 0 : y - mouseY;
+        mouseX = x;
+        mouseY = y;
+        mouseWheelRotation = wheelRotation;
+
+        frame++;
+    }
+
+    private static boolean isSet(long[] words, Set<Integer> extended, int keyCode) {
+        if (keyCode < 0 || keyCode >= KeyStates.BITSET_SIZE) {
+            return extended.contains(keyCode);
+        }
+
+        return (words[keyCode >>> 6] & (1L << keyCode)) != 0;
+    }
+
+    /**
+     * @param keyCode Key-Code der Taste, z.B. <code>KeyEvent.VK_D</code>.
+     *
+     * @return <code>true</code>, wenn die Taste zu Beginn des Frames gedrückt war.
+     */
+    @API
+    public boolean isKeyPressed(int keyCode) {
+        return isSet(keys, extendedKeys, keyCode);
+    }
+
+    /**
+     * @return <code>true</code>, wenn die Taste seit dem letzten Frame heruntergedrückt wurde.
+     */
+    @API
+    public boolean isKeyJustPressed(int keyCode) {
+        return isSet(keys, extendedKeys, keyCode) && !isSet(previousKeys, previousExtendedKeys, keyCode);
+    }
+
+    /**
+     * @return <code>true</code>, wenn die Taste seit dem letzten Frame losgelassen wurde.
+     */
+    @API
+    public boolean isKeyJustReleased(int keyCode) {
+        return !isSet(keys, extendedKeys, keyCode) && isSet(previousKeys, previousExtendedKeys, keyCode);
+    }
+
+    /**
+     * @return X-Koordinate der Maus im Fenster in Pixeln.
+     */
+    @API
+    public int getMouseX() {
+        return mouseX;
+    }
+
+    /**
+     * @return Y-Koordinate der Maus im Fenster in Pixeln.
+     */
+    @API
+    public int getMouseY() {
+        return mouseY;
+    }
+
+    /**
+     * @return Bewegung der Maus seit dem letzten Frame in X-Richtung in Pixeln. Alle Mausbewegungen eines Frames
+     * sind darin zusammengefasst.
+     */
+    @API
+    public int getMouseDeltaX() {
+        return mouseDeltaX;
+    }
+
+    /**
+     * @return Bewegung der Maus seit dem letzten Frame in Y-Richtung in Pixeln.
+     */
+    @API
+    public int getMouseDeltaY() {
+        return mouseDeltaY;
+    }
+
+    /**
+     * @return Summe aller Drehungen des Mausrads, die im letzten Frame ausgeliefert wurden.
+     */
+    @API
+    public float getMouseWheelRotation() {
+        return mouseWheelRotation;
+    }
+
+    /**
+     * @return Nummer des Frames, zu dem dieser Zustand gehört.
+     */
+    @API
+    public long getFrame() {
+        return frame;
+    }
+}
@@ -1,14 +1,20 @@
 package ea;
 
 import ea.actor.Actor;
+import ea.actor.AnimationSystem;
+import ea.animation.TweenEngine;
 import ea.event.*;
 import ea.internal.Bounds;
 import ea.internal.annotations.API;
 import ea.internal.annotations.Internal;
+import ea.internal.graphics.LayerRenderCache;
+import ea.internal.monitoring.EngineStatistics;
+import ea.internal.monitoring.LayerRenderEvent;
 import ea.internal.physics.*;
 import org.jbox2d.dynamics.Body;
 
 import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -50,6 +56,16 @@ public class Layer implements KeyListenerContainer, MouseClickListenerContainer,
 
     private boolean visible = true;
 
+    /**
+     * Zwischenspeicher für statische Layer, <code>null</code>, solange das Layer normal gerendert wird.
+     */
+    private LayerRenderCache renderCache;
+
+    /**
+     * Fasst statische Körper zusammen, <code>null</code>, solange jeder Actor seinen eigenen Body hat.
+     */
+    private StaticGeometryBaker staticGeometryBaker;
+
     private Scene parent;
 
     private final WorldHandler worldHandler;
@@ -59,6 +75,10 @@ public class Layer implements KeyListenerContainer, MouseClickListenerContainer,
     private final EventListeners<MouseWheelListener> mouseWheelListeners = new EventListeners<>(createParentSupplier(Scene::getMouseWheelListeners));
     private final EventListeners<FrameUpdateListener> frameUpdateListeners = new EventListeners<>();
 
+    private final TweenEngine tweens = new TweenEngine(this);
+
+    private final AnimationSystem animations = new AnimationSystem();
+
     /**
      * Erstellt ein neues Layer.
      */
@@ -186,6 +206,16 @@ public class Layer implements KeyListenerContainer, MouseClickListenerContainer,
         this.timeDistort = timeDistort;
     }
 
+    /**
+     * @return Der aktuelle Zeitverzerrungsfaktor. Bei <code>0</code> steht die Zeit in diesem Layer still.
+     *
+     * @see #setTimeDistort(float)
+     */
+    @API
+    public float getTimeDistort() {
+        return timeDistort;
+    }
+
     /**
      * Setzt die Schwerkraft, die auf <b>alle Objekte innerhalb des Hauptlayers der Scene</b> wirkt.
      *
@@ -210,6 +240,110 @@ public class Layer implements KeyListenerContainer, MouseClickListenerContainer,
         this.visible = visible;
     }
 
+    /**
+     * Setzt, ob dieses Layer zwischengespeichert gerendert wird. Lohnt sich für Layer, deren Actors sich kaum ändern,
+     * z.B. Hintergründe, Parallaxe-Ebenen oder Dekoration: Die Actors werden einmalig in ein beschleunigtes Bild
+     * gezeichnet, danach wird pro Frame nur noch dieses Bild gezeichnet.
+     * <p>
+     * Das Bild wird automatisch neu gezeichnet, sobald sich Position, Drehung, Sichtbarkeit, Deckkraft oder
+     * Aussehen eines Actors, die Actors selbst oder der Zoom ändern, und solange sich nicht-statische Körper des
+     * Layers bewegen. Eigene Actors, die Änderungen ihres Aussehens
+     * nicht über {@link Actor#invalidateAppearance()} melden, werden nicht erkannt, siehe
+     * {@link #invalidateRenderCache()}.
+     *
+     * @param renderCached <code>true</code>: Das Layer wird zwischengespeichert gerendert.
+     *                     <code>false</code>: Das Layer wird in jedem Frame vollständig neu gerendert (Standard).
+     */
+    @API
+    public void setRenderCached(boolean renderCached) {
+        if (renderCached == isRenderCached()) {
+            return;
+        }
+
+        if (renderCached) {
+            renderCache = new LayerRenderCache();
+        } else {
+            renderCache.dispose();
+            renderCache = null;
+        }
+    }
+
+    /**
+     * Gibt an, ob dieses Layer zwischengespeichert gerendert wird.
+     *
+     * @return <code>true</code>, falls das Layer zwischengespeichert gerendert wird.
+     *
+     * @see #setRenderCached(boolean)
+     */
+    @API
+    public boolean isRenderCached() {
+        return renderCache != null;
+    }
+
+    /**
+     * Erzwingt, dass ein zwischengespeichertes Layer im nächsten Frame neu gezeichnet wird. Nötig, wenn sich das
+     * Aussehen eines eigenen Actors geändert hat, ohne dass er es über {@link Actor#invalidateAppearance()} meldet.
+     *
+     * @see #setRenderCached(boolean)
+     */
+    @API
+    public void invalidateRenderCache() {
+        LayerRenderCache cache = renderCache;
+
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
+
+    /**
+     * Fasst die statischen Körper dieses Layers zu wenigen Sammelkörpern zusammen. Gedacht für Level aus vielen
+     * statischen Rechtecken: Statt hunderter einzelner Bodies gibt es wenige, und bündig aneinanderliegende Rechtecke
+     * werden verschmolzen, sodass andere Körper nicht mehr an den Nahtstellen hängen bleiben.
+     * <p>
+     * Die Actors bleiben am Layer und werden normal gezeichnet. Kommen statische Actors hinzu, werden entfernt oder
+     * bewegt, wird zu Beginn des nächsten Frames nur der betroffene Bereich neu zusammengefasst. Actors mit eigenen
+     * Kollisions-Listenern oder Joints behalten ihren Body. Kollisionen mit zusammengefassten Actors melden diese
+     * weiterhin als Kollisionspartner, bei verschmolzenen Rechtecken den Actor unter dem Berührungspunkt. Gleitet ein
+     * Körper über mehrere verschmolzene Actors, beginnt dabei keine neue Kollision. {@link Actor#getCollisions()}
+     * eines zusammengefassten Actors ist leer.
+     *
+     * @param baked <code>true</code>: Statische Körper werden zusammengefasst. <code>false</code>: Jeder Actor hat
+     *              seinen eigenen Body (Standard).
+     */
+    @API
+    public void setStaticGeometryBaked(boolean baked) {
+        if (baked == isStaticGeometryBaked()) {
+            return;
+        }
+
+        synchronized (worldHandler) {
+            worldHandler.assertNoWorldStep();
+
+            if (baked) {
+                staticGeometryBaker = new StaticGeometryBaker(this);
+                staticGeometryBaker.update();
+            } else {
+                staticGeometryBaker.release();
+                staticGeometryBaker = null;
+            }
+        }
+    }
+
+    /**
+     * @return <code>true</code>, falls die statischen Körper dieses Layers zusammengefasst werden.
+     *
+     * @see #setStaticGeometryBaked(boolean)
+     */
+    @API
+    public boolean isStaticGeometryBaked() {
+        return staticGeometryBaker != null;
+    }
+
+    @Internal
+    StaticGeometryBaker getStaticGeometryBaker() {
+        return staticGeometryBaker;
+    }
+
     /**
      * Gibt an, ob dieses Layer gerade sichtbar ist.
      *
@@ -225,13 +359,13 @@ public class Layer implements KeyListenerContainer, MouseClickListenerContainer,
 
     @API
     public void add(Actor... actors) {
-        defer(() -> {
+        deferChange(() -> {
             for (Actor actor : actors) {
                 if (actor.isMounted()) {
                     if (actor.getLayer() != this) {
                         throw new IllegalArgumentException("Ein Actor kann nur an einem Layer gleichzeitig angemeldet sein");
                     } else {
-                        return;
+                        continue;
                     }
                 }
 
@@ -244,19 +378,20 @@ public class Layer implements KeyListenerContainer, MouseClickListenerContainer,
             }
 
             this.actors.sort(ACTOR_COMPARATOR);
+            invalidateRenderCache();
         });
     }
 
     @API
     final public void remove(Actor... actors) {
-        defer(() -> {
+        deferChange(() -> {
             for (Actor actor : actors) {
                 this.actors.remove(actor);
 
                 PhysicsData physicsData = actor.getPhysicsHandler().getPhysicsData();
                 PhysicsHandler physicsHandler = actor.getPhysicsHandler();
                 if (physicsHandler.getWorldHandler() == null) {
-                    return;
+                    continue;
                 }
 
                 Body body = physicsHandler.getBody();
@@ -264,6 +399,8 @@ public class Layer implements KeyListenerContainer, MouseClickListenerContainer,
                 worldHandler.getWorld().destroyBody(body);
                 actor.setPhysicsHandler(new NullHandler(physicsData));
             }
+
+            invalidateRenderCache();
         });
     }
 
@@ -336,46 +473,137 @@ public class Layer implements KeyListenerContainer, MouseClickListenerContainer,
 
     @API
     public float calculatePixelPerMeter() {
-        return 1 + (parent.getCamera().getZoom() - 1) * parallaxZoom;
+        return calculatePixelPerMeter(parent.getCamera());
+    }
+
+    /**
+     * @param camera Kamera, durch die das Layer gezeichnet wird, z.B. die eines {@link Viewport}s.
+     *
+     * @return Pixel pro Meter auf diesem Layer unter Berücksichtigung der Parallaxe.
+     */
+    @Internal
+    float calculatePixelPerMeter(Camera camera) {
+        return 1 + (camera.getZoom() - 1) * parallaxZoom;
+    }
+
+    /**
+     * Berechnet die Transformation von Pixelkoordinaten des Layers (Meter mal Zoom, y nach unten) in
+     * Bildschirmkoordinaten, wie sie beim Zeichnen verwendet wird.
+     *
+     * @param transform Wird überschrieben und zurückgegeben.
+     */
+    @Internal
+    AffineTransform getScreenTransform(AffineTransform transform, Camera camera, int width, int height) {
+        Vector position = camera.getPosition();
+        float pixelPerMeter = calculatePixelPerMeter(camera);
+
+        transform.setToTranslation(width / 2, height / 2);
+        transform.rotate(Math.toRadians(-camera.getRotation()) * parallaxRotation);
+        transform.translate((-position.getX() * parallaxX) * pixelPerMeter, (position.getY() * parallaxY) * pixelPerMeter);
+
+        return transform;
+    }
+
+    /**
+     * @return Der Punkt auf diesem Layer (in Metern), der unter Berücksichtigung der Parallaxe in der Bildmitte liegt.
+     */
+    @Internal
+    Vector getCameraCenter(Camera camera) {
+        Vector position = camera.getPosition();
+
+        return new Vector(position.getX() * parallaxX, position.getY() * parallaxY);
     }
 
     @Internal
     public void render(Graphics2D g, Camera camera, int width, int height) {
+        render(g, camera, width, height, true);
+    }
+
+    /**
+     * @param sort <code>false</code>, wenn die Actors bereits sortiert sind und gleichzeitig aus mehreren Threads
+     *             gezeichnet werden, siehe {@link ParallelRenderer}.
+     */
+    @Internal
+    void render(Graphics2D g, Camera camera, int width, int height, boolean sort) {
         if (!visible) {
             return;
         }
 
+        LayerRenderEvent event = new LayerRenderEvent();
+        event.begin();
+
         Vector position = camera.getPosition();
         float rotation = -camera.getRotation();
-        g.setClip(0, 0, width, height);
-        g.translate(width / 2, height / 2);
+        g.clipRect(0, 0, width, height); // Schneidet mit einem bestehenden Clip, z.B. beim inkrementellen Zeichnen
 
-        float pixelPerMeter = calculatePixelPerMeter();
+        float pixelPerMeter = calculatePixelPerMeter(camera);
+
+        g.transform(getScreenTransform(new AffineTransform(), camera, width, height));
 
-        g.rotate(Math.toRadians(rotation) * parallaxRotation, 0, 0);
-        g.translate((-position.getX() * parallaxX) * pixelPerMeter, (position.getY() * parallaxY) * pixelPerMeter);
+        LayerRenderCache cache = renderCache;
+
+        if (cache != null) {
+            // Bei gedrehter Kamera muss der Zwischenspeicher jeden Winkel abdecken
+            boolean rotated = rotation * parallaxRotation != 0;
+            float halfDiagonal = (float) Math.hypot(width, height) / 2;
+
+            // Mehrere Viewports oder Streifen können gleichzeitig zeichnen
+            synchronized (cache) {
+                cache.render(g, actors, worldHandler.hasMovingBodies(), pixelPerMeter, //
+                        position.getX() * parallaxX * pixelPerMeter, -position.getY() * parallaxY * pixelPerMeter, //
+                        rotated ? halfDiagonal : width / 2f, rotated ? halfDiagonal : height / 2f);
+            }
+        }
 
         // TODO: Calculate optimal bounds
         int size = Math.max(width, height);
 
-        boolean needsSort = false;
+        int drawn = 0;
+
+        if (cache == null) {
+            for (Actor actor : actors) {
+                if (actor.renderBasic(g, new Bounds(position.getX() - size, position.getY() - size, size * 2, size * 2), pixelPerMeter)) {
+                    drawn++;
+                }
+            }
+        }
+
+        if (sort) {
+            sortActors();
+        }
+
+        // Über den Zwischenspeicher gezeichnete Kacheln zählen nicht als einzelne Actors
+        int culled = cache == null ? actors.size() - drawn : 0;
+
+        EngineStatistics.layerRendered(drawn, culled);
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.layerPosition = layerPosition;
+            event.drawn = drawn;
+            event.culled = culled;
+            event.cached = cache != null;
+            event.commit();
+        }
+    }
+
+    /**
+     * Sortiert die Actors neu, falls sich ihre Ebenen-Position seit dem letzten Zeichnen geändert hat.
+     */
+    @Internal
+    void sortActors() {
         int previousPosition = Integer.MIN_VALUE;
 
         for (Actor actor : actors) {
-            actor.renderBasic(g, new Bounds(position.getX() - size, position.getY() - size, size * 2, size * 2), pixelPerMeter);
+            int actorPosition = actor.getLayerPosition();
 
-            if (!needsSort) {
-                int actorPosition = actor.getLayerPosition();
-                if (actorPosition < previousPosition) {
-                    needsSort = true;
-                }
+            if (actorPosition < previousPosition) {
+                this.actors.sort(ACTOR_COMPARATOR);
 
-                previousPosition = actorPosition;
+                return;
             }
-        }
 
-        if (needsSort) {
-            this.actors.sort(ACTOR_COMPARATOR);
+            previousPosition = actorPosition;
         }
     }
 
@@ -389,6 +617,14 @@ public class Layer implements KeyListenerContainer, MouseClickListenerContainer,
         return worldHandler;
     }
 
+    /**
+     * @return Die Actors dieses Layers in Zeichenreihenfolge. Darf nur im Spiel-Thread verwendet werden.
+     */
+    @Internal
+    List<Actor> getActors() {
+        return actors;
+    }
+
     @Internal
     public void step(float deltaSeconds) {
         synchronized (worldHandler) {
@@ -396,6 +632,19 @@ public class Layer implements KeyListenerContainer, MouseClickListenerContainer,
         }
     }
 
+    /**
+     * Führt eine feste Anzahl an Simulationsschritten aus. Die Zeitverzerrung des Layers wird dabei nicht
+     * angewendet, da sie keine ganze Anzahl an Schritten ergibt.
+     *
+     * @param worldSteps Anzahl Schritte der Länge {@link WorldHandler#STEP_TIME}.
+     */
+    @Internal
+    public void stepFixed(int worldSteps) {
+        synchronized (worldHandler) {
+            worldHandler.stepFixed(worldSteps);
+        }
+    }
+
     @API
     public EventListeners<KeyListener> getKeyListeners() {
         return keyListeners;
@@ -416,9 +665,91 @@ public class Layer implements KeyListenerContainer, MouseClickListenerContainer,
         return frameUpdateListeners;
     }
 
+    /**
+     * @return Die Engine, die alle Tweens dieses Layers berechnet.
+     */
+    @API
+    public TweenEngine getTweens() {
+        return tweens;
+    }
+
+    /**
+     * @return Das System, das die Abspielposition aller {@link ea.actor.StatefulAnimation}s dieses Layers
+     * fortschreibt.
+     */
+    @Internal
+    public AnimationSystem getAnimations() {
+        return animations;
+    }
+
+    /**
+     * Meldet eine Änderung an der Actor-Liste an, die im nächsten Frame übernommen wird. Anders als bei
+     * {@link #defer(Runnable)} lassen sich solche Änderungen über {@link #applyPendingChanges()} vorziehen.
+     */
+    private void deferChange(Runnable change) {
+        addFrameUpdateListener(new PendingChange(change));
+    }
+
+    /**
+     * Übernimmt alle angemeldeten Hinzufügungen und Entfernungen sofort, ohne andere Frame-Update-Listener
+     * aufzurufen.
+     */
+    @Internal
+    void applyPendingChanges() {
+        frameUpdateListeners.invoke(frameUpdateListener -> {
+            if (frameUpdateListener instanceof PendingChange) {
+                frameUpdateListener.onFrameUpdate(0);
+            }
+        });
+    }
+
+    /**
+     * Bereitet das Layer im Hintergrund auf den ersten Frame vor: Angemeldete Actors werden übernommen, statische
+     * Geometrie zusammengefasst und die Kontakte der Physik-Welt gesucht.
+     *
+     * @see Scene#prepare(int, int)
+     */
+    @Internal
+    void prepare() {
+        applyPendingChanges();
+
+        synchronized (worldHandler) {
+            if (staticGeometryBaker != null) {
+                staticGeometryBaker.update();
+            }
+
+            worldHandler.findNewContacts();
+        }
+    }
+
     @Internal
     void invokeFrameUpdateListeners(float deltaSeconds) {
         float scaledSeconds = deltaSeconds * timeDistort;
+        tweens.advance(scaledSeconds);
+        animations.advance(scaledSeconds);
         frameUpdateListeners.invoke(frameUpdateListener -> frameUpdateListener.onFrameUpdate(scaledSeconds));
+
+        if (staticGeometryBaker != null) {
+            synchronized (worldHandler) {
+                staticGeometryBaker.update();
+            }
+        }
+    }
+
+    /**
+     * Eine mit {@link #add(Actor...)} oder {@link #remove(Actor...)} angemeldete Änderung.
+     */
+    private final class PendingChange implements FrameUpdateListener {
+        private final Runnable change;
+
+        private PendingChange(Runnable change) {
+            this.change = change;
+        }
+
+        @Override
+        public void onFrameUpdate(float deltaSeconds) {
+            removeFrameUpdateListener(this);
+            change.run();
+        }
     }
 }
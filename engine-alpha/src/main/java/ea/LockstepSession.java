@@ -0,0 +1,400 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea;
+
+import ea.internal.annotations.API;
+import ea.internal.annotations.Internal;
+import ea.internal.physics.WorldHandler;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+/**
+ * Deterministische Simulation einer Szene in festen Ticks für Mehrspieler-Spiele, bei denen jeder Spieler eine
+ * eigene Engine-Instanz mit derselben Szene laufen lässt und nur die Eingaben ausgetauscht werden.
+ * <p>
+ * Eigene Eingaben wirken erst {@link #setInputDelay(int) einige Ticks} später, damit sie in der Regel rechtzeitig
+ * bei den anderen Spielern ankommen. Fehlt die Eingabe eines anderen Spielers, wird seine letzte bekannte Eingabe
+ * angenommen und weitergerechnet. Trifft später eine abweichende Eingabe ein, wird die Szene auf den Stand vor
+ * diesem Tick zurückgesetzt ({@link SceneSnapshot}) und bis zum aktuellen Tick neu gerechnet. Liegt ein Spieler
+ * mehr als {@link #setMaxRollback(int) maxRollback} Ticks zurück, wird gewartet.
+ * <p>
+ * Damit alle Instanzen dasselbe Ergebnis berechnen, gilt:
+ * <ul>
+ * <li>Alle Instanzen bauen dieselbe Szene auf und setzen denselben Seed, z.B. mit
+ * <code>scene.getRandom().setSeed(...)</code>.</li>
+ * <li>Die Spiellogik reagiert nur im {@link TickListener} auf Eingaben, nicht in Key-Listenern, und verwendet nur
+ * den Zufallsgenerator der Szene.</li>
+ * <li>Während der Sitzung werden keine Actors hinzugefügt oder entfernt, da ein {@link SceneSnapshot} nur Zustand
+ * und keine Struktur zurücksetzt.</li>
+ * </ul>
+ *
+ * @see Game#setLockstep(LockstepSession)
+ */
+@API
+public final class LockstepSession {
+    /**
+     * Anzahl Physik-Schritte je Tick.
+     */
+    public static final int WORLD_STEPS_PER_TICK = 2;
+
+    /**
+     * Simulierte Zeit je Tick in Sekunden.
+     */
+    public static final float TICK_SECONDS = WORLD_STEPS_PER_TICK * WorldHandler.STEP_TIME;
+
+    /**
+     * Anzahl Ticks, für die Eingaben gespeichert werden. Zweierpotenz.
+     */
+    private static final int HISTORY = 256;
+
+    private static final int MASK = HISTORY - 1;
+
+    /**
+     * Höchstens so viele Ticks werden in einem Aufruf von {@link #update(float)} nachgeholt.
+     */
+    private static final int MAX_CATCH_UP = 8;
+
+    private final Scene scene;
+    private final int localPlayer;
+    private final int playerCount;
+    private final LockstepTransport transport;
+    private final IntSupplier localInput;
+    private final TickListener tickListener;
+
+    private int inputDelay = 2;
+    private int maxRollback = 8;
+
+    /**
+     * Eingaben je Spieler und Tick (Index <code>tick & MASK</code>).
+     */
+    private final int[][] inputs;
+
+    /**
+     * Tick, zu dem die Eingabe im selben Index von {@link #inputs} gehört, <code>-1</code> falls keine.
+     */
+    private final int[][] confirmedTicks;
+
+    /**
+     * In der Simulation verwendete Eingaben, vorhergesagt oder bestätigt.
+     */
+    private final int[][] usedInputs;
+
+    /**
+     * Je Spieler der höchste Tick, bis zu dem alle Eingaben vorliegen.
+     */
+    private final int[] confirmedThrough;
+
+    private final int[] tickInputs;
+
+    /**
+     * Zustand vor dem jeweiligen Tick, Index <code>tick % snapshots.length</code>.
+     */
+    private SceneSnapshot[] snapshots;
+
+    private int tick = 0;
+
+    private int rollbackFrom = Integer.MAX_VALUE;
+
+    private float accumulator = 0;
+
+    private boolean started = false;
+
+    private long rollbackCount = 0;
+    private long resimulatedTicks = 0;
+
+    /**
+     * Reagiert in jedem Tick auf die Eingaben aller Spieler.
+     */
+    @FunctionalInterface
+    public interface TickListener {
+        /**
+         * Wird vor dem Physik-Schritt jedes Ticks aufgerufen, bei einem Rollback auch mehrfach für denselben Tick.
+         * Darf daher nur die Szene verändern und keine Seiteneffekte außerhalb haben.
+         *
+         * @param tick   Der Tick.
+         * @param inputs Die Eingaben aller Spieler in diesem Tick, Index ist die Spielernummer. Das Array wird
+         *               wiederverwendet.
+         */
+        void onTick(int tick, int[] inputs);
+    }
+
+    /**
+     * Erstellt eine neue Sitzung.
+     *
+     * @param scene        Die Szene, die deterministisch simuliert wird.
+     * @param localPlayer  Nummer des Spielers an dieser Instanz, beginnend bei 0.
+     * @param playerCount  Anzahl Spieler.
+     * @param transport    Verbindung zu den anderen Spielern.
+     * @param localInput   Liefert einmal je Tick die aktuelle Eingabe des lokalen Spielers.
+     * @param tickListener Wendet die Eingaben aller Spieler auf die Szene an.
+     */
+    @API
+    public LockstepSession(Scene scene, int localPlayer, int playerCount, LockstepTransport transport, IntSupplier localInput, TickListener tickListener) {
+        if (playerCount < 1) {
+            throw new IllegalArgumentException("Es muss mindestens einen Spieler geben, war " + playerCount);
+        }
+
+        if (localPlayer < 0 || localPlayer >= playerCount) {
+            throw new IllegalArgumentException("Die Spielernummer muss zwischen 0 und " + (playerCount - 1) + " liegen, war " + localPlayer);
+        }
+
+        this.scene = scene;
+        this.localPlayer = localPlayer;
+        this.playerCount = playerCount;
+        this.transport = transport;
+        this.localInput = localInput;
+        this.tickListener = tickListener;
+
+        this.inputs = new int[playerCount][HISTORY];
+        this.confirmedTicks = new int[playerCount][HISTORY];
+        this.usedInputs = new int[playerCount][HISTORY];
+        this.confirmedThrough = new int[playerCount];
+        this.tickInputs = new int[playerCount];
+
+        for (int[] ticks : confirmedTicks) {
+            Arrays.fill(ticks, -1);
+        }
+    }
+
+    /**
+     * Setzt die Eingabeverzögerung. Muss vor dem ersten Tick gesetzt werden und bei allen Spielern gleich sein.
+     *
+     * @param ticks Anzahl Ticks, um die eigene Eingaben verzögert wirken. Standard ist 2.
+     */
+    @API
+    public void setInputDelay(int ticks) {
+        assertNotStarted();
+
+        if (ticks < 0 || ticks > HISTORY / 4) {
+            throw new IllegalArgumentException("Die Eingabeverzögerung muss zwischen 0 und " + HISTORY / 4 + " liegen, war " + ticks);
+        }
+
+        this.inputDelay = ticks;
+    }
+
+    /**
+     * Setzt, wie viele Ticks höchstens mit vorhergesagten Eingaben gerechnet wird, bevor auf die anderen Spieler
+     * gewartet wird. Muss vor dem ersten Tick gesetzt werden.
+     *
+     * @param ticks Anzahl Ticks, <code>0</code> für reines Lockstep ohne Vorhersage. Standard ist 8.
+     */
+    @API
+    public void setMaxRollback(int ticks) {
+        assertNotStarted();
+
+        if (ticks < 0 || ticks > HISTORY / 4) {
+            throw new IllegalArgumentException("Der Rollback muss zwischen 0 und " + HISTORY / 4 + " Ticks liegen, war " + ticks);
+        }
+
+        this.maxRollback = ticks;
+    }
+
+    private void assertNotStarted() {
+        if (started) {
+            throw new IllegalStateException("Diese Einstellung muss vor dem ersten Tick vorgenommen werden");
+        }
+    }
+
+    private void start() {
+        started = true;
+        snapshots = new SceneSnapshot[maxRollback + 1];
+
+        // Vor dem ersten eigenen Input wirken bei allen Spielern leere Eingaben
+        for (int player = 0; player < playerCount; player++) {
+            for (int t = 0; t < inputDelay; t++) {
+                confirmedTicks[player][t] = t;
+            }
+
+            confirmedThrough[player] = inputDelay - 1;
+        }
+    }
+
+    /**
+     * Verarbeitet eingetroffene Eingaben, rechnet bei Bedarf zurückliegende Ticks neu und führt so viele Ticks aus,
+     * wie seit dem letzten Aufruf fällig sind.
+     *
+     * @param deltaSeconds Vergangene Echtzeit.
+     */
+    @Internal
+    public void update(float deltaSeconds) throws IOException {
+        if (!started) {
+            start();
+        }
+
+        transport.receive(this::storeInput);
+
+        if (rollbackFrom < tick) {
+            rollback();
+        }
+
+        accumulator = Math.min(accumulator + deltaSeconds, MAX_CATCH_UP * TICK_SECONDS);
+
+        while (accumulator >= TICK_SECONDS && advance()) {
+            accumulator -= TICK_SECONDS;
+        }
+    }
+
+    private void storeInput(int player, int inputTick, int input) {
+        if (player < 0 || player >= playerCount) {
+            throw new IllegalStateException("Eingabe von unbekanntem Spieler " + player);
+        }
+
+        if (inputTick <= tick - HISTORY / 2 || inputTick >= tick + HISTORY / 2) {
+            throw new IllegalStateException("Eingabe für Tick " + inputTick + " liegt zu weit von Tick " + tick + " entfernt");
+        }
+
+        int slot = inputTick & MASK;
+
+        if (confirmedTicks[player][slot] == inputTick) {
+            return;
+        }
+
+        inputs[player][slot] = input;
+        confirmedTicks[player][slot] = inputTick;
+
+        if (inputTick < tick && usedInputs[player][slot] != input) {
+            rollbackFrom = Math.min(rollbackFrom, inputTick);
+        }
+
+        int next = confirmedThrough[player] + 1;
+
+        while (confirmedTicks[player][next & MASK] == next) {
+            confirmedThrough[player] = next++;
+        }
+    }
+
+    private void rollback() {
+        int from = rollbackFrom;
+        int to = tick;
+
+        rollbackFrom = Integer.MAX_VALUE;
+
+        if (from < to - maxRollback) {
+            throw new IllegalStateException("Tick " + from + " liegt weiter als " + maxRollback + " Ticks zurück, die Simulationen sind auseinandergelaufen");
+        }
+
+        snapshots[from % snapshots.length].restore(scene);
+
+        for (int t = from; t < to; t++) {
+            simulate(t);
+        }
+
+        rollbackCount++;
+        resimulatedTicks += to - from;
+    }
+
+    /**
+     * Führt den nächsten Tick aus, sofern kein Spieler zu weit zurückliegt.
+     */
+    private boolean advance() throws IOException {
+        for (int player = 0; player < playerCount; player++) {
+            if (tick - confirmedThrough[player] > maxRollback) {
+                return false;
+            }
+        }
+
+        int inputTick = tick + inputDelay;
+        int input = localInput.getAsInt();
+
+        storeInput(localPlayer, inputTick, input);
+        transport.send(localPlayer, inputTick, input);
+
+        simulate(tick);
+        tick++;
+
+        return true;
+    }
+
+    private void simulate(int t) {
+        int slot = t & MASK;
+
+        SceneSnapshot previous = t > 0 ? snapshots[(t - 1) % snapshots.length] : null;
+        snapshots[t % snapshots.length] = SceneSnapshot.capture(scene, previous);
+
+        for (int player = 0; player < playerCount; player++) {
+            int input;
+
+            if (confirmedTicks[player][slot] == t) {
+                input = inputs[player][slot];
+            } else {
+                // Vorhersage: Der Spieler macht weiter wie zuletzt bekannt
+                input = inputs[player][confirmedThrough[player] & MASK];
+            }
+
+            usedInputs[player][slot] = input;
+            tickInputs[player] = input;
+        }
+
+        tickListener.onTick(t, tickInputs);
+
+        scene.stepFixed(WORLD_STEPS_PER_TICK);
+        scene.invokeFrameUpdateListeners(TICK_SECONDS);
+    }
+
+    /**
+     * @return Die simulierte Szene.
+     */
+    @API
+    public Scene getScene() {
+        return scene;
+    }
+
+    /**
+     * @return Der nächste auszuführende Tick.
+     */
+    @API
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * @return Anzahl bisheriger Rollbacks.
+     */
+    @API
+    public long getRollbackCount() {
+        return rollbackCount;
+    }
+
+    /**
+     * @return Anzahl Ticks, die wegen Rollbacks erneut gerechnet wurden.
+     */
+    @API
+    public long getResimulatedTicks() {
+        return resimulatedTicks;
+    }
+
+    /**
+     * @return Anzahl Ticks, die dieser Spieler dem langsamsten anderen Spieler voraus ist.
+     */
+    @API
+    public int getTicksAhead() {
+        int slowest = Integer.MAX_VALUE;
+
+        for (int player = 0; player < playerCount; player++) {
+            if (player != localPlayer) {
+                slowest = Math.min(slowest, confirmedThrough[player]);
+            }
+        }
+
+        return slowest == Integer.MAX_VALUE ? 0 : Math.max(0, tick - 1 - slowest);
+    }
+}
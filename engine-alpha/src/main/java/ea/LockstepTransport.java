@@ -0,0 +1,63 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea;
+
+import ea.internal.annotations.API;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Überträgt die Eingaben einer {@link LockstepSession} zwischen den Spielern. Eine Eingabe besteht nur aus Spieler,
+ * Tick und einem vom Spiel festgelegten <code>int</code>, z.B. einer Bitmaske der gedrückten Tasten.
+ * <p>
+ * Implementierungen müssen jede gesendete Eingabe allen anderen Spielern zustellen, die Reihenfolge ist egal.
+ * Beide Methoden werden nur aus dem Spiel-Thread aufgerufen und dürfen nicht blockieren.
+ *
+ * @see LoopbackTransport
+ */
+@API
+public interface LockstepTransport extends Closeable {
+    /**
+     * Sendet eine Eingabe an alle anderen Spieler.
+     *
+     * @param player Der Spieler, von dem die Eingabe stammt.
+     * @param tick   Der Tick, in dem die Eingabe wirkt.
+     * @param input  Die Eingabe.
+     */
+    @API
+    void send(int player, int tick, int input) throws IOException;
+
+    /**
+     * Liefert alle seit dem letzten Aufruf eingetroffenen Eingaben aus, ohne zu warten.
+     *
+     * @param sink Empfänger der Eingaben.
+     */
+    @API
+    void receive(InputSink sink) throws IOException;
+
+    /**
+     * Empfänger für Eingaben aus {@link #receive(InputSink)}.
+     */
+    @FunctionalInterface
+    interface InputSink {
+        void accept(int player, int tick, int input);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea;
+
+import ea.internal.annotations.API;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Verbindet zwei {@link LockstepSession}s über einen TCP-Socket auf <code>localhost</code>, z.B. zwei
+ * Engine-Instanzen auf demselben Rechner beim Testen eines Zwei-Spieler-Spiels.
+ * <p>
+ * Jede Eingabe wird als 12 Bytes (Spieler, Tick, Eingabe) übertragen. Gelesen und geschrieben wird ohne zu
+ * blockieren; was der Socket nicht sofort annimmt, wird beim nächsten Aufruf nachgesendet.
+ */
+@API
+public final class LoopbackTransport implements LockstepTransport {
+    private static final int MESSAGE_SIZE = 12;
+
+    private final SocketChannel channel;
+
+    private final ByteBuffer inbound = ByteBuffer.allocate(64 * 1024);
+
+    private ByteBuffer outbound = ByteBuffer.allocate(4 * 1024);
+
+    private LoopbackTransport(SocketChannel channel) throws IOException {
+        this.channel = channel;
+
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.configureBlocking(false);
+    }
+
+    /**
+     * Wartet auf die Verbindung des zweiten Spielers.
+     *
+     * @param port Der lokale Port.
+     *
+     * @return Die Verbindung.
+     */
+    @API
+    public static LoopbackTransport listen(int port) throws IOException {
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+
+            return new LoopbackTransport(server.accept());
+        }
+    }
+
+    /**
+     * Verbindet sich mit einem Spieler, der {@link #listen(int)} aufgerufen hat.
+     *
+     * @param port Der Port, auf dem der andere Spieler wartet.
+     *
+     * @return Die Verbindung.
+     */
+    @API
+    public static LoopbackTransport connect(int port) throws IOException {
+        return new LoopbackTransport(SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port)));
+    }
+
+    /**
+     * Erstellt zwei miteinander verbundene Enden auf einem freien Port, z.B. für zwei Sitzungen im selben Prozess.
+     *
+     * @return Die beiden Enden.
+     */
+    @API
+    public static LoopbackTransport[] pair() throws IOException {
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+
+            SocketChannel client = SocketChannel.open(server.getLocalAddress());
+
+            return new LoopbackTransport[]{new LoopbackTransport(server.accept()), new LoopbackTransport(client)};
+        }
+    }
+
+    @Override
+    public void send(int player, int tick, int input) throws IOException {
+        if (outbound.remaining() < MESSAGE_SIZE) {
+            ByteBuffer larger = ByteBuffer.allocate(outbound.capacity() * 2);
+            outbound.flip();
+            larger.put(outbound);
+            outbound = larger;
+        }
+
+        outbound.putInt(player).putInt(tick).putInt(input);
+        flush();
+    }
+
+    private void flush() throws IOException {
+        outbound.flip();
+        channel.write(outbound);
+        outbound.compact();
+    }
+
+    @Override
+    public void receive(InputSink sink) throws IOException {
+        if (outbound.position() > 0) {
+            flush();
+        }
+
+        while (true) {
+            int read = channel.read(inbound);
+
+            if (read < 0) {
+                throw new EOFException("Die Verbindung zum anderen Spieler wurde geschlossen");
+            }
+
+            inbound.flip();
+
+            while (inbound.remaining() >= MESSAGE_SIZE) {
+                sink.accept(inbound.getInt(), inbound.getInt(), inbound.getInt());
+            }
+
+            inbound.compact();
+
+            if (read == 0) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,902 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea;
+
+import ea.actor.Actor;
+import ea.actor.BodyType;
+import ea.actor.Tile;
+import ea.actor.TileContainer;
+import ea.internal.annotations.API;
+import ea.internal.annotations.Internal;
+import org.jbox2d.collision.AABB;
+import org.jbox2d.collision.shapes.Shape;
+import org.jbox2d.common.Transform;
+import org.jbox2d.dynamics.Body;
+import org.jbox2d.dynamics.Fixture;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Ein Navigationsgitter über einem rechteckigen Bereich eines {@link Layer}s. Blockiert sind alle Zellen, die von
+ * statischen Körpern ({@link BodyType#STATIC}) oder von blockierenden Tiles eines {@link TileContainer}s überdeckt
+ * werden. Das Gitter gleicht sich einmal pro Frame mit dem Layer ab; neu berechnet werden nur die Zellen der Actors,
+ * die sich bewegt oder (bei Tiles) verändert haben.
+ * <p>
+ * Wege werden per A* über die 8 Nachbarn einer Zelle gesucht, ohne dabei Ecken zu schneiden. Für viele Actors mit
+ * demselben Ziel gibt es {@link FlowField}s. Beides kann direkt oder in Hintergrund-Threads berechnet werden; die
+ * Ergebnisse von {@link #requestPath(Vector, Vector, Consumer)} und {@link #requestFlowField(Vector, Consumer)} werden
+ * zu Beginn eines späteren Frames im Spiel-Thread ausgeliefert. Ergebnisse werden zwischengespeichert, bis sich das
+ * Gitter ändert.
+ * <p>
+ * Statische Körper blockieren alle Zellen, die ihr umschließendes Rechteck berührt. Das ist bei schrägen oder runden
+ * Formen großzügig, es wird aber nie ein Weg durch ein Hindernis gefunden. {@link TileContainer} dürfen nicht gedreht
+ * sein.
+ * <p>
+ * Alle Methoden dürfen nur aus dem Spiel-Thread aufgerufen werden. Die Ergebnisse sind unveränderlich und dürfen
+ * überall verwendet werden.
+ *
+ * @see FlowField
+ */
+@API
+public final class NavigationGrid implements FrameUpdateListener {
+    static final int STRAIGHT_COST = 10;
+    static final int DIAGONAL_COST = 14;
+
+    /**
+     * Nachbarn einer Zelle, zuerst die vier geraden, dann die diagonalen. Die Gegenrichtung von <code>i</code> ist
+     * jeweils <code>i ^ 1</code>.
+     */
+    static final int[] DX = {1, -1, 0, 0, 1, -1, 1, -1};
+    static final int[] DY = {0, 0, 1, -1, 1, -1, -1, 1};
+
+    private static final int PATH_CACHE_SIZE = 256;
+    private static final int FLOW_FIELD_CACHE_SIZE = 8;
+
+    private static final int SEARCH_THREADS = 2;
+
+    /**
+     * Toleranz in Metern, damit an Zellgrenzen liegende Kanten nicht die Nachbarzelle blockieren. Größer als der
+     * Rand, den JBox2D um Polygone legt.
+     */
+    private static final float EPSILON = 0.02f;
+
+    private static final int[] NO_CELLS = new int[0];
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    /**
+     * Unveränderlicher Stand der blockierten Zellen, wird von den Hintergrund-Threads gelesen.
+     */
+    private static final class Snapshot {
+        private final long[] blocked;
+        private final int version;
+
+        private Snapshot(long[] blocked, int version) {
+            this.blocked = blocked;
+            this.version = version;
+        }
+
+        private boolean isBlocked(int cell) {
+            return (blocked[cell >>> 6] & (1L << cell)) != 0;
+        }
+    }
+
+    /**
+     * Ein Actor, der Zellen blockiert.
+     */
+    private static final class Source {
+        private float x, y, angle;
+        private int frame;
+
+        /**
+         * Bei statischen Körpern: die blockierten Zellen.
+         */
+        private int[] cells = NO_CELLS;
+        private Fixture fixtures;
+
+        /**
+         * Bei {@link TileContainer}n: blockierende Tiles als Bitmaske, <code>null</code> solange nichts erfasst ist.
+         */
+        private long[] tiles;
+
+        /**
+         * Bei {@link TileContainer}n: bereits erfasste Anzahl an Änderungen.
+         */
+        private int tileChanges;
+    }
+
+    private static final class CachedResult<T> {
+        private final int version;
+        private final T result;
+
+        private CachedResult(int version, T result) {
+            this.version = version;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Arbeitsspeicher einer Suche, pro Thread wiederverwendet. Statt die Arrays vor jeder Suche zu leeren, gilt ein
+     * Eintrag nur, wenn sein Stempel zur aktuellen Suche passt.
+     */
+    private static final class Scratch {
+        private final int[] cost;
+        private final int[] parent;
+        private final int[] stamps;
+        private int stamp;
+
+        /**
+         * Binärer Min-Heap aus <code>(Priorität &lt;&lt; 32) | Zelle</code>.
+         */
+        private long[] heap = new long[256];
+        private int heapSize;
+
+        private Scratch(int cells) {
+            cost = new int[cells];
+            parent = new int[cells];
+            stamps = new int[cells];
+        }
+
+        private void begin() {
+            if (++stamp == 0) {
+                Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+
+            heapSize = 0;
+        }
+
+        private boolean visited(int cell) {
+            return stamps[cell] == stamp;
+        }
+
+        private void visit(int cell, int cost, int parent) {
+            stamps[cell] = stamp;
+            this.cost[cell] = cost;
+            this.parent[cell] = parent;
+        }
+
+        private void push(int priority, int cell) {
+            if (heapSize == heap.length) {
+                heap = Arrays.copyOf(heap, heapSize * 2);
+            }
+
+            long value = ((long) priority << 32) | cell;
+            int index = heapSize++;
+
+            while (index > 0) {
+                int parentIndex = (index - 1) >>> 1;
+
+                if (heap[parentIndex] <= value) {
+                    break;
+                }
+
+                heap[index] = heap[parentIndex];
+                index = parentIndex;
+            }
+
+            heap[index] = value;
+        }
+
+        private long pop() {
+            long result = heap[0];
+            long last = heap[--heapSize];
+            int index = 0;
+
+            while (true) {
+                int child = 2 * index + 1;
+
+                if (child >= heapSize) {
+                    break;
+                }
+
+                if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+
+                if (heap[child] >= last) {
+                    break;
+                }
+
+                heap[index] = heap[child];
+                index = child;
+            }
+
+            heap[index] = last;
+
+            return result;
+        }
+    }
+
+    private final Layer layer;
+    private final float originX, originY;
+    private final float cellSize;
+    private final int width, height;
+
+    /**
+     * Anzahl der Actors, die eine Zelle blockieren.
+     */
+    private final int[] blockers;
+
+    /**
+     * Blockierte Zellen als Bitmaske, wird bei jeder Änderung fortgeschrieben und für Snapshots kopiert.
+     */
+    private final long[] blocked;
+
+    private final Map<Actor, Source> sources = new IdentityHashMap<>();
+    private int frame;
+
+    private Predicate<Tile> blockingTiles = Objects::nonNull;
+
+    private int version;
+    private Snapshot snapshot;
+
+    private final Map<Long, CachedResult<List<Vector>>> pathCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedResult<List<Vector>>> eldest) {
+            return size() > PATH_CACHE_SIZE;
+        }
+    };
+
+    private final Map<Integer, CachedResult<FlowField>> flowFieldCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, CachedResult<FlowField>> eldest) {
+            return size() > FLOW_FIELD_CACHE_SIZE;
+        }
+    };
+
+    private final ThreadLocal<Scratch> scratch;
+
+    /**
+     * Fertige Hintergrund-Ergebnisse, werden im Spiel-Thread ausgeliefert.
+     */
+    private final Queue<Runnable> results = new ConcurrentLinkedQueue<>();
+
+    private ExecutorService executor;
+
+    private int[] cellBuffer = new int[64];
+    private int cellBufferSize;
+
+    private final AABB shapeBounds = new AABB();
+
+    /**
+     * Erstellt ein Navigationsgitter.
+     *
+     * @param layer    Das Layer, dessen statische Körper und Tiles die Zellen blockieren.
+     * @param x        X-Koordinate der unteren linken Ecke des Gitters.
+     * @param y        Y-Koordinate der unteren linken Ecke des Gitters.
+     * @param width    Anzahl der Zellen in X-Richtung.
+     * @param height   Anzahl der Zellen in Y-Richtung.
+     * @param cellSize Kantenlänge einer Zelle in Metern.
+     */
+    @API
+    public NavigationGrid(Layer layer, float x, float y, int width, int height, float cellSize) {
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("Ungültige Gittergröße: " + width + " × " + height);
+        }
+
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Die Zellgröße muss größer als 0 sein, war " + cellSize);
+        }
+
+        this.layer = layer;
+        this.originX = x;
+        this.originY = y;
+        this.width = width;
+        this.height = height;
+        this.cellSize = cellSize;
+
+        int cells = width * height;
+
+        this.blockers = new int[cells];
+        this.blocked = new long[(cells + 63) >>> 6];
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(cells));
+    }
+
+    /**
+     * Meldet das Gitter am Layer an: Es gleicht sich ab jetzt jeden Frame ab und beantwortet Anfragen im Hintergrund.
+     */
+    @API
+    public void start() {
+        if (executor != null) {
+            throw new IllegalStateException("Das Navigationsgitter läuft bereits");
+        }
+
+        executor = Executors.newFixedThreadPool(SEARCH_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "ea.pathfinding-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        layer.addFrameUpdateListener(this);
+    }
+
+    /**
+     * Meldet das Gitter vom Layer ab. Noch nicht ausgelieferte Ergebnisse werden verworfen.
+     */
+    @API
+    public void stop() {
+        if (executor == null) {
+            return;
+        }
+
+        layer.removeFrameUpdateListener(this);
+
+        executor.shutdownNow();
+        executor = null;
+        results.clear();
+    }
+
+    /**
+     * Legt fest, welche Tiles eines {@link TileContainer}s eine Zelle blockieren. Standardmäßig blockiert jedes
+     * gesetzte Tile.
+     *
+     * @param blockingTiles Bekommt das Tile oder <code>null</code> für leere Felder.
+     */
+    @API
+    public void setBlockingTiles(Predicate<Tile> blockingTiles) {
+        this.blockingTiles = blockingTiles;
+
+        // Alle Tile-Container beim nächsten Abgleich neu erfassen
+        sources.entrySet().removeIf(entry -> {
+            if (entry.getKey() instanceof TileContainer) {
+                clearTiles(entry.getValue(), (TileContainer) entry.getKey());
+                return true;
+            }
+
+            return false;
+        });
+    }
+
+    /**
+     * @return Kantenlänge einer Zelle in Metern.
+     */
+    @API
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * @return Ob die Zelle an der Position blockiert ist. Positionen außerhalb des Gitters gelten als blockiert.
+     */
+    @API
+    public boolean isBlocked(Vector position) {
+        int cell = getCell(position);
+
+        return cell < 0 || (blocked[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Gleicht das Gitter sofort mit dem Layer ab. Passiert nach {@link #start()} automatisch zu Beginn jedes Frames.
+     */
+    @API
+    public void update() {
+        frame++;
+
+        for (Actor actor : layer.getActors()) {
+            boolean tiles = actor instanceof TileContainer;
+
+            if (!tiles && actor.getBodyType() != BodyType.STATIC) {
+                continue;
+            }
+
+            Body body = actor.getPhysicsHandler().getBody();
+
+            if (body == null) {
+                continue;
+            }
+
+            Source source = sources.get(actor);
+            boolean added = source == null;
+
+            if (added) {
+                source = new Source();
+                sources.put(actor, source);
+            }
+
+            source.frame = frame;
+
+            Transform transform = body.getTransform();
+            boolean moved = added || transform.p.x != source.x || transform.p.y != source.y || body.getAngle() != source.angle;
+
+            if (tiles) {
+                TileContainer container = (TileContainer) actor;
+
+                if (moved) {
+                    clearTiles(source, container);
+                    moveSource(source, body);
+                    addTiles(source, container);
+                } else if (container.getChangeCount() != source.tileChanges) {
+                    updateTiles(source, container);
+                }
+            } else if (moved || body.m_fixtureList != source.fixtures) {
+                moveSource(source, body);
+                source.fixtures = body.m_fixtureList;
+
+                cellBufferSize = 0;
+                collectBodyCells(body, transform);
+
+                changeBlockers(source.cells, source.cells.length, -1);
+                source.cells = Arrays.copyOf(cellBuffer, cellBufferSize);
+                changeBlockers(source.cells, source.cells.length, 1);
+            }
+        }
+
+        Iterator<Map.Entry<Actor, Source>> iterator = sources.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            Map.Entry<Actor, Source> entry = iterator.next();
+            Source source = entry.getValue();
+
+            if (source.frame != frame) {
+                if (entry.getKey() instanceof TileContainer) {
+                    clearTiles(source, (TileContainer) entry.getKey());
+                } else {
+                    changeBlockers(source.cells, source.cells.length, -1);
+                }
+
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public void onFrameUpdate(float deltaSeconds) {
+        update();
+
+        Runnable result;
+
+        while ((result = results.poll()) != null) {
+            result.run();
+        }
+    }
+
+    /**
+     * Sucht sofort im aktuellen Thread einen Weg.
+     *
+     * @param from Startposition.
+     * @param to   Zielposition.
+     *
+     * @return Die Wegpunkte (Zellmitten) ohne die Startzelle, nur an Richtungswechseln und am Ziel. Eine leere Liste,
+     * wenn es keinen Weg gibt oder eine der Positionen außerhalb des Gitters liegt. Die Liste ist unveränderlich.
+     */
+    @API
+    public List<Vector> findPath(Vector from, Vector to) {
+        return findPath(getSnapshot(), getCell(from), getCell(to));
+    }
+
+    /**
+     * Sucht einen Weg in einem Hintergrund-Thread.
+     *
+     * @param from     Startposition.
+     * @param to       Zielposition.
+     * @param callback Bekommt im Spiel-Thread das Ergebnis wie bei {@link #findPath(Vector, Vector)}.
+     */
+    @API
+    public void requestPath(Vector from, Vector to, Consumer<List<Vector>> callback) {
+        Snapshot snapshot = getSnapshot();
+        int start = getCell(from);
+        int goal = getCell(to);
+
+        submit(() -> {
+            List<Vector> path = findPath(snapshot, start, goal);
+            results.add(() -> callback.accept(path));
+        });
+    }
+
+    /**
+     * Berechnet sofort im aktuellen Thread ein Flussfeld.
+     *
+     * @param target Das Ziel.
+     *
+     * @return Das Flussfeld oder <code>null</code>, wenn das Ziel außerhalb des Gitters liegt.
+     */
+    @API
+    public FlowField computeFlowField(Vector target) {
+        return computeFlowField(getSnapshot(), getCell(target));
+    }
+
+    /**
+     * Berechnet ein Flussfeld in einem Hintergrund-Thread.
+     *
+     * @param target   Das Ziel.
+     * @param callback Bekommt im Spiel-Thread das Ergebnis wie bei {@link #computeFlowField(Vector)}.
+     */
+    @API
+    public void requestFlowField(Vector target, Consumer<FlowField> callback) {
+        Snapshot snapshot = getSnapshot();
+        int goal = getCell(target);
+
+        submit(() -> {
+            FlowField flowField = computeFlowField(snapshot, goal);
+            results.add(() -> callback.accept(flowField));
+        });
+    }
+
+    private void submit(Runnable task) {
+        if (executor == null) {
+            throw new IllegalStateException("Das Navigationsgitter wurde nicht gestartet");
+        }
+
+        executor.execute(task);
+    }
+
+    /**
+     * @return Index der Zelle an der Position oder <code>-1</code> außerhalb des Gitters.
+     */
+    @Internal
+    int getCell(Vector position) {
+        int x = (int) Math.floor((position.getX() - originX) / cellSize);
+        int y = (int) Math.floor((position.getY() - originY) / cellSize);
+
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return -1;
+        }
+
+        return y * width + x;
+    }
+
+    private Vector getCellCenter(int cell) {
+        return new Vector(originX + (cell % width + 0.5f) * cellSize, originY + (cell / width + 0.5f) * cellSize);
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+
+        if (current == null || current.version != version) {
+            current = new Snapshot(blocked.clone(), version);
+            snapshot = current;
+        }
+
+        return current;
+    }
+
+    private void changeBlockers(int[] cells, int count, int delta) {
+        boolean changed = false;
+
+        for (int i = 0; i < count; i++) {
+            int cell = cells[i];
+            int before = blockers[cell];
+
+            blockers[cell] += delta;
+
+            if (before == 0 || blockers[cell] == 0) {
+                blocked[cell >>> 6] ^= 1L << cell;
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            version++;
+        }
+    }
+
+    private static void moveSource(Source source, Body body) {
+        source.x = body.getTransform().p.x;
+        source.y = body.getTransform().p.y;
+        source.angle = body.getAngle();
+    }
+
+    private void addTiles(Source source, TileContainer container) {
+        int countX = container.getTileCountX();
+        int countY = container.getTileCountY();
+
+        source.tiles = new long[(countX * countY + 63) >>> 6];
+        source.tileChanges = container.getChangeCount();
+
+        for (int x = 0; x < countX; x++) {
+            for (int y = 0; y < countY; y++) {
+                if (blockingTiles.test(container.getTile(x, y))) {
+                    int index = x * countY + y;
+
+                    source.tiles[index >>> 6] |= 1L << index;
+                    changeTile(source, container, x, y, 1);
+                }
+            }
+        }
+    }
+
+    private void clearTiles(Source source, TileContainer container) {
+        if (source.tiles == null) {
+            return;
+        }
+
+        int countY = container.getTileCountY();
+
+        for (int word = 0; word < source.tiles.length; word++) {
+            for (long bits = source.tiles[word]; bits != 0; bits &= bits - 1) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+                changeTile(source, container, index / countY, index % countY, -1);
+            }
+        }
+
+        source.tiles = null;
+    }
+
+    /**
+     * Erfasst nur die seit dem letzten Abgleich gesetzten Tiles.
+     */
+    private void updateTiles(Source source, TileContainer container) {
+        int changeCount = container.getChangeCount();
+
+        if (changeCount - source.tileChanges > TileContainer.CHANGE_LOG_SIZE) {
+            clearTiles(source, container);
+            addTiles(source, container);
+
+            return;
+        }
+
+        int countY = container.getTileCountY();
+
+        for (int change = source.tileChanges; change != changeCount; change++) {
+            int index = container.getChangedTile(change);
+            int x = index / countY;
+            int y = index % countY;
+
+            boolean wasBlocking = (source.tiles[index >>> 6] & (1L << index)) != 0;
+            boolean blocking = blockingTiles.test(container.getTile(x, y));
+
+            if (wasBlocking != blocking) {
+                source.tiles[index >>> 6] ^= 1L << index;
+                changeTile(source, container, x, y, blocking ? 1 : -1);
+            }
+        }
+
+        source.tileChanges = changeCount;
+    }
+
+    private void changeTile(Source source, TileContainer container, int x, int y, int delta) {
+        float tileWidth = container.getTileWidth();
+        float tileHeight = container.getTileHeight();
+
+        // Tile y = 0 ist die oberste Reihe
+        float left = source.x + x * tileWidth;
+        float bottom = source.y + (container.getTileCountY() - y - 1) * tileHeight;
+
+        cellBufferSize = 0;
+        collectCells(left, bottom, left + tileWidth, bottom + tileHeight);
+        changeBlockers(cellBuffer, cellBufferSize, delta);
+    }
+
+    private void collectBodyCells(Body body, Transform transform) {
+        for (Fixture fixture = body.m_fixtureList; fixture != null; fixture = fixture.m_next) {
+            if (fixture.isSensor()) {
+                continue;
+            }
+
+            Shape shape = fixture.m_shape;
+
+            for (int child = 0; child < shape.getChildCount(); child++) {
+                shape.computeAABB(shapeBounds, transform, child);
+                collectCells(shapeBounds.lowerBound.x, shapeBounds.lowerBound.y, shapeBounds.upperBound.x, shapeBounds.upperBound.y);
+            }
+        }
+    }
+
+    private void collectCells(float left, float bottom, float right, float top) {
+        int x0 = Math.max(0, (int) Math.floor((left + EPSILON - originX) / cellSize));
+        int y0 = Math.max(0, (int) Math.floor((bottom + EPSILON - originY) / cellSize));
+        int x1 = Math.min(width - 1, (int) Math.ceil((right - EPSILON - originX) / cellSize) - 1);
+        int y1 = Math.min(height - 1, (int) Math.ceil((top - EPSILON - originY) / cellSize) - 1);
+
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                if (cellBufferSize == cellBuffer.length) {
+                    cellBuffer = Arrays.copyOf(cellBuffer, cellBufferSize * 2);
+                }
+
+                cellBuffer[cellBufferSize++] = y * width + x;
+            }
+        }
+    }
+
+    /**
+     * Ob der Schritt von einer Zelle in Richtung <code>direction</code> möglich ist. Diagonal nur, wenn beide
+     * angrenzenden geraden Nachbarn frei sind.
+     */
+    private boolean canStep(Snapshot snapshot, int x, int y, int direction) {
+        int nx = x + DX[direction];
+        int ny = y + DY[direction];
+
+        if (nx < 0 || ny < 0 || nx >= width || ny >= height || snapshot.isBlocked(ny * width + nx)) {
+            return false;
+        }
+
+        return direction < 4 || !snapshot.isBlocked(y * width + nx) && !snapshot.isBlocked(ny * width + x);
+    }
+
+    private int heuristic(int cell, int goalX, int goalY) {
+        int dx = Math.abs(cell % width - goalX);
+        int dy = Math.abs(cell / width - goalY);
+
+        // Oktil-Distanz: diagonal so weit wie möglich, den Rest gerade
+        return STRAIGHT_COST * Math.max(dx, dy) + (DIAGONAL_COST - STRAIGHT_COST) * Math.min(dx, dy);
+    }
+
+    private List<Vector> findPath(Snapshot snapshot, int start, int goal) {
+        if (start < 0 || goal < 0 || snapshot.isBlocked(goal)) {
+            return Collections.emptyList();
+        }
+
+        long key = ((long) start << 32) | goal;
+
+        synchronized (pathCache) {
+            CachedResult<List<Vector>> cached = pathCache.get(key);
+
+            if (cached != null && cached.version == snapshot.version) {
+                return cached.result;
+            }
+        }
+
+        Scratch scratch = this.scratch.get();
+        scratch.begin();
+
+        int goalX = goal % width;
+        int goalY = goal / width;
+
+        scratch.visit(start, 0, -1);
+        scratch.push(heuristic(start, goalX, goalY), start);
+
+        List<Vector> path = Collections.emptyList();
+
+        while (scratch.heapSize > 0) {
+            long top = scratch.pop();
+            int cell = (int) top;
+            int cost = scratch.cost[cell];
+
+            if (cost + heuristic(cell, goalX, goalY) < (int) (top >>> 32)) {
+                continue; // veralteter Eintrag, die Zelle wurde inzwischen günstiger erreicht
+            }
+
+            if (cell == goal) {
+                path = buildPath(scratch, goal);
+                break;
+            }
+
+            int x = cell % width;
+            int y = cell / width;
+
+            for (int direction = 0; direction < 8; direction++) {
+                if (!canStep(snapshot, x, y, direction)) {
+                    continue;
+                }
+
+                int next = cell + DY[direction] * width + DX[direction];
+                int nextCost = cost + (direction < 4 ? STRAIGHT_COST : DIAGONAL_COST);
+
+                if (!scratch.visited(next) || nextCost < scratch.cost[next]) {
+                    scratch.visit(next, nextCost, cell);
+                    scratch.push(nextCost + heuristic(next, goalX, goalY), next);
+                }
+            }
+        }
+
+        synchronized (pathCache) {
+            pathCache.put(key, new CachedResult<>(snapshot.version, path));
+        }
+
+        return path;
+    }
+
+    private List<Vector> buildPath(Scratch scratch, int goal) {
+        List<Vector> path = new ArrayList<>();
+        int cell = goal;
+        int lastStep = Integer.MIN_VALUE;
+
+        while (scratch.parent[cell] >= 0) {
+            int parent = scratch.parent[cell];
+            int step = 3 * (cell / width - parent / width) + (cell % width - parent % width);
+
+            // Nur Richtungswechsel und das Ziel behalten
+            if (step != lastStep) {
+                path.add(getCellCenter(cell));
+                lastStep = step;
+            }
+
+            cell = parent;
+        }
+
+        Collections.reverse(path);
+
+        return Collections.unmodifiableList(path);
+    }
+
+    private FlowField computeFlowField(Snapshot snapshot, int goal) {
+        if (goal < 0) {
+            return null;
+        }
+
+        synchronized (flowFieldCache) {
+            CachedResult<FlowField> cached = flowFieldCache.get(goal);
+
+            if (cached != null && cached.version == snapshot.version) {
+                return cached.result;
+            }
+        }
+
+        int cells = width * height;
+        int[] distances = new int[cells];
+        byte[] directions = new byte[cells];
+
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        Arrays.fill(directions, (byte) -1);
+
+        Scratch scratch = this.scratch.get();
+        scratch.begin();
+
+        if (!snapshot.isBlocked(goal)) {
+            distances[goal] = 0;
+            scratch.push(0, goal);
+        }
+
+        // Dijkstra rückwärts vom Ziel; jede Zelle zeigt auf die Zelle, von der aus sie erreicht wurde
+        while (scratch.heapSize > 0) {
+            long top = scratch.pop();
+            int cell = (int) top;
+            int distance = (int) (top >>> 32);
+
+            if (distance > distances[cell]) {
+                continue;
+            }
+
+            int x = cell % width;
+            int y = cell / width;
+
+            for (int direction = 0; direction < 8; direction++) {
+                if (!canStep(snapshot, x, y, direction)) {
+                    continue;
+                }
+
+                int next = cell + DY[direction] * width + DX[direction];
+                int nextDistance = distance + (direction < 4 ? STRAIGHT_COST : DIAGONAL_COST);
+
+                if (nextDistance < distances[next]) {
+                    distances[next] = nextDistance;
+                    directions[next] = (byte) (direction ^ 1); // Gegenrichtung: von next zurück zu cell
+                    scratch.push(nextDistance, next);
+                }
+            }
+        }
+
+        FlowField flowField = new FlowField(this, directions, distances);
+
+        synchronized (flowFieldCache) {
+            flowFieldCache.put(goal, new CachedResult<>(snapshot.version, flowField));
+        }
+
+        return flowField;
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea;
+
+import ea.actor.Actor;
+import ea.internal.Bounds;
+import ea.internal.annotations.Internal;
+import ea.internal.monitoring.EngineStatistics;
+import org.jbox2d.collision.AABB;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Zeichnet eine Szene auf mehreren Prozessorkernen: Das Bild wird in waagerechte Streifen geteilt, die unabhängig
+ * voneinander in einen gemeinsamen Zwischenspeicher gezeichnet werden. Jeder Streifen zeichnet alle Layer in ihrer
+ * Reihenfolge, aber nur die Actors, die ihn berühren. Lohnt sich vor allem mit der Software-Pipeline
+ * (<code>-Dea.pipeline=software</code>), bei der sonst der Spiel-Thread allein zeichnet.
+ * <p>
+ * Ob ein Actor einen Streifen berührt, wird wie bei {@link IncrementalRenderer} über
+ * {@link Actor#computeRenderBounds(AABB)} bestimmt. Actors mit unbekannter Fläche werden in jedem Streifen
+ * gezeichnet. Zwischengespeicherte Layer ({@link Layer#setRenderCached(boolean)}) werden von den Streifen
+ * nacheinander gezeichnet. Die Actors aller Layer werden vorher im Spiel-Thread sortiert, die Streifen lesen ihre
+ * Reihenfolge nur.
+ * <p>
+ * Während gezeichnet wird, wartet der Spiel-Thread. Die {@link Actor#render(Graphics2D, float)}-Methoden laufen
+ * dabei gleichzeitig für verschiedene Streifen und dürfen den Zustand des Actors nicht verändern.
+ *
+ * @see Scene#setParallelRendering(boolean)
+ * @see Viewport
+ */
+@Internal
+final class ParallelRenderer {
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Streifen pro Thread. Mehr Streifen verteilen ungleich volle Bildbereiche besser auf die Threads.
+     */
+    private static final int BANDS_PER_THREAD = 2;
+
+    /**
+     * Niedrigere Streifen lohnen den Aufwand pro Streifen nicht.
+     */
+    private static final int MIN_BAND_HEIGHT = 32;
+
+    /**
+     * Zusätzlicher Rand um jeden Actor in Pixeln, für Kantenglättung.
+     */
+    private static final int PADDING = 2;
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    /**
+     * Von allen Szenen geteilt, die Threads werden erst beim ersten Zeichnen gestartet.
+     */
+    private static final ExecutorService executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "ea.render-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+
+        return thread;
+    });
+
+    /**
+     * Zustand eines Layers zu Beginn des Zeichnens, wird von allen Streifen nur gelesen.
+     */
+    private static final class LayerView {
+        private Layer layer;
+        private boolean cached;
+        private final AffineTransform transform = new AffineTransform();
+        private final AffineTransform inverse = new AffineTransform();
+        private float pixelPerMeter;
+        private Actor[] actors = new Actor[0];
+
+        /**
+         * Grenzen der Actors in Metern als minX, minY, maxX, maxY. <code>NaN</code> für Actors mit unbekannter
+         * Fläche, die immer gezeichnet werden.
+         */
+        private float[] bounds = new float[0];
+        private int actorCount;
+    }
+
+    private final List<LayerView> views = new ArrayList<>();
+    private int viewCount;
+
+    private final List<Future<?>> futures = new ArrayList<>();
+
+    private final AABB shapeBounds = new AABB();
+
+    /**
+     * Sichtbarer Bereich eines Layers, nur im Spiel-Thread verwendet.
+     */
+    private final float[] area = new float[4];
+
+    private BufferedImage buffer;
+    private int width, height;
+
+    /**
+     * Zeichnet die Szene durch ihre Hauptkamera in den Zwischenspeicher und diesen auf das Ziel.
+     */
+    void render(Graphics2D g, Scene scene, int width, int height) {
+        start(scene, scene.getCamera(), width, height, g.getRenderingHints());
+        finish(g);
+    }
+
+    /**
+     * Beginnt, die Szene durch eine Kamera in den Zwischenspeicher zu zeichnen, und kehrt sofort zurück. So können
+     * mehrere Viewports gleichzeitig gezeichnet werden.
+     *
+     * @see #finish(Graphics2D)
+     */
+    void start(Scene scene, Camera camera, int width, int height, RenderingHints hints) {
+        if (buffer == null || width != this.width || height != this.height) {
+            buffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            this.width = width;
+            this.height = height;
+        }
+
+        collect(scene, camera);
+
+        RenderingHints bandHints = (RenderingHints) hints.clone();
+        int bandCount = Math.max(1, Math.min(THREADS * BANDS_PER_THREAD, height / MIN_BAND_HEIGHT));
+
+        futures.clear();
+
+        for (int band = 0; band < bandCount; band++) {
+            int top = height * band / bandCount;
+            int bottom = height * (band + 1) / bandCount;
+
+            futures.add(executor.submit(() -> renderBand(scene, camera, bandHints, top, bottom)));
+        }
+    }
+
+    /**
+     * Wartet auf alle Streifen und zeichnet den Zwischenspeicher auf das Ziel.
+     */
+    void finish(Graphics2D g) {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
+
+            return;
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            futures.clear();
+        }
+
+        g.drawImage(buffer, 0, 0, null);
+    }
+
+    /**
+     * Hält den Zustand aller Layer fest, bevor die Streifen gleichzeitig darauf zugreifen.
+     */
+    private void collect(Scene scene, Camera camera) {
+        List<Layer> layers = scene.getLayers();
+
+        viewCount = 0;
+
+        synchronized (layers) {
+            for (Layer layer : layers) {
+                if (!layer.isVisible()) {
+                    continue;
+                }
+
+                if (viewCount == views.size()) {
+                    views.add(new LayerView());
+                }
+
+                LayerView view = views.get(viewCount++);
+                view.layer = layer;
+                view.cached = layer.isRenderCached();
+                view.pixelPerMeter = layer.calculatePixelPerMeter(camera);
+
+                layer.getScreenTransform(view.transform, camera, width, height);
+
+                try {
+                    view.inverse.setTransform(view.transform.createInverse());
+                } catch (NoninvertibleTransformException e) {
+                    viewCount--; // Zoom 0, es ist nichts zu sehen
+
+                    continue;
+                }
+
+                // Hier im Spiel-Thread, die Streifen lesen die Reihenfolge nur noch
+                layer.sortActors();
+
+                if (view.cached) {
+                    continue;
+                }
+
+                List<Actor> actors = layer.getActors();
+                int count = actors.size();
+
+                if (view.actors.length < count) {
+                    view.actors = new Actor[Math.max(count, view.actors.length * 2)];
+                    view.bounds = new float[view.actors.length * 4];
+                }
+
+                computeVisibleArea(view, 0, height, area);
+
+                int culled = 0;
+
+                for (int i = 0; i < count; i++) {
+                    Actor actor = actors.get(i);
+
+                    view.actors[i] = actor;
+                    computeBounds(actor, view.bounds, i * 4);
+
+                    if (!actor.isVisible() || isOutside(view.bounds, i * 4, area)) {
+                        culled++;
+                    }
+                }
+
+                // Einmal pro Layer statt pro Streifen
+                EngineStatistics.layerRendered(0, culled);
+
+                // Referenzen aus früheren, volleren Frames freigeben
+                for (int i = count; i < view.actorCount; i++) {
+                    view.actors[i] = null;
+                }
+
+                view.actorCount = count;
+            }
+        }
+
+        for (int i = viewCount; i < views.size(); i++) {
+            views.get(i).layer = null;
+        }
+    }
+
+    /**
+     * Bestimmt den Bereich eines Layers in Metern, den die Bildzeilen von <code>top</code> bis <code>bottom</code>
+     * zeigen, samt Rand für Kantenglättung.
+     *
+     * @param target Erhält minX, minY, maxX, maxY.
+     */
+    private void computeVisibleArea(LayerView view, int top, int bottom, float[] target) {
+        // In Pixelkoordinaten des Layers (y nach unten), dann in Meter
+        float[] corners = {0, top, width, top, 0, bottom, width, bottom};
+
+        view.inverse.transform(corners, 0, corners, 0, 4);
+
+        float pixelPerMeter = view.pixelPerMeter;
+        float margin = PADDING / pixelPerMeter;
+
+        target[0] = Math.min(Math.min(corners[0], corners[2]), Math.min(corners[4], corners[6])) / pixelPerMeter - margin;
+        target[1] = -Math.max(Math.max(corners[1], corners[3]), Math.max(corners[5], corners[7])) / pixelPerMeter - margin;
+        target[2] = Math.max(Math.max(corners[0], corners[2]), Math.max(corners[4], corners[6])) / pixelPerMeter + margin;
+        target[3] = -Math.min(Math.min(corners[1], corners[3]), Math.min(corners[5], corners[7])) / pixelPerMeter + margin;
+    }
+
+    /**
+     * Vergleiche mit NaN sind immer false, Actors mit unbekannter Fläche liegen also nie außerhalb.
+     */
+    private static boolean isOutside(float[] bounds, int offset, float[] area) {
+        return bounds[offset] > area[2] || bounds[offset + 2] < area[0] || bounds[offset + 1] > area[3] || bounds[offset + 3] < area[1];
+    }
+
+    private void computeBounds(Actor actor, float[] target, int offset) {
+        if (actor.computeRenderBounds(shapeBounds)) {
+            target[offset] = shapeBounds.lowerBound.x;
+            target[offset + 1] = shapeBounds.lowerBound.y;
+            target[offset + 2] = shapeBounds.upperBound.x;
+            target[offset + 3] = shapeBounds.upperBound.y;
+        } else {
+            target[offset] = target[offset + 1] = target[offset + 2] = target[offset + 3] = Float.NaN;
+        }
+    }
+
+    /**
+     * Läuft in einem der Zeichen-Threads.
+     */
+    private void renderBand(Scene scene, Camera camera, RenderingHints hints, int top, int bottom) {
+        Graphics2D g = buffer.createGraphics();
+
+        try {
+            g.setRenderingHints(hints);
+            g.clipRect(0, top, width, bottom - top);
+            g.setColor(scene.getBackgroundColor());
+            g.fillRect(0, top, width, bottom - top);
+
+            AffineTransform base = g.getTransform();
+            float[] area = new float[4];
+
+            for (int v = 0; v < viewCount; v++) {
+                LayerView view = views.get(v);
+
+                if (view.cached) {
+                    view.layer.render(g, camera, width, height, false);
+                    g.setTransform(base);
+
+                    continue;
+                }
+
+                computeVisibleArea(view, top, bottom, area);
+
+                float pixelPerMeter = view.pixelPerMeter;
+                Bounds visible = new Bounds(area[0], area[1], area[2] - area[0], area[3] - area[1]);
+
+                g.transform(view.transform);
+
+                Actor[] actors = view.actors;
+                float[] bounds = view.bounds;
+                int drawn = 0;
+
+                for (int i = 0; i < view.actorCount; i++) {
+                    if (isOutside(bounds, i * 4, area)) {
+                        continue;
+                    }
+
+                    if (actors[i].renderBasic(g, visible, pixelPerMeter)) {
+                        drawn++;
+                    }
+                }
+
+                g.setTransform(base);
+
+                EngineStatistics.layerRendered(drawn, 0);
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+}
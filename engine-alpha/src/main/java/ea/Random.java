@@ -3,13 +3,28 @@ package ea;
 import ea.internal.annotations.API;
 import ea.internal.annotations.Internal;
 
-import java.util.concurrent.ThreadLocalRandom;
-
 /**
  * Diese Klasse liefert Methoden, die <b>zufällig verteilte Rückgaben</b> haben.
+ * <p>
+ * Jeder Thread verwendet einen eigenen {@link RandomGenerator}, sodass sich parallel laufende Threads nicht
+ * gegenseitig ausbremsen. Mit {@link #setSeed(long)} werden alle Generatoren reproduzierbar initialisiert: Derselbe
+ * Seed liefert im selben Thread dieselben Zahlen.
  */
 @API
 public final class Random {
+    /**
+     * Aktueller Seed, aus dem die Generatoren aller Threads und Szenen abgeleitet werden.
+     */
+    private static volatile long seed = RandomGenerator.mix(System.nanoTime());
+
+    /**
+     * Wird bei jedem {@link #setSeed(long)} erhöht, damit die Generatoren sich beim nächsten Zugriff neu
+     * initialisieren.
+     */
+    private static volatile int epoch = 0;
+
+    private static final ThreadLocal<RandomGenerator> generators = ThreadLocal.withInitial(() -> new RandomGenerator(0));
+
     /**
      * Privater Konstruktor.
      */
@@ -18,6 +33,82 @@ public final class Random {
         // Es sollen keine Instanzen dieser Klasse erstellt werden.
     }
 
+    /**
+     * Setzt den Seed für alle Zufallszahlen. Die Generatoren aller Threads und Szenen werden beim nächsten Zugriff
+     * neu initialisiert.
+     * <p>
+     * Der Generator eines Threads wird aus dem Seed und dem Namen des Threads abgeleitet. Zufallszahlen im
+     * Spiel-Thread sind damit reproduzierbar, die der Threads aus Thread-Pools nur, wenn die Verteilung der Aufgaben
+     * auf die Threads gleich bleibt.
+     *
+     * @param seed Gleicher Seed ergibt dieselben Zufallszahlen.
+     */
+    @API
+    public static void setSeed(long seed) {
+        Random.seed = seed;
+        epoch++;
+    }
+
+    /**
+     * @return Den aktuellen Seed. Ohne Aufruf von {@link #setSeed(long)} wird er beim Start zufällig gewählt.
+     */
+    @API
+    public static long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gibt den Zufallsgenerator des aktuellen Threads zurück. Er ist schneller als die einzelnen statischen Methoden,
+     * wenn viele Zahlen auf einmal benötigt werden, z.B. mit {@link RandomGenerator#fill(float[], float, float)}.
+     *
+     * @return Der Generator des aktuellen Threads. Darf nicht an andere Threads weitergegeben werden.
+     */
+    @API
+    public static RandomGenerator current() {
+        RandomGenerator generator = generators.get();
+        int currentEpoch = epoch;
+
+        if (generator.epoch != currentEpoch) {
+            generator.setSeed(deriveSeed(Thread.currentThread().getName().hashCode()));
+            generator.epoch = currentEpoch;
+        }
+
+        return generator;
+    }
+
+    /**
+     * Initialisiert einen Generator neu, falls sich der Seed seit seiner letzten Initialisierung geändert hat.
+     *
+     * @param generator Der Generator.
+     * @param key       Unterscheidet die Zahlenfolgen verschiedener Generatoren beim selben Seed.
+     */
+    @Internal
+    static void reseedIfOutdated(RandomGenerator generator, long key) {
+        int currentEpoch = epoch;
+
+        if (generator.epoch != currentEpoch) {
+            generator.setSeed(deriveSeed(key));
+            generator.epoch = currentEpoch;
+        }
+    }
+
+    private static long deriveSeed(long key) {
+        return RandomGenerator.mix(seed ^ RandomGenerator.mix(key));
+    }
+
+    /**
+     * Füllt ein Array mit <b>zufälligen</b> <code>float</code>-Werten zwischen einer Unter- und Obergrenze, z.B. für
+     * die Startwerte vieler Partikel in einem Aufruf.
+     *
+     * @param target     Das zu füllende Array.
+     * @param lowerLimit Die Untergrenze.
+     * @param upperLimit Die Obergrenze.
+     */
+    @API
+    public static void fill(float[] target, float lowerLimit, float upperLimit) {
+        current().fill(target, lowerLimit, upperLimit);
+    }
+
     /**
      * Gibt einen <b>zufälligen</b> <code>boolean</code>-Wert zurück.<br> Die Wahrscheinlichkeiten für
      * <code>true</code> bzw. <code>false</code> sind gleich groß.
@@ -27,7 +118,7 @@ public final class Random {
      */
     @API
     public static boolean toggle() {
-        return ThreadLocalRandom.current().nextBoolean();
+        return current().nextBoolean();
     }
 
     /**
@@ -46,7 +137,7 @@ public final class Random {
             throw new IllegalArgumentException("Achtung! Für eine Zufallszahl muss die definierte Obergrenze (die inklusiv in der Ergebnismenge ist) eine nichtnegative Zahl sein!");
         }
 
-        return ThreadLocalRandom.current().nextInt(upperLimit + 1);
+        return current().nextInt(upperLimit + 1);
     }
 
     /**
@@ -63,11 +154,9 @@ public final class Random {
     public static int range(int lowerLimit, int upperLimit) {
         if (lowerLimit == upperLimit) {
             return lowerLimit;
-        } else if (lowerLimit < upperLimit) {
-            return lowerLimit + ThreadLocalRandom.current().nextInt(upperLimit - lowerLimit + 1);
-        } else {
-            return upperLimit + ThreadLocalRandom.current().nextInt(lowerLimit - upperLimit + 1);
         }
+
+        return current().range(lowerLimit, upperLimit);
     }
 
     /**
@@ -79,7 +168,7 @@ public final class Random {
      */
     @API
     public static float range() {
-        return ThreadLocalRandom.current().nextFloat();
+        return current().nextFloat();
     }
 
     /**
@@ -97,9 +186,9 @@ public final class Random {
         if (lowerLimit == upperLimit) {
             return lowerLimit;
         } else if (lowerLimit < upperLimit) {
-            return lowerLimit + ThreadLocalRandom.current().nextFloat() * (upperLimit - lowerLimit);
+            return current().range(lowerLimit, upperLimit);
         } else {
-            return upperLimit + ThreadLocalRandom.current().nextFloat() * (lowerLimit - upperLimit);
+            return current().range(upperLimit, lowerLimit);
         }
     }
 }
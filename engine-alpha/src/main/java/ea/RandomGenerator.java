@@ -0,0 +1,243 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea;
+
+import ea.internal.annotations.API;
+import ea.internal.annotations.Internal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Ein schneller Zufallsgenerator (xoshiro128**), der mit einem Seed reproduzierbare Folgen liefert.
+ * <p>
+ * Ein Generator ist <b>nicht</b> thread-sicher. Jeder Thread bekommt über {@link Random#current()} seinen eigenen
+ * Generator, jede Szene über {@link Scene#getRandom()}.
+ *
+ * @see Random
+ */
+@API
+public final class RandomGenerator {
+    private static final float FLOAT_UNIT = 0x1.0p-24f;
+
+    private int s0, s1, s2, s3;
+
+    /**
+     * Seed-Generation von {@link Random}, mit der dieser Generator zuletzt initialisiert wurde.
+     */
+    int epoch = -1;
+
+    /**
+     * Erstellt einen Generator mit festem Seed.
+     *
+     * @param seed Gleicher Seed ergibt dieselbe Zahlenfolge.
+     */
+    @API
+    public RandomGenerator(long seed) {
+        setSeed(seed);
+    }
+
+    /**
+     * Setzt den Generator auf den Anfang der Zahlenfolge zum übergebenen Seed zurück.
+     */
+    @API
+    public void setSeed(long seed) {
+        // SplitMix64 verteilt auch einfache Seeds wie 0, 1, 2 gleichmäßig auf den Zustand
+        long a = mix(seed += 0x9e3779b97f4a7c15L);
+        long b = mix(seed + 0x9e3779b97f4a7c15L);
+
+        s0 = (int) a;
+        s1 = (int) (a >>> 32);
+        s2 = (int) b;
+        s3 = (int) (b >>> 32);
+
+        if ((s0 | s1 | s2 | s3) == 0) {
+            s0 = 1; // Der Nullzustand würde nur Nullen liefern
+        }
+    }
+
+    void writeState(ByteBuffer buffer) {
+        buffer.putInt(s0).putInt(s1).putInt(s2).putInt(s3);
+    }
+
+    void readState(ByteBuffer buffer) {
+        s0 = buffer.getInt();
+        s1 = buffer.getInt();
+        s2 = buffer.getInt();
+        s3 = buffer.getInt();
+    }
+
+    @Internal
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return Gleichverteilte 32 Zufallsbits.
+     */
+    @API
+    public int nextInt() {
+        int result = Integer.rotateLeft(s1 * 5, 7) * 9;
+        int t = s1 << 9;
+
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Integer.rotateLeft(s3, 11);
+
+        return result;
+    }
+
+    /**
+     * @param bound Obergrenze (exklusiv), muss größer als 0 sein.
+     *
+     * @return Eine gleichverteilte Zahl im Intervall <code>[0; bound)</code>.
+     */
+    @API
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Die Obergrenze muss größer als 0 sein, war " + bound);
+        }
+
+        // Lemire: Multiplikation statt Division, Verwerfen nur im seltenen Randbereich
+        long product = (nextInt() & 0xffffffffL) * bound;
+        int low = (int) product;
+
+        if (Integer.compareUnsigned(low, bound) < 0) {
+            int threshold = Integer.remainderUnsigned(-bound, bound);
+
+            while (Integer.compareUnsigned(low, threshold) < 0) {
+                product = (nextInt() & 0xffffffffL) * bound;
+                low = (int) product;
+            }
+        }
+
+        return (int) (product >>> 32);
+    }
+
+    /**
+     * @return Eine gleichverteilte Zahl zwischen <code>lowerLimit</code> und <code>upperLimit</code> (beide
+     * inklusiv). Die Reihenfolge der Grenzen ist egal.
+     */
+    @API
+    public int range(int lowerLimit, int upperLimit) {
+        int low = Math.min(lowerLimit, upperLimit);
+        int high = Math.max(lowerLimit, upperLimit);
+        long span = (long) high - low + 1;
+
+        if (span > Integer.MAX_VALUE) {
+            return (int) (low + ((nextInt() & 0xffffffffL) * span >>> 32));
+        }
+
+        return low + nextInt((int) span);
+    }
+
+    /**
+     * @return Eine gleichverteilte Zahl im Intervall <code>[0; 1)</code>.
+     */
+    @API
+    public float nextFloat() {
+        return (nextInt() >>> 8) * FLOAT_UNIT;
+    }
+
+    /**
+     * @return Eine gleichverteilte Zahl zwischen <code>lowerLimit</code> und <code>upperLimit</code>. Die
+     * Reihenfolge der Grenzen ist egal.
+     */
+    @API
+    public float range(float lowerLimit, float upperLimit) {
+        return lowerLimit + nextFloat() * (upperLimit - lowerLimit);
+    }
+
+    /**
+     * @return Mit 50 % Wahrscheinlichkeit <code>true</code>.
+     */
+    @API
+    public boolean nextBoolean() {
+        return nextInt() < 0;
+    }
+
+    /**
+     * Füllt ein Array mit Zufallszahlen, z.B. für die Startwerte vieler Partikel auf einmal.
+     *
+     * @param target     Das zu füllende Array.
+     * @param lowerLimit Untergrenze.
+     * @param upperLimit Obergrenze.
+     */
+    @API
+    public void fill(float[] target, float lowerLimit, float upperLimit) {
+        fill(target, 0, target.length, lowerLimit, upperLimit);
+    }
+
+    /**
+     * Füllt einen Bereich eines Arrays mit Zufallszahlen.
+     *
+     * @param target     Das zu füllende Array.
+     * @param offset     Erster zu füllender Index.
+     * @param length     Anzahl zu füllender Werte.
+     * @param lowerLimit Untergrenze.
+     * @param upperLimit Obergrenze.
+     */
+    @API
+    public void fill(float[] target, int offset, int length, float lowerLimit, float upperLimit) {
+        float scale = (upperLimit - lowerLimit) * FLOAT_UNIT;
+
+        // Zustand lokal halten, damit die Schleife ohne Feldzugriffe auskommt
+        int a = s0, b = s1, c = s2, d = s3;
+
+        for (int i = offset, end = offset + length; i < end; i++) {
+            int result = Integer.rotateLeft(b * 5, 7) * 9;
+            int t = b << 9;
+
+            c ^= a;
+            d ^= b;
+            b ^= c;
+            a ^= d;
+            c ^= t;
+            d = Integer.rotateLeft(d, 11);
+
+            target[i] = lowerLimit + (result >>> 8) * scale;
+        }
+
+        s0 = a;
+        s1 = b;
+        s2 = c;
+        s3 = d;
+    }
+
+    /**
+     * Füllt ein Array mit ganzen Zufallszahlen zwischen <code>lowerLimit</code> und <code>upperLimit</code> (beide
+     * inklusiv).
+     *
+     * @param target     Das zu füllende Array.
+     * @param lowerLimit Untergrenze.
+     * @param upperLimit Obergrenze.
+     */
+    @API
+    public void fill(int[] target, int lowerLimit, int upperLimit) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] = range(lowerLimit, upperLimit);
+        }
+    }
+}
@@ -24,20 +24,27 @@ import ea.event.*;
 import ea.internal.Bounds;
 import ea.internal.annotations.API;
 import ea.internal.annotations.Internal;
+import ea.internal.monitoring.SceneStepEvent;
 import ea.internal.physics.WorldHandler;
 import org.jbox2d.common.Vec2;
 import org.jbox2d.dynamics.joints.*;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
 import java.awt.event.KeyEvent;
 import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 public class Scene implements KeyListenerContainer, MouseClickListenerContainer, MouseWheelListenerContainer, FrameUpdateListenerContainer {
@@ -46,11 +53,22 @@ public class Scene implements KeyListenerContainer, MouseClickListenerContainer,
     private static final Color DISTANCE_JOINT_COLOR = Color.ORANGE;
     private static final Color PRISMATIC_JOINT_COLOR = Color.GREEN;
 
+    /**
+     * Zählt die erzeugten Szenen, damit jede Szene beim selben Seed eine eigene, aber reproduzierbare Zahlenfolge
+     * erhält.
+     */
+    private static final AtomicLong sceneCounter = new AtomicLong();
+
     /**
      * Die Kamera des Spiels. Hiermit kann der sichtbare Ausschnitt der Zeichenebene bestimmt und manipuliert werden.
      */
     private final Camera camera;
 
+    /**
+     * Zusätzliche Kameras mit eigenem Ausschnitt, siehe {@link Viewport}.
+     */
+    private final List<Viewport> viewports = new CopyOnWriteArrayList<>();
+
     private final EventListeners<KeyListener> keyListeners = new EventListeners<>();
     private final EventListeners<MouseClickListener> mouseClickListeners = new EventListeners<>();
     private final EventListeners<MouseWheelListener> mouseWheelListeners = new EventListeners<>();
@@ -63,6 +81,21 @@ public class Scene implements KeyListenerContainer, MouseClickListenerContainer,
 
     private Color backgroundColor = Color.BLACK;
 
+    /**
+     * Zeichnet nur geänderte Bereiche neu, <code>null</code>, solange die Szene jeden Frame vollständig gezeichnet
+     * wird.
+     */
+    private IncrementalRenderer incrementalRenderer;
+
+    /**
+     * Zeichnet auf mehreren Prozessorkernen, <code>null</code>, solange der Spiel-Thread allein zeichnet.
+     */
+    private ParallelRenderer parallelRenderer;
+
+    private final long randomKey = sceneCounter.incrementAndGet();
+
+    private final RandomGenerator random = new RandomGenerator(0);
+
     /**
      * Gibt das Main Layer dieser Scene aus.
      *
@@ -98,6 +131,9 @@ public class Scene implements KeyListenerContainer, MouseClickListenerContainer,
      */
     @Internal
     public final void step(float deltaSeconds, Function<Runnable, Future<?>> invoker) throws InterruptedException {
+        SceneStepEvent event = new SceneStepEvent();
+        event.begin();
+
         synchronized (layers) {
             Collection<Future<?>> layerFutures = new ArrayList<>(layers.size());
 
@@ -113,6 +149,29 @@ public class Scene implements KeyListenerContainer, MouseClickListenerContainer,
                     throw new RuntimeException(e);
                 }
             }
+
+            event.end();
+
+            if (event.shouldCommit()) {
+                event.layers = layers.size();
+                event.deltaSeconds = deltaSeconds;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Führt an allen Layern nacheinander eine feste Anzahl an Simulationsschritten aus. Im Gegensatz zu
+     * {@link #step(float, Function)} hängt das Ergebnis nicht von der gemessenen Zeit ab.
+     *
+     * @param worldSteps Anzahl Schritte der Länge {@link ea.internal.physics.WorldHandler#STEP_TIME}.
+     */
+    @Internal
+    public final void stepFixed(int worldSteps) {
+        synchronized (layers) {
+            for (Layer layer : layers) {
+                layer.stepFixed(worldSteps);
+            }
         }
     }
 
@@ -132,6 +191,47 @@ public class Scene implements KeyListenerContainer, MouseClickListenerContainer,
         }
     }
 
+    /**
+     * Bereitet die Szene außerhalb des Spiel-Threads auf ihren ersten Frame vor, damit der Wechsel zu ihr nicht
+     * ruckelt. Angemeldete Actors werden übernommen, die Physik-Welten vorbereitet und die Szene einmal unsichtbar
+     * gezeichnet, wodurch Zwischenspeicher und Schrift-Caches gefüllt werden.
+     *
+     * @param width  Breite des Fensters in Pixeln, bei <code>0</code> wird nicht gezeichnet.
+     * @param height Höhe des Fensters in Pixeln, bei <code>0</code> wird nicht gezeichnet.
+     */
+    @Internal
+    final void prepare(int width, int height) {
+        synchronized (layers) {
+            for (Layer layer : layers) {
+                layer.prepare();
+            }
+        }
+
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        BufferedImage image;
+
+        if (GraphicsEnvironment.isHeadless()) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        } else {
+            // Gleiches Format wie der Bildschirm, damit die Bilder für das echte Zeichnen beschleunigt vorliegen
+            image = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration().createCompatibleImage(width, height);
+        }
+
+        Graphics2D g = image.createGraphics();
+
+        // Wie beim echten Zeichnen, sonst landen die Glyphen mit der falschen Kantenglättung im Cache
+        g.addRenderingHints(GameLogic.RENDERING_HINTS);
+
+        try {
+            render(g, width, height);
+        } finally {
+            g.dispose();
+        }
+    }
+
     /**
      * Wird aufgerufen, wann immer ein Layerzustand innerhalb dieser Scene geändert wurde.
      * Stellt sicher, dass die Layer-Liste korrekt sortiert ist und aller Layer in der richtigen Reihenfolge gerendert
@@ -176,6 +276,166 @@ public class Scene implements KeyListenerContainer, MouseClickListenerContainer,
         return camera;
     }
 
+    /**
+     * Fügt einen Viewport hinzu, z.B. für Splitscreen. Sobald ein Viewport im Fenster liegt, wird die Szene nur
+     * noch in ihre Viewports gezeichnet.
+     *
+     * @param viewport Der neue Viewport. Er wird nach den bisherigen gezeichnet, liegt also bei Überschneidungen oben.
+     */
+    @API
+    public final void addViewport(Viewport viewport) {
+        viewports.add(viewport);
+    }
+
+    @API
+    public final void removeViewport(Viewport viewport) {
+        viewports.remove(viewport);
+    }
+
+    /**
+     * @return Die Viewports dieser Szene in Zeichenreihenfolge.
+     */
+    @API
+    public final List<Viewport> getViewports() {
+        return Collections.unmodifiableList(viewports);
+    }
+
+    /**
+     * Lässt die Hauptkamera und die Kameras aller Viewports ihrem Fokus folgen.
+     */
+    @Internal
+    final void updateCameras() {
+        camera.onFrameUpdate();
+
+        for (Viewport viewport : viewports) {
+            if (viewport.getCamera() != camera) {
+                viewport.getCamera().onFrameUpdate();
+            }
+        }
+    }
+
+    /**
+     * @return <code>true</code>, wenn mindestens ein Viewport in das Fenster zeichnet.
+     */
+    @Internal
+    final boolean hasFrameViewports() {
+        for (Viewport viewport : viewports) {
+            if (viewport.getTarget() == null) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Rechnet eine Position im Fenster über den obersten Viewport, der dort liegt, in eine Position auf der Hauptebene
+     * um.
+     *
+     * @param frameX          X-Koordinate im Fenster in Pixeln.
+     * @param frameY          Y-Koordinate im Fenster in Pixeln.
+     * @param frameWidthInPx  Breite des Fensters in Pixeln.
+     * @param frameHeightInPx Höhe des Fensters in Pixeln.
+     *
+     * @return Die Position in Metern, oder <code>null</code>, wenn dort kein Viewport im Fenster liegt.
+     *
+     * @see Viewport#convertFramePosition(Scene, int, int, int, int)
+     */
+    @Internal
+    final Vector convertViewportPosition(int frameX, int frameY, int frameWidthInPx, int frameHeightInPx) {
+        // Später hinzugefügte Viewports liegen oben
+        for (int i = viewports.size() - 1; i >= 0; i--) {
+            Vector position = viewports.get(i).convertFramePosition(this, frameX, frameY, frameWidthInPx, frameHeightInPx);
+
+            if (position != null) {
+                return position;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Zeichnet alle Viewports im Fenster. Alle Viewports beginnen, bevor auf den ersten gewartet wird, sodass sie sich
+     * die Zeichen-Threads teilen.
+     */
+    @Internal
+    final void renderViewports(Graphics2D g, int width, int height) {
+        RenderingHints hints = g.getRenderingHints();
+        List<Viewport> frameViewports = new ArrayList<>(viewports.size());
+
+        for (Viewport viewport : viewports) {
+            if (viewport.getTarget() == null) {
+                frameViewports.add(viewport);
+                viewport.startRender(this, viewportWidth(viewport, width), viewportHeight(viewport, height), hints);
+            }
+        }
+
+        for (Viewport viewport : frameViewports) {
+            int left = Math.round(viewport.getX() * width);
+            int top = Math.round(viewport.getY() * height);
+            Graphics2D viewportGraphics = (Graphics2D) g.create(left, top, viewportWidth(viewport, width), viewportHeight(viewport, height));
+
+            try {
+                viewport.finishRender(viewportGraphics);
+            } finally {
+                viewportGraphics.dispose();
+            }
+        }
+    }
+
+    /**
+     * Zeichnet alle Viewports mit eigenem {@link ea.internal.graphics.RenderTarget}.
+     */
+    @Internal
+    final void renderViewportTargets(RenderingHints hints) {
+        for (Viewport viewport : viewports) {
+            if (viewport.getTarget() != null) {
+                viewport.getTarget().render((g, width, height) -> {
+                    try {
+                        viewport.startRender(this, width, height, hints);
+                        viewport.finishRender(g);
+                    } finally {
+                        g.dispose();
+                    }
+                });
+            }
+        }
+    }
+
+    private static int viewportWidth(Viewport viewport, int width) {
+        return Math.max(1, Math.round((viewport.getX() + viewport.getWidth()) * width) - Math.round(viewport.getX() * width));
+    }
+
+    private static int viewportHeight(Viewport viewport, int height) {
+        return Math.max(1, Math.round((viewport.getY() + viewport.getHeight()) * height) - Math.round(viewport.getY() * height));
+    }
+
+    /**
+     * @return Die Layer dieser Szene, sortiert nach Layer-Position. Zugriff nur mit Lock auf die Liste.
+     */
+    @Internal
+    List<Layer> getLayers() {
+        return layers;
+    }
+
+    /**
+     * Gibt den Zufallsgenerator dieser Szene zurück. Er wird aus dem Seed von {@link Random#setSeed(long)} und der
+     * Reihenfolge, in der die Szenen erzeugt wurden, abgeleitet. Damit bleiben die Zufallszahlen einer Szene
+     * reproduzierbar, auch wenn andere Szenen oder Threads Zufallszahlen ziehen.
+     * <p>
+     * Der Generator ist nicht thread-sicher und sollte nur im Spiel-Thread verwendet werden, z.B. in
+     * {@link FrameUpdateListener}n.
+     *
+     * @return Der Zufallsgenerator dieser Szene.
+     */
+    @API
+    public final RandomGenerator getRandom() {
+        Random.reseedIfOutdated(random, randomKey);
+
+        return random;
+    }
+
     @Internal
     private void renderJoints(Graphics2D g) {
         // Display Joints
@@ -351,4 +611,75 @@ public class Scene implements KeyListenerContainer, MouseClickListenerContainer,
     public void setBackgroundColor(Color backgroundColor) {
         this.backgroundColor = backgroundColor;
     }
+
+    /**
+     * Setzt, ob die Szene inkrementell gezeichnet wird. Lohnt sich für Szenen, in denen sich pro Frame nur wenig
+     * bewegt, z.B. Menüs oder Brettspiele: Neu gezeichnet werden nur die Bereiche, in denen sich ein Actor bewegt,
+     * gedreht oder seine Sichtbarkeit, Deckkraft oder sein Aussehen geändert hat. Ändert sich gar nichts, wird kein
+     * neues Bild an den Bildschirm übergeben.
+     * <p>
+     * Die Fläche eines Actors wird über {@link Actor#computeRenderBounds(org.jbox2d.collision.AABB)} bestimmt. Eigene
+     * Actors müssen innerhalb ihrer Formen zeichnen oder die Methode überschreiben und Änderungen ihres Aussehens über
+     * {@link Actor#invalidateAppearance()} melden. Im Debug-Modus wird immer vollständig gezeichnet.
+     *
+     * @param incrementalRendering <code>true</code>: Nur geänderte Bereiche werden neu gezeichnet.
+     *                             <code>false</code>: Jeder Frame wird vollständig gezeichnet (Standard).
+     */
+    @API
+    public void setIncrementalRendering(boolean incrementalRendering) {
+        if (incrementalRendering != isIncrementalRendering()) {
+            incrementalRenderer = incrementalRendering ? new IncrementalRenderer() : null;
+        }
+    }
+
+    /**
+     * @return <code>true</code>, wenn die Szene inkrementell gezeichnet wird.
+     *
+     * @see #setIncrementalRendering(boolean)
+     */
+    @API
+    public boolean isIncrementalRendering() {
+        return incrementalRenderer != null;
+    }
+
+    @Internal
+    IncrementalRenderer getIncrementalRenderer() {
+        return incrementalRenderer;
+    }
+
+    /**
+     * Setzt, ob die Szene auf mehreren Prozessorkernen gezeichnet wird. Das Bild wird dazu in waagerechte Streifen
+     * geteilt, die gleichzeitig gezeichnet werden. Lohnt sich vor allem ohne Hardwarebeschleunigung
+     * ({@link Game#PIPELINE_PROPERTY}), bei hoher Auflösung und vielen Actors.
+     * <p>
+     * Wie beim inkrementellen Zeichnen werden die Flächen der Actors über
+     * {@link Actor#computeRenderBounds(org.jbox2d.collision.AABB)} bestimmt, eigene Actors müssen also innerhalb ihrer
+     * Formen zeichnen oder die Methode überschreiben. Außerdem darf {@link Actor#render(Graphics2D, float)} den Actor
+     * nicht verändern, da es für mehrere Streifen gleichzeitig aufgerufen wird. Inkrementelles Zeichnen hat Vorrang,
+     * im Debug-Modus zeichnet immer der Spiel-Thread.
+     *
+     * @param parallelRendering <code>true</code>: Die Szene wird in Streifen auf allen Kernen gezeichnet.
+     *                          <code>false</code>: Der Spiel-Thread zeichnet allein (Standard).
+     */
+    @API
+    public void setParallelRendering(boolean parallelRendering) {
+        if (parallelRendering != isParallelRendering()) {
+            parallelRenderer = parallelRendering ? new ParallelRenderer() : null;
+        }
+    }
+
+    /**
+     * @return <code>true</code>, wenn die Szene auf mehreren Prozessorkernen gezeichnet wird.
+     *
+     * @see #setParallelRendering(boolean)
+     */
+    @API
+    public boolean isParallelRendering() {
+        return parallelRenderer != null;
+    }
+
+    @Internal
+    ParallelRenderer getParallelRenderer() {
+        return parallelRenderer;
+    }
 }
@@ -0,0 +1,716 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea;
+
+import ea.actor.Actor;
+import ea.actor.StatefulAnimation;
+import ea.animation.TweenEngine;
+import ea.event.FrameUpdateListenerContainer;
+import ea.internal.Snapshottable;
+import ea.internal.annotations.API;
+import ea.internal.annotations.Internal;
+import ea.internal.physics.WorldHandler;
+import org.jbox2d.dynamics.Body;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ein Speicherstand einer {@link Scene}: Bewegungszustand aller Körper, Sichtbarkeit und Deckkraft aller Actors,
+ * Kamera, Zufallsgenerator der Szene sowie der Fortschritt laufender Animationen, Tweens und Tasks. Bei
+ * {@link StatefulAnimation}s wird die Abspielposition (Zustand, Frame und Zeit im Frame) gespeichert.
+ * <p>
+ * Ein Snapshot speichert <b>Zustand, keine Struktur</b>: Er wird in eine Szene zurückgespielt, die dieselben Layer
+ * und Actors in derselben Reihenfolge enthält, z.B. dieselbe Szene nach einigen Frames oder eine Szene, die vom
+ * selben Code aufgebaut wurde. Actors, die seit dem Snapshot hinzugekommen oder entfernt worden sind, werden nicht
+ * nachgebaut; in diesem Fall wirft {@link #restore(Scene)} eine Exception. Form, Dichte und andere selten
+ * geänderte Eigenschaften werden nicht gespeichert.
+ * <p>
+ * Snapshots sind unveränderlich. Wird beim Erstellen ein vorheriger Snapshot übergeben, werden unveränderte Blöcke
+ * von Körpern (z.B. schlafende oder statische Körper) mit diesem geteilt statt kopiert. Damit bleiben viele
+ * Snapshots hintereinander, wie sie für Rollback benötigt werden, günstig.
+ * <p>
+ * Impulse des Solvers aus vorherigen Simulationsschritten werden nicht gespeichert, sondern beim Erstellen und beim
+ * Zurückspielen verworfen; die Kontakte werden dabei neu aufgebaut. So rechnet die Szene nach dem Zurückspielen
+ * Bit für Bit so weiter wie nach dem Erstellen. Das Erstellen eines Snapshots verändert deshalb den folgenden
+ * Simulationsschritt geringfügig.
+ * <p>
+ * Erstellen und Zurückspielen muss im Spiel-Thread außerhalb des World-Steps erfolgen, z.B. in einem
+ * {@link FrameUpdateListener}.
+ */
+@API
+public final class SceneSnapshot {
+    private static final byte[] MAGIC = {'E', 'A', 'S', '4'};
+
+    /**
+     * Anzahl Actors je Block, der mit dem vorherigen Snapshot geteilt werden kann.
+     */
+    private static final int CHUNK_SIZE = 128;
+
+    /**
+     * Anzahl Werte je Actor:
+     * Transformation (4), Sweep (7), Geschwindigkeit (3), Kraft (3), Schlafzeit, Flags, Deckkraft.
+     */
+    private static final int STRIDE = 20;
+
+    private static final int FLAG_AWAKE = 1;
+    private static final int FLAG_VISIBLE = 2;
+
+    private final LayerState[] layers;
+
+    private final float cameraX, cameraY, cameraZoom, cameraRotation;
+
+    private final byte[] randomState;
+
+    /**
+     * Zustand aller {@link Snapshottable}-Listener, je Listener mit vorangestellter Länge.
+     */
+    private final byte[] listenerState;
+
+    private final int listenerCount;
+
+    /**
+     * Die Listener zum Zeitpunkt des Snapshots, <code>null</code> bei gelesenen Snapshots.
+     */
+    private final List<ListenerEntry> listeners;
+
+    private static final class LayerState {
+        private final float accumulator;
+        private final int actorCount;
+        private final int[][] chunks;
+
+        /**
+         * Welche Kontakte sich berühren, siehe {@link WorldHandler#resetSolverState(int[])}.
+         */
+        private final int[] touching;
+
+        private final TweenEngine.State tweens;
+
+        /**
+         * Abspielpositionen aller {@link StatefulAnimation}s in der Reihenfolge der Actors, je
+         * {@link StatefulAnimation#PLAYHEAD_SIZE} Werte.
+         */
+        private final int[] playheads;
+
+        /**
+         * <code>null</code> bei gelesenen Snapshots.
+         */
+        private final Actor[] actors;
+
+        private LayerState(float accumulator, int actorCount, int[][] chunks, int[] touching, TweenEngine.State tweens, int[] playheads, Actor[] actors) {
+            this.accumulator = accumulator;
+            this.actorCount = actorCount;
+            this.chunks = chunks;
+            this.touching = touching;
+            this.tweens = tweens;
+            this.playheads = playheads;
+            this.actors = actors;
+        }
+    }
+
+    private static final class ListenerEntry {
+        private final FrameUpdateListenerContainer owner;
+        private final Snapshottable listener;
+
+        private ListenerEntry(FrameUpdateListenerContainer owner, Snapshottable listener) {
+            this.owner = owner;
+            this.listener = listener;
+        }
+    }
+
+    private SceneSnapshot(LayerState[] layers, float cameraX, float cameraY, float cameraZoom, float cameraRotation, byte[] randomState, byte[] listenerState, int listenerCount, List<ListenerEntry> listeners) {
+        this.layers = layers;
+        this.cameraX = cameraX;
+        this.cameraY = cameraY;
+        this.cameraZoom = cameraZoom;
+        this.cameraRotation = cameraRotation;
+        this.randomState = randomState;
+        this.listenerState = listenerState;
+        this.listenerCount = listenerCount;
+        this.listeners = listeners;
+    }
+
+    /**
+     * Erstellt einen Snapshot der Szene.
+     *
+     * @param scene Die Szene.
+     *
+     * @return Der Snapshot.
+     */
+    @API
+    public static SceneSnapshot capture(Scene scene) {
+        return capture(scene, null);
+    }
+
+    /**
+     * Erstellt einen Snapshot der Szene und teilt dabei unveränderte Daten mit einem vorherigen Snapshot.
+     *
+     * @param scene    Die Szene.
+     * @param previous Ein früherer Snapshot derselben Szene oder <code>null</code>.
+     *
+     * @return Der Snapshot.
+     */
+    @API
+    public static SceneSnapshot capture(Scene scene, SceneSnapshot previous) {
+        List<Layer> sceneLayers = copyLayers(scene);
+        LayerState[] layerStates = new LayerState[sceneLayers.size()];
+        int[] scratch = new int[CHUNK_SIZE * STRIDE];
+
+        for (int i = 0; i < layerStates.length; i++) {
+            LayerState previousLayer = previous != null && previous.layers.length == layerStates.length ? previous.layers[i] : null;
+            layerStates[i] = captureLayer(sceneLayers.get(i), previousLayer, scratch);
+        }
+
+        Camera camera = scene.getCamera();
+        Vector cameraPosition = camera.getPosition();
+
+        ByteBuffer random = ByteBuffer.allocate(16);
+        scene.getRandom().writeState(random);
+
+        List<ListenerEntry> listeners = collectListeners(scene, sceneLayers);
+        ByteBuffer listenerBuffer = ByteBuffer.allocate(64 + listeners.size() * 32).order(ByteOrder.LITTLE_ENDIAN);
+
+        for (ListenerEntry entry : listeners) {
+            listenerBuffer = writeListener(listenerBuffer, entry.listener);
+        }
+
+        return new SceneSnapshot(layerStates, cameraPosition.getX(), cameraPosition.getY(), camera.getZoom(), camera.getRotation(), random.array(), Arrays.copyOf(listenerBuffer.array(), listenerBuffer.position()), listeners.size(), listeners);
+    }
+
+    private static List<Layer> copyLayers(Scene scene) {
+        List<Layer> layers = scene.getLayers();
+
+        synchronized (layers) {
+            return new ArrayList<>(layers);
+        }
+    }
+
+    private static LayerState captureLayer(Layer layer, LayerState previous, int[] scratch) {
+        WorldHandler worldHandler = layer.getWorldHandler();
+
+        synchronized (worldHandler) {
+            worldHandler.assertNoWorldStep();
+
+            List<Actor> actorList = layer.getActors();
+            Actor[] actors = actorList.toArray(new Actor[0]);
+            int count = actors.length;
+            int[][] chunks = new int[(count + CHUNK_SIZE - 1) / CHUNK_SIZE][];
+
+            if (previous != null && previous.actorCount != count) {
+                previous = null;
+            }
+
+            for (int chunk = 0; chunk < chunks.length; chunk++) {
+                int start = chunk * CHUNK_SIZE;
+                int end = Math.min(count, start + CHUNK_SIZE);
+                int length = (end - start) * STRIDE;
+
+                for (int i = start; i < end; i++) {
+                    writeActor(actors[i], scratch, (i - start) * STRIDE);
+                }
+
+                if (previous != null && previous.actors != null && sameActors(previous.actors, actors, start, end) && Arrays.equals(previous.chunks[chunk], 0, length, scratch, 0, length)) {
+                    chunks[chunk] = previous.chunks[chunk];
+                } else {
+                    chunks[chunk] = Arrays.copyOf(scratch, length);
+                }
+            }
+
+            int[] touching = worldHandler.resetSolverState(null);
+
+            return new LayerState(worldHandler.getSimulationAccumulator(), count, chunks, touching, layer.getTweens().captureState(), capturePlayheads(actors), actors);
+        }
+    }
+
+    private static int[] capturePlayheads(Actor[] actors) {
+        int animations = 0;
+
+        for (Actor actor : actors) {
+            if (actor instanceof StatefulAnimation) {
+                animations++;
+            }
+        }
+
+        int[] playheads = new int[animations * StatefulAnimation.PLAYHEAD_SIZE];
+        int offset = 0;
+
+        for (Actor actor : actors) {
+            if (actor instanceof StatefulAnimation) {
+                ((StatefulAnimation<?>) actor).writePlayhead(playheads, offset);
+                offset += StatefulAnimation.PLAYHEAD_SIZE;
+            }
+        }
+
+        return playheads;
+    }
+
+    /**
+     * Prüft, ob die Abspielpositionen zu den {@link StatefulAnimation}s passen.
+     */
+    private static boolean matchesPlayheads(List<Actor> actors, int[] playheads) {
+        int offset = 0;
+
+        for (Actor actor : actors) {
+            if (actor instanceof StatefulAnimation) {
+                if (offset == playheads.length || !((StatefulAnimation<?>) actor).isValidPlayhead(playheads, offset)) {
+                    return false;
+                }
+
+                offset += StatefulAnimation.PLAYHEAD_SIZE;
+            }
+        }
+
+        return offset == playheads.length;
+    }
+
+    private static boolean sameActors(Actor[] a, Actor[] b, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static void writeActor(Actor actor, int[] target, int offset) {
+        Body body = actor.getPhysicsHandler().getBody();
+
+        if (body == null) {
+            Arrays.fill(target, offset, offset + STRIDE, 0);
+        } else {
+            target[offset] = Float.floatToRawIntBits(body.m_xf.p.x);
+            target[offset + 1] = Float.floatToRawIntBits(body.m_xf.p.y);
+            target[offset + 2] = Float.floatToRawIntBits(body.m_xf.q.s);
+            target[offset + 3] = Float.floatToRawIntBits(body.m_xf.q.c);
+            target[offset + 4] = Float.floatToRawIntBits(body.m_sweep.c0.x);
+            target[offset + 5] = Float.floatToRawIntBits(body.m_sweep.c0.y);
+            target[offset + 6] = Float.floatToRawIntBits(body.m_sweep.c.x);
+            target[offset + 7] = Float.floatToRawIntBits(body.m_sweep.c.y);
+            target[offset + 8] = Float.floatToRawIntBits(body.m_sweep.a0);
+            target[offset + 9] = Float.floatToRawIntBits(body.m_sweep.a);
+            target[offset + 10] = Float.floatToRawIntBits(body.m_sweep.alpha0);
+            target[offset + 11] = Float.floatToRawIntBits(body.m_linearVelocity.x);
+            target[offset + 12] = Float.floatToRawIntBits(body.m_linearVelocity.y);
+            target[offset + 13] = Float.floatToRawIntBits(body.m_angularVelocity);
+            target[offset + 14] = Float.floatToRawIntBits(body.m_force.x);
+            target[offset + 15] = Float.floatToRawIntBits(body.m_force.y);
+            target[offset + 16] = Float.floatToRawIntBits(body.m_torque);
+            target[offset + 17] = Float.floatToRawIntBits(body.m_sleepTime);
+        }
+
+        target[offset + 18] = (body != null && body.isAwake() ? FLAG_AWAKE : 0) | (actor.isVisible() ? FLAG_VISIBLE : 0);
+        target[offset + 19] = Float.floatToRawIntBits(actor.getOpacity());
+    }
+
+    private static void readActor(Actor actor, int[] source, int offset) {
+        Body body = actor.getPhysicsHandler().getBody();
+        int flags = source[offset + 18];
+
+        if (body != null) {
+            body.m_sweep.a = Float.intBitsToFloat(source[offset + 9]);
+
+            // Aktualisiert auch die Broad-Phase, danach werden die exakten Werte übernommen
+            body.m_xf.p.x = Float.intBitsToFloat(source[offset]);
+            body.m_xf.p.y = Float.intBitsToFloat(source[offset + 1]);
+            body.setTransform(body.m_xf.p, body.m_sweep.a);
+
+            body.m_xf.q.s = Float.intBitsToFloat(source[offset + 2]);
+            body.m_xf.q.c = Float.intBitsToFloat(source[offset + 3]);
+            body.m_sweep.c0.x = Float.intBitsToFloat(source[offset + 4]);
+            body.m_sweep.c0.y = Float.intBitsToFloat(source[offset + 5]);
+            body.m_sweep.c.x = Float.intBitsToFloat(source[offset + 6]);
+            body.m_sweep.c.y = Float.intBitsToFloat(source[offset + 7]);
+            body.m_sweep.a0 = Float.intBitsToFloat(source[offset + 8]);
+            body.m_sweep.alpha0 = Float.intBitsToFloat(source[offset + 10]);
+            body.m_linearVelocity.x = Float.intBitsToFloat(source[offset + 11]);
+            body.m_linearVelocity.y = Float.intBitsToFloat(source[offset + 12]);
+            body.m_angularVelocity = Float.intBitsToFloat(source[offset + 13]);
+            body.m_force.x = Float.intBitsToFloat(source[offset + 14]);
+            body.m_force.y = Float.intBitsToFloat(source[offset + 15]);
+            body.m_torque = Float.intBitsToFloat(source[offset + 16]);
+            body.m_sleepTime = Float.intBitsToFloat(source[offset + 17]);
+
+            if ((flags & FLAG_AWAKE) != 0) {
+                body.m_flags |= Body.e_awakeFlag;
+            } else {
+                body.m_flags &= ~Body.e_awakeFlag;
+            }
+        }
+
+        actor.setVisible((flags & FLAG_VISIBLE) != 0);
+        actor.setOpacity(Float.intBitsToFloat(source[offset + 19]));
+    }
+
+    /**
+     * Sammelt alle {@link Snapshottable}-Listener der Szene, jeweils mit dem Container, an dem sie angemeldet sind.
+     * Listener von Actors sind zusätzlich am Layer angemeldet und werden nur einmal (beim Actor) gezählt.
+     */
+    private static List<ListenerEntry> collectListeners(Scene scene, List<Layer> layers) {
+        List<ListenerEntry> result = new ArrayList<>();
+
+        addListeners(result, scene, scene.getFrameUpdateListeners().toList(), Collections.emptySet());
+
+        for (Layer layer : layers) {
+            Set<Object> actorListeners = Collections.newSetFromMap(new IdentityHashMap<>());
+
+            for (Actor actor : layer.getActors()) {
+                List<FrameUpdateListener> list = actor.getFrameUpdateListeners().toList();
+                actorListeners.addAll(list);
+                addListeners(result, actor, list, Collections.emptySet());
+            }
+
+            addListeners(result, layer, layer.getFrameUpdateListeners().toList(), actorListeners);
+        }
+
+        return result;
+    }
+
+    private static void addListeners(List<ListenerEntry> target, FrameUpdateListenerContainer owner, List<FrameUpdateListener> listeners, Set<Object> exclude) {
+        for (FrameUpdateListener listener : listeners) {
+            if (listener instanceof Snapshottable && !exclude.contains(listener)) {
+                target.add(new ListenerEntry(owner, (Snapshottable) listener));
+            }
+        }
+    }
+
+    private static ByteBuffer writeListener(ByteBuffer buffer, Snapshottable listener) {
+        while (true) {
+            int start = buffer.position();
+
+            try {
+                buffer.putShort((short) 0);
+                listener.writeState(buffer);
+                buffer.putShort(start, (short) (buffer.position() - start - 2));
+
+                return buffer;
+            } catch (java.nio.BufferOverflowException e) {
+                ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.position(start);
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+    }
+
+    /**
+     * Spielt den Snapshot in die Szene zurück.
+     *
+     * @param scene Die Szene, die dieselben Layer und Actors in derselben Reihenfolge enthalten muss wie beim
+     *              Erstellen des Snapshots.
+     *
+     * @throws IllegalStateException Wenn die Szene nicht zum Snapshot passt.
+     */
+    @API
+    public void restore(Scene scene) {
+        List<Layer> sceneLayers = copyLayers(scene);
+
+        if (sceneLayers.size() != layers.length) {
+            throw new IllegalStateException("Die Szene hat " + sceneLayers.size() + " Layer, der Snapshot " + layers.length);
+        }
+
+        for (int i = 0; i < layers.length; i++) {
+            List<Actor> actors = sceneLayers.get(i).getActors();
+            LayerState state = layers[i];
+
+            if (actors.size() != state.actorCount || (state.actors != null && !sameActors(state.actors, actors.toArray(new Actor[0]), 0, state.actorCount)) || !matchesPlayheads(actors, state.playheads)) {
+                throw new IllegalStateException("Die Actors in Layer " + i + " passen nicht zum Snapshot");
+            }
+
+            int tweens = sceneLayers.get(i).getTweens().size();
+
+            if (!state.tweens.hasTweens() && tweens != state.tweens.size()) {
+                throw new IllegalStateException("In Layer " + i + " laufen " + tweens + " Tweens, im Snapshot " + state.tweens.size());
+            }
+        }
+
+        List<ListenerEntry> currentListeners = collectListeners(scene, sceneLayers);
+
+        if (listeners == null && currentListeners.size() != listenerCount) {
+            throw new IllegalStateException("Die Szene hat " + currentListeners.size() + " Animationen und Tasks, der Snapshot " + listenerCount);
+        }
+
+        for (int i = 0; i < layers.length; i++) {
+            restoreLayer(sceneLayers.get(i), layers[i]);
+        }
+
+        Camera camera = scene.getCamera();
+        camera.setPostion(cameraX, cameraY);
+        camera.setZoom(cameraZoom);
+        camera.rotateTo(cameraRotation);
+
+        scene.getRandom().readState(ByteBuffer.wrap(randomState));
+
+        List<ListenerEntry> targets = listeners == null ? currentListeners : reconcileListeners(currentListeners);
+        ByteBuffer buffer = ByteBuffer.wrap(listenerState).order(ByteOrder.LITTLE_ENDIAN);
+
+        for (ListenerEntry entry : targets) {
+            int length = buffer.getShort() & 0xffff;
+            int end = buffer.position() + length;
+
+            entry.listener.readState(buffer);
+            buffer.position(end);
+        }
+    }
+
+    private static void restoreLayer(Layer layer, LayerState state) {
+        WorldHandler worldHandler = layer.getWorldHandler();
+
+        synchronized (worldHandler) {
+            worldHandler.assertNoWorldStep();
+
+            List<Actor> actors = layer.getActors();
+
+            synchronized (worldHandler.getWorld()) {
+                for (int chunk = 0; chunk < state.chunks.length; chunk++) {
+                    int start = chunk * CHUNK_SIZE;
+                    int end = Math.min(state.actorCount, start + CHUNK_SIZE);
+                    int[] data = state.chunks[chunk];
+
+                    for (int i = start; i < end; i++) {
+                        readActor(actors.get(i), data, (i - start) * STRIDE);
+                    }
+                }
+            }
+
+            int offset = 0;
+
+            for (Actor actor : actors) {
+                if (actor instanceof StatefulAnimation) {
+                    ((StatefulAnimation<?>) actor).readPlayhead(state.playheads, offset);
+                    offset += StatefulAnimation.PLAYHEAD_SIZE;
+                }
+            }
+
+            worldHandler.setSimulationAccumulator(state.accumulator);
+            worldHandler.resetSolverState(state.touching);
+            layer.getTweens().restoreState(state.tweens);
+            layer.invalidateRenderCache();
+        }
+    }
+
+    /**
+     * Meldet Animationen und Tasks ab, die nach dem Snapshot entstanden sind, und meldet inzwischen beendete wieder
+     * an.
+     */
+    private List<ListenerEntry> reconcileListeners(List<ListenerEntry> current) {
+        Set<Snapshottable> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (ListenerEntry entry : listeners) {
+            expected.add(entry.listener);
+        }
+
+        Set<Snapshottable> registered = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (ListenerEntry entry : current) {
+            if (expected.contains(entry.listener)) {
+                registered.add(entry.listener);
+            } else {
+                entry.owner.removeFrameUpdateListener((FrameUpdateListener) entry.listener);
+            }
+        }
+
+        for (ListenerEntry entry : listeners) {
+            if (!registered.contains(entry.listener)) {
+                entry.owner.addFrameUpdateListener((FrameUpdateListener) entry.listener);
+            }
+        }
+
+        return listeners;
+    }
+
+    /**
+     * Schreibt den Snapshot in eine Datei.
+     *
+     * @param file Die Datei. Wird überschrieben, falls sie existiert.
+     */
+    @API
+    public void write(Path file) throws IOException {
+        ByteBuffer buffer = toByteBuffer();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Liest einen mit {@link #write(Path)} geschriebenen Snapshot.
+     *
+     * @param file Die Datei.
+     *
+     * @return Der Snapshot.
+     */
+    @API
+    public static SceneSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) channel.size());
+
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Unerwartetes Dateiende");
+                }
+            }
+
+            buffer.flip();
+
+            return fromByteBuffer(buffer);
+        }
+    }
+
+    /**
+     * @return Der Snapshot im Binärformat, z.B. zum Übertragen über das Netzwerk.
+     */
+    @Internal
+    public ByteBuffer toByteBuffer() {
+        int size = MAGIC.length + 4 + 16 + randomState.length + 8 + listenerState.length;
+
+        for (LayerState layer : layers) {
+            size += 20 + (layer.actorCount * STRIDE + layer.touching.length + layer.playheads.length) * 4 + layer.tweens.size() * 5;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.put(MAGIC);
+        buffer.putInt(layers.length);
+        buffer.putFloat(cameraX).putFloat(cameraY).putFloat(cameraZoom).putFloat(cameraRotation);
+        buffer.put(randomState);
+
+        for (LayerState layer : layers) {
+            buffer.putFloat(layer.accumulator);
+            buffer.putInt(layer.actorCount);
+
+            IntBuffer ints = buffer.asIntBuffer();
+
+            for (int[] chunk : layer.chunks) {
+                ints.put(chunk);
+            }
+
+            ints.put(layer.touching.length);
+            ints.put(layer.touching);
+
+            buffer.position(buffer.position() + ints.position() * 4);
+            buffer.putInt(layer.tweens.size());
+
+            for (int i = 0; i < layer.tweens.size(); i++) {
+                buffer.putFloat(layer.tweens.getTime(i));
+                buffer.put(layer.tweens.getFlags(i));
+            }
+
+            buffer.putInt(layer.playheads.length);
+            buffer.asIntBuffer().put(layer.playheads);
+            buffer.position(buffer.position() + layer.playheads.length * 4);
+        }
+
+        buffer.putInt(listenerCount);
+        buffer.putInt(listenerState.length);
+        buffer.put(listenerState);
+
+        return buffer.flip();
+    }
+
+    /**
+     * Liest einen Snapshot aus seinem Binärformat.
+     *
+     * @param buffer Daten im Format von {@link #toByteBuffer()}.
+     *
+     * @return Der Snapshot.
+     */
+    @Internal
+    public static SceneSnapshot fromByteBuffer(ByteBuffer buffer) throws IOException {
+        buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+
+        byte[] magic = new byte[MAGIC.length];
+
+        if (buffer.remaining() < magic.length) {
+            throw new IOException("Kein gültiger Szenen-Snapshot");
+        }
+
+        buffer.get(magic);
+
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Kein gültiger Szenen-Snapshot");
+        }
+
+        try {
+            LayerState[] layers = new LayerState[buffer.getInt()];
+            float cameraX = buffer.getFloat();
+            float cameraY = buffer.getFloat();
+            float cameraZoom = buffer.getFloat();
+            float cameraRotation = buffer.getFloat();
+
+            byte[] randomState = new byte[16];
+            buffer.get(randomState);
+
+            for (int i = 0; i < layers.length; i++) {
+                float accumulator = buffer.getFloat();
+                int count = buffer.getInt();
+                int[][] chunks = new int[(count + CHUNK_SIZE - 1) / CHUNK_SIZE][];
+
+                IntBuffer ints = buffer.asIntBuffer();
+
+                for (int chunk = 0; chunk < chunks.length; chunk++) {
+                    chunks[chunk] = new int[(Math.min(count, (chunk + 1) * CHUNK_SIZE) - chunk * CHUNK_SIZE) * STRIDE];
+                    ints.get(chunks[chunk]);
+                }
+
+                int[] touching = new int[ints.get()];
+                ints.get(touching);
+
+                buffer.position(buffer.position() + ints.position() * 4);
+
+                float[] tweenTimes = new float[buffer.getInt()];
+                byte[] tweenFlags = new byte[tweenTimes.length];
+
+                for (int tween = 0; tween < tweenTimes.length; tween++) {
+                    tweenTimes[tween] = buffer.getFloat();
+                    tweenFlags[tween] = buffer.get();
+                }
+
+                int[] playheads = new int[buffer.getInt()];
+                buffer.asIntBuffer().get(playheads);
+                buffer.position(buffer.position() + playheads.length * 4);
+
+                layers[i] = new LayerState(accumulator, count, chunks, touching, new TweenEngine.State(null, tweenTimes, tweenFlags), playheads, null);
+            }
+
+            int listenerCount = buffer.getInt();
+            byte[] listenerState = new byte[buffer.getInt()];
+            buffer.get(listenerState);
+
+            return new SceneSnapshot(layers, cameraX, cameraY, cameraZoom, cameraRotation, randomState, listenerState, listenerCount, null);
+        } catch (java.nio.BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IOException("Der Szenen-Snapshot ist unvollständig", e);
+        }
+    }
+}
@@ -0,0 +1,523 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea;
+
+import ea.actor.Actor;
+import ea.actor.BodyType;
+import ea.internal.annotations.Internal;
+import ea.internal.physics.MergedFixture;
+import ea.internal.physics.WorldHandler;
+import org.jbox2d.collision.shapes.ChainShape;
+import org.jbox2d.collision.shapes.CircleShape;
+import org.jbox2d.collision.shapes.EdgeShape;
+import org.jbox2d.collision.shapes.PolygonShape;
+import org.jbox2d.collision.shapes.Shape;
+import org.jbox2d.common.Transform;
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.Body;
+import org.jbox2d.dynamics.BodyDef;
+import org.jbox2d.dynamics.Fixture;
+import org.jbox2d.dynamics.FixtureDef;
+import org.jbox2d.dynamics.World;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fasst die statischen Körper eines Layers zu wenigen Sammelkörpern zusammen. Statt eines Bodies pro Actor gibt es
+ * einen Body pro Region von {@link #REGION_SIZE} Metern; achsenparallele Rechtecke mit gleichem Material, die sich
+ * berühren oder überlappen, werden dabei zu einem Rechteck verschmolzen. Das verkleinert den Broadphase-Baum und
+ * beseitigt die Nähte, an denen Körper sonst an den Kanten benachbarter Rechtecke hängen bleiben.
+ * <p>
+ * Die ursprünglichen Actors bleiben am Layer und werden weiter gezeichnet, ihre Bodies sind aber inaktiv. Die Fixtures
+ * der Sammelkörper verweisen auf den Actor, aus dem sie entstanden sind (siehe {@link WorldHandler#getActor(Fixture)}),
+ * damit Kollisionen anderer Actors weiterhin einen Actor melden. Verschmolzene Rechtecke merken sich in einer
+ * {@link MergedFixture} den Actor jedes ursprünglichen Rechtecks; Kollisionen melden den Actor unter dem
+ * Berührungspunkt.
+ * <p>
+ * Nicht zusammengefasst werden Actors mit eigenen Kollisions-Listenern oder Joints. Bewegt sich ein zusammengefasster
+ * Actor, ändert sich sein Typ oder wird er entfernt, wird nur seine Region neu aufgebaut.
+ *
+ * @see Layer#setStaticGeometryBaked(boolean)
+ */
+@Internal
+final class StaticGeometryBaker {
+    /**
+     * Kantenlänge einer Region in Metern.
+     */
+    static final float REGION_SIZE = 32;
+
+    /**
+     * Toleranz in Metern, bis zu der Rechtecke als bündig gelten.
+     */
+    private static final float EPSILON = 1e-3f;
+
+    private static final class Baked {
+        private long region;
+        private float x, y, angle;
+        private Fixture fixtures;
+        private int frame;
+    }
+
+    private static final class Region {
+        private final List<Actor> actors = new ArrayList<>();
+        private Body body;
+        private boolean dirty;
+    }
+
+    /**
+     * Ein achsenparalleles Rechteck in Weltkoordinaten.
+     */
+    private static final class Box {
+        private float x0, y0, x1, y1;
+        private final Fixture template;
+        private final Actor actor;
+
+        /**
+         * Die ursprünglichen Rechtecke, falls dieses aus mehreren verschmolzen ist, sonst <code>null</code>.
+         */
+        private List<Box> parts;
+
+        private Box(float x0, float y0, float x1, float y1, Fixture template, Actor actor) {
+            this.x0 = x0;
+            this.y0 = y0;
+            this.x1 = x1;
+            this.y1 = y1;
+            this.template = template;
+            this.actor = actor;
+        }
+
+        /**
+         * Merkt sich die ursprünglichen Rechtecke von <code>box</code>, bevor dieses Rechteck um sie wächst.
+         */
+        private void absorb(Box box) {
+            if (parts == null) {
+                parts = new ArrayList<>();
+                parts.add(new Box(x0, y0, x1, y1, template, actor));
+            }
+
+            if (box.parts == null) {
+                parts.add(box);
+            } else {
+                parts.addAll(box.parts);
+            }
+        }
+
+        /**
+         * @return Der Actor oder bei Rechtecken verschiedener Actors eine {@link MergedFixture}.
+         */
+        private Object createUserData() {
+            if (parts == null) {
+                return actor;
+            }
+
+            float[] bounds = new float[parts.size() * 4];
+            Actor[] actors = new Actor[parts.size()];
+            boolean shared = true;
+
+            for (int i = 0; i < actors.length; i++) {
+                Box part = parts.get(i);
+
+                bounds[4 * i] = part.x0;
+                bounds[4 * i + 1] = part.y0;
+                bounds[4 * i + 2] = part.x1;
+                bounds[4 * i + 3] = part.y1;
+                actors[i] = part.actor;
+                shared &= part.actor == actor;
+            }
+
+            return shared ? actor : new MergedFixture(bounds, actors);
+        }
+    }
+
+    private static final Comparator<Fixture> MATERIAL = Comparator.<Fixture>comparingDouble(Fixture::getFriction) //
+            .thenComparingDouble(Fixture::getRestitution) //
+            .thenComparingDouble(Fixture::getDensity) //
+            .thenComparingInt(fixture -> fixture.m_filter.categoryBits) //
+            .thenComparingInt(fixture -> fixture.m_filter.maskBits) //
+            .thenComparingInt(fixture -> fixture.m_filter.groupIndex);
+
+    private static final Comparator<Box> ROWS = Comparator.<Box, Fixture>comparing(box -> box.template, MATERIAL) //
+            .thenComparingDouble(box -> box.y0) //
+            .thenComparingDouble(box -> box.y1) //
+            .thenComparingDouble(box -> box.x0);
+
+    private static final Comparator<Box> COLUMNS = Comparator.<Box, Fixture>comparing(box -> box.template, MATERIAL) //
+            .thenComparingDouble(box -> box.x0) //
+            .thenComparingDouble(box -> box.x1) //
+            .thenComparingDouble(box -> box.y0);
+
+    private final Layer layer;
+
+    private final Map<Actor, Baked> baked = new IdentityHashMap<>();
+    private final Map<Long, Region> regions = new HashMap<>();
+
+    private final Set<Body> listenedBodies = new HashSet<>();
+
+    private final Transform transform = new Transform();
+    private final Vec2 point = new Vec2();
+
+    private int frame;
+
+    StaticGeometryBaker(Layer layer) {
+        this.layer = layer;
+    }
+
+    /**
+     * @return Anzahl der Sammelkörper.
+     */
+    int getBodyCount() {
+        int count = 0;
+
+        for (Region region : regions.values()) {
+            if (region.body != null) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * @return Ob der Actor in einem Sammelkörper steckt.
+     */
+    boolean isBaked(Actor actor) {
+        return baked.containsKey(actor);
+    }
+
+    /**
+     * Gleicht die Sammelkörper mit dem Layer ab. Darf nicht während des World-Steps laufen.
+     */
+    void update() {
+        frame++;
+
+        WorldHandler worldHandler = layer.getWorldHandler();
+
+        listenedBodies.clear();
+        worldHandler.collectListenedBodies(listenedBodies);
+
+        for (Actor actor : layer.getActors()) {
+            Body body = actor.getPhysicsHandler().getBody();
+
+            if (body == null) {
+                continue;
+            }
+
+            Baked entry = baked.get(actor);
+
+            if (entry == null) {
+                if (body.isActive() && isCandidate(actor, body)) {
+                    entry = new Baked();
+                    entry.frame = frame;
+                    baked.put(actor, entry);
+
+                    place(actor, body, entry);
+                    body.setActive(false);
+                }
+
+                continue;
+            }
+
+            entry.frame = frame;
+
+            // setBodyType aktiviert den Body wieder
+            if (body.isActive() || !isCandidate(actor, body)) {
+                baked.remove(actor);
+                unplace(actor, entry);
+                body.setActive(true);
+            } else if (body.getPosition().x != entry.x || body.getPosition().y != entry.y || body.getAngle() != entry.angle || body.m_fixtureList != entry.fixtures) {
+                unplace(actor, entry);
+                place(actor, body, entry);
+            }
+        }
+
+        // Entfernte Actors, ihre Bodies sind bereits zerstört
+        Iterator<Map.Entry<Actor, Baked>> iterator = baked.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            Map.Entry<Actor, Baked> entry = iterator.next();
+
+            if (entry.getValue().frame != frame) {
+                unplace(entry.getKey(), entry.getValue());
+                iterator.remove();
+            }
+        }
+
+        Iterator<Region> regionIterator = regions.values().iterator();
+
+        while (regionIterator.hasNext()) {
+            Region region = regionIterator.next();
+
+            if (region.dirty) {
+                rebuild(region);
+
+                if (region.actors.isEmpty()) {
+                    regionIterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Löst alle Sammelkörper auf und aktiviert die Bodies der Actors wieder.
+     */
+    void release() {
+        World world = layer.getWorldHandler().getWorld();
+
+        synchronized (world) {
+            for (Region region : regions.values()) {
+                if (region.body != null) {
+                    world.destroyBody(region.body);
+                }
+            }
+        }
+
+        for (Actor actor : baked.keySet()) {
+            Body body = actor.getPhysicsHandler().getBody();
+
+            if (body != null) {
+                body.setActive(true);
+            }
+        }
+
+        regions.clear();
+        baked.clear();
+    }
+
+    private boolean isCandidate(Actor actor, Body body) {
+        return actor.getBodyType() == BodyType.STATIC && body.getJointList() == null && !listenedBodies.contains(body);
+    }
+
+    private void place(Actor actor, Body body, Baked entry) {
+        entry.x = body.getPosition().x;
+        entry.y = body.getPosition().y;
+        entry.angle = body.getAngle();
+        entry.fixtures = body.m_fixtureList;
+
+        Vector center = actor.getCenter();
+        entry.region = key((int) Math.floor(center.getX() / REGION_SIZE), (int) Math.floor(center.getY() / REGION_SIZE));
+
+        Region region = regions.computeIfAbsent(entry.region, key -> new Region());
+        region.actors.add(actor);
+        region.dirty = true;
+    }
+
+    private void unplace(Actor actor, Baked entry) {
+        Region region = regions.get(entry.region);
+        region.actors.remove(actor);
+        region.dirty = true;
+    }
+
+    private void rebuild(Region region) {
+        region.dirty = false;
+
+        World world = layer.getWorldHandler().getWorld();
+
+        synchronized (world) {
+            if (region.body != null) {
+                world.destroyBody(region.body);
+                region.body = null;
+            }
+
+            if (region.actors.isEmpty()) {
+                return;
+            }
+
+            region.body = world.createBody(new BodyDef()); // statisch, Ursprung im Weltursprung
+
+            List<Box> boxes = new ArrayList<>();
+
+            for (Actor actor : region.actors) {
+                Body body = actor.getPhysicsHandler().getBody();
+                transform.set(body.getTransform());
+
+                for (Fixture fixture = body.m_fixtureList; fixture != null; fixture = fixture.m_next) {
+                    if (fixture.isSensor()) {
+                        continue;
+                    }
+
+                    Box box = toBox(fixture, actor);
+
+                    if (box != null) {
+                        boxes.add(box);
+                    } else {
+                        addFixture(region.body, toWorld(fixture.m_shape), fixture, actor);
+                    }
+                }
+            }
+
+            for (Box box : merge(merge(boxes, ROWS, true), COLUMNS, false)) {
+                PolygonShape shape = new PolygonShape();
+                shape.setAsBox((box.x1 - box.x0) / 2, (box.y1 - box.y0) / 2, new Vec2((box.x0 + box.x1) / 2, (box.y0 + box.y1) / 2), 0);
+
+                addFixture(region.body, shape, box.template, box.createUserData());
+            }
+        }
+    }
+
+    /**
+     * @return Das Rechteck, wenn die Fixture in Weltkoordinaten ein achsenparalleles Rechteck ist, sonst
+     * <code>null</code>.
+     */
+    private Box toBox(Fixture fixture, Actor actor) {
+        if (!(fixture.m_shape instanceof PolygonShape) || ((PolygonShape) fixture.m_shape).m_count != 4) {
+            return null;
+        }
+
+        PolygonShape polygon = (PolygonShape) fixture.m_shape;
+
+        float x0 = Float.POSITIVE_INFINITY, y0 = Float.POSITIVE_INFINITY;
+        float x1 = Float.NEGATIVE_INFINITY, y1 = Float.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < 4; i++) {
+            Transform.mulToOutUnsafe(transform, polygon.m_vertices[i], point);
+
+            x0 = Math.min(x0, point.x);
+            y0 = Math.min(y0, point.y);
+            x1 = Math.max(x1, point.x);
+            y1 = Math.max(y1, point.y);
+        }
+
+        // Achsenparallel: jede Ecke liegt auf einer der Kanten des umschließenden Rechtecks
+        for (int i = 0; i < 4; i++) {
+            Transform.mulToOutUnsafe(transform, polygon.m_vertices[i], point);
+
+            boolean onX = Math.abs(point.x - x0) < EPSILON || Math.abs(point.x - x1) < EPSILON;
+            boolean onY = Math.abs(point.y - y0) < EPSILON || Math.abs(point.y - y1) < EPSILON;
+
+            if (!onX || !onY) {
+                return null;
+            }
+        }
+
+        return new Box(x0, y0, x1, y1, fixture, actor);
+    }
+
+    /**
+     * Verschmilzt bündig aneinanderliegende Rechtecke mit gleichem Material entlang einer Achse.
+     *
+     * @param horizontal <code>true</code> für Reihen (gleiche y-Ausdehnung), sonst Spalten.
+     */
+    private static List<Box> merge(List<Box> boxes, Comparator<Box> order, boolean horizontal) {
+        boxes.sort(order);
+
+        List<Box> merged = new ArrayList<>();
+        Box current = null;
+
+        for (Box box : boxes) {
+            if (current != null && MATERIAL.compare(current.template, box.template) == 0) {
+                if (horizontal && Math.abs(current.y0 - box.y0) < EPSILON && Math.abs(current.y1 - box.y1) < EPSILON && box.x0 <= current.x1 + EPSILON) {
+                    current.absorb(box);
+                    current.x1 = Math.max(current.x1, box.x1);
+                    continue;
+                }
+
+                if (!horizontal && Math.abs(current.x0 - box.x0) < EPSILON && Math.abs(current.x1 - box.x1) < EPSILON && box.y0 <= current.y1 + EPSILON) {
+                    current.absorb(box);
+                    current.y1 = Math.max(current.y1, box.y1);
+                    continue;
+                }
+            }
+
+            current = box;
+            merged.add(box);
+        }
+
+        return merged;
+    }
+
+    /**
+     * @return Eine Kopie der Form in Weltkoordinaten, mit {@link #transform} als Transformation des Actors.
+     */
+    private Shape toWorld(Shape shape) {
+        switch (shape.getType()) {
+            case CIRCLE: {
+                CircleShape circle = (CircleShape) shape;
+                CircleShape result = new CircleShape();
+                result.m_radius = circle.m_radius;
+                Transform.mulToOut(transform, circle.m_p, result.m_p);
+
+                return result;
+            }
+
+            case POLYGON: {
+                PolygonShape polygon = (PolygonShape) shape;
+                Vec2[] vertices = new Vec2[polygon.m_count];
+
+                for (int i = 0; i < vertices.length; i++) {
+                    vertices[i] = Transform.mul(transform, polygon.m_vertices[i]);
+                }
+
+                PolygonShape result = new PolygonShape();
+                result.set(vertices, vertices.length);
+
+                return result;
+            }
+
+            case EDGE: {
+                EdgeShape edge = (EdgeShape) shape;
+                EdgeShape result = new EdgeShape();
+                result.set(Transform.mul(transform, edge.m_vertex1), Transform.mul(transform, edge.m_vertex2));
+
+                return result;
+            }
+
+            case CHAIN: {
+                ChainShape chain = (ChainShape) shape;
+                Vec2[] vertices = new Vec2[chain.m_count];
+
+                for (int i = 0; i < vertices.length; i++) {
+                    vertices[i] = Transform.mul(transform, chain.m_vertices[i]);
+                }
+
+                ChainShape result = new ChainShape();
+                result.createChain(vertices, vertices.length);
+
+                return result;
+            }
+
+            default:
+                throw new IllegalStateException("Unbekannte Form: " + shape.getType());
+        }
+    }
+
+    private static void addFixture(Body body, Shape shape, Fixture template, Object userData) {
+        FixtureDef def = new FixtureDef();
+        def.shape = shape;
+        def.density = template.getDensity();
+        def.friction = template.getFriction();
+        def.restitution = template.getRestitution();
+        def.filter.set(template.m_filter);
+        def.userData = userData;
+
+        body.createFixture(def);
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea;
+
+import ea.internal.annotations.API;
+import ea.internal.annotations.Internal;
+import ea.internal.graphics.RenderTarget;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+
+/**
+ * Ein Ausschnitt des Fensters, in dem die Szene durch eine eigene {@link Camera} gezeichnet wird, z.B. für
+ * Splitscreen mit zwei Spielern. Alle Viewports zeigen dieselbe Szene, Actors und Physik gibt es also nur einmal.
+ * <p>
+ * Hat eine Szene mindestens einen Viewport im Fenster, wird nur noch in ihre Viewports gezeichnet, nicht mehr über
+ * die ganze Fläche mit {@link Scene#getCamera()}. Viewports mit eigenem {@link RenderTarget} werden zusätzlich
+ * gezeichnet, z.B. in ein zweites Fenster.
+ * <p>
+ * Jeder Viewport zeichnet nur die Actors, die in seinem Ausschnitt liegen, und zwar wie bei
+ * {@link Scene#setParallelRendering(boolean)} auf allen Prozessorkernen und gleichzeitig mit den anderen Viewports.
+ * Deshalb müssen Actors innerhalb ihrer Fläche ({@link ea.actor.Actor#computeRenderBounds(org.jbox2d.collision.AABB)})
+ * zeichnen und dürfen sich beim Zeichnen nicht verändern.
+ * <p>
+ * Mausklicks und {@link Scene#getMousePosition()} werden über die Kamera des obersten Viewports unter der Maus
+ * umgerechnet.
+ *
+ * @see Scene#addViewport(Viewport)
+ */
+@API
+public final class Viewport {
+    private final Camera camera;
+
+    private final RenderTarget target;
+
+    private float x, y, width, height;
+
+    /**
+     * Zeichnet die Streifen dieses Viewports, nur im Spiel-Thread verwendet.
+     */
+    private final ParallelRenderer renderer = new ParallelRenderer();
+
+    /**
+     * Erstellt einen Viewport in einem Ausschnitt des Fensters. Die Angaben sind Anteile der Fenstergröße, damit der
+     * Viewport mit dem Fenster mitwächst; <code>(0, 0)</code> ist oben links.
+     *
+     * @param camera Kamera des Viewports. Ihre Position, ihr Zoom und ihre Drehung gelten nur für diesen Viewport.
+     * @param x      Linker Rand, zwischen 0 und 1.
+     * @param y      Oberer Rand, zwischen 0 und 1.
+     * @param width  Breite, zwischen 0 und 1.
+     * @param height Höhe, zwischen 0 und 1.
+     */
+    @API
+    public Viewport(Camera camera, float x, float y, float width, float height) {
+        this(camera, null);
+        setBounds(x, y, width, height);
+    }
+
+    /**
+     * Erstellt einen Viewport, der in ein eigenes Ziel statt in das Fenster zeichnet.
+     *
+     * @param camera Kamera des Viewports.
+     * @param target Ziel, in das jeden Frame gezeichnet wird. Bei <code>null</code> füllt der Viewport das Fenster.
+     */
+    @API
+    public Viewport(Camera camera, RenderTarget target) {
+        if (camera == null) {
+            throw new IllegalArgumentException("Ein Viewport braucht eine Kamera");
+        }
+
+        this.camera = camera;
+        this.target = target;
+        this.width = 1;
+        this.height = 1;
+    }
+
+    /**
+     * Verschiebt den Viewport im Fenster. Die Angaben sind Anteile der Fenstergröße.
+     *
+     * @param x      Linker Rand, zwischen 0 und 1.
+     * @param y      Oberer Rand, zwischen 0 und 1.
+     * @param width  Breite, zwischen 0 und 1.
+     * @param height Höhe, zwischen 0 und 1.
+     */
+    @API
+    public void setBounds(float x, float y, float width, float height) {
+        if (x < 0 || y < 0 || width <= 0 || height <= 0 || x + width > 1 || y + height > 1) {
+            throw new IllegalArgumentException("Der Viewport muss im Fenster liegen, war (" + x + ", " + y + ", " + width + ", " + height + ")");
+        }
+
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    @API
+    public Camera getCamera() {
+        return camera;
+    }
+
+    /**
+     * @return Das eigene Ziel oder <code>null</code>, wenn der Viewport in das Fenster zeichnet.
+     */
+    @API
+    public RenderTarget getTarget() {
+        return target;
+    }
+
+    @API
+    public float getX() {
+        return x;
+    }
+
+    @API
+    public float getY() {
+        return y;
+    }
+
+    @API
+    public float getWidth() {
+        return width;
+    }
+
+    @API
+    public float getHeight() {
+        return height;
+    }
+
+    /**
+     * Rechnet eine Position im Fenster in eine Position auf der Hauptebene der Szene um, wie sie diese Kamera zeigt.
+     *
+     * @param scene           Die Szene.
+     * @param frameX          X-Koordinate im Fenster in Pixeln.
+     * @param frameY          Y-Koordinate im Fenster in Pixeln.
+     * @param frameWidthInPx  Breite des Fensters in Pixeln.
+     * @param frameHeightInPx Höhe des Fensters in Pixeln.
+     *
+     * @return Die Position in Metern, oder <code>null</code>, wenn die Position außerhalb des Viewports liegt.
+     */
+    @API
+    public Vector convertFramePosition(Scene scene, int frameX, int frameY, int frameWidthInPx, int frameHeightInPx) {
+        int left = Math.round(x * frameWidthInPx);
+        int top = Math.round(y * frameHeightInPx);
+        int right = Math.round((x + width) * frameWidthInPx);
+        int bottom = Math.round((y + height) * frameHeightInPx);
+
+        if (target != null || frameX < left || frameX >= right || frameY < top || frameY >= bottom) {
+            return null;
+        }
+
+        float pixelPerMeter = scene.getMainLayer().calculatePixelPerMeter(camera);
+        double angle = Math.toRadians(camera.getRotation());
+        float dx = (frameX - (left + right) / 2f) / pixelPerMeter;
+        float dy = ((top + bottom) / 2f - frameY) / pixelPerMeter;
+
+        Vector position = camera.getPosition();
+
+        return new Vector((float) (position.getX() + dx * Math.cos(angle) - dy * Math.sin(angle)), //
+                (float) (position.getY() + dx * Math.sin(angle) + dy * Math.cos(angle)));
+    }
+
+    /**
+     * Beginnt, die Szene in den Zwischenspeicher des Viewports zu zeichnen.
+     */
+    @Internal
+    void startRender(Scene scene, int widthInPx, int heightInPx, RenderingHints hints) {
+        renderer.start(scene, camera, widthInPx, heightInPx, hints);
+    }
+
+    /**
+     * Wartet auf {@link #startRender(Scene, int, int, RenderingHints)} und zeichnet das Ergebnis.
+     *
+     * @param g Zeichenobjekt, dessen Ursprung oben links im Viewport liegt.
+     */
+    @Internal
+    void finishRender(Graphics2D g) {
+        renderer.finish(g);
+    }
+}
@@ -23,6 +23,11 @@ import ea.FrameUpdateListener;
 import ea.Game;
 import ea.Layer;
 import ea.Vector;
+import ea.animation.AnimationMode;
+import ea.animation.Easing;
+import ea.animation.FloatConsumer;
+import ea.animation.Tween;
+import ea.animation.TweenEngine;
 import ea.animation.ValueAnimator;
 import ea.animation.interpolation.EaseInOutFloat;
 import ea.collision.CollisionEvent;
@@ -33,9 +38,11 @@ import ea.internal.FixtureBuilder;
 import ea.internal.annotations.API;
 import ea.internal.annotations.Internal;
 import ea.internal.physics.*;
+import org.jbox2d.collision.AABB;
 import org.jbox2d.collision.shapes.CircleShape;
 import org.jbox2d.collision.shapes.PolygonShape;
 import org.jbox2d.collision.shapes.Shape;
+import org.jbox2d.common.Transform;
 import org.jbox2d.common.Vec2;
 import org.jbox2d.dynamics.Body;
 import org.jbox2d.dynamics.Fixture;
@@ -88,6 +95,11 @@ public abstract class Actor implements KeyListenerContainer, MouseClickListenerC
      */
     private float opacity = 1;
 
+    /**
+     * Wird bei jeder Änderung des Aussehens erhöht, die nicht Position, Drehung, Sichtbarkeit oder Deckkraft betrifft.
+     */
+    private volatile int appearanceVersion;
+
     /**
      * Der JB2D-Handler für dieses spezifische Objekt.
      */
@@ -165,6 +177,7 @@ public abstract class Actor implements KeyListenerContainer, MouseClickListenerC
     @API
     public final void setLayerPosition(int position) {
         this.layerPosition = position;
+        invalidateRenderCache();
     }
 
     /**
@@ -187,7 +200,10 @@ public abstract class Actor implements KeyListenerContainer, MouseClickListenerC
      */
     @API
     public final void setVisible(boolean visible) {
-        this.visible = visible;
+        if (this.visible != visible) {
+            this.visible = visible;
+            invalidateRenderCache();
+        }
     }
 
     /**
@@ -219,7 +235,43 @@ public abstract class Actor implements KeyListenerContainer, MouseClickListenerC
      */
     @API
     public final void setOpacity(float opacity) {
-        this.opacity = opacity;
+        if (this.opacity != opacity) {
+            this.opacity = opacity;
+            invalidateRenderCache();
+        }
+    }
+
+    /**
+     * Meldet, dass sich das Aussehen des Objekts geändert hat, ohne dass es bewegt wurde, z.B. der Frame einer
+     * Animation. Die mitgelieferten Actors rufen diese Methode selbst auf; eigene Actors mit veränderlichem
+     * {@link #render(Graphics2D, float)} müssen das ebenfalls tun, damit zwischengespeicherte oder inkrementell
+     * gezeichnete Bereiche neu gezeichnet werden.
+     */
+    @API
+    public final void invalidateAppearance() {
+        appearanceVersion++;
+        invalidateRenderCache();
+    }
+
+    /**
+     * Meldet dem Layer eine Änderung der Darstellung, damit ein zwischengespeichertes Layer neu gezeichnet wird.
+     *
+     * @see Layer#setRenderCached(boolean)
+     */
+    private void invalidateRenderCache() {
+        Layer layer = getLayer();
+
+        if (layer != null) {
+            layer.invalidateRenderCache();
+        }
+    }
+
+    /**
+     * @return Zähler, der sich bei jedem Aufruf von {@link #invalidateAppearance()} ändert.
+     */
+    @Internal
+    public final int getAppearanceVersion() {
+        return appearanceVersion;
     }
 
     /**
@@ -323,9 +375,12 @@ public abstract class Actor implements KeyListenerContainer, MouseClickListenerC
      * @param r             Das Bounds, dass die Kameraperspektive repräsentiert.<br> Hierbei soll zunächst getestet
      *                      werden, ob das Objekt innerhalb der Kamera liegt, und erst dann gezeichnet werden.
      * @param pixelPerMeter Pixel pro Meter.
+     *
+     * @return <code>true</code>, wenn der Actor gezeichnet wurde, <code>false</code>, wenn er unsichtbar oder außerhalb
+     * der Kamera ist.
      */
     @Internal
-    public final void renderBasic(Graphics2D g, Bounds r, float pixelPerMeter) {
+    public final boolean renderBasic(Graphics2D g, Bounds r, float pixelPerMeter) {
         if (visible && this.isWithinBounds(r)) {
             float rotation = physicsHandler.getRotation();
             Vector position = physicsHandler.getPosition();
@@ -377,7 +432,11 @@ public abstract class Actor implements KeyListenerContainer, MouseClickListenerC
 
             // Transform zurücksetzen
             g.setTransform(transform);
+
+            return true;
         }
+
+        return false;
     }
 
     /**
@@ -508,6 +567,10 @@ public abstract class Actor implements KeyListenerContainer, MouseClickListenerC
 
     /**
      * Rendert das Objekt am Ursprung. <ul> <li>Die Position ist (0|0).</li> <li>Die Roation ist 0.</li> </ul>
+     * <p>
+     * Beim parallelen Zeichnen ({@link ea.Scene#setParallelRendering(boolean)}, {@link ea.Viewport}) wird diese
+     * Methode für denselben Actor gleichzeitig aus mehreren Zeichen-Threads aufgerufen. Sie darf den Actor daher nicht
+     * verändern und muss Zwischenspeicher, die sie beschreibt, selbst synchronisieren.
      *
      * @param g             Das zeichnende Graphics-Objekt
      * @param pixelPerMeter Pixel pro Meter.
@@ -515,6 +578,53 @@ public abstract class Actor implements KeyListenerContainer, MouseClickListenerC
     @Internal
     public abstract void render(Graphics2D g, float pixelPerMeter);
 
+    /**
+     * Bestimmt die Fläche, in die {@link #render(Graphics2D, float)} zeichnet, in Meter-Koordinaten der Szene. Beim
+     * inkrementellen und parallelen Zeichnen wird der Actor nur in diesem Bereich neu gezeichnet.
+     * <p>
+     * Standardmäßig ist das die Hülle aller Physik-Formen. Actors, die über ihre Formen hinaus zeichnen, müssen diese
+     * Methode überschreiben.
+     *
+     * @param target Erhält die Fläche.
+     *
+     * @return <code>false</code>, wenn die Fläche unbekannt ist. Der Actor wird dann immer gezeichnet, und jede
+     * Änderung an ihm zeichnet das ganze Bild neu.
+     */
+    @Internal
+    public boolean computeRenderBounds(AABB target) {
+        Body body = physicsHandler.getBody();
+
+        if (body == null) {
+            return false;
+        }
+
+        Transform xf = body.getTransform();
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+
+        for (Fixture fixture = body.m_fixtureList; fixture != null; fixture = fixture.m_next) {
+            Shape shape = fixture.m_shape;
+
+            for (int child = 0; child < shape.getChildCount(); child++) {
+                shape.computeAABB(target, xf, child);
+
+                minX = Math.min(minX, target.lowerBound.x);
+                minY = Math.min(minY, target.lowerBound.y);
+                maxX = Math.max(maxX, target.upperBound.x);
+                maxY = Math.max(maxY, target.upperBound.y);
+            }
+        }
+
+        if (minX > maxX) {
+            return false;
+        }
+
+        target.lowerBound.set(minX, minY);
+        target.upperBound.set(maxX, maxY);
+
+        return true;
+    }
+
     @Internal
     public final void setPhysicsHandler(PhysicsHandler handler) {
         WorldHandler worldHandler = handler.getWorldHandler();
@@ -1106,6 +1216,7 @@ public abstract class Actor implements KeyListenerContainer, MouseClickListenerC
     @API
     public final void moveBy(Vector v) {
         physicsHandler.moveBy(v);
+        invalidateRenderCache();
     }
 
     /**
@@ -1253,6 +1364,7 @@ public abstract class Actor implements KeyListenerContainer, MouseClickListenerC
     @API
     public final void rotateBy(float degree) {
         physicsHandler.rotateBy(degree);
+        invalidateRenderCache();
     }
 
     /**
@@ -1276,6 +1388,7 @@ public abstract class Actor implements KeyListenerContainer, MouseClickListenerC
     @API
     public final void setRotation(float degree) {
         physicsHandler.setRotation(degree);
+        invalidateRenderCache();
     }
 
     @API
@@ -1289,6 +1402,7 @@ public abstract class Actor implements KeyListenerContainer, MouseClickListenerC
      *
      * @param lifetime Lebenszeit in Sekunden
      * @return Objekt, das die Animation kontrolliert
+     * @see #tweenParticle(float)
      */
     @API
     public final ValueAnimator<Float> animateParticle(float lifetime) {
@@ -1311,6 +1425,7 @@ public abstract class Actor implements KeyListenerContainer, MouseClickListenerC
      * @return Ein {@code ValueAnimator}, der diese Animation ausführt. Der Animator ist bereits aktiv, es muss nichts
      * an dem Objekt getan werden, um die Animation auszuführen.
      * @see ea.animation.interpolation.EaseInOutFloat
+     * @see #tweenOpacity(float, float)
      */
     @API
     public final ValueAnimator<Float> animateOpacity(float time, float toOpacityValue) {
@@ -1320,6 +1435,72 @@ public abstract class Actor implements KeyListenerContainer, MouseClickListenerC
         return animator;
     }
 
+    /**
+     * Wie {@link #animateParticle(float)}, die Animation wird aber von der {@link TweenEngine} des Layers berechnet.
+     * Das lohnt sich bei vielen gleichzeitigen Partikeln.
+     *
+     * @param lifetime Lebenszeit in Sekunden
+     * @return Der Tween, nach dessen Abschluss das Partikel entfernt wird.
+     */
+    @API
+    public final Tween tweenParticle(float lifetime) {
+        setBodyType(BodyType.PARTICLE);
+
+        setOpacity(1);
+        Tween tween = tweenOpacity(lifetime, 0);
+        tween.addCompletionListener(this::remove);
+
+        return tween;
+    }
+
+    /**
+     * Wie {@link #animateOpacity(float, float)}, die Animation wird aber von der {@link TweenEngine} des Layers
+     * berechnet.
+     *
+     * @param time           Die Animationszeit in Sekunden
+     * @param toOpacityValue Der Opacity-Wert, zu dem innerhalb von {@code time} zu interpolieren ist.
+     * @return Der bereits laufende Tween.
+     */
+    @API
+    public final Tween tweenOpacity(float time, float toOpacityValue) {
+        return tween(time, getOpacity(), toOpacityValue, Easing.EASE_IN_OUT, AnimationMode.SINGLE, this::setOpacity);
+    }
+
+    /**
+     * Animiert einen <code>float</code>-Wert dieses Actors. Alle Tweens eines Layers werden gemeinsam von dessen
+     * {@link TweenEngine} berechnet, was bei vielen gleichzeitigen Animationen deutlich günstiger ist als je ein
+     * {@link ValueAnimator}. Der Tween läuft, solange der Actor angemeldet ist; ist er noch nicht angemeldet,
+     * beginnt der Tween mit der Anmeldung.
+     *
+     * @param duration Dauer in Sekunden.
+     * @param from     Startwert.
+     * @param to       Zielwert.
+     * @param easing   Verlauf zwischen Start- und Zielwert.
+     * @param mode     Verhalten am Ende der Dauer.
+     * @param target   Erhält in jedem Frame den aktuellen Wert.
+     *
+     * @return Der Tween.
+     */
+    @API
+    public final Tween tween(float duration, float from, float to, Easing easing, AnimationMode mode, FloatConsumer target) {
+        Tween tween = new Tween(duration, from, to, easing, mode, target, this);
+        Layer layer = getLayer();
+
+        if (layer != null) {
+            layer.getTweens().attach(tween);
+        } else {
+            addMountListener(new Runnable() {
+                @Override
+                public void run() {
+                    removeMountListener(this);
+                    getLayer().getTweens().attach(tween);
+                }
+            });
+        }
+
+        return tween;
+    }
+
     @Internal
     static void assertPositiveWidthAndHeight(float width, float height) {
         if (width <= 0 || height <= 0) {
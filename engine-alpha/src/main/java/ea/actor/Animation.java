@@ -25,14 +25,18 @@ import ea.internal.FixtureBuilder;
 import ea.internal.annotations.API;
 import ea.internal.annotations.Internal;
 import ea.internal.graphics.AnimationFrame;
+import ea.internal.graphics.GifFrameStream;
+import ea.internal.io.FrameSequence;
+import ea.internal.io.FrameSequenceCache;
 import ea.internal.io.ImageLoader;
 import ea.internal.io.ResourceLoader;
-import ea.internal.util.GifDecoder;
+import ea.internal.util.StreamingGifDecoder;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.*;
 
@@ -51,7 +55,11 @@ import java.util.*;
 @API
 public class Animation extends Actor implements FrameUpdateListener {
 
-    private final AnimationFrame[] frames;
+    /**
+     * Wird nach der Erstellung nie verändert und kann daher von Kopien und {@link AnimationSet}s geteilt werden. Nur
+     * gestreamte Frames werden nicht geteilt, da jeder Stream genau einen Abspielkopf hat.
+     */
+    final AnimationFrame[] frames;
 
     private final float width;
     private final float height;
@@ -79,7 +87,7 @@ public class Animation extends Actor implements FrameUpdateListener {
             }
         }
 
-        this.frames = frames.clone();
+        this.frames = frames;
         this.width = width;
         this.height = height;
 
@@ -93,7 +101,7 @@ public class Animation extends Actor implements FrameUpdateListener {
      * @param animation Animation.
      */
     public Animation(Animation animation) {
-        this(animation.frames, animation.width, animation.height);
+        this(AnimationFrame.copyStreams(animation.frames), animation.width, animation.height);
 
         animation.onCompleteListeners.invoke(this::addOnCompleteListener);
     }
@@ -148,6 +156,7 @@ public class Animation extends Actor implements FrameUpdateListener {
         this.currentTime += deltaSeconds;
 
         AnimationFrame currentFrame = this.frames[currentIndex];
+        int previousIndex = currentIndex;
 
         while (this.currentTime > currentFrame.getDuration()) {
             this.currentTime -= currentFrame.getDuration();
@@ -158,6 +167,10 @@ public class Animation extends Actor implements FrameUpdateListener {
                 this.currentIndex += 1;
             }
         }
+
+        if (currentIndex != previousIndex) {
+            invalidateAppearance();
+        }
     }
 
     @Override
@@ -171,28 +184,32 @@ public class Animation extends Actor implements FrameUpdateListener {
             throw new RuntimeException("Frame-Länge muss größer als 0 sein");
         }
 
-        BufferedImage image = ImageLoader.load(filepath);
+        FrameSequence sequence = FrameSequenceCache.acquire("spritesheet:" + filepath + ":" + x + "x" + y, () -> {
+            BufferedImage image = ImageLoader.load(filepath);
 
-        if (image.getWidth() % x != 0) {
-            throw new RuntimeException(String.format("Spritesheet hat nicht die richtigen Maße (Breite: %d) um es auf %d Elemente in getX-Richtung aufzuteilen.", image.getWidth(), x));
-        }
+            if (image.getWidth() % x != 0) {
+                throw new RuntimeException(String.format("Spritesheet hat nicht die richtigen Maße (Breite: %d) um es auf %d Elemente in getX-Richtung aufzuteilen.", image.getWidth(), x));
+            }
 
-        if (image.getHeight() % y != 0) {
-            throw new RuntimeException(String.format("Spritesheet hat nicht die richtigen Maße (Höhe: %d) um es auf %d Elemente in getY-Richtung aufzuteilen.", image.getHeight(), y));
-        }
+            if (image.getHeight() % y != 0) {
+                throw new RuntimeException(String.format("Spritesheet hat nicht die richtigen Maße (Höhe: %d) um es auf %d Elemente in getY-Richtung aufzuteilen.", image.getHeight(), y));
+            }
 
-        int imageWidth = image.getWidth() / x;
-        int imageHeight = image.getHeight() / y;
+            int imageWidth = image.getWidth() / x;
+            int imageHeight = image.getHeight() / y;
 
-        List<AnimationFrame> frames = new LinkedList<>();
+            BufferedImage[] images = new BufferedImage[x * y];
 
-        for (int j = 0; j < y; j++) {
-            for (int i = 0; i < x; i++) {
-                frames.add(new AnimationFrame(image.getSubimage(i * imageWidth, j * imageHeight, imageWidth, imageHeight), frameDuration));
+            for (int j = 0; j < y; j++) {
+                for (int i = 0; i < x; i++) {
+                    images[j * x + i] = image.getSubimage(i * imageWidth, j * imageHeight, imageWidth, imageHeight);
+                }
             }
-        }
 
-        return new Animation(frames.toArray(new AnimationFrame[0]), width, height);
+            return images;
+        });
+
+        return createFromSequence(sequence, frameDuration, width, height);
     }
 
     @API
@@ -203,6 +220,8 @@ public class Animation extends Actor implements FrameUpdateListener {
 
         Collection<AnimationFrame> frames = new LinkedList<>();
 
+        ImageLoader.preload(filepaths);
+
         for (String filepath : filepaths) {
             frames.add(new AnimationFrame(ImageLoader.load(filepath), frameDuration));
         }
@@ -210,6 +229,29 @@ public class Animation extends Actor implements FrameUpdateListener {
         return new Animation(frames.toArray(new AnimationFrame[0]), width, height);
     }
 
+    /**
+     * Erstellt eine Animation aus bereits geladenen Bildern, z.B. aus einem selbst erzeugten Bild.
+     *
+     * @param frameDuration Dauer jedes Frames in Sekunden.
+     * @param width         Breite in Metern.
+     * @param height        Höhe in Metern.
+     * @param images        Die Bilder der Frames in Abspielreihenfolge.
+     */
+    @API
+    public static Animation createFromBufferedImages(float frameDuration, float width, float height, BufferedImage... images) {
+        if (frameDuration <= 0) {
+            throw new RuntimeException("Frame-Länge muss größer als 1 sein.");
+        }
+
+        AnimationFrame[] frames = new AnimationFrame[images.length];
+
+        for (int i = 0; i < images.length; i++) {
+            frames[i] = new AnimationFrame(images[i], frameDuration);
+        }
+
+        return new Animation(frames, width, height);
+    }
+
     /**
      * Lädt alle Bilddateien mit einem bestimmten Präfix in einem bestimmten Verzeichnis in eine Animation.
      *
@@ -221,51 +263,128 @@ public class Animation extends Actor implements FrameUpdateListener {
      */
     @API
     public static Animation createFromImagesPrefix(float frameDuration, float width, float height, String directoryPath, String prefix) {
-        // Liste mit den Pfaden aller qualifizierten Dateien
-        ArrayList<String> allPaths = new ArrayList<>();
-
-        File directory;
-        try {
-            directory = ResourceLoader.loadAsFile(directoryPath);
-        } catch (IOException e) {
-            throw new RuntimeException("Fehler beim Einladen des Verzeichnisses: " + e.getMessage());
-        }
-        if (!directory.isDirectory()) {
-            throw new RuntimeException("Der angegebene Pfad war kein Verzeichnis: " + directoryPath);
+        if (frameDuration <= 0) {
+            throw new RuntimeException("Frame-Länge muss größer als 1 sein.");
         }
 
-        File[] children = directory.listFiles();
-        if (children != null) {
-            for (File file : children) {
-                if (!file.isDirectory() && file.getName().startsWith(prefix)) {
-                    allPaths.add(file.getAbsolutePath());
+        FrameSequence sequence = FrameSequenceCache.acquire("prefix:" + directoryPath + ":" + prefix, () -> {
+            // Liste mit den Pfaden aller qualifizierten Dateien
+            ArrayList<String> allPaths = new ArrayList<>();
+
+            File directory;
+            try {
+                directory = ResourceLoader.loadAsFile(directoryPath);
+            } catch (IOException e) {
+                throw new RuntimeException("Fehler beim Einladen des Verzeichnisses: " + e.getMessage());
+            }
+            if (!directory.isDirectory()) {
+                throw new RuntimeException("Der angegebene Pfad war kein Verzeichnis: " + directoryPath);
+            }
+
+            File[] children = directory.listFiles();
+            if (children != null) {
+                for (File file : children) {
+                    if (!file.isDirectory() && file.getName().startsWith(prefix)) {
+                        allPaths.add(file.getAbsolutePath());
+                    }
                 }
             }
-        }
 
-        allPaths.sort(Comparator.naturalOrder());
+            allPaths.sort(Comparator.naturalOrder());
 
-        if (allPaths.isEmpty()) {
-            throw new RuntimeException("Konnte keine Bilder mit Präfix \"" + prefix + "\" im Verzeichnis \"" + directoryPath + "\" finden.");
-        }
+            if (allPaths.isEmpty()) {
+                throw new RuntimeException("Konnte keine Bilder mit Präfix \"" + prefix + "\" im Verzeichnis \"" + directoryPath + "\" finden.");
+            }
+
+            String[] paths = allPaths.toArray(new String[0]);
+            BufferedImage[] images = new BufferedImage[paths.length];
+
+            ImageLoader.preload(paths);
 
-        return createFromImages(frameDuration, width, height, allPaths.toArray(new String[0]));
+            for (int i = 0; i < paths.length; i++) {
+                images[i] = ImageLoader.load(paths[i]);
+            }
+
+            return images;
+        });
+
+        return createFromSequence(sequence, frameDuration, width, height);
     }
 
     @API
     public static Animation createFromAnimatedGif(String filepath, float width, float height) {
-        GifDecoder gifDecoder = new GifDecoder();
-        gifDecoder.read(filepath);
+        String key = "gif:" + filepath;
+
+        FrameSequence sequence = FrameSequenceCache.acquireSequence(key, () -> {
+            StreamingGifDecoder gifDecoder = new StreamingGifDecoder(loadGif(filepath));
+            int[] delays = new int[gifDecoder.getFrameCount()];
 
-        int frameCount = gifDecoder.getFrameCount();
+            for (int i = 0; i < delays.length; i++) {
+                delays[i] = gifDecoder.getDelay(i);
+            }
+
+            return new FrameSequence(key, gifDecoder.decodeAll(), delays);
+        });
+
+        return createFromSequence(sequence, 0, width, height);
+    }
+
+    /**
+     * Erstellt eine Animation aus einer geteilten Frame-Folge. Die Folge bleibt im Cache referenziert, solange das
+     * Frame-Array benutzt wird, also auch von Kopien und {@link AnimationSet}s.
+     *
+     * @param frameDuration Dauer jedes Frames in Sekunden oder <code>0</code> für die Dauern der Folge.
+     */
+    private static Animation createFromSequence(FrameSequence sequence, float frameDuration, float width, float height) {
+        AnimationFrame[] frames = new AnimationFrame[sequence.getFrameCount()];
+
+        for (int i = 0; i < frames.length; i++) {
+            float duration = frameDuration > 0 ? frameDuration : sequence.getDelay(i) / 1000f;
+            frames[i] = new AnimationFrame(sequence.getImage(i), duration);
+        }
+
+        FrameSequenceCache.releaseWhenUnreachable(frames, sequence);
+
+        return new Animation(frames, width, height);
+    }
+
+    /**
+     * Lädt ein animiertes GIF als <b>gestreamte</b> Animation. Anders als bei
+     * {@link #createFromAnimatedGif(String, float, float)} werden nicht alle Frames beim Laden dekodiert: Die
+     * komprimierten Daten bleiben im Speicher (bzw. werden direkt aus der Datei eingeblendet) und es liegen nur
+     * wenige Frames gleichzeitig dekodiert vor. Ein Hintergrund-Thread dekodiert die nächsten Frames voraus.
+     * <p>
+     * Lohnt sich für große GIFs mit vielen Frames, bei denen das vollständige Dekodieren sehr viel Speicher kosten
+     * würde. Für kleine Sprites ist {@link #createFromAnimatedGif(String, float, float)} schneller.
+     * <p>
+     * Kopien und Zustände einer {@link StatefulAnimation} teilen sich die komprimierten Daten, dekodieren aber jeweils
+     * mit eigenem Abspielkopf.
+     *
+     * @param filepath Pfad zum GIF.
+     * @param width    Breite der Animation in Metern.
+     * @param height   Höhe der Animation in Metern.
+     *
+     * @return Die gestreamte Animation.
+     */
+    @API
+    public static Animation createFromAnimatedGifStreamed(String filepath, float width, float height) {
+        GifFrameStream stream = new GifFrameStream(new StreamingGifDecoder(loadGif(filepath)), GifFrameStream.DEFAULT_RING_SIZE);
+
+        int frameCount = stream.getFrameCount();
         AnimationFrame[] frames = new AnimationFrame[frameCount];
 
         for (int i = 0; i < frameCount; i++) {
-            BufferedImage frame = gifDecoder.getFrame(i);
-            int durationInMillis = gifDecoder.getDelay(i);
-            frames[i] = new AnimationFrame(frame, durationInMillis / 1000f);
+            frames[i] = new AnimationFrame(stream, i, stream.getDuration(i));
         }
 
         return new Animation(frames, width, height);
     }
+
+    private static ByteBuffer loadGif(String filepath) {
+        try {
+            return ResourceLoader.loadAsBuffer(filepath);
+        } catch (IOException e) {
+            throw new RuntimeException("Das GIF konnte nicht geladen werden: " + filepath, e);
+        }
+    }
 }
@@ -0,0 +1,204 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.actor;
+
+import ea.internal.annotations.API;
+import ea.internal.annotations.Internal;
+import ea.internal.graphics.AnimationFrame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unveränderliche Beschreibung aller Zustände einer {@link StatefulAnimation}: Frames, Frame-Dauern und
+ * Zustandsübergänge. Eine Beschreibung kann von beliebig vielen Instanzen geteilt werden, z.B. von 2000 gleichen
+ * Gegnern, die dann jeweils nur ihren aktuellen Zustand und Frame speichern.
+ * <p>
+ * Alle <code>with...</code>-Methoden verändern die Beschreibung nicht, sondern liefern eine neue.
+ *
+ * <code>
+ * AnimationSet&lt;String&gt; enemy = AnimationSet.&lt;String&gt;empty()<br>
+ * &nbsp;&nbsp;.withState("walk", Animation.createFromAnimatedGif("enemy-walk.gif", 1, 1))<br>
+ * &nbsp;&nbsp;.withState("die", Animation.createFromAnimatedGif("enemy-die.gif", 1, 1))<br>
+ * &nbsp;&nbsp;.withStateTransition("die", "walk");<br>
+ * <br>
+ * new StatefulAnimation&lt;&gt;(1, 1, enemy);
+ * </code>
+ *
+ * @param <State> Typ der Zustände.
+ */
+@API
+public final class AnimationSet<State> {
+    private static final AnimationSet<?> EMPTY = new AnimationSet<>(Collections.emptyMap(), new Object[0], new AnimationFrame[0][], new float[0][], new int[0]);
+
+    private final Map<State, Integer> indices;
+
+    final Object[] states;
+    final AnimationFrame[][] frames;
+    final float[][] durations;
+    final int[] transitions;
+
+    private AnimationSet(Map<State, Integer> indices, Object[] states, AnimationFrame[][] frames, float[][] durations, int[] transitions) {
+        this.indices = indices;
+        this.states = states;
+        this.frames = frames;
+        this.durations = durations;
+        this.transitions = transitions;
+    }
+
+    /**
+     * @return Eine Beschreibung ohne Zustände.
+     */
+    @API
+    @SuppressWarnings ( "unchecked" )
+    public static <State> AnimationSet<State> empty() {
+        return (AnimationSet<State>) EMPTY;
+    }
+
+    /**
+     * Fügt einen Zustand hinzu, der nach seinem Ablauf standardmäßig in sich selbst übergeht.
+     *
+     * @param state     Der neue Zustand.
+     * @param animation Die Animation für diesen Zustand. Die Frames werden übernommen, nicht kopiert. Gestreamte
+     *                  Frames erhalten einen eigenen Stream, damit der Zustand unabhängig von der Animation abspielt.
+     *
+     * @return Die neue Beschreibung.
+     */
+    @API
+    public AnimationSet<State> withState(State state, Animation animation) {
+        if (indices.containsKey(state)) {
+            throw new RuntimeException("Zustandsname wird bereits in diesem Objekt genutzt: " + state);
+        }
+
+        int index = states.length;
+        AnimationFrame[] stateFrames = AnimationFrame.copyStreams(animation.frames);
+        float[] stateDurations = new float[stateFrames.length];
+
+        for (int i = 0; i < stateFrames.length; i++) {
+            stateDurations[i] = stateFrames[i].getDuration();
+        }
+
+        Map<State, Integer> newIndices = new HashMap<>(indices);
+        newIndices.put(state, index);
+
+        Object[] newStates = Arrays.copyOf(states, index + 1);
+        newStates[index] = state;
+
+        AnimationFrame[][] newFrames = Arrays.copyOf(frames, index + 1);
+        newFrames[index] = stateFrames;
+
+        float[][] newDurations = Arrays.copyOf(durations, index + 1);
+        newDurations[index] = stateDurations;
+
+        int[] newTransitions = Arrays.copyOf(transitions, index + 1);
+        newTransitions[index] = index;
+
+        return new AnimationSet<>(Collections.unmodifiableMap(newIndices), newStates, newFrames, newDurations, newTransitions);
+    }
+
+    /**
+     * Setzt, in welchen Zustand ein Zustand nach einem vollständigen Durchlauf übergeht.
+     *
+     * @param stateFrom Der Von-Zustand.
+     * @param stateTo   Der Ziel-Zustand.
+     *
+     * @return Die neue Beschreibung.
+     */
+    @API
+    public AnimationSet<State> withStateTransition(State stateFrom, State stateTo) {
+        Integer from = indices.get(stateFrom);
+        Integer to = indices.get(stateTo);
+
+        if (from == null) {
+            throw new RuntimeException("Der Von-Zustand ist nicht in dieser Animation eingepflegt: " + stateFrom);
+        }
+
+        if (to == null) {
+            throw new RuntimeException("Der To-Zustand ist nicht in dieser Animation eingepflegt: " + stateTo);
+        }
+
+        int[] newTransitions = transitions.clone();
+        newTransitions[from] = to;
+
+        return new AnimationSet<>(indices, states, frames, durations, newTransitions);
+    }
+
+    /**
+     * Setzt die Dauer aller Frames eines Zustands.
+     *
+     * @param state         Der Zustand.
+     * @param frameDuration Die Zeit in Sekunden, die jeder Frame des Zustands angezeigt wird.
+     *
+     * @return Die neue Beschreibung.
+     */
+    @API
+    public AnimationSet<State> withFrameDuration(State state, float frameDuration) {
+        Integer index = indices.get(state);
+
+        if (index == null) {
+            throw new RuntimeException("Der Zustand ist nicht bekannt: " + state);
+        }
+
+        if (frameDuration <= 0) {
+            throw new IllegalArgumentException("Ein Frame muss länger als 0 Sekunden sein, war " + frameDuration);
+        }
+
+        float[][] newDurations = durations.clone();
+        newDurations[index] = new float[durations[index].length];
+        Arrays.fill(newDurations[index], frameDuration);
+
+        return new AnimationSet<>(indices, states, frames, newDurations, transitions);
+    }
+
+    /**
+     * @return <code>true</code>, wenn die Beschreibung diesen Zustand enthält.
+     */
+    @API
+    public boolean hasState(State state) {
+        return indices.containsKey(state);
+    }
+
+    /**
+     * @return Alle Zustände in der Reihenfolge, in der sie hinzugefügt wurden.
+     */
+    @API
+    @SuppressWarnings ( "unchecked" )
+    public List<State> getStates() {
+        return (List<State>) Collections.unmodifiableList(Arrays.asList(states));
+    }
+
+    /**
+     * @return Index des Zustands oder <code>-1</code>, wenn er nicht enthalten ist.
+     */
+    @Internal
+    int indexOf(State state) {
+        Integer index = indices.get(state);
+
+        return index == null ? -1 : index;
+    }
+
+    @SuppressWarnings ( "unchecked" )
+    State getState(int index) {
+        return (State) states[index];
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.actor;
+
+import ea.internal.annotations.Internal;
+
+import java.util.Arrays;
+
+/**
+ * Schreibt die Abspielposition aller {@link StatefulAnimation}s eines Layers in einem Durchlauf fort, statt für jede
+ * Instanz einen eigenen {@link ea.FrameUpdateListener} aufzurufen. Animationen melden sich beim Anmelden am Layer
+ * selbst an und beim Entfernen wieder ab.
+ */
+@Internal
+public final class AnimationSystem {
+    private StatefulAnimation<?>[] animations = new StatefulAnimation<?>[16];
+
+    private int count = 0;
+
+    void add(StatefulAnimation<?> animation) {
+        if (animation.systemIndex >= 0) {
+            return;
+        }
+
+        if (count == animations.length) {
+            animations = Arrays.copyOf(animations, count * 2);
+        }
+
+        animation.systemIndex = count;
+        animations[count++] = animation;
+    }
+
+    void remove(StatefulAnimation<?> animation) {
+        int index = animation.systemIndex;
+
+        if (index < 0 || animations[index] != animation) {
+            return;
+        }
+
+        // Letzte Animation auf den freien Platz verschieben, die Reihenfolge spielt keine Rolle
+        StatefulAnimation<?> last = animations[--count];
+        animations[index] = last;
+        last.systemIndex = index;
+        animations[count] = null;
+
+        animation.systemIndex = -1;
+    }
+
+    /**
+     * @return Anzahl angemeldeter Animationen.
+     */
+    public int size() {
+        return count;
+    }
+
+    public void advance(float deltaSeconds) {
+        for (int i = 0; i < count; i++) {
+            animations[i].advance(deltaSeconds);
+        }
+    }
+}
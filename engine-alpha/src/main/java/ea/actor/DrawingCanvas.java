@@ -0,0 +1,259 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.actor;
+
+import ea.Camera;
+import ea.Vector;
+import ea.internal.FixtureBuilder;
+import ea.internal.annotations.API;
+import ea.internal.annotations.Internal;
+import ea.internal.physics.FixtureData;
+import org.jbox2d.collision.AABB;
+import org.jbox2d.common.Transform;
+import org.jbox2d.dynamics.Body;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Line2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Eine unbegrenzte Zeichenfläche, auf die Linien gezeichnet werden können. Die Linien werden nicht als einzelne
+ * Actors gespeichert, sondern direkt in Bilder gerastert, die die Fläche kachelartig abdecken. Kacheln entstehen
+ * erst, wenn auf sie gezeichnet wird.
+ * <p>
+ * Der Aufwand beim Rendern hängt damit nur von der Anzahl der bemalten Kacheln ab, nicht von der Anzahl der Linien.
+ * Das eignet sich für Spuren, Zeichnungen und Fraktale mit sehr vielen Segmenten.
+ * <p>
+ * Alle Koordinaten sind relativ zur Position der Zeichenfläche. Die Zeichenfläche selbst nimmt an keinen
+ * Kollisionen teil.
+ */
+@API
+public class DrawingCanvas extends Actor {
+    /**
+     * Kantenlänge einer Kachel in Pixeln.
+     */
+    private static final int TILE_SIZE = 256;
+
+    /**
+     * Auflösung der Kacheln in Pixel pro Meter.
+     */
+    private final float resolution;
+
+    /**
+     * Die bemalten Kacheln, Schlüssel ist {@link #key(int, int)} aus Spalte und Zeile.
+     */
+    private final Map<Long, BufferedImage> tiles = new HashMap<>();
+
+    /**
+     * Spalten und Zeilen, über die sich die bemalten Kacheln erstrecken. Nur gültig, wenn es Kacheln gibt.
+     */
+    private int minColumn, maxColumn, minRow, maxRow;
+
+    /**
+     * Erstellt eine Zeichenfläche mit der Standard-Auflösung der Kamera.
+     */
+    @API
+    public DrawingCanvas() {
+        this(Camera.DEFAULT_ZOOM);
+    }
+
+    /**
+     * Erstellt eine Zeichenfläche.
+     *
+     * @param resolution Auflösung in Pixel pro Meter. Sollte dem Zoom der Kamera entsprechen, mit dem die Fläche
+     *                   hauptsächlich betrachtet wird; bei stärkerem Zoom wirken die Linien unscharf.
+     */
+    @API
+    public DrawingCanvas(float resolution) {
+        super(DrawingCanvas::createSensorFixture);
+
+        if (resolution <= 0) {
+            throw new IllegalArgumentException("Die Auflösung muss größer als 0 sein, war " + resolution);
+        }
+
+        this.resolution = resolution;
+    }
+
+    private static FixtureData createSensorFixture() {
+        // Kleinere Rechtecke verschmilzt JBox2D zu einem ungültigen Polygon
+        FixtureData fixture = FixtureBuilder.createSimpleRectangularFixture(0.1f, 0.1f);
+        fixture.setSensor(true);
+
+        return fixture;
+    }
+
+    /**
+     * Zeichnet eine Linie mit runden Enden.
+     *
+     * @param from  Startpunkt relativ zur Zeichenfläche.
+     * @param to    Endpunkt relativ zur Zeichenfläche.
+     * @param color Farbe der Linie.
+     * @param width Breite der Linie in Metern.
+     */
+    @API
+    public void drawLine(Vector from, Vector to, Color color, float width) {
+        float x1 = from.getX() * resolution;
+        float y1 = -from.getY() * resolution;
+        float x2 = to.getX() * resolution;
+        float y2 = -to.getY() * resolution;
+        float halfWidth = width * resolution / 2 + 1;
+
+        int firstColumn = Math.floorDiv((int) Math.floor(Math.min(x1, x2) - halfWidth), TILE_SIZE);
+        int lastColumn = Math.floorDiv((int) Math.ceil(Math.max(x1, x2) + halfWidth), TILE_SIZE);
+        int firstRow = Math.floorDiv((int) Math.floor(Math.min(y1, y2) - halfWidth), TILE_SIZE);
+        int lastRow = Math.floorDiv((int) Math.ceil(Math.max(y1, y2) + halfWidth), TILE_SIZE);
+
+        Line2D.Float line = new Line2D.Float();
+        BasicStroke stroke = new BasicStroke(width * resolution, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+
+        synchronized (tiles) {
+            if (tiles.isEmpty()) {
+                minColumn = firstColumn;
+                maxColumn = lastColumn;
+                minRow = firstRow;
+                maxRow = lastRow;
+            } else {
+                minColumn = Math.min(minColumn, firstColumn);
+                maxColumn = Math.max(maxColumn, lastColumn);
+                minRow = Math.min(minRow, firstRow);
+                maxRow = Math.max(maxRow, lastRow);
+            }
+
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                for (int row = firstRow; row <= lastRow; row++) {
+                    BufferedImage tile = tiles.computeIfAbsent(key(column, row), key -> new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_ARGB_PRE));
+
+                    float offsetX = column * TILE_SIZE;
+                    float offsetY = row * TILE_SIZE;
+
+                    line.setLine(x1 - offsetX, y1 - offsetY, x2 - offsetX, y2 - offsetY);
+
+                    Graphics2D g = tile.createGraphics();
+                    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                    g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+                    g.setColor(color);
+                    g.setStroke(stroke);
+                    g.draw(line);
+                    g.dispose();
+                }
+            }
+        }
+
+        invalidateAppearance();
+    }
+
+    /**
+     * Entfernt alle Zeichnungen.
+     */
+    @API
+    public void clear() {
+        synchronized (tiles) {
+            tiles.clear();
+        }
+
+        invalidateAppearance();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void render(Graphics2D g, float pixelPerMeter) {
+        float scale = pixelPerMeter / resolution;
+
+        synchronized (tiles) {
+            for (Map.Entry<Long, BufferedImage> entry : tiles.entrySet()) {
+                int column = (int) (entry.getKey() >> 32);
+                int row = (int) (long) entry.getKey();
+
+                // Kanten getrennt runden, damit zwischen benachbarten Kacheln keine Lücken entstehen
+                int left = (int) Math.floor(column * TILE_SIZE * scale);
+                int right = (int) Math.floor((column + 1) * TILE_SIZE * scale);
+                int top = (int) Math.floor(row * TILE_SIZE * scale);
+                int bottom = (int) Math.floor((row + 1) * TILE_SIZE * scale);
+
+                g.drawImage(entry.getValue(), left, top, right - left, bottom - top, null);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Die Zeichenfläche zeichnet weit über ihre Physik-Form hinaus, die Fläche umfasst daher alle bemalten Kacheln.
+     */
+    @Internal
+    @Override
+    public boolean computeRenderBounds(AABB target) {
+        Body body = getPhysicsHandler().getBody();
+
+        if (body == null) {
+            return false;
+        }
+
+        Transform xf = body.getTransform();
+        float left, right, bottom, top;
+
+        synchronized (tiles) {
+            if (tiles.isEmpty()) {
+                target.lowerBound.set(xf.p);
+                target.upperBound.set(xf.p);
+
+                return true;
+            }
+
+            // Kachel-Zeilen zählen nach unten, die Szene nach oben
+            left = minColumn * TILE_SIZE / resolution;
+            right = (maxColumn + 1) * TILE_SIZE / resolution;
+            bottom = -(maxRow + 1) * TILE_SIZE / resolution;
+            top = -minRow * TILE_SIZE / resolution;
+        }
+
+        float cos = xf.q.c, sin = xf.q.s;
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+
+        for (int corner = 0; corner < 4; corner++) {
+            float x = corner % 2 == 0 ? left : right;
+            float y = corner < 2 ? bottom : top;
+            float worldX = xf.p.x + cos * x - sin * y;
+            float worldY = xf.p.y + sin * x + cos * y;
+
+            minX = Math.min(minX, worldX);
+            minY = Math.min(minY, worldY);
+            maxX = Math.max(maxX, worldX);
+            maxY = Math.max(maxY, worldY);
+        }
+
+        target.lowerBound.set(minX, minY);
+        target.upperBound.set(maxX, maxY);
+
+        return true;
+    }
+
+    private static long key(int column, int row) {
+        return ((long) column << 32) | (row & 0xffffffffL);
+    }
+}
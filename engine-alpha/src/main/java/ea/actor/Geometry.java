@@ -20,6 +20,8 @@
 package ea.actor;
 
 import ea.animation.AnimationMode;
+import ea.animation.Easing;
+import ea.animation.Tween;
 import ea.animation.ValueAnimator;
 import ea.animation.interpolation.LinearFloat;
 import ea.internal.annotations.API;
@@ -57,6 +59,7 @@ public abstract class Geometry extends Actor {
     @API
     public void setColor(Color color) {
         this.color = color;
+        invalidateAppearance();
     }
 
     /**
@@ -75,22 +78,47 @@ public abstract class Geometry extends Actor {
      * @param duration Dauer der Animation in Sekunden
      * @param color    Neue Farbe des Objekts
      * @return Animations-Objekt, das die weitere Steuerung der Animation erlaubt
+     * @see #tweenColor(float, Color)
      */
     @API
     public ValueAnimator<Float> animateColor(float duration, Color color) {
         Color originalColor = getColor();
 
-        ValueAnimator<Float> animator = new ValueAnimator<>(duration, progress -> setColor(calculateIntermediateColor(originalColor, color, progress)), new LinearFloat(0, 1), AnimationMode.SINGLE, this);
+        ValueAnimator<Float> animator = new ValueAnimator<>(duration, progress -> setColor(new Color(calculateIntermediateColor(originalColor, color, progress))), new LinearFloat(0, 1), AnimationMode.SINGLE, this);
         addFrameUpdateListener(animator);
 
         return animator;
     }
 
-    private Color calculateIntermediateColor(Color original, Color target, float progress) {
+    /**
+     * Wie {@link #animateColor(float, Color)}, die Animation wird aber von der {@link ea.animation.TweenEngine} des
+     * Layers berechnet.
+     *
+     * @param duration Dauer der Animation in Sekunden
+     * @param color    Neue Farbe des Objekts
+     * @return Der bereits laufende Tween.
+     */
+    @API
+    public Tween tweenColor(float duration, Color color) {
+        Color originalColor = getColor();
+        int[] lastRgb = {originalColor.getRGB()};
+
+        return tween(duration, 0, 1, Easing.LINEAR, AnimationMode.SINGLE, progress -> {
+            int rgb = calculateIntermediateColor(originalColor, color, progress);
+
+            // Eine neue Farbe wird nur erzeugt, wenn sich der Farbwert tatsächlich ändert
+            if (rgb != lastRgb[0]) {
+                lastRgb[0] = rgb;
+                setColor(new Color(rgb));
+            }
+        });
+    }
+
+    private static int calculateIntermediateColor(Color original, Color target, float progress) {
         int r = original.getRed() - (int) ((original.getRed() - target.getRed()) * progress);
         int g = original.getGreen() - (int) ((original.getGreen() - target.getGreen()) * progress);
         int b = original.getBlue() - (int) ((original.getBlue() - target.getBlue()) * progress);
 
-        return new Color(r, g, b);
+        return 0xff000000 | (r << 16) | (g << 8) | b;
     }
 }
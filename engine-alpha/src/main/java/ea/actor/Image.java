@@ -150,6 +150,7 @@ public class Image extends Actor {
     @API
     public void setFlipHorizontal(boolean flipHorizontal) {
         this.flipHorizontal = flipHorizontal;
+        invalidateAppearance();
     }
 
     /**
@@ -162,6 +163,7 @@ public class Image extends Actor {
     @API
     public void setFlipVertical(boolean flipVertical) {
         this.flipVertical = flipVertical;
+        invalidateAppearance();
     }
 
     /**
@@ -70,15 +70,21 @@ public class Polygon extends Geometry {
     @Internal
     @Override
     public void render(Graphics2D g, float pixelPerMeter) {
-        for (int i = 0; i < scaledPx.length; i++) {
-            scaledPx[i] = (int) (px[i] * pixelPerMeter);
-            scaledPy[i] = (int) (py[i] * pixelPerMeter);
-        }
+        float[] px = this.px, py = this.py;
+        int[] scaledPx = this.scaledPx, scaledPy = this.scaledPy;
+
+        // Die Zwischenspeicher werden beim parallelen Zeichnen von mehreren Threads benutzt
+        synchronized (scaledPx) {
+            for (int i = 0; i < scaledPx.length; i++) {
+                scaledPx[i] = (int) (px[i] * pixelPerMeter);
+                scaledPy[i] = (int) (py[i] * pixelPerMeter);
+            }
 
-        AffineTransform at = g.getTransform();
-        g.scale(1, -1);
-        g.setColor(getColor());
-        g.fillPolygon(scaledPx, scaledPy, scaledPx.length);
-        g.setTransform(at);
+            AffineTransform at = g.getTransform();
+            g.scale(1, -1);
+            g.setColor(getColor());
+            g.fillPolygon(scaledPx, scaledPy, scaledPx.length);
+            g.setTransform(at);
+        }
     }
 }
@@ -105,6 +105,7 @@ public class Rectangle extends Geometry {
         }
 
         this.borderRadius = percent;
+        invalidateAppearance();
     }
 
     /**
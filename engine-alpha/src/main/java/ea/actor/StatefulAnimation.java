@@ -6,8 +6,6 @@ import ea.internal.annotations.Internal;
 import ea.internal.graphics.AnimationFrame;
 
 import java.awt.Graphics2D;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Ein animierter Actor, der mehrere Zustände haben kann (laufen (links/rechts), stehen(links/rechts), springen
@@ -26,21 +24,30 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class StatefulAnimation<State> extends Actor {
     /**
-     * Speichert die Frames (= "Animation") zu jedem State
+     * Beschreibung aller Zustände. Unveränderlich und ggf. mit anderen Instanzen geteilt, Änderungen über diese Instanz
+     * ersetzen nur die Referenz.
      */
-    private final Map<State, AnimationFrame[]> states = new ConcurrentHashMap<>();
+    private volatile AnimationSet<State> animationSet;
 
     /**
-     * Speichert den Übergang zum Folgestate von jedem State. Ordnet standardmäßig jedem State sich selbst als
-     * Folge-State zu ("loop"). Kann jedoch über {@link #setStateTransition(State, State)} angepasst werden.
+     * Die Frames, die diese Instanz zeichnet. Entsprechen denen von {@link #animationSet}, nur gestreamte Zustände
+     * erhalten je Instanz eigene Streams und damit einen eigenen Abspielkopf.
      */
-    private final Map<State, State> stateTransitions = new ConcurrentHashMap<>();
-
-    private State currentState = null;
-    private AnimationFrame[] currentAnimation = null;
+    private volatile AnimationFrame[][] frames;
 
+    /**
+     * Index des aktuellen Zustands in {@link #animationSet} oder <code>-1</code>, solange es keine Zustände gibt.
+     */
+    private int stateIndex = -1;
+    private int frameIndex = 0;
     private float currentTime = 0;
-    private int currentIndex = 0;
+
+    /**
+     * Position im {@link AnimationSystem} des Layers oder <code>-1</code>, wenn nicht angemeldet.
+     */
+    int systemIndex = -1;
+
+    private AnimationSystem system;
 
     private float width;
     private float height;
@@ -51,12 +58,37 @@ public class StatefulAnimation<State> extends Actor {
     private boolean animationPaused = false;
 
     public StatefulAnimation(float width, float height) {
+        this(width, height, AnimationSet.empty());
+    }
+
+    /**
+     * Erstellt eine Animation mit einer (geteilten) Beschreibung ihrer Zustände. Die Instanz selbst speichert nur den
+     * aktuellen Zustand und Frame, beginnend mit dem ersten Zustand der Beschreibung. Gestreamte Zustände (siehe
+     * {@link Animation#createFromAnimatedGifStreamed(String, float, float)}) dekodiert jede Instanz selbst.
+     *
+     * @param width        Breite in Metern.
+     * @param height       Höhe in Metern.
+     * @param animationSet Die Zustände, Frames und Übergänge.
+     */
+    @API
+    public StatefulAnimation(float width, float height, AnimationSet<State> animationSet) {
         super(() -> FixtureBuilder.createSimpleRectangularFixture(width, height));
 
         this.width = width;
         this.height = height;
-
-        addFrameUpdateListener(this::internalOnFrameUpdate);
+        this.frames = copyStreams(animationSet.frames, new AnimationFrame[0][], new AnimationFrame[0][]);
+        this.animationSet = animationSet;
+        this.stateIndex = animationSet.states.length > 0 ? 0 : -1;
+
+        addMountListener(() -> {
+            system = getLayer().getAnimations();
+            system.add(this);
+        });
+
+        addUnmountListener(() -> {
+            system.remove(this);
+            system = null;
+        });
     }
 
     @API
@@ -81,20 +113,14 @@ public class StatefulAnimation<State> extends Actor {
      */
     @API
     public void addState(State state, Animation stateAnimation) {
-        if (states.containsKey(state)) {
-            throw new RuntimeException("Zustandsname wird bereits in diesem Objekt genutzt: " + state);
-        }
+        AnimationSet<State> set = animationSet.withState(state, stateAnimation);
 
-        AnimationFrame[] frames = stateAnimation.getFrames();
+        frames = copyStreams(set.frames, animationSet.frames, frames);
+        animationSet = set;
 
-        states.put(state, frames);
-
-        // Add default loop transition rule for state
-        stateTransitions.put(state, state);
-
-        if (currentState == null) {
-            currentState = state;
-            currentAnimation = frames;
+        if (stateIndex < 0) {
+            stateIndex = 0;
+            invalidateAppearance();
         }
     }
 
@@ -107,14 +133,17 @@ public class StatefulAnimation<State> extends Actor {
      */
     @API
     public void setState(State state) {
-        if (!states.containsKey(state)) {
+        int index = animationSet.indexOf(state);
+
+        if (index < 0) {
             throw new RuntimeException("Zustand nicht nicht vorhanden: " + state);
         }
 
-        this.currentIndex = 0;
-        this.currentState = state;
+        this.frameIndex = 0;
+        this.stateIndex = index;
         this.currentTime = 0;
-        this.currentAnimation = states.get(state);
+
+        invalidateAppearance();
     }
 
     /**
@@ -127,7 +156,7 @@ public class StatefulAnimation<State> extends Actor {
      */
     @API
     public void changeState(State state) {
-        if (!state.equals(currentState)) {
+        if (!state.equals(getCurrentState())) {
             setState(state);
         }
     }
@@ -142,7 +171,7 @@ public class StatefulAnimation<State> extends Actor {
      */
     @API
     public boolean hasState(State state) {
-        return states.containsKey(state);
+        return animationSet.hasState(state);
     }
 
     /**
@@ -153,7 +182,9 @@ public class StatefulAnimation<State> extends Actor {
      */
     @API
     public State getCurrentState() {
-        return currentState;
+        int index = stateIndex;
+
+        return index < 0 ? null : animationSet.getState(index);
     }
 
     /**
@@ -167,6 +198,7 @@ public class StatefulAnimation<State> extends Actor {
     @API
     public void setFlipHorizontal(boolean flipHorizontal) {
         this.flipHorizontal = flipHorizontal;
+        invalidateAppearance();
     }
 
     /**
@@ -179,6 +211,7 @@ public class StatefulAnimation<State> extends Actor {
     @API
     public void setFlipVertical(boolean flipVertical) {
         this.flipVertical = flipVertical;
+        invalidateAppearance();
     }
 
     /**
@@ -239,22 +272,12 @@ public class StatefulAnimation<State> extends Actor {
      */
     @API
     public void setStateTransition(State stateFrom, State stateTo) {
-        if (!states.containsKey(stateFrom)) {
-            throw new RuntimeException("Der Von-Zustand ist nicht in dieser Animation eingepflegt: " + stateFrom);
-        }
-
-        if (!states.containsKey(stateTo)) {
-            throw new RuntimeException("Der To-Zustand ist nicht in dieser Animation eingepflegt: " + stateTo);
-        }
-
-        // Remove old transition rule
-        stateTransitions.remove(stateFrom);
-        // Add new transition rule
-        stateTransitions.put(stateFrom, stateTo);
+        animationSet = animationSet.withStateTransition(stateFrom, stateTo);
     }
 
     /**
-     * Setzt die Dauer, die ein Frame einer bestimmten Animation verweilt.
+     * Setzt die Dauer, die ein Frame einer bestimmten Animation verweilt. Betrifft nur diese Instanz, auch wenn ihre
+     * Zustände mit anderen Instanzen geteilt werden.
      *
      * @param state         Der State, für den die Frame-Dauer neu gesetzt werden soll.
      * @param frameDuration Die Zeit (in Sekunden), die jeder einzelne Frame der Animation des entsprechenden
@@ -262,45 +285,147 @@ public class StatefulAnimation<State> extends Actor {
      */
     @API
     public void setFrameDuration(State state, float frameDuration) {
-        if (!states.containsKey(state)) {
-            throw new RuntimeException("Der Zustand ist nicht bekannt: " + state);
-        }
+        animationSet = animationSet.withFrameDuration(state, frameDuration);
+    }
+
+    /**
+     * @return Die aktuelle Beschreibung aller Zustände. Kann an weitere Instanzen übergeben werden, die dieselben
+     * Zustände nutzen sollen.
+     */
+    @API
+    public AnimationSet<State> getAnimationSet() {
+        return animationSet;
+    }
+
+    /**
+     * Ersetzt die Beschreibung aller Zustände. Existiert der aktuelle Zustand auch in der neuen Beschreibung, wird er
+     * beibehalten, sonst beginnt die Animation mit dem ersten Zustand.
+     *
+     * @param animationSet Die neue Beschreibung.
+     */
+    @API
+    public void setAnimationSet(AnimationSet<State> animationSet) {
+        State current = getCurrentState();
+        int index = current == null ? -1 : animationSet.indexOf(current);
+
+        this.frames = copyStreams(animationSet.frames, this.animationSet.frames, frames);
+        this.animationSet = animationSet;
+        this.frameIndex = 0;
+        this.currentTime = 0;
+        this.stateIndex = index >= 0 ? index : (animationSet.states.length > 0 ? 0 : -1);
+
+        invalidateAppearance();
+    }
+
+    /**
+     * Gibt die Frames einer Beschreibung mit eigenen Streams für diese Instanz aus. Zustände, deren Frames schon in
+     * der bisherigen Beschreibung an derselben Stelle standen, behalten ihre bisherigen Streams.
+     *
+     * @param source         Die Frames der neuen Beschreibung.
+     * @param previousSource Die Frames der bisherigen Beschreibung.
+     * @param previous       Die bisher gezeichneten Frames.
+     */
+    private static AnimationFrame[][] copyStreams(AnimationFrame[][] source, AnimationFrame[][] previousSource, AnimationFrame[][] previous) {
+        AnimationFrame[][] result = null;
 
-        for (AnimationFrame frame : states.get(state)) {
-            frame.setDuration(frameDuration);
+        for (int i = 0; i < source.length; i++) {
+            AnimationFrame[] stateFrames = i < previousSource.length && previousSource[i] == source[i] ? previous[i] : AnimationFrame.copyStreams(source[i]);
+
+            if (stateFrames != source[i] && result == null) {
+                result = source.clone();
+            }
+
+            if (result != null) {
+                result[i] = stateFrames;
+            }
         }
+
+        // Ohne gestreamte Zustände teilen sich alle Instanzen die Frames der Beschreibung
+        return result == null ? source : result;
     }
 
     /**
-     * Methode wird frameweise über einen anonymen Listener aufgerufen.
+     * Anzahl Werte, die {@link #writePlayhead(int[], int)} schreibt: Zustand, Frame und Zeit im Frame.
      */
     @Internal
-    private void internalOnFrameUpdate(float frameDuration) {
-        if (currentAnimation == null || currentAnimation.length == 0 || animationPaused) {
-            return; // we don't have a state yet - or the animation is paused
+    public static final int PLAYHEAD_SIZE = 3;
+
+    /**
+     * Schreibt die Abspielposition für einen {@link ea.SceneSnapshot}.
+     */
+    @Internal
+    public void writePlayhead(int[] target, int offset) {
+        target[offset] = stateIndex;
+        target[offset + 1] = frameIndex;
+        target[offset + 2] = Float.floatToRawIntBits(currentTime);
+    }
+
+    /**
+     * @return Ob eine mit {@link #writePlayhead(int[], int)} geschriebene Abspielposition in der aktuellen
+     * Beschreibung existiert.
+     */
+    @Internal
+    public boolean isValidPlayhead(int[] source, int offset) {
+        int state = source[offset];
+        int frame = source[offset + 1];
+        AnimationSet<State> set = animationSet;
+
+        if (state < 0) {
+            return state == -1 && frame == 0;
         }
 
-        currentTime += frameDuration;
+        return state < set.states.length && frame >= 0 && frame < set.durations[state].length;
+    }
 
-        AnimationFrame currentFrame = currentAnimation[currentIndex];
+    /**
+     * Stellt eine mit {@link #writePlayhead(int[], int)} geschriebene Abspielposition wieder her.
+     */
+    @Internal
+    public void readPlayhead(int[] source, int offset) {
+        stateIndex = source[offset];
+        frameIndex = source[offset + 1];
+        currentTime = Float.intBitsToFloat(source[offset + 2]);
 
-        while (this.currentTime > currentFrame.getDuration()) {
-            this.currentTime -= currentFrame.getDuration();
+        invalidateAppearance();
+    }
 
-            if (this.currentIndex + 1 == this.currentAnimation.length) {
-                // Animation cycle has ended. -> Transition to next state
-                currentIndex = 0;
+    /**
+     * Schreibt die Abspielposition fort, wird vom {@link AnimationSystem} des Layers aufgerufen.
+     */
+    @Internal
+    void advance(float frameDuration) {
+        int state = stateIndex;
 
-                State nextState = stateTransitions.get(currentState);
-                AnimationFrame[] nextAnimation = states.get(nextState);
+        if (state < 0 || animationPaused) {
+            return; // we don't have a state yet - or the animation is paused
+        }
+
+        AnimationSet<State> set = animationSet;
+        float[] durations = set.durations[state];
+        int index = frameIndex;
+        float time = currentTime + frameDuration;
 
-                currentState = nextState;
-                currentAnimation = nextAnimation;
+        while (time > durations[index]) {
+            time -= durations[index];
+
+            if (index + 1 == durations.length) {
+                // Animation cycle has ended. -> Transition to next state
+                index = 0;
+                state = set.transitions[state];
+                durations = set.durations[state];
             } else {
                 // Animation cycle has not ended -> simply move on to next frame
-                this.currentIndex++;
+                index++;
             }
         }
+
+        if (state != stateIndex || index != frameIndex) {
+            invalidateAppearance();
+        }
+
+        stateIndex = state;
+        frameIndex = index;
+        currentTime = time;
     }
 
     /**
@@ -322,10 +447,12 @@ public class StatefulAnimation<State> extends Actor {
     @Internal
     @Override
     public void render(Graphics2D g, float pixelPerMeter) {
-        if (currentAnimation == null || currentAnimation.length == 0) {
+        int state = stateIndex;
+
+        if (state < 0) {
             return; // we don't have a state yet
         }
 
-        currentAnimation[currentIndex].render(g, width * pixelPerMeter, height * pixelPerMeter, flipHorizontal, flipVertical);
+        frames[state][frameIndex].render(g, width * pixelPerMeter, height * pixelPerMeter, flipHorizontal, flipVertical);
     }
 }
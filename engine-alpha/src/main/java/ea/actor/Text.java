@@ -218,6 +218,7 @@ public class Text extends Geometry {
         cachedDescent = FontMetrics.getDescent(font);
 
         setFixture(() -> createShape(content, height, font));
+        invalidateAppearance();
     }
 
     @Override
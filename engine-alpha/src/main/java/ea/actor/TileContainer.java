@@ -14,6 +14,11 @@ import java.awt.geom.AffineTransform;
  * @author Michael Andonie
  */
 public class TileContainer extends Actor implements TileMap {
+    /**
+     * So viele Änderungen lassen sich über {@link #getChangedTile(int)} nachvollziehen. Eine Zweierpotenz.
+     */
+    @Internal
+    public static final int CHANGE_LOG_SIZE = 64;
 
     /**
      * Die IDs der aktuellen Tiles des Containers.
@@ -30,6 +35,16 @@ public class TileContainer extends Actor implements TileMap {
      */
     private final float tileHeight;
 
+    /**
+     * Ringpuffer mit den Indizes (<code>x * Anzahl in Y-Richtung + y</code>) der zuletzt gesetzten Tiles.
+     */
+    private final int[] changedTiles = new int[CHANGE_LOG_SIZE];
+
+    /**
+     * Anzahl der Aufrufe von {@link #setTile(int, int, Tile)} seit dem Erstellen.
+     */
+    private int changeCount;
+
     /**
      * Erstellt einen <b>leeren</b> Tile-Container. Er ist erst "sichtbar", wenn Tiles gesetzt werden.
      *
@@ -64,6 +79,22 @@ public class TileContainer extends Actor implements TileMap {
         return tiles[0].length;
     }
 
+    /**
+     * @return Die Breite eines Tiles in Meter.
+     */
+    @API
+    public float getTileWidth() {
+        return tileWidth;
+    }
+
+    /**
+     * @return Die Höhe eines Tiles in Meter.
+     */
+    @API
+    public float getTileHeight() {
+        return tileHeight;
+    }
+
     /**
      * Erstellt einen <b>leeren</b> Tile-Container für quadratische Tiles. Er ist erst "sichtbar", wenn Tiles gesetzt
      * werden.
@@ -89,6 +120,34 @@ public class TileContainer extends Actor implements TileMap {
     @API
     public void setTile(int x, int y, Tile tile) {
         tiles[x][y] = tile;
+        changedTiles[changeCount++ & (CHANGE_LOG_SIZE - 1)] = x * tiles[0].length + y;
+        invalidateAppearance();
+    }
+
+    /**
+     * @return Anzahl der bisherigen Aufrufe von {@link #setTile(int, int, Tile)}.
+     */
+    @Internal
+    public int getChangeCount() {
+        return changeCount;
+    }
+
+    /**
+     * Liefert, welches Tile bei einer Änderung gesetzt wurde. Nur die letzten {@link #CHANGE_LOG_SIZE} Änderungen sind
+     * verfügbar; wer weiter zurückliegt, muss alle Tiles neu lesen.
+     *
+     * @param change Nummer der Änderung, zwischen <code>getChangeCount() - CHANGE_LOG_SIZE</code> (inklusiv) und
+     *               <code>getChangeCount()</code> (exklusiv).
+     *
+     * @return Index des Tiles als <code>x * getTileCountY() + y</code>.
+     */
+    @Internal
+    public int getChangedTile(int change) {
+        if (changeCount - change > CHANGE_LOG_SIZE || changeCount - change <= 0) {
+            throw new IllegalArgumentException("Änderung " + change + " ist nicht mehr verfügbar");
+        }
+
+        return changedTiles[change & (CHANGE_LOG_SIZE - 1)];
     }
 
     @Internal
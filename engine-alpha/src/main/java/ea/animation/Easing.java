@@ -0,0 +1,52 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.animation;
+
+import ea.internal.annotations.API;
+
+/**
+ * Verlauf eines {@link Tween}s zwischen Start- und Zielwert.
+ */
+@API
+public enum Easing {
+    /**
+     * Gleichmäßig, wie {@link ea.animation.interpolation.LinearFloat}.
+     */
+    LINEAR,
+
+    /**
+     * Langsamer Anfang und langsames Ende, wie {@link ea.animation.interpolation.EaseInOutFloat}.
+     */
+    EASE_IN_OUT;
+
+    /**
+     * @param progress Fortschritt zwischen 0 und 1.
+     *
+     * @return Anteil des Weges vom Start- zum Zielwert.
+     */
+    @API
+    public float apply(float progress) {
+        if (this == EASE_IN_OUT) {
+            return (float) ((Math.sin((double) progress * Math.PI - Math.PI / 2) + 1) / 2);
+        }
+
+        return progress;
+    }
+}
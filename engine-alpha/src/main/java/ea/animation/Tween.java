@@ -0,0 +1,227 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.animation;
+
+import ea.actor.Actor;
+import ea.internal.annotations.API;
+import ea.internal.annotations.Internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Steuert eine laufende Animation eines <code>float</code>-Wertes, die von einer {@link TweenEngine} berechnet
+ * wird. Alle Methoden dürfen aus beliebigen Threads aufgerufen werden.
+ *
+ * @see Actor#tween(float, float, float, Easing, AnimationMode, FloatConsumer)
+ */
+@API
+public final class Tween {
+    final float duration;
+    final float from;
+    final float to;
+    final Easing easing;
+    final AnimationMode mode;
+    final FloatConsumer target;
+    final Actor owner;
+
+    /**
+     * Engine, in der der Tween gerade läuft, sonst <code>null</code>. Wird nur unter dem Lock der Engine und dieses
+     * Tweens geändert.
+     */
+    TweenEngine engine;
+
+    /**
+     * Index in den Arrays der Engine, nur unter dem Lock der Engine gültig.
+     */
+    int index = -1;
+
+    /**
+     * Zustand, solange der Tween in keiner Engine läuft. Nur unter dem Lock dieses Tweens verwendet.
+     */
+    float detachedTime = 0;
+    byte detachedFlags = 0;
+
+    volatile boolean done = false;
+
+    private List<Runnable> completionListeners;
+
+    @Internal
+    public Tween(float duration, float from, float to, Easing easing, AnimationMode mode, FloatConsumer target, Actor owner) {
+        if (duration <= 0) {
+            throw new IllegalArgumentException("Die Dauer muss größer als 0 sein, war " + duration);
+        }
+
+        this.duration = duration;
+        this.from = from;
+        this.to = to;
+        this.easing = easing;
+        this.mode = mode;
+        this.target = target;
+        this.owner = owner;
+    }
+
+    /**
+     * Setzt, ob der Tween pausiert ist.
+     */
+    @API
+    public void setPaused(boolean paused) {
+        while (true) {
+            TweenEngine current;
+
+            synchronized (this) {
+                current = engine;
+
+                if (current == null) {
+                    detachedFlags = (byte) (paused ? detachedFlags | TweenEngine.PAUSED : detachedFlags & ~TweenEngine.PAUSED);
+                    return;
+                }
+            }
+
+            // Scheitert nur, wenn der Tween zwischenzeitlich seine Engine verlassen hat
+            if (current.setFlag(this, TweenEngine.PAUSED, paused)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return Ob der Tween pausiert ist.
+     */
+    @API
+    public boolean isPaused() {
+        while (true) {
+            TweenEngine current;
+
+            synchronized (this) {
+                current = engine;
+
+                if (current == null) {
+                    return (detachedFlags & TweenEngine.PAUSED) != 0;
+                }
+            }
+
+            int flags = current.getFlags(this);
+
+            if (flags >= 0) {
+                return (flags & TweenEngine.PAUSED) != 0;
+            }
+        }
+    }
+
+    /**
+     * Setzt den Fortschritt des Tweens und übergibt den zugehörigen Wert sofort.
+     *
+     * @param progress Fortschritt zwischen 0 (Anfang) und 1 (Ende).
+     */
+    @API
+    public void setProgress(float progress) {
+        if (progress < 0 || progress > 1) {
+            throw new IllegalArgumentException("Der eingegebene Progess muss zwischen 0 und 1 liegen. War " + progress);
+        }
+
+        while (true) {
+            TweenEngine current;
+
+            synchronized (this) {
+                current = engine;
+
+                if (current == null) {
+                    detachedTime = duration * progress;
+                    detachedFlags &= ~TweenEngine.BACKWARDS;
+                    break;
+                }
+            }
+
+            if (current.setTime(this, duration * progress)) {
+                break;
+            }
+        }
+
+        target.accept(from + (to - from) * easing.apply(progress));
+    }
+
+    /**
+     * Beendet den Tween sofort, ohne den Zielwert zu setzen und ohne Abschluss-Listener aufzurufen.
+     */
+    @API
+    public void cancel() {
+        TweenEngine current;
+
+        synchronized (this) {
+            done = true; // verhindert, dass der Tween danach noch angemeldet wird
+            current = engine;
+        }
+
+        if (current != null) {
+            current.remove(this);
+        }
+    }
+
+    /**
+     * @return <code>true</code>, wenn der Tween abgeschlossen oder abgebrochen wurde.
+     */
+    @API
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Fügt einen Listener hinzu, der aufgerufen wird, sobald der Tween den Zielwert erreicht hat. Ist das bereits
+     * passiert, wird er sofort aufgerufen. Tweens mit {@link AnimationMode#REPEATED} oder
+     * {@link AnimationMode#PINGPONG} werden nie abgeschlossen.
+     *
+     * @return Dieser Tween.
+     */
+    @API
+    public Tween addCompletionListener(Runnable listener) {
+        synchronized (this) {
+            if (!done) {
+                if (completionListeners == null) {
+                    completionListeners = new ArrayList<>(1);
+                }
+
+                completionListeners.add(listener);
+
+                return this;
+            }
+        }
+
+        listener.run();
+
+        return this;
+    }
+
+    void complete() {
+        List<Runnable> listeners;
+
+        synchronized (this) {
+            done = true;
+            listeners = completionListeners;
+            completionListeners = null;
+        }
+
+        if (listeners != null) {
+            for (Runnable listener : listeners) {
+                listener.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,469 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.animation;
+
+import ea.Layer;
+import ea.actor.Actor;
+import ea.internal.annotations.API;
+import ea.internal.annotations.Internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Berechnet alle <code>float</code>-Animationen eines Layers gemeinsam. Der Zustand aller Tweens liegt in
+ * primitiven Arrays und wird einmal pro Frame in einer einzigen Schleife fortgeschrieben, statt für jede Animation
+ * einen eigenen {@link ea.FrameUpdateListener} mit geboxten Werten aufzurufen.
+ * <p>
+ * Tweens eines Actors laufen nur, solange der Actor an diesem Layer angemeldet ist. Wird er entfernt, wird der
+ * Tween abgebrochen.
+ * <p>
+ * Tweens dürfen aus beliebigen Threads gestartet und gesteuert werden, z.B. aus parallelen Abläufen der EDU-Variante.
+ * Alle Änderungen an den Arrays laufen unter dem Lock der Engine; {@link #advance(float)} hält ihn nur während der
+ * Berechnung, nicht während der Abschluss-Listener.
+ * <p>
+ * Laufzeit und Richtung aller Tweens werden von {@link ea.SceneSnapshot}s gespeichert und zurückgespielt.
+ *
+ * @see Layer#getTweens()
+ */
+@API
+public final class TweenEngine {
+    static final byte PAUSED = 1;
+    static final byte BACKWARDS = 2;
+    static final byte REMOVED = 4;
+
+    private static final int SINGLE = AnimationMode.SINGLE.ordinal();
+    private static final int REPEATED = AnimationMode.REPEATED.ordinal();
+    private static final int EASE_IN_OUT = Easing.EASE_IN_OUT.ordinal();
+
+    /**
+     * Laufzeiten und Flags aller laufenden Tweens einer Engine zu einem Zeitpunkt, siehe {@link #captureState()}.
+     */
+    @Internal
+    public static final class State {
+        /**
+         * Die Tweens in der Reihenfolge der Engine, <code>null</code> bei gelesenen Snapshots.
+         */
+        private final Tween[] tweens;
+        private final float[] times;
+        private final byte[] flags;
+
+        @Internal
+        public State(Tween[] tweens, float[] times, byte[] flags) {
+            this.tweens = tweens;
+            this.times = times;
+            this.flags = flags;
+        }
+
+        @Internal
+        public int size() {
+            return times.length;
+        }
+
+        @Internal
+        public float getTime(int index) {
+            return times[index];
+        }
+
+        @Internal
+        public byte getFlags(int index) {
+            return flags[index];
+        }
+
+        @Internal
+        public boolean hasTweens() {
+            return tweens != null;
+        }
+    }
+
+    private final Layer layer;
+
+    private int count = 0;
+
+    private float[] froms = new float[16];
+    private float[] tos = new float[16];
+    private float[] times = new float[16];
+    private float[] durations = new float[16];
+    private byte[] easings = new byte[16];
+    private byte[] modes = new byte[16];
+    private byte[] flags = new byte[16];
+    private FloatConsumer[] targets = new FloatConsumer[16];
+    private Actor[] owners = new Actor[16];
+    private Tween[] handles = new Tween[16];
+
+    /**
+     * <code>true</code>, wenn Einträge mit {@link #REMOVED} aus den Arrays entfernt werden müssen.
+     */
+    private boolean dirty = false;
+
+    private final List<Tween> completed = new ArrayList<>();
+
+    /**
+     * @param layer Das Layer, zu dem die Engine gehört, oder <code>null</code>.
+     */
+    @Internal
+    public TweenEngine(Layer layer) {
+        this.layer = layer;
+    }
+
+    /**
+     * Startet einen Tween, der keinem Actor gehört.
+     *
+     * @param duration Dauer in Sekunden.
+     * @param from     Startwert.
+     * @param to       Zielwert.
+     * @param easing   Verlauf zwischen Start- und Zielwert.
+     * @param mode     Verhalten am Ende der Dauer.
+     * @param target   Erhält in jedem Frame den aktuellen Wert.
+     *
+     * @return Der laufende Tween.
+     */
+    @API
+    public Tween add(float duration, float from, float to, Easing easing, AnimationMode mode, FloatConsumer target) {
+        Tween tween = new Tween(duration, from, to, easing, mode, target, null);
+        attach(tween);
+
+        return tween;
+    }
+
+    /**
+     * @return Anzahl laufender Tweens.
+     */
+    @API
+    public synchronized int size() {
+        int size = 0;
+
+        for (int i = 0; i < count; i++) {
+            if ((flags[i] & REMOVED) == 0) {
+                size++;
+            }
+        }
+
+        return size;
+    }
+
+    @Internal
+    public synchronized void attach(Tween tween) {
+        synchronized (tween) {
+            if (tween.done || tween.engine != null) {
+                return;
+            }
+
+            append(tween);
+        }
+    }
+
+    private void append(Tween tween) {
+        if (count == froms.length) {
+            int capacity = count * 2;
+
+            froms = Arrays.copyOf(froms, capacity);
+            tos = Arrays.copyOf(tos, capacity);
+            times = Arrays.copyOf(times, capacity);
+            durations = Arrays.copyOf(durations, capacity);
+            easings = Arrays.copyOf(easings, capacity);
+            modes = Arrays.copyOf(modes, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+            handles = Arrays.copyOf(handles, capacity);
+        }
+
+        int i = count++;
+
+        froms[i] = tween.from;
+        tos[i] = tween.to;
+        times[i] = tween.detachedTime;
+        durations[i] = tween.duration;
+        easings[i] = (byte) tween.easing.ordinal();
+        modes[i] = (byte) tween.mode.ordinal();
+        flags[i] = tween.detachedFlags;
+        targets[i] = tween.target;
+        owners[i] = tween.owner;
+        handles[i] = tween;
+
+        tween.engine = this;
+        tween.index = i;
+    }
+
+    /**
+     * Entfernt einen Tween, der in dieser Engine läuft.
+     *
+     * @return <code>false</code>, wenn der Tween inzwischen nicht mehr in dieser Engine läuft.
+     */
+    synchronized boolean remove(Tween tween) {
+        if (tween.engine != this) {
+            return false;
+        }
+
+        int i = tween.index;
+
+        synchronized (tween) {
+            tween.detachedTime = times[i];
+            tween.detachedFlags = (byte) (flags[i] & ~REMOVED);
+            tween.engine = null;
+            tween.index = -1;
+        }
+
+        flags[i] |= REMOVED;
+        dirty = true;
+
+        return true;
+    }
+
+    /**
+     * @return Die Flags des Tweens oder <code>-1</code>, wenn er nicht mehr in dieser Engine läuft.
+     */
+    synchronized int getFlags(Tween tween) {
+        return tween.engine == this ? flags[tween.index] : -1;
+    }
+
+    synchronized boolean setFlag(Tween tween, byte flag, boolean value) {
+        if (tween.engine != this) {
+            return false;
+        }
+
+        int i = tween.index;
+        flags[i] = (byte) (value ? flags[i] | flag : flags[i] & ~flag);
+
+        return true;
+    }
+
+    synchronized boolean setTime(Tween tween, float time) {
+        if (tween.engine != this) {
+            return false;
+        }
+
+        times[tween.index] = time;
+        flags[tween.index] &= ~BACKWARDS;
+
+        return true;
+    }
+
+    /**
+     * @return Laufzeit und Flags aller laufenden Tweens.
+     */
+    @Internal
+    public synchronized State captureState() {
+        int size = size();
+        Tween[] tweens = new Tween[size];
+        float[] stateTimes = new float[size];
+        byte[] stateFlags = new byte[size];
+        int target = 0;
+
+        for (int i = 0; i < count; i++) {
+            if ((flags[i] & REMOVED) != 0) {
+                continue;
+            }
+
+            tweens[target] = handles[i];
+            stateTimes[target] = times[i];
+            stateFlags[target] = flags[i];
+            target++;
+        }
+
+        return new State(tweens, stateTimes, stateFlags);
+    }
+
+    /**
+     * Spielt einen mit {@link #captureState()} erstellten Zustand zurück. Tweens, die seitdem gestartet wurden,
+     * werden abgemeldet, aber nicht abgebrochen; inzwischen abgeschlossene oder abgebrochene Tweens laufen wieder.
+     * Bereits aufgerufene Abschluss-Listener werden dabei nicht erneut angemeldet.
+     * <p>
+     * Stammt der Zustand aus einem gelesenen Snapshot, werden die Werte der Reihe nach auf die laufenden Tweens
+     * übertragen.
+     *
+     * @throws IllegalStateException Wenn ein gelesener Zustand nicht zur Anzahl laufender Tweens passt.
+     */
+    @Internal
+    public synchronized void restoreState(State state) {
+        if (state.tweens == null) {
+            if (size() != state.size()) {
+                throw new IllegalStateException("Es laufen " + size() + " Tweens, der Snapshot hat " + state.size());
+            }
+
+            int source = 0;
+
+            for (int i = 0; i < count; i++) {
+                if ((flags[i] & REMOVED) == 0) {
+                    times[i] = state.times[source];
+                    flags[i] = state.flags[source];
+                    source++;
+                }
+            }
+
+            return;
+        }
+
+        Set<Tween> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+        Collections.addAll(expected, state.tweens);
+
+        for (int i = 0; i < count; i++) {
+            if ((flags[i] & REMOVED) == 0 && !expected.contains(handles[i])) {
+                remove(handles[i]);
+            }
+        }
+
+        for (int i = 0; i < state.tweens.length; i++) {
+            Tween tween = state.tweens[i];
+
+            synchronized (tween) {
+                if (tween.engine == null) {
+                    tween.done = false;
+                    append(tween);
+                } else if (tween.engine != this) {
+                    continue; // läuft inzwischen in einem anderen Layer
+                }
+
+                times[tween.index] = state.times[i];
+                flags[tween.index] = state.flags[i];
+            }
+        }
+    }
+
+    /**
+     * Schreibt alle Tweens um die vergangene Zeit fort.
+     *
+     * @param deltaSeconds Vergangene Zeit in Sekunden.
+     */
+    @Internal
+    public void advance(float deltaSeconds) {
+        synchronized (this) {
+            step(deltaSeconds);
+        }
+
+        if (!completed.isEmpty()) {
+            for (Tween tween : completed) {
+                if (tween != null) {
+                    tween.complete();
+                }
+            }
+
+            completed.clear();
+        }
+    }
+
+    private void step(float deltaSeconds) {
+        // Während der Schleife hinzugefügte Tweens starten erst im nächsten Frame
+        int end = count;
+
+        for (int i = 0; i < end; i++) {
+            byte flag = flags[i];
+
+            if ((flag & (PAUSED | REMOVED)) != 0) {
+                continue;
+            }
+
+            Actor owner = owners[i];
+
+            if (owner != null && owner.getLayer() != layer) {
+                handles[i].cancel();
+                continue;
+            }
+
+            float duration = durations[i];
+            float time = times[i];
+            float progress;
+
+            if ((flag & BACKWARDS) == 0) {
+                time += deltaSeconds;
+
+                if (time > duration) {
+                    if (modes[i] == SINGLE) {
+                        time = duration;
+                        flag |= REMOVED;
+                        completed.add(handles[i]);
+                    } else if (modes[i] == REPEATED) {
+                        time %= duration;
+                    } else {
+                        time = duration;
+                        flag |= BACKWARDS;
+                    }
+                }
+            } else {
+                time -= deltaSeconds;
+
+                if (time < 0) {
+                    time = 0;
+                    flag &= ~BACKWARDS;
+                }
+            }
+
+            times[i] = time;
+            flags[i] = flag;
+            progress = time / duration;
+
+            if (easings[i] == EASE_IN_OUT) {
+                progress = (float) ((Math.sin((double) progress * Math.PI - Math.PI / 2) + 1) / 2);
+            }
+
+            targets[i].accept(froms[i] + (tos[i] - froms[i]) * progress);
+        }
+
+        for (int i = 0; i < completed.size(); i++) {
+            Tween tween = completed.get(i);
+
+            if (!remove(tween)) {
+                completed.set(i, null); // im selben Frame abgebrochen
+            }
+        }
+
+        if (dirty) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        int target = 0;
+
+        for (int i = 0; i < count; i++) {
+            if ((flags[i] & REMOVED) != 0) {
+                continue;
+            }
+
+            if (target != i) {
+                froms[target] = froms[i];
+                tos[target] = tos[i];
+                times[target] = times[i];
+                durations[target] = durations[i];
+                easings[target] = easings[i];
+                modes[target] = modes[i];
+                flags[target] = flags[i];
+                targets[target] = targets[i];
+                owners[target] = owners[i];
+                handles[target] = handles[i];
+                handles[target].index = target;
+            }
+
+            target++;
+        }
+
+        Arrays.fill(targets, target, count, null);
+        Arrays.fill(owners, target, count, null);
+        Arrays.fill(handles, target, count, null);
+
+        count = target;
+        dirty = false;
+    }
+}
@@ -22,11 +22,15 @@ package ea.animation;
 import ea.FrameUpdateListener;
 import ea.event.EventListeners;
 import ea.event.FrameUpdateListenerContainer;
+import ea.internal.Snapshottable;
 import ea.internal.annotations.API;
+import ea.internal.annotations.Internal;
+
+import java.nio.ByteBuffer;
 
 import java.util.function.Consumer;
 
-public class ValueAnimator<Value> implements FrameUpdateListener {
+public class ValueAnimator<Value> implements FrameUpdateListener, Snapshottable {
     private final Consumer<Value> consumer;
     private final Interpolator<Value> interpolator;
     private final AnimationMode mode;
@@ -161,4 +165,22 @@ public class ValueAnimator<Value> implements FrameUpdateListener {
 
         return this;
     }
+
+    @Override
+    @Internal
+    public void writeState(ByteBuffer buffer) {
+        buffer.putFloat(currentTime);
+        buffer.put((byte) ((complete ? 1 : 0) | (paused ? 2 : 0) | (goingBackwards ? 4 : 0)));
+    }
+
+    @Override
+    @Internal
+    public void readState(ByteBuffer buffer) {
+        currentTime = buffer.getFloat();
+
+        byte flags = buffer.get();
+        complete = (flags & 1) != 0;
+        paused = (flags & 2) != 0;
+        goingBackwards = (flags & 4) != 0;
+    }
 }
@@ -4,6 +4,7 @@ import ea.Vector;
 import ea.actor.Actor;
 import ea.internal.annotations.API;
 import ea.internal.annotations.Internal;
+import ea.internal.physics.WorldHandler;
 import org.jbox2d.collision.WorldManifold;
 import org.jbox2d.dynamics.contacts.Contact;
 
@@ -104,7 +105,7 @@ public class CollisionEvent<E extends Actor> {
 
         Vector normal = Vector.of(worldManifold.normal);
 
-        if (contact.m_fixtureA.getBody().getUserData() == colliding) {
+        if (WorldHandler.getActor(contact.m_fixtureA, contact) == colliding) {
             normal = normal.negate();
         }
 
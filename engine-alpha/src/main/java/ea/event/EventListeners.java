@@ -20,10 +20,13 @@
 package ea.event;
 
 import ea.internal.annotations.API;
+import ea.internal.annotations.Internal;
+import ea.internal.monitoring.ListenerInvokeEvent;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -85,6 +88,9 @@ public final class EventListeners<T> {
             throw new IllegalStateException("Recursive invocation of event listeners is unsupported");
         }
 
+        ListenerInvokeEvent event = new ListenerInvokeEvent();
+        event.begin();
+
         try {
             iterating = true;
 
@@ -94,6 +100,14 @@ public final class EventListeners<T> {
         } finally {
             iterating = false;
 
+            event.end();
+
+            if (event.shouldCommit() && !listenerIterationCopy.isEmpty()) {
+                event.listeners = listenerIterationCopy.size();
+                event.listenerType = listenerIterationCopy.iterator().next().getClass();
+                event.commit();
+            }
+
             for (Runnable pendingModification : pendingCopyModifications) {
                 pendingModification.run();
             }
@@ -107,6 +121,14 @@ public final class EventListeners<T> {
         return listeners.isEmpty();
     }
 
+    /**
+     * @return Eine Kopie der aktuell angemeldeten Listener, ohne sie aufzurufen.
+     */
+    @Internal
+    public synchronized List<T> toList() {
+        return new ArrayList<>(listeners);
+    }
+
     @API
     public synchronized void clear() {
         listeners.clear();
@@ -22,10 +22,12 @@ package ea.internal;
 public final class DebugInfo {
     private final float frameDuration;
     private final int bodyCount;
+    private final float inputLatency;
 
-    public DebugInfo(float frameDuration, int bodyCount) {
+    public DebugInfo(float frameDuration, int bodyCount, float inputLatency) {
         this.frameDuration = frameDuration;
         this.bodyCount = bodyCount;
+        this.inputLatency = inputLatency;
     }
 
     public float getFrameDuration() {
@@ -35,4 +37,8 @@ public final class DebugInfo {
     public int getBodyCount() {
         return bodyCount;
     }
+
+    public float getInputLatency() {
+        return inputLatency;
+    }
 }
@@ -27,26 +27,54 @@ import org.jbox2d.collision.shapes.Shape;
 import org.jbox2d.common.Vec2;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 public final class FixtureBuilder {
+    /**
+     * Obergrenze für die Anzahl zwischengespeicherter Vorlagen je Cache. Wird sie überschritten, wird der Cache
+     * geleert, damit z.B. laufend neue Textgrößen keinen Speicher binden.
+     */
+    private static final int MAX_CACHED = 4096;
+
+    private static final Map<String, FixtureTemplate> compiledCodes = new ConcurrentHashMap<>();
+
+    private static final Map<Long, Shape> rectangles = new ConcurrentHashMap<>();
+
+    private FixtureBuilder() {
+        // keine Objekte erlaubt!
+    }
+
     /**
      * Erstellt eine <i>einfache</i> rechteckige Shape. Einfach bedeutet: Sie beginnt immer bei (0|0) und Breite/Höhe
-     * ist parallel zu den Koordinatenaxen.
+     * ist parallel zu den Koordinatenaxen. Die Shape wird mit allen gleich großen Rechtecken geteilt.
      *
      * @param width  Die Breite der rechteckigen Shape.
      * @param height Die Höhe der rechteckigen Shape.
      */
     public static FixtureData createSimpleRectangularFixture(float width, float height) {
-        PolygonShape shape = new PolygonShape();
-        shape.set(new Vec2[] {new Vec2(0, 0), new Vec2(0, height), new Vec2(width, height), new Vec2(width, 0)}, 4);
-        shape.m_centroid.set(new Vec2(width / 2, height / 2));
+        long key = ((long) Float.floatToIntBits(width) << 32) | (Float.floatToIntBits(height) & 0xffffffffL);
+        Shape shape = rectangles.get(key);
+
+        if (shape == null) {
+            shape = createAxisParallelRectangularShape(0, 0, width, height);
+            cache(rectangles, key, shape);
+        }
 
         return new FixtureData(shape);
     }
 
+    private static <K, V> void cache(Map<K, V> cache, K key, V value) {
+        if (cache.size() >= MAX_CACHED) {
+            cache.clear();
+        }
+
+        cache.put(key, value);
+    }
+
     /**
      * Erschafft eine kreisförmige Shape.
      *
@@ -95,7 +123,7 @@ public final class FixtureBuilder {
     }
 
     /**
-     * Erstellt einen Shape-Supplier basierend auf einem String.
+     * Erstellt einen Shape-Supplier basierend auf einem String. Gleiche Codes werden nur einmal geparst.
      *
      * @param code <ul>
      *             <li>Shapes werden getrennt durch "&amp;"</li>
@@ -103,57 +131,126 @@ public final class FixtureBuilder {
      *             <li>Polygon: <code>P40,40,50,50,10,20</code> Polygon mit drei Punkten: (40|40), (50|50), (10|20)</li>
      *             <li>Kreis:  <code>C10,10,40</code> Kreis mit Mittelpunkt (10|10) und Radius 40</li>
      *             </ul>
+     *
+     * @see #compile(String)
      */
     public static Supplier<List<FixtureData>> fromString(String code) {
-        try (Scanner scanner = new Scanner(code.replace(" ", ""))) {
-            scanner.useDelimiter("&");
-
-            ArrayList<FixtureData> shapeList = new ArrayList<>();
-            while (scanner.hasNext()) {
-                String line = scanner.next();
-                Shape shape = fromLine(line);
-                shapeList.add(new FixtureData(shape));
+        return compile(code);
+    }
+
+    /**
+     * Parst einen Shape-Code einmalig zu einer Vorlage, die sich beliebig viele Actors teilen können. Das Ergebnis
+     * wird zwischengespeichert, erneutes Kompilieren desselben Codes kostet nur einen Map-Zugriff.
+     *
+     * @param code Der Shape-Code, siehe {@link #fromString(String)}.
+     *
+     * @return Die Vorlage.
+     */
+    public static FixtureTemplate compile(String code) {
+        FixtureTemplate template = compiledCodes.get(code);
+
+        if (template == null) {
+            template = new FixtureTemplate(parse(code));
+            cache(compiledCodes, code, template);
+        }
+
+        return template;
+    }
+
+    private static Shape[] parse(String code) {
+        List<Shape> shapes = new ArrayList<>();
+        float[] values = new float[16];
+        int length = code.length();
+        int position = 0;
+
+        while (position < length) {
+            int end = code.indexOf('&', position);
+
+            if (end < 0) {
+                end = length;
             }
 
-            return () -> shapeList;
+            char type = 0;
+            int count = 0;
+            int valueStart = -1;
+
+            for (int i = position; i <= end; i++) {
+                char c = i < end ? code.charAt(i) : ',';
+
+                if (c == ' ') {
+                    continue;
+                }
+
+                if (type == 0) {
+                    type = c;
+                    continue;
+                }
+
+                if (c == ',') {
+                    if (valueStart < 0) {
+                        throw new IllegalArgumentException("Fehlerhafte Eingabe");
+                    }
+
+                    if (count == values.length) {
+                        values = Arrays.copyOf(values, count * 2);
+                    }
+
+                    values[count++] = parseFloat(code, valueStart, i);
+                    valueStart = -1;
+                } else if (valueStart < 0) {
+                    valueStart = i;
+                }
+            }
+
+            if (type != 0) {
+                shapes.add(createShape(type, values, count));
+            }
+
+            position = end + 1;
         }
+
+        return shapes.toArray(new Shape[0]);
     }
 
-    private static Shape fromLine(String line) {
-        char shape = line.charAt(0);
-        line = line.substring(1);
-        String[] split = line.split(",");
+    private static float parseFloat(String code, int start, int end) {
+        String value = code.substring(start, end);
+
+        if (value.indexOf(' ') >= 0) {
+            value = value.replace(" ", "");
+        }
+
+        try {
+            return Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Fehlerhafte Eingabe: " + value, e);
+        }
+    }
 
-        switch (shape) {
+    private static Shape createShape(char type, float[] values, int count) {
+        switch (type) {
             case 'R':
-                if (split.length != 4) {
+                if (count != 4) {
                     throw new IllegalArgumentException("Fehlerhafte Eingabe");
                 }
-                float sx = Float.parseFloat(split[0]);
-                float sy = Float.parseFloat(split[1]);
-                float width = Float.parseFloat(split[2]);
-                float height = Float.parseFloat(split[3]);
-                return createAxisParallelRectangularShape(sx, sy, width, height);
+                return createAxisParallelRectangularShape(values[0], values[1], values[2], values[3]);
             case 'P':
-                if (split.length % 2 != 0) {
+                if (count % 2 != 0) {
                     throw new IllegalArgumentException("Fehlerhafte Eingabe");
                 }
-                Vec2[] polyPoints = new Vec2[split.length / 2];
+                Vec2[] polyPoints = new Vec2[count / 2];
                 for (int i = 0; i < polyPoints.length; i++) {
-                    float px = Float.parseFloat(split[2 * i]);
-                    float py = Float.parseFloat(split[2 * i + 1]);
-                    polyPoints[i] = new Vec2(px, py);
+                    polyPoints[i] = new Vec2(values[2 * i], values[2 * i + 1]);
                 }
                 PolygonShape polygonShape = new PolygonShape();
                 polygonShape.set(polyPoints, polyPoints.length);
                 return polygonShape;
             case 'C':
-                if (split.length != 3) {
+                if (count != 3) {
                     throw new IllegalArgumentException("Fehlerhafte Eingabe");
                 }
                 CircleShape circleShape = new CircleShape();
-                circleShape.m_p.set(Float.parseFloat(split[0]), Float.parseFloat(split[1]));
-                circleShape.setRadius(Float.parseFloat(split[2]));
+                circleShape.m_p.set(values[0], values[1]);
+                circleShape.setRadius(values[2]);
                 return circleShape;
             default:
                 throw new IllegalArgumentException("Fehlerhafte Eingabe!");
@@ -0,0 +1,69 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal;
+
+import ea.internal.annotations.API;
+import ea.internal.physics.FixtureData;
+import org.jbox2d.collision.shapes.Shape;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Eine vorab geparste, unveränderliche Beschreibung der Fixtures eines Actors, z.B. aus einem Shape-Code. Viele
+ * Actors mit derselben Form teilen sich eine Vorlage; jeder Aufruf von {@link #get()} liefert eigene
+ * {@link FixtureData}-Objekte, die nur auf die gemeinsamen Shapes verweisen.
+ * <p>
+ * Die Shapes dürfen nicht verändert werden. JBox2D kopiert sie beim Erstellen der Fixture in den Body, deshalb
+ * können sie von beliebig vielen Bodies gleichzeitig verwendet werden.
+ *
+ * @see FixtureBuilder#compile(String)
+ */
+@API
+public final class FixtureTemplate implements Supplier<List<FixtureData>> {
+    private final Shape[] shapes;
+
+    FixtureTemplate(Shape[] shapes) {
+        this.shapes = shapes;
+    }
+
+    /**
+     * @return Neue Fixture-Daten für einen Actor. Dichte, Reibung usw. können daran frei geändert werden.
+     */
+    @Override
+    public List<FixtureData> get() {
+        List<FixtureData> fixtures = new ArrayList<>(shapes.length);
+
+        for (Shape shape : shapes) {
+            fixtures.add(new FixtureData(shape));
+        }
+
+        return fixtures;
+    }
+
+    /**
+     * @return Anzahl der Shapes in dieser Vorlage.
+     */
+    @API
+    public int getShapeCount() {
+        return shapes.length;
+    }
+}
@@ -23,12 +23,14 @@ import ea.FrameUpdateListener;
 import ea.internal.annotations.API;
 import ea.internal.annotations.Internal;
 
+import java.nio.ByteBuffer;
+
 /**
  * Ein periodischer Task, der regelmäßig ausgeführt wird.
  *
  * @author Niklas Keller
  */
-public final class PeriodicTask implements FrameUpdateListener {
+public final class PeriodicTask implements FrameUpdateListener, Snapshottable {
     /**
      * Intervall in Sekunden.
      */
@@ -94,4 +96,18 @@ public final class PeriodicTask implements FrameUpdateListener {
             runnable.run();
         }
     }
+
+    @Override
+    @Internal
+    public void writeState(ByteBuffer buffer) {
+        buffer.putFloat(interval);
+        buffer.putFloat(countdown);
+    }
+
+    @Override
+    @Internal
+    public void readState(ByteBuffer buffer) {
+        interval = buffer.getFloat();
+        countdown = buffer.getFloat();
+    }
 }
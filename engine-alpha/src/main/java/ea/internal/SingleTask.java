@@ -24,6 +24,8 @@ import ea.event.FrameUpdateListenerContainer;
 import ea.internal.annotations.API;
 import ea.internal.annotations.Internal;
 
+import java.nio.ByteBuffer;
+
 /**
  * Ein einfacher Task, der einmalig mit Verzögerung ausgeführt wird.
  *
@@ -31,7 +33,7 @@ import ea.internal.annotations.Internal;
  * @see FrameUpdateListenerContainer#delay(float, Runnable)
  */
 @Internal
-public final class SingleTask implements FrameUpdateListener {
+public final class SingleTask implements FrameUpdateListener, Snapshottable {
     /**
      * Verzögerung in Sekunden.
      */
@@ -100,4 +102,18 @@ public final class SingleTask implements FrameUpdateListener {
             done = true;
         }
     }
+
+    @Override
+    @Internal
+    public void writeState(ByteBuffer buffer) {
+        buffer.putFloat(countdown);
+        buffer.put((byte) (done ? 1 : 0));
+    }
+
+    @Override
+    @Internal
+    public void readState(ByteBuffer buffer) {
+        countdown = buffer.getFloat();
+        done = buffer.get() != 0;
+    }
 }
@@ -0,0 +1,42 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal;
+
+import ea.internal.annotations.Internal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Ein {@link ea.FrameUpdateListener}, dessen zeitlicher Zustand (z.B. der Fortschritt einer Animation) in einem
+ * {@link ea.SceneSnapshot} gespeichert und wiederhergestellt wird.
+ */
+@Internal
+public interface Snapshottable {
+    /**
+     * Schreibt den Zustand. Es müssen immer gleich viele Bytes geschrieben werden, wie {@link #readState(ByteBuffer)}
+     * liest.
+     */
+    void writeState(ByteBuffer buffer);
+
+    /**
+     * Stellt den mit {@link #writeState(ByteBuffer)} geschriebenen Zustand wieder her.
+     */
+    void readState(ByteBuffer buffer);
+}
@@ -7,6 +7,8 @@ import ea.internal.annotations.Internal;
 import java.awt.*;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
  * Beschreibt einen Frame einer {@link ea.actor.Animation}.
@@ -15,9 +17,19 @@ import java.awt.image.BufferedImage;
 @Internal
 public final class AnimationFrame {
     /**
-     * Das Bild, das zu diesem Frame gehört.
+     * Das Bild, das zu diesem Frame gehört. Ist <code>null</code>, wenn der Frame aus einem Stream stammt.
      */
     private final BufferedImage image;
+
+    /**
+     * Der Stream, aus dem das Bild bei Bedarf dekodiert wird, sonst <code>null</code>.
+     */
+    private final GifFrameStream stream;
+
+    /**
+     * Index des Frames im Stream.
+     */
+    private final int streamIndex;
     /**
      * Die Dauer in Sekunden, die dieser Frame aktiv bleibt.
      */
@@ -31,16 +43,70 @@ public final class AnimationFrame {
     @Internal
     public AnimationFrame(BufferedImage image, float duration) {
         this.image = image;
+        this.stream = null;
+        this.streamIndex = -1;
+        this.duration = duration;
+    }
+
+    /**
+     * Erstellt einen Frame, dessen Bild erst beim Rendern aus einem Stream dekodiert wird.
+     * @param stream    Der Stream, der das Bild liefert.
+     * @param index     Der Index des Frames im Stream.
+     * @param duration  Die Dauer, die dieser Frame aktiv bleibt.
+     */
+    @Internal
+    public AnimationFrame(GifFrameStream stream, int index, float duration) {
+        this.image = null;
+        this.stream = stream;
+        this.streamIndex = index;
         this.duration = duration;
     }
 
+    /**
+     * Gibt Frames aus, deren Bilder aus eigenen Streams dekodiert werden, damit sie unabhängig von den übergebenen
+     * Frames abgespielt werden können. Frames, die sich einen Stream teilen, teilen sich auch dessen Kopie.
+     * @param frames    Die Frames, z.B. einer {@link ea.actor.Animation}.
+     * @return  Die Frames mit kopierten Streams oder <code>frames</code> selbst, wenn kein Frame aus einem Stream stammt.
+     */
+    @Internal
+    public static AnimationFrame[] copyStreams(AnimationFrame[] frames) {
+        AnimationFrame[] copy = null;
+        Map<GifFrameStream, GifFrameStream> streams = null;
+
+        for (int i = 0; i < frames.length; i++) {
+            AnimationFrame frame = frames[i];
+
+            if (frame.stream == null) {
+                continue;
+            }
+
+            if (copy == null) {
+                copy = frames.clone();
+                streams = new IdentityHashMap<>();
+            }
+
+            GifFrameStream stream = streams.computeIfAbsent(frame.stream, GifFrameStream::copy);
+            copy[i] = new AnimationFrame(stream, frame.streamIndex, frame.duration);
+        }
+
+        return copy == null ? frames : copy;
+    }
+
     @Internal
     public void setDuration(float duration) {
         this.duration = duration;
     }
 
+    /**
+     * Gibt das Bild des Frames aus. Bei Frames aus einem Stream ist das Bild nur bis zur nächsten Anfrage an denselben
+     * Stream gültig.
+     */
     @Internal
     public BufferedImage getImage() {
+        if (stream != null) {
+            return stream.getFrame(streamIndex);
+        }
+
         return image;
     }
 
@@ -55,8 +121,9 @@ public final class AnimationFrame {
      */
     @Internal
     public void render(Graphics2D g, float width, float height, boolean flipHorizontal, boolean flipVertical) {
+        BufferedImage image = getImage();
         AffineTransform pre = g.getTransform();
-        g.scale(width / this.image.getWidth(), height / this.image.getHeight());
+        g.scale(width / image.getWidth(), height / image.getHeight());
         g.drawImage(image,
                 flipHorizontal ? image.getWidth() : 0,
                 -image.getHeight() + (flipVertical ? image.getHeight() : 0),
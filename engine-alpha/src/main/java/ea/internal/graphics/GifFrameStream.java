@@ -0,0 +1,291 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.graphics;
+
+import ea.internal.annotations.Internal;
+import ea.internal.util.StreamingGifDecoder;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Liefert die Frames eines animierten GIFs, ohne alle Frames gleichzeitig im Speicher zu halten. Die komprimierten
+ * Daten bleiben im {@link StreamingGifDecoder}; dekodiert werden nur die Frames in einem kleinen Ring. Ein
+ * Hintergrund-Thread dekodiert die auf den zuletzt angeforderten Frame folgenden Frames vor, sodass das Abspielen
+ * in der Regel ohne Wartezeit auskommt.
+ * <p>
+ * Ein von {@link #getFrame(int)} geliefertes Bild ist nur bis zur nächsten Anfrage an diesen Stream gültig, da sein
+ * Speicher danach für einen anderen Frame wiederverwendet werden kann.
+ * <p>
+ * Ein Stream hat genau einen Abspielkopf. Spielen mehrere Animationen dasselbe GIF an verschiedenen Stellen ab, braucht
+ * jede ihren eigenen Stream, siehe {@link #copy()}. Sonst springt der Abspielkopf hin und her und jeder Sprung zurück
+ * dekodiert ab dem ersten Frame neu.
+ */
+@Internal
+public final class GifFrameStream {
+    /**
+     * Standardgröße des Rings: Der angezeigte Frame und zwei vorausdekodierte Frames.
+     */
+    public static final int DEFAULT_RING_SIZE = 3;
+
+    private static final ExecutorService decoderPool = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "ea.gif-decoder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final StreamingGifDecoder decoder;
+
+    private final int frameCount;
+
+    private final int ringSize;
+
+    private final BufferedImage[] slotImages;
+    private final int[][] slotPixels;
+    private final int[] slotFrames;
+
+    /**
+     * Schützt den Decoder. Wird immer vor {@link #slotLock} gesperrt, nie umgekehrt.
+     */
+    private final Object decoderLock = new Object();
+
+    /**
+     * Schützt die Ring-Slots und den Abspielkopf.
+     */
+    private final Object slotLock = new Object();
+
+    private int playhead = 0;
+
+    private boolean prefetching = false;
+
+    /**
+     * Erstellt einen Stream über einem GIF.
+     *
+     * @param decoder  Der Decoder mit den komprimierten Daten. Gehört ab sofort exklusiv diesem Stream.
+     * @param ringSize Anzahl gleichzeitig dekodierter Frames, mindestens <code>2</code>. Hat das GIF nicht mehr
+     *                 Frames als der Ring Slots, werden alle Frames einmalig dekodiert und behalten.
+     */
+    public GifFrameStream(StreamingGifDecoder decoder, int ringSize) {
+        if (ringSize < 2) {
+            throw new IllegalArgumentException("Der Ring muss mindestens zwei Frames fassen, war " + ringSize);
+        }
+
+        this.decoder = decoder;
+        this.frameCount = decoder.getFrameCount();
+        this.ringSize = ringSize;
+
+        int slots = Math.min(ringSize, frameCount);
+
+        this.slotImages = new BufferedImage[slots];
+        this.slotPixels = new int[slots][];
+        this.slotFrames = new int[slots];
+
+        for (int i = 0; i < slots; i++) {
+            slotImages[i] = new BufferedImage(decoder.getWidth(), decoder.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+            slotPixels[i] = ((DataBufferInt) slotImages[i].getRaster().getDataBuffer()).getData();
+            slotFrames[i] = -1;
+        }
+    }
+
+    /**
+     * Erstellt einen Stream mit eigenem Abspielkopf und Ring über denselben komprimierten Daten.
+     *
+     * @return Der neue Stream.
+     */
+    public GifFrameStream copy() {
+        return new GifFrameStream(decoder.copy(), ringSize);
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * @param index Index des Frames.
+     *
+     * @return Die Anzeigedauer des Frames in Sekunden.
+     */
+    public float getDuration(int index) {
+        return decoder.getDelay(index) / 1000f;
+    }
+
+    public int getWidth() {
+        return decoder.getWidth();
+    }
+
+    public int getHeight() {
+        return decoder.getHeight();
+    }
+
+    /**
+     * Gibt einen Frame aus und setzt den Abspielkopf auf ihn. Ist der Frame bereits vorausdekodiert, kehrt die
+     * Methode sofort zurück, sonst wird synchron dekodiert.
+     *
+     * @param index Index des Frames.
+     *
+     * @return Das Bild des Frames. Nur bis zur nächsten Anfrage an diesen Stream gültig.
+     */
+    public BufferedImage getFrame(int index) {
+        if (index < 0 || index >= frameCount) {
+            throw new IndexOutOfBoundsException("Frame " + index + " existiert nicht, das GIF hat " + frameCount + " Frames.");
+        }
+
+        synchronized (slotLock) {
+            playhead = index;
+
+            int slot = findSlot(index);
+            if (slot != -1) {
+                schedulePrefetch();
+                return slotImages[slot];
+            }
+        }
+
+        synchronized (decoderLock) {
+            synchronized (slotLock) {
+                // Der Hintergrund-Thread kann den Frame inzwischen geliefert haben
+                int slot = findSlot(index);
+                if (slot != -1) {
+                    schedulePrefetch();
+                    return slotImages[slot];
+                }
+            }
+
+            if (decoder.getNextFrameIndex() > index) {
+                decoder.reset();
+            }
+
+            while (decoder.getNextFrameIndex() != index) {
+                decoder.decodeNext();
+            }
+
+            int[] pixels = decoder.decodeNext();
+
+            synchronized (slotLock) {
+                BufferedImage image = store(index, pixels);
+                schedulePrefetch();
+                return image;
+            }
+        }
+    }
+
+    /**
+     * Startet das Vorausdekodieren, falls es nicht bereits läuft. Muss mit <code>slotLock</code> aufgerufen werden.
+     */
+    private void schedulePrefetch() {
+        if (prefetching || isWindowComplete()) {
+            return;
+        }
+
+        prefetching = true;
+        decoderPool.execute(this::prefetch);
+    }
+
+    /**
+     * Prüft, ob der Abspielkopf und alle folgenden Frames, die in den Ring passen, dekodiert vorliegen. Muss mit
+     * <code>slotLock</code> aufgerufen werden.
+     */
+    private boolean isWindowComplete() {
+        for (int distance = 0; distance < slotImages.length; distance++) {
+            if (findSlot((playhead + distance) % frameCount) == -1) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Dekodiert Frames nach dem Abspielkopf, bis alle Slots des Rings mit den folgenden Frames belegt sind.
+     */
+    private void prefetch() {
+        try {
+            while (true) {
+                synchronized (decoderLock) {
+                    synchronized (slotLock) {
+                        if (isWindowComplete()) {
+                            prefetching = false;
+                            return;
+                        }
+                    }
+
+                    int next = decoder.getNextFrameIndex();
+                    int[] pixels = decoder.decodeNext();
+
+                    synchronized (slotLock) {
+                        if (distanceFromPlayhead(next) < slotImages.length && findSlot(next) == -1) {
+                            store(next, pixels);
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            synchronized (slotLock) {
+                prefetching = false;
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Kopiert einen dekodierten Frame in einen Slot, der nicht zwischen Abspielkopf und Vorausfenster liegt. Muss
+     * mit <code>slotLock</code> aufgerufen werden.
+     */
+    private BufferedImage store(int index, int[] pixels) {
+        int target = 0;
+        int targetDistance = -1;
+
+        for (int i = 0; i < slotFrames.length; i++) {
+            if (slotFrames[i] == -1) {
+                target = i;
+                break;
+            }
+
+            int distance = distanceFromPlayhead(slotFrames[i]);
+
+            // Slots hinter dem Abspielkopf haben die größte Distanz und werden zuerst verdrängt
+            if (slotFrames[i] != playhead && distance > targetDistance) {
+                target = i;
+                targetDistance = distance;
+            }
+        }
+
+        System.arraycopy(pixels, 0, slotPixels[target], 0, pixels.length);
+        slotFrames[target] = index;
+
+        return slotImages[target];
+    }
+
+    private int findSlot(int index) {
+        for (int i = 0; i < slotFrames.length; i++) {
+            if (slotFrames[i] == index) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private int distanceFromPlayhead(int index) {
+        return (index - playhead + frameCount) % frameCount;
+    }
+}
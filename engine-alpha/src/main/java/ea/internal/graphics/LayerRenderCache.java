@@ -0,0 +1,193 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.graphics;
+
+import ea.Game;
+import ea.actor.Actor;
+import ea.internal.Bounds;
+import ea.internal.annotations.Internal;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.VolatileImage;
+import java.util.List;
+
+/**
+ * Zwischenspeicher für ein Layer, dessen Actors sich (fast) nie verändern. Die Actors werden einmalig in ein
+ * beschleunigtes {@link VolatileImage} gezeichnet, das anschließend mit der Transformation des Layers (Kamera und
+ * Parallaxe) nur noch kopiert wird.
+ * <p>
+ * Die Actors werden dafür nicht in jedem Frame abgefragt, sondern melden Änderungen selbst über
+ * {@link #invalidate()}. Der Inhalt wird automatisch neu gezeichnet, wenn
+ * <ul>
+ * <li>sich Position, Drehung, Sichtbarkeit, Deckkraft oder Ebenenposition eines Actors über seine Methoden ändern,</li>
+ * <li>ein Actor eine Änderung seines Aussehens über {@link Actor#invalidateAppearance()} meldet,</li>
+ * <li>Actors hinzukommen oder entfernt werden,</li>
+ * <li>die Physik Körper des Layers bewegt,</li>
+ * <li>sich der Zoom ändert,</li>
+ * <li>die Kamera den zwischengespeicherten Bereich verlässt oder</li>
+ * <li>der Grafikspeicher verloren geht.</li>
+ * </ul>
+ * Änderungen am Aussehen eigener Actors, die {@link Actor#invalidateAppearance()} nicht aufrufen, erkennt der
+ * Zwischenspeicher nicht; dafür gibt es {@link #invalidate()}.
+ */
+@Internal
+public final class LayerRenderCache {
+    private VolatileImage image;
+
+    /**
+     * <code>false</code>, wenn der Inhalt neu gezeichnet werden muss. Wird aus beliebigen Threads zurückgesetzt.
+     */
+    private volatile boolean valid = false;
+
+    /**
+     * Linke obere Ecke des zwischengespeicherten Bereichs in Pixelkoordinaten des Layers.
+     */
+    private int originX, originY;
+
+    /**
+     * Größe des zwischengespeicherten Bereichs in Pixeln.
+     */
+    private int regionWidth, regionHeight;
+
+    private float cachedPixelPerMeter;
+
+    private boolean cachedDebug;
+
+    /**
+     * Ob beim letzten Frame Körper in Bewegung waren. Ihr letzter Schritt wird noch gezeichnet, auch wenn sie danach
+     * stillstehen.
+     */
+    private boolean cachedMoving;
+
+    /**
+     * Erzwingt ein Neuzeichnen beim nächsten Frame.
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Gibt den Grafikspeicher frei. Der Zwischenspeicher kann danach weiterverwendet werden.
+     */
+    public void dispose() {
+        if (image != null) {
+            image.flush();
+            image = null;
+        }
+
+        valid = false;
+    }
+
+    /**
+     * Zeichnet die Actors über den Zwischenspeicher.
+     *
+     * @param g             Das Grafikobjekt, bereits in das Pixel-Koordinatensystem des Layers transformiert.
+     * @param actors        Die Actors des Layers in Zeichenreihenfolge.
+     * @param moving        <code>true</code>, wenn die Physik seit dem letzten Frame Körper bewegt haben kann.
+     * @param pixelPerMeter Der aktuelle Zoom des Layers.
+     * @param viewX         X-Koordinate der Bildschirmmitte in Pixelkoordinaten des Layers.
+     * @param viewY         Y-Koordinate der Bildschirmmitte in Pixelkoordinaten des Layers.
+     * @param halfWidth     Halbe Breite des sichtbaren Bereichs (bei Drehung die halbe Diagonale).
+     * @param halfHeight    Halbe Höhe des sichtbaren Bereichs (bei Drehung die halbe Diagonale).
+     */
+    public void render(Graphics2D g, List<Actor> actors, boolean moving, float pixelPerMeter, float viewX, float viewY, float halfWidth, float halfHeight) {
+        boolean redraw = moving || cachedMoving //
+                || !valid //
+                || pixelPerMeter != cachedPixelPerMeter //
+                || Game.isDebug() != cachedDebug //
+                || !containsView(viewX, viewY, halfWidth, halfHeight);
+
+        // Vor dem Zeichnen, damit Änderungen während des Zeichnens im nächsten Frame ankommen
+        valid = true;
+
+        if (redraw) {
+            // Rand von einem Viertel der Bildschirmgröße, damit nicht jede kleine Kamerabewegung neu zeichnet
+            int margin = (int) Math.ceil(Math.max(halfWidth, halfHeight) / 2);
+            regionWidth = (int) Math.ceil(halfWidth * 2) + 2 * margin;
+            regionHeight = (int) Math.ceil(halfHeight * 2) + 2 * margin;
+
+            originX = (int) Math.floor(viewX - halfWidth) - margin;
+            originY = (int) Math.floor(viewY - halfHeight) - margin;
+
+            if (image != null && (image.getWidth() != regionWidth || image.getHeight() != regionHeight)) {
+                image.flush();
+                image = null;
+            }
+        }
+
+        GraphicsConfiguration configuration = g.getDeviceConfiguration();
+
+        do {
+            if (image == null) {
+                image = configuration.createCompatibleVolatileImage(regionWidth, regionHeight, Transparency.TRANSLUCENT);
+                redraw = true;
+            }
+
+            int status = image.validate(configuration);
+
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                image.flush();
+                image = configuration.createCompatibleVolatileImage(regionWidth, regionHeight, Transparency.TRANSLUCENT);
+                redraw = true;
+            } else if (status == VolatileImage.IMAGE_RESTORED) {
+                redraw = true;
+            }
+
+            if (redraw) {
+                drawActors(g, actors, pixelPerMeter);
+                redraw = false;
+            }
+
+            g.drawImage(image, originX, originY, null);
+        } while (image.contentsLost());
+
+        cachedPixelPerMeter = pixelPerMeter;
+        cachedDebug = Game.isDebug();
+        cachedMoving = moving;
+    }
+
+    private void drawActors(Graphics2D target, List<Actor> actors, float pixelPerMeter) {
+        Graphics2D g = image.createGraphics();
+
+        g.setRenderingHints(target.getRenderingHints());
+
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, regionWidth, regionHeight);
+        g.setComposite(AlphaComposite.SrcOver);
+
+        g.translate(-originX, -originY);
+
+        Bounds bounds = new Bounds(originX / pixelPerMeter, -(originY + regionHeight) / pixelPerMeter, regionWidth / pixelPerMeter, regionHeight / pixelPerMeter);
+
+        for (Actor actor : actors) {
+            actor.renderBasic(g, bounds, pixelPerMeter);
+        }
+
+        g.dispose();
+    }
+
+    private boolean containsView(float viewX, float viewY, float halfWidth, float halfHeight) {
+        return viewX - halfWidth >= originX && viewY - halfHeight >= originY //
+                && viewX + halfWidth <= originX + regionWidth && viewY + halfHeight <= originY + regionHeight;
+    }
+}
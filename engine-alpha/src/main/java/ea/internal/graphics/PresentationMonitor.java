@@ -0,0 +1,119 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.graphics;
+
+import ea.internal.annotations.Internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Misst die Latenz der Darstellung:
+ * <ul>
+ * <li><b>Eingabelatenz:</b> Zeit vom Eintreffen eines Eingabe-Events im AWT-Thread bis zu dem Zeitpunkt, an dem das
+ * erste Bild, das diese Eingabe berücksichtigt, an den Bildschirm übergeben wurde (nach <code>show()</code> und
+ * ggf. <code>sync()</code>).</li>
+ * <li><b>Präsentationsdauer:</b> Zeit, die <code>show()</code> und <code>sync()</code> selbst blockieren.</li>
+ * </ul>
+ * Die Werte werden als gleitender Durchschnitt geführt. Die Zeit, bis der Bildschirm das übergebene Bild tatsächlich
+ * anzeigt, kann Java nicht messen; sie kommt als konstanter Anteil des Monitors hinzu.
+ */
+@Internal
+public final class PresentationMonitor {
+    /**
+     * Gewicht eines neuen Messwerts im gleitenden Durchschnitt.
+     */
+    private static final float SMOOTHING = 0.1f;
+
+    private static final float NANOSECONDS_PER_SECOND = 1000000000f;
+
+    /**
+     * Zeitstempel der ältesten noch nicht verarbeiteten Eingabe, <code>0</code>, falls keine aussteht.
+     */
+    private final AtomicLong pendingInput = new AtomicLong();
+
+    private volatile float inputLatency;
+    private volatile float lastInputLatency;
+    private volatile float presentDuration;
+
+    /**
+     * Wird im AWT-Thread aufgerufen, sobald ein Eingabe-Event eintrifft.
+     */
+    public void inputReceived() {
+        pendingInput.compareAndSet(0, System.nanoTime());
+    }
+
+    /**
+     * Übernimmt die bisher eingetroffenen Eingaben für den aktuellen Frame. Wird im Spiel-Thread unmittelbar vor dem
+     * Abarbeiten der Eingabe-Events aufgerufen.
+     *
+     * @return Zeitstempel der ältesten übernommenen Eingabe oder <code>0</code>, falls keine anstand.
+     */
+    public long takePendingInput() {
+        return pendingInput.getAndSet(0);
+    }
+
+    /**
+     * Wird aufgerufen, nachdem ein Frame an den Bildschirm übergeben wurde.
+     *
+     * @param inputTimestamp Rückgabe von {@link #takePendingInput()} zu Beginn dieses Frames.
+     */
+    public void framePresented(long inputTimestamp) {
+        if (inputTimestamp == 0) {
+            return;
+        }
+
+        float latency = (System.nanoTime() - inputTimestamp) / NANOSECONDS_PER_SECOND;
+
+        lastInputLatency = latency;
+        inputLatency = inputLatency == 0 ? latency : inputLatency + SMOOTHING * (latency - inputLatency);
+    }
+
+    /**
+     * Wird vom {@link RenderPanel} nach jedem <code>show()</code> (und ggf. <code>sync()</code>) aufgerufen.
+     *
+     * @param nanos Dauer der Übergabe an den Bildschirm in Nanosekunden.
+     */
+    void presentTook(long nanos) {
+        float duration = nanos / NANOSECONDS_PER_SECOND;
+
+        presentDuration = presentDuration == 0 ? duration : presentDuration + SMOOTHING * (duration - presentDuration);
+    }
+
+    /**
+     * @return Durchschnittliche Eingabelatenz in Sekunden, <code>0</code>, solange noch keine Eingabe gemessen wurde.
+     */
+    public float getInputLatency() {
+        return inputLatency;
+    }
+
+    /**
+     * @return Eingabelatenz der zuletzt gemessenen Eingabe in Sekunden.
+     */
+    public float getLastInputLatency() {
+        return lastInputLatency;
+    }
+
+    /**
+     * @return Durchschnittliche Dauer von <code>show()</code> und <code>sync()</code> in Sekunden.
+     */
+    public float getPresentDuration() {
+        return presentDuration;
+    }
+}
@@ -19,9 +19,14 @@
 
 package ea.internal.graphics;
 
+import ea.internal.util.Logger;
+
+import java.awt.AWTException;
+import java.awt.BufferCapabilities;
 import java.awt.Canvas;
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.ImageCapabilities;
 import java.awt.Toolkit;
 import java.awt.image.BufferStrategy;
 
@@ -32,13 +37,22 @@ import java.awt.image.BufferStrategy;
  * @author Niklas Keller
  */
 public final class RenderPanel extends Canvas implements RenderTarget {
+    private final PresentationMonitor presentationMonitor;
+
+    /**
+     * Ob nach jedem Frame mit der Anzeige synchronisiert wird, siehe {@link Toolkit#sync()}.
+     */
+    private volatile boolean displaySync = true;
+
     /**
      * Konstruktor für Objekte der Klasse RenderPanel
      *
-     * @param width  Die Größe des Einflussbereichs des Panels in Richtung <code>getX</code> in Pixel.
-     * @param height Die Größe des Einflussbereichs des Panels in Richtung <code>getY</code> in Pixel.
+     * @param width               Die Größe des Einflussbereichs des Panels in Richtung <code>getX</code> in Pixel.
+     * @param height              Die Größe des Einflussbereichs des Panels in Richtung <code>getY</code> in Pixel.
+     * @param presentationMonitor Erhält die Dauer jeder Übergabe an den Bildschirm.
      */
-    public RenderPanel(int width, int height) {
+    public RenderPanel(int width, int height, PresentationMonitor presentationMonitor) {
+        this.presentationMonitor = presentationMonitor;
         this.setSize(width, height);
         this.setPreferredSize(this.getSize());
         this.setBackground(Color.BLACK);
@@ -46,9 +60,34 @@ public final class RenderPanel extends Canvas implements RenderTarget {
 
     /**
      * Muss aufgerufen werden, nachdem das Fenster isVisible ist, um die BufferStrategy zu erzeugen.
+     *
+     * @param bufferCount  Anzahl der Buffer, <code>2</code> für Double-, <code>3</code> für Triple-Buffering.
+     * @param pageFlipping <code>true</code>: Die Buffer werden per Page-Flipping getauscht, falls das System es
+     *                     unterstützt. <code>false</code>: Der Back-Buffer wird in den Front-Buffer kopiert.
      */
-    public void allocateBuffers() {
-        createBufferStrategy(2);
+    public void allocateBuffers(int bufferCount, boolean pageFlipping) {
+        ImageCapabilities accelerated = new ImageCapabilities(true);
+        BufferCapabilities.FlipContents flipContents = pageFlipping ? BufferCapabilities.FlipContents.UNDEFINED : null;
+
+        try {
+            createBufferStrategy(bufferCount, new BufferCapabilities(accelerated, accelerated, flipContents));
+        } catch (AWTException e) {
+            Logger.warning("Beschleunigte Buffer" + (pageFlipping ? " mit Page-Flipping" : "") + " werden nicht unterstützt, verwende Standard-Buffer.", "Rendering");
+            createBufferStrategy(bufferCount);
+        }
+
+        BufferCapabilities capabilities = getBufferStrategy().getCapabilities();
+        Logger.verboseInfo("Rendering", "BufferStrategy: " + bufferCount + " Buffer, Page-Flipping: " + capabilities.isPageFlipping() + ", beschleunigt: " + capabilities.getBackBufferCapabilities().isAccelerated());
+    }
+
+    /**
+     * Setzt, ob nach jedem Frame mit der Anzeige synchronisiert wird. Die Synchronisation stellt sicher, dass das
+     * Bild sofort ausgegeben wird, blockiert unter X11 aber für einen Round-Trip zum X-Server.
+     *
+     * @param displaySync <code>true</code>, um nach jedem Frame zu synchronisieren (Standard).
+     */
+    public void setDisplaySync(boolean displaySync) {
+        this.displaySync = displaySync;
     }
 
     public void render(RenderSource source) {
@@ -60,9 +99,15 @@ public final class RenderPanel extends Canvas implements RenderTarget {
             } while (bufferStrategy.contentsRestored() && !Thread.currentThread().isInterrupted());
 
             if (!bufferStrategy.contentsLost()) {
+                long presentStart = System.nanoTime();
+
                 bufferStrategy.show();
 
-                Toolkit.getDefaultToolkit().sync();
+                if (displaySync) {
+                    Toolkit.getDefaultToolkit().sync();
+                }
+
+                presentationMonitor.presentTook(System.nanoTime() - presentStart);
             }
         } while (bufferStrategy.contentsLost() && !Thread.currentThread().isInterrupted());
     }
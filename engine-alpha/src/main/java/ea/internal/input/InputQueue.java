@@ -0,0 +1,175 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.input;
+
+import ea.GameLogic;
+import ea.Vector;
+import ea.event.MouseButton;
+import ea.event.MouseWheelEvent;
+import ea.internal.annotations.Internal;
+import ea.internal.util.Logger;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * Warteschlange der Eingaben zwischen dem AWT-Thread und dem Spiel-Thread. Die Einträge liegen in einem vorab
+ * angelegten Ringpuffer, sodass pro Eingabe kein Objekt erzeugt wird. Bewegungen des Mausrads werden nicht einzeln
+ * gespeichert, sondern bis zum nächsten Frame aufsummiert.
+ * <p>
+ * Schreibende Threads werden untereinander synchronisiert, der Spiel-Thread liest ohne Lock.
+ */
+@Internal
+public final class InputQueue {
+    private static final int CAPACITY = 512;
+    private static final int MASK = CAPACITY - 1;
+
+    private static final byte KEY_DOWN = 1;
+    private static final byte KEY_UP = 2;
+    private static final byte MOUSE_DOWN = 3;
+    private static final byte MOUSE_UP = 4;
+
+    private static final MouseButton[] MOUSE_BUTTONS = MouseButton.values();
+
+    private final byte[] types = new byte[CAPACITY];
+    private final KeyEvent[] keyEvents = new KeyEvent[CAPACITY];
+    private final float[] xs = new float[CAPACITY];
+    private final float[] ys = new float[CAPACITY];
+    private final byte[] buttons = new byte[CAPACITY];
+
+    /**
+     * Nächster zu lesender Eintrag, nur vom Spiel-Thread geschrieben.
+     */
+    private volatile int head = 0;
+
+    /**
+     * Nächster zu schreibender Eintrag, Schreiben nur mit Lock.
+     */
+    private volatile int tail = 0;
+
+    /**
+     * Seit dem letzten {@link #drain(GameLogic)} aufsummierte Drehung des Mausrads.
+     */
+    private float pendingWheelRotation = 0;
+
+    private boolean overflowReported = false;
+
+    /**
+     * @return <code>false</code>, wenn die Warteschlange voll ist und die Eingabe verworfen wurde.
+     */
+    public synchronized boolean pushKey(KeyEvent event, boolean down) {
+        int slot = reserve();
+
+        if (slot < 0) {
+            return false;
+        }
+
+        types[slot] = down ? KEY_DOWN : KEY_UP;
+        keyEvents[slot] = event;
+
+        publish();
+
+        return true;
+    }
+
+    /**
+     * @return <code>false</code>, wenn die Warteschlange voll ist und die Eingabe verworfen wurde.
+     */
+    public synchronized boolean pushMouseButton(Vector position, MouseButton button, boolean down) {
+        int slot = reserve();
+
+        if (slot < 0) {
+            return false;
+        }
+
+        types[slot] = down ? MOUSE_DOWN : MOUSE_UP;
+        xs[slot] = position.getX();
+        ys[slot] = position.getY();
+        buttons[slot] = (byte) button.ordinal();
+
+        publish();
+
+        return true;
+    }
+
+    public synchronized void addMouseWheelRotation(float rotation) {
+        pendingWheelRotation += rotation;
+    }
+
+    private int reserve() {
+        if (tail - head >= CAPACITY) {
+            if (!overflowReported) {
+                overflowReported = true;
+                Logger.warning("Die Eingabe-Warteschlange ist voll, Eingaben werden verworfen", "Input");
+            }
+
+            return -1;
+        }
+
+        return tail & MASK;
+    }
+
+    private void publish() {
+        tail = tail + 1;
+    }
+
+    /**
+     * Liefert alle bisher eingetroffenen Eingaben im Spiel-Thread aus.
+     *
+     * @param gameLogic Die Spiellogik, über die die Eingaben an die Szene gehen.
+     *
+     * @return Die aufsummierte Drehung des Mausrads seit dem letzten Aufruf.
+     */
+    public float drain(GameLogic gameLogic) {
+        int end = tail;
+
+        for (int i = head; i != end; i++) {
+            int slot = i & MASK;
+
+            // Daten übernehmen, bevor der Platz für neue Eingaben freigegeben wird
+            byte type = types[slot];
+            KeyEvent event = keyEvents[slot];
+            float x = xs[slot];
+            float y = ys[slot];
+            MouseButton button = MOUSE_BUTTONS[buttons[slot]];
+
+            keyEvents[slot] = null;
+            head = i + 1;
+
+            if (type == KEY_DOWN || type == KEY_UP) {
+                gameLogic.dispatchKeyEvent(event, type == KEY_DOWN);
+            } else {
+                gameLogic.dispatchMouseEvent(new Vector(x, y), button, type == MOUSE_DOWN);
+            }
+        }
+
+        float wheelRotation;
+
+        synchronized (this) {
+            wheelRotation = pendingWheelRotation;
+            pendingWheelRotation = 0;
+        }
+
+        if (wheelRotation != 0) {
+            gameLogic.dispatchMouseWheelEvent(new MouseWheelEvent(wheelRotation));
+        }
+
+        return wheelRotation;
+    }
+}
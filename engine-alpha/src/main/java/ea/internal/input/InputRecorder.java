@@ -0,0 +1,196 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.input;
+
+import ea.Vector;
+import ea.event.MouseButton;
+import ea.internal.annotations.Internal;
+
+import java.awt.Point;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+/**
+ * Zeichnet alle Eingaben einer Spielsitzung Frame für Frame in einem kompakten Binärformat auf, sodass die Sitzung
+ * mit {@link InputReplay} exakt wiederholt werden kann.
+ * <p>
+ * Aufbau der Datei: die Kennung {@link #MAGIC}, danach eine Folge von Einträgen, die jeweils mit einem Typ-Byte
+ * beginnen. Jeder Frame beginnt mit {@link #FRAME} und der Frame-Dauer; es folgen die Zustände zu Frame-Beginn
+ * (Mausposition, Zufalls-Seed, nur bei Änderung) und danach die Eingabe-Events in der Reihenfolge, in der sie
+ * ausgeliefert wurden.
+ * <p>
+ * Alle Methoden werden ausschließlich im Spiel-Thread aufgerufen.
+ */
+@Internal
+public final class InputRecorder implements AutoCloseable {
+    static final byte[] MAGIC = {'E', 'A', 'R', '1'};
+
+    /**
+     * Frame-Beginn: <code>float</code> Frame-Dauer in Sekunden.
+     */
+    static final byte FRAME = 1;
+
+    /**
+     * Mausposition im Fenster: <code>int</code> x, <code>int</code> y.
+     */
+    static final byte MOUSE_POSITION = 2;
+
+    /**
+     * Seed des Zufallsgenerators: <code>long</code>.
+     */
+    static final byte SEED = 3;
+
+    /**
+     * Taste gedrückt / losgelassen: <code>int</code> Key-Code, <code>char</code> Zeichen.
+     */
+    static final byte KEY_DOWN = 4;
+    static final byte KEY_UP = 5;
+
+    /**
+     * Maustaste gedrückt / losgelassen: <code>float</code> x, <code>float</code> y (Spielkoordinaten),
+     * <code>byte</code> Maustaste.
+     */
+    static final byte MOUSE_DOWN = 6;
+    static final byte MOUSE_UP = 7;
+
+    /**
+     * Mausrad: <code>float</code> Rotation.
+     */
+    static final byte MOUSE_WHEEL = 8;
+
+    private final DataOutputStream out;
+
+    private final Supplier<Point> mousePosition;
+
+    private int lastMouseX = Integer.MIN_VALUE;
+    private int lastMouseY = Integer.MIN_VALUE;
+
+    private long frameCount;
+
+    /**
+     * @param file          Die zu schreibende Datei. Wird überschrieben, falls sie existiert.
+     * @param mousePosition Liefert die aktuelle Mausposition im Fenster, <code>null</code>, falls sie nicht
+     *                      aufgezeichnet werden soll.
+     */
+    public InputRecorder(Path file, Supplier<Point> mousePosition) throws IOException {
+        this(Files.newOutputStream(file), mousePosition);
+    }
+
+    /**
+     * @param out           Ziel der Aufzeichnung. Wird beim Schließen mit geschlossen.
+     * @param mousePosition Liefert die aktuelle Mausposition im Fenster, <code>null</code>, falls sie nicht
+     *                      aufgezeichnet werden soll.
+     */
+    public InputRecorder(OutputStream out, Supplier<Point> mousePosition) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        this.mousePosition = mousePosition;
+
+        this.out.write(MAGIC);
+    }
+
+    /**
+     * Beginnt einen neuen Frame.
+     *
+     * @param deltaSeconds Die Dauer, mit der die Szene in diesem Frame weitergerechnet wird.
+     */
+    public void beginFrame(float deltaSeconds) {
+        try {
+            out.writeByte(FRAME);
+            out.writeFloat(deltaSeconds);
+
+            if (mousePosition != null) {
+                Point position = mousePosition.get();
+
+                if (position != null && (position.x != lastMouseX || position.y != lastMouseY)) {
+                    out.writeByte(MOUSE_POSITION);
+                    out.writeInt(position.x);
+                    out.writeInt(position.y);
+
+                    lastMouseX = position.x;
+                    lastMouseY = position.y;
+                }
+            }
+
+            frameCount++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Zeichnet den Seed auf, mit dem der Zufallsgenerator zu Beginn des aktuellen Frames initialisiert wurde.
+     */
+    public void recordSeed(long seed) {
+        try {
+            out.writeByte(SEED);
+            out.writeLong(seed);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void recordKey(int keyCode, char keyChar, boolean down) {
+        try {
+            out.writeByte(down ? KEY_DOWN : KEY_UP);
+            out.writeInt(keyCode);
+            out.writeChar(keyChar);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void recordMouseButton(Vector position, MouseButton button, boolean down) {
+        try {
+            out.writeByte(down ? MOUSE_DOWN : MOUSE_UP);
+            out.writeFloat(position.getX());
+            out.writeFloat(position.getY());
+            out.writeByte(button.ordinal());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void recordMouseWheel(float rotation) {
+        try {
+            out.writeByte(MOUSE_WHEEL);
+            out.writeFloat(rotation);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return Anzahl bisher aufgezeichneter Frames.
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
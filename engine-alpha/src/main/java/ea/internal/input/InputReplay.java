@@ -0,0 +1,304 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.input;
+
+import ea.GameLogic;
+import ea.Random;
+import ea.Vector;
+import ea.event.MouseButton;
+import ea.event.MouseWheelEvent;
+import ea.internal.annotations.Internal;
+
+import java.awt.Component;
+import java.awt.Point;
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Spielt eine mit {@link InputRecorder} erstellte Aufzeichnung ab. Statt der gemessenen Zeit wird jeder Frame mit der
+ * aufgezeichneten Dauer gerechnet, und die aufgezeichneten Eingaben werden über dieselbe Warteschlange ausgeliefert
+ * wie echte Eingaben.
+ * <p>
+ * Die Aufzeichnung wird vollständig in den Speicher gelesen, damit das Abspielen selbst keine Ein- und Ausgabe
+ * benötigt und Profiling-Messungen nicht verfälscht.
+ */
+@Internal
+public final class InputReplay {
+    /**
+     * Quelle der nachgebildeten {@link KeyEvent}s. Ein leichtgewichtiger Component funktioniert auch ohne Bildschirm.
+     */
+    private static final Component EVENT_SOURCE = new Component() {
+        // leer
+    };
+
+    private static final MouseButton[] MOUSE_BUTTONS = MouseButton.values();
+
+    private final ByteBuffer data;
+
+    private final KeyStates pressedKeys = new KeyStates();
+
+    private volatile Point mousePosition = new Point();
+
+    /**
+     * Mausrad-Drehung aller Eingaben des vorigen Frames, die im Spiel erst im folgenden Frame im
+     * {@link ea.InputSnapshot} ankommt.
+     */
+    private float wheelRotation;
+
+    private float frameWheelRotation;
+
+    private long frameCount;
+
+    public InputReplay(Path file) throws IOException {
+        this(ByteBuffer.wrap(Files.readAllBytes(file)));
+    }
+
+    public InputReplay(ByteBuffer data) throws IOException {
+        byte[] magic = new byte[InputRecorder.MAGIC.length];
+
+        if (data.remaining() < magic.length) {
+            throw new IOException("Keine gültige Eingabe-Aufzeichnung");
+        }
+
+        data.get(magic);
+
+        if (!Arrays.equals(magic, InputRecorder.MAGIC)) {
+            throw new IOException("Keine gültige Eingabe-Aufzeichnung");
+        }
+
+        this.data = data;
+    }
+
+    /**
+     * Beginnt den nächsten aufgezeichneten Frame und übernimmt die Zustände zu Frame-Beginn.
+     *
+     * @return Die aufgezeichnete Frame-Dauer oder <code>-1</code>, wenn die Aufzeichnung zu Ende ist.
+     */
+    public float nextFrame() {
+        try {
+            // Events des vorigen Frames, die nicht ausgeliefert wurden, werden übersprungen
+            while (data.hasRemaining() && data.get(data.position()) != InputRecorder.FRAME) {
+                readEvent(null);
+            }
+
+            if (!data.hasRemaining()) {
+                return -1;
+            }
+
+            data.get();
+            float deltaSeconds = data.getFloat();
+
+            while (data.hasRemaining()) {
+                byte type = data.get(data.position());
+
+                if (type == InputRecorder.MOUSE_POSITION) {
+                    data.get();
+                    mousePosition = new Point(data.getInt(), data.getInt());
+                } else if (type == InputRecorder.SEED) {
+                    data.get();
+                    Random.setSeed(data.getLong());
+                } else {
+                    break;
+                }
+            }
+
+            applyFrameState();
+            frameCount++;
+
+            return deltaSeconds;
+        } catch (BufferUnderflowException e) {
+            // Abgeschnittene Aufzeichnung, z.B. nach einem Absturz
+            data.position(data.limit());
+
+            return -1;
+        }
+    }
+
+    /**
+     * Übernimmt Tasten und Mausrad aller Eingaben des aktuellen Frames, bevor diese ausgeliefert werden. Im Spiel
+     * ändert sich der Tastenzustand im AWT-Thread, bevor der Frame beginnt, in dem die Eingabe ausgeliefert wird.
+     * Würde der Zustand erst beim Ausliefern übernommen, sähen {@link ea.FrameUpdateListener}s jede Taste einen Frame
+     * später als in der aufgezeichneten Sitzung.
+     */
+    private void applyFrameState() {
+        int start = data.position();
+
+        wheelRotation = frameWheelRotation;
+        frameWheelRotation = 0;
+
+        try {
+            while (data.hasRemaining() && data.get(data.position()) != InputRecorder.FRAME) {
+                byte type = data.get();
+
+                switch (type) {
+                    case InputRecorder.KEY_DOWN:
+                        pressedKeys.press(data.getInt());
+                        data.getChar();
+                        break;
+
+                    case InputRecorder.KEY_UP:
+                        pressedKeys.release(data.getInt());
+                        data.getChar();
+                        break;
+
+                    case InputRecorder.MOUSE_DOWN:
+                    case InputRecorder.MOUSE_UP:
+                        data.position(data.position() + 9);
+                        break;
+
+                    case InputRecorder.MOUSE_WHEEL:
+                        frameWheelRotation += data.getFloat();
+                        break;
+
+                    case InputRecorder.MOUSE_POSITION:
+                        mousePosition = new Point(data.getInt(), data.getInt());
+                        break;
+
+                    case InputRecorder.SEED:
+                        data.getLong();
+                        break;
+
+                    default:
+                        return; // Fehler wird beim Ausliefern gemeldet
+                }
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            // Abgeschnittene Aufzeichnung, wird beim Ausliefern behandelt
+        } finally {
+            data.position(start);
+        }
+    }
+
+    /**
+     * Liefert alle Eingaben des aktuellen Frames aus.
+     *
+     * @param gameLogic Die Spiellogik, über die die Eingaben an die Szene gehen.
+     */
+    public void dispatchEvents(GameLogic gameLogic) {
+        try {
+            while (data.hasRemaining() && data.get(data.position()) != InputRecorder.FRAME) {
+                readEvent(gameLogic);
+            }
+        } catch (BufferUnderflowException e) {
+            data.position(data.limit());
+        }
+    }
+
+    private void readEvent(GameLogic gameLogic) {
+        byte type = data.get();
+
+        switch (type) {
+            case InputRecorder.KEY_DOWN:
+            case InputRecorder.KEY_UP: {
+                boolean down = type == InputRecorder.KEY_DOWN;
+                int keyCode = data.getInt();
+                char keyChar = data.getChar();
+
+                // Der Tastenzustand wurde bereits zu Beginn des Frames übernommen
+                if (gameLogic != null) {
+                    KeyEvent event = new KeyEvent(EVENT_SOURCE, down ? KeyEvent.KEY_PRESSED : KeyEvent.KEY_RELEASED, 0, 0, keyCode, keyChar);
+                    gameLogic.dispatchKeyEvent(event, down);
+                }
+
+                break;
+            }
+
+            case InputRecorder.MOUSE_DOWN:
+            case InputRecorder.MOUSE_UP: {
+                Vector position = new Vector(data.getFloat(), data.getFloat());
+                MouseButton button = MOUSE_BUTTONS[data.get()];
+
+                if (gameLogic != null) {
+                    gameLogic.dispatchMouseEvent(position, button, type == InputRecorder.MOUSE_DOWN);
+                }
+
+                break;
+            }
+
+            case InputRecorder.MOUSE_WHEEL: {
+                float rotation = data.getFloat();
+
+                if (gameLogic != null) {
+                    gameLogic.dispatchMouseWheelEvent(new MouseWheelEvent(rotation));
+                }
+
+                break;
+            }
+
+            case InputRecorder.MOUSE_POSITION:
+                mousePosition = new Point(data.getInt(), data.getInt());
+                break;
+
+            case InputRecorder.SEED:
+                Random.setSeed(data.getLong());
+                break;
+
+            default:
+                throw new IllegalStateException("Unbekannter Eintrag in der Eingabe-Aufzeichnung: " + type);
+        }
+    }
+
+    /**
+     * @return <code>true</code>, solange noch Frames abzuspielen sind.
+     */
+    public boolean hasRemaining() {
+        return data.hasRemaining();
+    }
+
+    /**
+     * @return Ob die Taste zum aktuellen Zeitpunkt der Aufzeichnung gedrückt ist.
+     */
+    public boolean isKeyPressed(int keyCode) {
+        return pressedKeys.isPressed(keyCode);
+    }
+
+    /**
+     * @return Die Tastenzustände zum aktuellen Zeitpunkt der Aufzeichnung.
+     */
+    public KeyStates getKeyStates() {
+        return pressedKeys;
+    }
+
+    /**
+     * @return Die Mausrad-Drehung, die zu Beginn des aktuellen Frames im {@link ea.InputSnapshot} steht.
+     */
+    public float getWheelRotation() {
+        return wheelRotation;
+    }
+
+    /**
+     * @return Die Mausposition im Fenster zum aktuellen Zeitpunkt der Aufzeichnung.
+     */
+    public Point getMousePosition() {
+        return new Point(mousePosition);
+    }
+
+    /**
+     * @return Anzahl bereits abgespielter Frames.
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.input;
+
+import ea.internal.annotations.Internal;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Zustand aller Tasten als Bitset. Schreiben und Lesen ist ohne Lock aus beliebigen Threads möglich, Abfragen
+ * erzeugen keine Objekte.
+ * <p>
+ * Key-Codes unter {@link #BITSET_SIZE} (alle üblichen <code>VK_*</code>-Konstanten) liegen im Bitset, seltene
+ * erweiterte Key-Codes in einer Menge daneben.
+ */
+@Internal
+public final class KeyStates {
+    /**
+     * Anzahl Key-Codes im Bitset.
+     */
+    public static final int BITSET_SIZE = 1024;
+
+    /**
+     * Anzahl <code>long</code>-Wörter des Bitsets.
+     */
+    public static final int WORDS = BITSET_SIZE / Long.SIZE;
+
+    private final AtomicLongArray bits = new AtomicLongArray(WORDS);
+
+    private final Collection<Integer> extendedKeys = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Markiert eine Taste als gedrückt.
+     *
+     * @return <code>true</code>, wenn die Taste vorher nicht gedrückt war.
+     */
+    public boolean press(int keyCode) {
+        if (keyCode < 0 || keyCode >= BITSET_SIZE) {
+            return extendedKeys.add(keyCode);
+        }
+
+        long mask = 1L << keyCode;
+
+        return (bits.getAndUpdate(keyCode >>> 6, word -> word | mask) & mask) == 0;
+    }
+
+    /**
+     * Markiert eine Taste als losgelassen.
+     *
+     * @return <code>true</code>, wenn die Taste vorher gedrückt war.
+     */
+    public boolean release(int keyCode) {
+        if (keyCode < 0 || keyCode >= BITSET_SIZE) {
+            return extendedKeys.remove(keyCode);
+        }
+
+        long mask = 1L << keyCode;
+
+        return (bits.getAndUpdate(keyCode >>> 6, word -> word & ~mask) & mask) != 0;
+    }
+
+    public boolean isPressed(int keyCode) {
+        if (keyCode < 0 || keyCode >= BITSET_SIZE) {
+            return extendedKeys.contains(keyCode);
+        }
+
+        return (bits.get(keyCode >>> 6) & (1L << keyCode)) != 0;
+    }
+
+    /**
+     * Kopiert das Bitset.
+     *
+     * @param target Array mit mindestens {@link #WORDS} Einträgen.
+     *
+     * @return Die gedrückten erweiterten Key-Codes, in der Regel leer.
+     */
+    public Collection<Integer> copyTo(long[] target) {
+        for (int i = 0; i < WORDS; i++) {
+            target[i] = bits.get(i);
+        }
+
+        return extendedKeys;
+    }
+
+    public void clear() {
+        for (int i = 0; i < WORDS; i++) {
+            bits.set(i, 0);
+        }
+
+        extendedKeys.clear();
+    }
+}
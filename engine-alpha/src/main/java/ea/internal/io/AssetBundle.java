@@ -0,0 +1,228 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.io;
+
+import ea.internal.annotations.Internal;
+import ea.internal.util.Optimizer;
+
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ein gepacktes Archiv mit vielen Assets in einer einzigen Datei. Das Archiv wird beim Öffnen komplett per
+ * {@link FileChannel#map} eingeblendet; einzelne Einträge werden als Ausschnitte dieses Bereichs ausgeliefert, ohne
+ * weitere Dateizugriffe oder Kopien.
+ * <p>
+ * Aufbau (alle Zahlen Little Endian):
+ * <pre>
+ * "EAB1"                         Kennung
+ * int   Anzahl der Einträge
+ * je Eintrag:
+ *   short  Länge des Namens in Bytes
+ *   byte[] Name (UTF-8, Pfad relativ zum Asset-Verzeichnis, Trenner '/')
+ *   byte   Typ ({@link #TYPE_RAW} oder {@link #TYPE_IMAGE})
+ *   long   Position der Daten im Archiv
+ *   int    Länge der Daten in Bytes
+ *   int    Breite, int Höhe (nur bei Bildern, sonst 0)
+ * Daten der Einträge, jeweils auf 4 Bytes ausgerichtet
+ * </pre>
+ * Bilder liegen bereits dekodiert als Pixel im Format von {@link BufferedImage#TYPE_INT_ARGB} vor. Alle anderen
+ * Dateien (Schriftarten, GIFs, Sounds, …) werden unverändert abgelegt.
+ *
+ * @see AssetBundleWriter
+ */
+@Internal
+final public class AssetBundle {
+    static final byte[] MAGIC = {'E', 'A', 'B', '1'};
+
+    /**
+     * Eintrag mit den unveränderten Bytes der Originaldatei.
+     */
+    static final byte TYPE_RAW = 0;
+
+    /**
+     * Eintrag mit dekodierten ARGB-Pixeln.
+     */
+    static final byte TYPE_IMAGE = 1;
+
+    private static final class Entry {
+        private final byte type;
+        private final int offset;
+        private final int length;
+        private final int width;
+        private final int height;
+
+        private Entry(byte type, int offset, int length, int width, int height) {
+            this.type = type;
+            this.offset = offset;
+            this.length = length;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    private final ByteBuffer data;
+
+    private final Map<String, Entry> entries;
+
+    private AssetBundle(ByteBuffer data, Map<String, Entry> entries) {
+        this.data = data;
+        this.entries = entries;
+    }
+
+    /**
+     * Öffnet ein Archiv und liest sein Inhaltsverzeichnis.
+     *
+     * @param path Pfad zur Archivdatei.
+     *
+     * @return Das geöffnete Archiv.
+     *
+     * @throws IOException Wenn die Datei nicht gelesen werden kann oder kein gültiges Archiv ist.
+     */
+    public static AssetBundle open(Path path) throws IOException {
+        ByteBuffer data;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Das Archiv ist zu groß: " + path);
+            }
+
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        try {
+            for (byte b : MAGIC) {
+                if (data.get() != b) {
+                    throw new IOException("Die Datei ist kein Asset-Archiv: " + path);
+                }
+            }
+
+            int count = data.getInt();
+            Map<String, Entry> entries = new HashMap<>(count * 2);
+
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[data.getShort() & 0xffff];
+                data.get(name);
+
+                byte type = data.get();
+                long offset = data.getLong();
+                int length = data.getInt();
+                int width = data.getInt();
+                int height = data.getInt();
+
+                if (offset < 0 || offset + length > data.limit()) {
+                    throw new IOException("Fehlerhafter Eintrag im Asset-Archiv " + path);
+                }
+
+                entries.put(new String(name, StandardCharsets.UTF_8), new Entry(type, (int) offset, length, width, height));
+            }
+
+            return new AssetBundle(data, entries);
+        } catch (RuntimeException e) {
+            throw new IOException("Das Asset-Archiv ist beschädigt: " + path, e);
+        }
+    }
+
+    /**
+     * Bringt einen Pfad in die Form der Namen im Archiv.
+     */
+    static String toEntryName(String path) {
+        String name = path.replace('\\', '/');
+
+        while (name.startsWith("./")) {
+            name = name.substring(2);
+        }
+
+        return name;
+    }
+
+    public boolean contains(String path) {
+        return entries.containsKey(toEntryName(path));
+    }
+
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * Gibt die Bytes eines Eintrags aus, ohne sie zu kopieren.
+     *
+     * @param path Pfad des Assets.
+     *
+     * @return Ein nur lesbarer Ausschnitt des eingeblendeten Archivs oder <code>null</code>, falls das Archiv keinen
+     * solchen Eintrag mit unveränderten Dateidaten enthält.
+     */
+    public ByteBuffer getData(String path) {
+        Entry entry = entries.get(toEntryName(path));
+
+        if (entry == null || entry.type != TYPE_RAW) {
+            return null;
+        }
+
+        return data.slice(entry.offset, entry.length).asReadOnlyBuffer();
+    }
+
+    /**
+     * Erstellt ein Bild aus einem dekodierten Eintrag. Die Pixel werden direkt in ein Bild im Format des Bildschirms
+     * kopiert, ein erneutes Dekodieren oder Umwandeln entfällt. Hat der Bildschirm dasselbe Format wie das Archiv,
+     * geschieht das in einem Block, sonst zeilenweise mit Umrechnung.
+     *
+     * @param path Pfad des Bildes.
+     *
+     * @return Das für den Bildschirm optimierte Bild oder <code>null</code>, falls das Archiv kein dekodiertes Bild
+     * zu diesem Pfad enthält.
+     */
+    public BufferedImage getImage(String path) {
+        Entry entry = entries.get(toEntryName(path));
+
+        if (entry == null || entry.type != TYPE_IMAGE) {
+            return null;
+        }
+
+        BufferedImage image = Optimizer.createCompatibleImage(entry.width, entry.height, Transparency.TRANSLUCENT);
+        IntBuffer pixels = data.slice(entry.offset, entry.length).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+
+        if (image.getType() == BufferedImage.TYPE_INT_ARGB) {
+            pixels.get(((DataBufferInt) image.getRaster().getDataBuffer()).getData());
+        } else {
+            int[] row = new int[entry.width];
+
+            for (int y = 0; y < entry.height; y++) {
+                pixels.get(row);
+                image.setRGB(0, y, entry.width, 1, row, 0, entry.width);
+            }
+        }
+
+        return image;
+    }
+}
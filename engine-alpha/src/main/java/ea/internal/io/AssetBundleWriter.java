@@ -0,0 +1,207 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.io;
+
+import ea.internal.annotations.Internal;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Packt alle Dateien eines Verzeichnisses in ein {@link AssetBundle}. PNG-, JPEG- und BMP-Bilder werden dabei
+ * vorab dekodiert, alle anderen Dateien unverändert übernommen.
+ * <p>
+ * Aufruf über Maven im Modul <code>engine-alpha</code>:
+ * <pre>
+ * mvn -pl engine-alpha compile exec:java -Dbundle.source=pfad/zu/assets -Dbundle.output=assets.eab
+ * </pre>
+ * Die Namen der Einträge sind die Pfade relativ zum Quellverzeichnis. Damit die Spielpfade (z.B.
+ * <code>"assets/figur.png"</code>) passen, sollte das Verzeichnis gepackt werden, relativ zu dem das Spiel seine
+ * Dateien lädt.
+ */
+@Internal
+final public class AssetBundleWriter {
+    private static final String[] DECODED_EXTENSIONS = {".png", ".jpg", ".jpeg", ".bmp"};
+
+    private AssetBundleWriter() {
+        // keine Objekte erlaubt!
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Verwendung: AssetBundleWriter <Quellverzeichnis> <Archivdatei>");
+            System.exit(1);
+        }
+
+        int count = write(Paths.get(args[0]), Paths.get(args[1]));
+
+        System.out.println(count + " Dateien nach " + args[1] + " gepackt.");
+    }
+
+    private static final class PendingEntry {
+        private final byte[] name;
+        private final byte type;
+        private final ByteBuffer content;
+        private final int width;
+        private final int height;
+
+        private PendingEntry(byte[] name, byte type, ByteBuffer content, int width, int height) {
+            this.name = name;
+            this.type = type;
+            this.content = content;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /**
+     * Packt alle Dateien unterhalb eines Verzeichnisses in ein Archiv.
+     *
+     * @param source Das Quellverzeichnis.
+     * @param target Die zu schreibende Archivdatei. Wird überschrieben, falls sie existiert.
+     *
+     * @return Die Anzahl gepackter Dateien.
+     */
+    public static int write(Path source, Path target) throws IOException {
+        List<Path> files;
+
+        try (Stream<Path> walk = Files.walk(source)) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+
+        Path absoluteTarget = target.toAbsolutePath().normalize();
+        List<PendingEntry> entries = new ArrayList<>();
+
+        for (Path file : files) {
+            if (file.toAbsolutePath().normalize().equals(absoluteTarget)) {
+                continue;
+            }
+
+            String name = AssetBundle.toEntryName(source.relativize(file).toString());
+            entries.add(createEntry(name, file));
+        }
+
+        int headerSize = AssetBundle.MAGIC.length + 4;
+
+        for (PendingEntry entry : entries) {
+            headerSize += 2 + entry.name.length + 1 + 8 + 4 + 4 + 4;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(headerSize).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(AssetBundle.MAGIC);
+        header.putInt(entries.size());
+
+        long offset = align(headerSize);
+
+        for (PendingEntry entry : entries) {
+            header.putShort((short) entry.name.length);
+            header.put(entry.name);
+            header.put(entry.type);
+            header.putLong(offset);
+            header.putInt(entry.content.remaining());
+            header.putInt(entry.width);
+            header.putInt(entry.height);
+
+            offset = align(offset + entry.content.remaining());
+        }
+
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header, 0);
+
+            long position = align(headerSize);
+
+            for (PendingEntry entry : entries) {
+                int length = entry.content.remaining();
+                writeFully(channel, entry.content, position);
+                position = align(position + length);
+            }
+
+            // Abschließendes Padding, damit die Dateilänge zu den ausgerichteten Positionen passt
+            if (channel.size() < position) {
+                writeFully(channel, ByteBuffer.allocate((int) (position - channel.size())), channel.size());
+            }
+        }
+
+        return entries.size();
+    }
+
+    private static PendingEntry createEntry(String name, Path file) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+
+        if (nameBytes.length > 0xffff) {
+            throw new IOException("Dateipfad zu lang: " + name);
+        }
+
+        if (isDecodedImage(name)) {
+            BufferedImage image = ImageIO.read(file.toFile());
+
+            if (image != null) {
+                int width = image.getWidth();
+                int height = image.getHeight();
+                int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+                ByteBuffer content = ByteBuffer.allocate(pixels.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+                content.asIntBuffer().put(pixels);
+
+                return new PendingEntry(nameBytes, AssetBundle.TYPE_IMAGE, content, width, height);
+            }
+        }
+
+        return new PendingEntry(nameBytes, AssetBundle.TYPE_RAW, ByteBuffer.wrap(Files.readAllBytes(file)), 0, 0);
+    }
+
+    private static boolean isDecodedImage(String name) {
+        String lowerCase = name.toLowerCase(Locale.ROOT);
+
+        for (String extension : DECODED_EXTENSIONS) {
+            if (lowerCase.endsWith(extension)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static long align(long position) {
+        return (position + 3) & ~3L;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
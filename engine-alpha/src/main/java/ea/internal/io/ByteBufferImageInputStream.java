@@ -0,0 +1,80 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.io;
+
+import ea.internal.annotations.Internal;
+
+import javax.imageio.stream.ImageInputStreamImpl;
+import java.nio.ByteBuffer;
+
+/**
+ * Ein {@link javax.imageio.stream.ImageInputStream}, der direkt aus einem {@link ByteBuffer} liest. Anders als bei
+ * {@link javax.imageio.ImageIO#read(java.io.InputStream)} wird der Inhalt dabei weder in einen Cache (im Speicher oder
+ * in einer temporären Datei) noch in einen Zwischenpuffer kopiert; ein per {@link ResourceLoader#loadAsBuffer(String)}
+ * eingeblendeter Dateibereich wird so ohne Umweg dekodiert.
+ */
+@Internal
+final public class ByteBufferImageInputStream extends ImageInputStreamImpl {
+    private final ByteBuffer data;
+
+    /**
+     * @param data Die zu lesenden Bytes ab der aktuellen Position. Der Buffer selbst wird nicht verändert.
+     */
+    public ByteBufferImageInputStream(ByteBuffer data) {
+        this.data = data.slice();
+    }
+
+    @Override
+    public int read() {
+        bitOffset = 0;
+
+        if (streamPos >= data.limit()) {
+            return -1;
+        }
+
+        return data.get((int) streamPos++) & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+        bitOffset = 0;
+
+        if (length == 0) {
+            return 0;
+        }
+
+        int remaining = data.limit() - (int) Math.min(streamPos, data.limit());
+
+        if (remaining == 0) {
+            return -1;
+        }
+
+        int count = Math.min(length, remaining);
+        data.get((int) streamPos, bytes, offset, count);
+        streamPos += count;
+
+        return count;
+    }
+
+    @Override
+    public long length() {
+        return data.limit();
+    }
+}
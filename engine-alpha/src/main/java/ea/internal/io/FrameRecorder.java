@@ -0,0 +1,508 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.io;
+
+import ea.internal.annotations.Internal;
+import ea.internal.graphics.RenderSource;
+import ea.internal.util.Logger;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Zeichnet das Spielfenster Frame für Frame auf, ohne den Spiel-Thread auf das Kodieren warten zu lassen.
+ * <p>
+ * Jeder Frame wird in einen Puffer aus einem festen Vorrat gezeichnet und an Hintergrund-Threads übergeben, die ihn
+ * kodieren und den Puffer danach zurückgeben. Ist kein Puffer frei, weil die Kodierer nicht hinterherkommen, wird der
+ * Frame verworfen statt zu warten. Aufgezeichnet wird entweder eine PNG-Folge in ein Verzeichnis oder ein
+ * MJPEG-Video in einem AVI-Container, der über einen {@link FileChannel} geschrieben wird. Im Video werden verworfene
+ * Frames von den Kodierern als leere Chunks geschrieben, damit die Abspieldauer stimmt.
+ * <p>
+ * Der Frame wird dabei nur einmal gezeichnet: in den Puffer, aus dem er anschließend ins Fenster kopiert wird.
+ * {@link #capture(Graphics2D, int, int, RenderSource)} wird ausschließlich im Spiel-Thread aufgerufen.
+ */
+@Internal
+public final class FrameRecorder implements AutoCloseable {
+    public enum Format {
+        /**
+         * Ein PNG je Frame, <code>frame-000000.png</code>, <code>frame-000001.png</code>, …
+         */
+        PNG_SEQUENCE,
+
+        /**
+         * Ein AVI-Video mit JPEG-komprimierten Frames.
+         */
+        MJPEG_AVI
+    }
+
+    private static final float SMOOTHING = 0.1f;
+
+    private static final float NANOSECONDS_PER_SECOND = 1000000000f;
+
+    private static final int DEFAULT_POOL_SIZE = 4;
+
+    private final Path target;
+    private final Format format;
+    private final int width;
+    private final int height;
+
+    private final BlockingQueue<BufferedImage> freeBuffers;
+
+    private final ExecutorService encoders;
+
+    private final AviWriter avi;
+
+    private int nextFrame = 0;
+    private int droppedFrames = 0;
+
+    private final AtomicInteger writtenFrames = new AtomicInteger();
+
+    private volatile float captureDuration;
+    private volatile IOException failure;
+
+    private boolean closed = false;
+
+    /**
+     * Erstellt eine Aufzeichnung mit so vielen Kodier-Threads, wie Prozessorkerne frei sind.
+     *
+     * @param target Verzeichnis der PNG-Folge bzw. die Videodatei, wird überschrieben, falls sie existiert.
+     */
+    public FrameRecorder(Path target, Format format, int width, int height, int framesPerSecond) throws IOException {
+        this(target, format, width, height, framesPerSecond, DEFAULT_POOL_SIZE, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * @param target          Verzeichnis der PNG-Folge bzw. die Videodatei, wird überschrieben, falls sie existiert.
+     * @param format          Das Ausgabeformat.
+     * @param width           Breite der Frames in Pixeln.
+     * @param height          Höhe der Frames in Pixeln.
+     * @param framesPerSecond Bildrate im Video-Header.
+     * @param poolSize        Anzahl der Puffer, also wie viele Frames gleichzeitig auf das Kodieren warten können.
+     * @param encoderThreads  Anzahl der Kodier-Threads.
+     */
+    public FrameRecorder(Path target, Format format, int width, int height, int framesPerSecond, int poolSize, int encoderThreads) throws IOException {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Breite und Höhe müssen größer als 0 sein, waren " + width + " und " + height);
+        }
+
+        if (poolSize < 1 || encoderThreads < 1) {
+            throw new IllegalArgumentException("Es wird mindestens ein Puffer und ein Kodier-Thread benötigt");
+        }
+
+        this.target = target;
+        this.format = format;
+        this.width = width;
+        this.height = height;
+
+        if (format == Format.PNG_SEQUENCE) {
+            Files.createDirectories(target);
+            this.avi = null;
+        } else {
+            this.avi = new AviWriter(target, width, height, framesPerSecond);
+        }
+
+        this.freeBuffers = new ArrayBlockingQueue<>(poolSize);
+
+        for (int i = 0; i < poolSize; i++) {
+            freeBuffers.add(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+
+        this.encoders = Executors.newFixedThreadPool(encoderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "ea.recorder-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Zeichnet den aktuellen Frame in einen freien Puffer und übergibt ihn den Kodierern, ohne ihn anzuzeigen. Ist kein
+     * Puffer frei, wird der Frame verworfen.
+     *
+     * @param source Zeichnet den Frame, z.B. die Zeichenroutine des Spiels.
+     */
+    public void capture(RenderSource source) {
+        capture(null, 0, 0, source);
+    }
+
+    /**
+     * Zeichnet den aktuellen Frame einmal in einen freien Puffer, kopiert ihn in das Fenster und übergibt den Puffer
+     * den Kodierern. Ist kein Puffer frei, wird direkt in das Fenster gezeichnet und der Frame verworfen.
+     *
+     * @param g      Zeichenobjekt des Fensters oder <code>null</code>, wenn der Frame nicht angezeigt wird. Wird
+     *               freigegeben.
+     * @param width  Breite des Fensters in Pixeln.
+     * @param height Höhe des Fensters in Pixeln.
+     * @param source Zeichnet den Frame, z.B. die Zeichenroutine des Spiels.
+     */
+    public void capture(Graphics2D g, int width, int height, RenderSource source) {
+        if (closed) {
+            throw new IllegalStateException("Die Aufzeichnung wurde bereits beendet");
+        }
+
+        long start = System.nanoTime();
+        int index = nextFrame++;
+        BufferedImage buffer = freeBuffers.poll();
+
+        if (buffer == null) {
+            droppedFrames++;
+
+            if (avi != null) {
+                // Der leere Chunk wird in Aufnahme-Reihenfolge geschrieben, das übernehmen die Kodierer
+                encoders.execute(() -> skip(index));
+            }
+
+            if (g != null) {
+                source.render(g, width, height);
+            }
+        } else {
+            Graphics2D bufferGraphics = buffer.createGraphics();
+
+            try {
+                source.render(bufferGraphics, this.width, this.height);
+            } finally {
+                bufferGraphics.dispose();
+            }
+
+            if (g != null) {
+                try {
+                    g.drawImage(buffer, 0, 0, width, height, null);
+                } finally {
+                    g.dispose();
+                }
+            }
+
+            encoders.execute(() -> encode(index, buffer));
+        }
+
+        float duration = (System.nanoTime() - start) / NANOSECONDS_PER_SECOND;
+        captureDuration = captureDuration == 0 ? duration : captureDuration + SMOOTHING * (duration - captureDuration);
+    }
+
+    private void skip(int index) {
+        try {
+            avi.write(index, null);
+        } catch (UncheckedIOException e) {
+            fail(index, e.getCause());
+        }
+    }
+
+    private void encode(int index, BufferedImage buffer) {
+        try {
+            if (format == Format.PNG_SEQUENCE) {
+                ImageIO.write(buffer, "png", target.resolve(String.format("frame-%06d.png", index)).toFile());
+                freeBuffers.add(buffer);
+            } else {
+                ByteArrayOutputStream jpeg = new ByteArrayOutputStream(width * height / 4);
+                ImageIO.write(buffer, "jpg", jpeg);
+                freeBuffers.add(buffer);
+
+                avi.write(index, jpeg.toByteArray());
+            }
+
+            writtenFrames.incrementAndGet();
+        } catch (IOException e) {
+            freeBuffers.add(buffer);
+            fail(index, e);
+
+            if (avi != null) {
+                skip(index); // sonst warten alle folgenden Frames auf diesen
+            }
+        } catch (UncheckedIOException e) {
+            fail(index, e.getCause());
+        }
+    }
+
+    private synchronized void fail(int index, IOException e) {
+        if (failure == null) {
+            failure = e;
+            Logger.error("Recorder", "Frame " + index + " konnte nicht geschrieben werden: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return Anzahl der Frames, die aufgenommen wurden, inklusive verworfener Frames.
+     */
+    public int getFrameCount() {
+        return nextFrame;
+    }
+
+    /**
+     * @return Anzahl verworfener Frames, weil die Kodierer nicht hinterherkamen.
+     */
+    public int getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /**
+     * @return Anzahl bereits kodierter und geschriebener Frames.
+     */
+    public int getWrittenFrames() {
+        return writtenFrames.get();
+    }
+
+    /**
+     * @return Durchschnittliche Zeit in Sekunden, die {@link #capture(RenderSource)} den Spiel-Thread pro Frame kostet.
+     */
+    public float getCaptureDuration() {
+        return captureDuration;
+    }
+
+    /**
+     * Wartet, bis alle aufgenommenen Frames geschrieben sind, und schließt die Ausgabe ab.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        encoders.shutdown();
+
+        try {
+            if (!encoders.awaitTermination(1, TimeUnit.MINUTES)) {
+                Logger.warning("Nicht alle Frames konnten rechtzeitig geschrieben werden", "Recorder");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (avi != null) {
+            avi.close(nextFrame);
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Schreibt einen RIFF-AVI-Container mit einem MJPEG-Videostream. Frames werden von den Kodierern in beliebiger
+     * Reihenfolge übergeben und in Aufnahme-Reihenfolge geschrieben. Größen und Frame-Anzahl im Header werden beim
+     * Schließen nachgetragen.
+     */
+    private static final class AviWriter {
+        private static final int AVIF_HASINDEX = 0x10;
+        private static final int AVIIF_KEYFRAME = 0x10;
+
+        private static final int HEADER_SIZE = 224;
+
+        /**
+         * Position der Kennung <code>movi</code>, auf die sich die Offsets im Index beziehen.
+         */
+        private static final int MOVI_POSITION = 220;
+
+        /**
+         * Position der Größe der <code>movi</code>-Liste, die ab {@link #MOVI_POSITION} zählt.
+         */
+        private static final int MOVI_SIZE_POSITION = 216;
+
+        private final FileChannel channel;
+        private final int width;
+        private final int height;
+        private final int framesPerSecond;
+
+        private final Map<Integer, byte[]> pending = new HashMap<>();
+        private final ByteBuffer chunkHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+
+        /**
+         * Index-Einträge: Offset und Größe je Frame.
+         */
+        private int[] index = new int[1024];
+
+        private int nextIndex = 0;
+        private long position = HEADER_SIZE;
+        private int maxFrameSize = 0;
+
+        private AviWriter(Path path, int width, int height, int framesPerSecond) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.width = width;
+            this.height = height;
+            this.framesPerSecond = framesPerSecond;
+
+            writeHeader(0);
+            channel.position(HEADER_SIZE);
+        }
+
+        /**
+         * @param frame JPEG-Daten oder <code>null</code> für einen verworfenen Frame.
+         */
+        private synchronized void write(int frameIndex, byte[] frame) {
+            pending.put(frameIndex, frame == null ? new byte[0] : frame);
+
+            byte[] next;
+
+            try {
+                while ((next = pending.remove(nextIndex)) != null) {
+                    writeChunk(next);
+                    nextIndex++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeChunk(byte[] frame) throws IOException {
+            if (2 * nextIndex + 1 >= index.length) {
+                index = Arrays.copyOf(index, index.length * 2);
+            }
+
+            index[2 * nextIndex] = (int) (position - MOVI_POSITION);
+            index[2 * nextIndex + 1] = frame.length;
+
+            chunkHeader.clear();
+            chunkHeader.put((byte) '0').put((byte) '0').put((byte) 'd').put((byte) 'c').putInt(frame.length).flip();
+
+            ByteBuffer data = ByteBuffer.wrap(frame, 0, frame.length);
+            ByteBuffer padding = ByteBuffer.allocate(frame.length & 1);
+
+            position += 8 + frame.length + (frame.length & 1);
+            maxFrameSize = Math.max(maxFrameSize, frame.length);
+
+            while (chunkHeader.hasRemaining() || data.hasRemaining() || padding.hasRemaining()) {
+                channel.write(new ByteBuffer[] {chunkHeader, data, padding});
+            }
+        }
+
+        private synchronized void close(int frameCount) throws IOException {
+            try {
+                ByteBuffer idx = ByteBuffer.allocate(8 + 16 * nextIndex).order(ByteOrder.LITTLE_ENDIAN);
+                putFourCC(idx, "idx1").putInt(16 * nextIndex);
+
+                for (int i = 0; i < nextIndex; i++) {
+                    int size = index[2 * i + 1];
+
+                    putFourCC(idx, "00dc").putInt(size == 0 ? 0 : AVIIF_KEYFRAME).putInt(index[2 * i]).putInt(size);
+                }
+
+                idx.flip();
+
+                while (idx.hasRemaining()) {
+                    channel.write(idx, position + (idx.position()));
+                }
+
+                long fileSize = position + 8 + 16L * nextIndex;
+
+                if (nextIndex != frameCount) {
+                    Logger.warning("Video enthält nur " + nextIndex + " von " + frameCount + " Frames", "Recorder");
+                }
+
+                writeHeader(nextIndex);
+
+                ByteBuffer sizes = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+                channel.write(sizes.putInt(0, (int) (fileSize - 8)), 4);
+                channel.write(sizes.clear().putInt(0, (int) (position - MOVI_POSITION)), MOVI_SIZE_POSITION);
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void writeHeader(int frameCount) throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+            putFourCC(header, "RIFF").putInt(0);
+            putFourCC(header, "AVI ");
+
+            putFourCC(header, "LIST").putInt(192);
+            putFourCC(header, "hdrl");
+
+            putFourCC(header, "avih").putInt(56);
+            header.putInt(1000000 / framesPerSecond); // Mikrosekunden pro Frame
+            header.putInt(maxFrameSize * framesPerSecond);
+            header.putInt(0); // Padding-Granularität
+            header.putInt(AVIF_HASINDEX);
+            header.putInt(frameCount);
+            header.putInt(0); // Initial-Frames
+            header.putInt(1); // Streams
+            header.putInt(maxFrameSize);
+            header.putInt(width);
+            header.putInt(height);
+            header.putInt(0).putInt(0).putInt(0).putInt(0);
+
+            putFourCC(header, "LIST").putInt(116);
+            putFourCC(header, "strl");
+
+            putFourCC(header, "strh").putInt(56);
+            putFourCC(header, "vids");
+            putFourCC(header, "MJPG");
+            header.putInt(0); // Flags
+            header.putShort((short) 0).putShort((short) 0); // Priorität, Sprache
+            header.putInt(0); // Initial-Frames
+            header.putInt(1); // Scale
+            header.putInt(framesPerSecond); // Rate
+            header.putInt(0); // Start
+            header.putInt(frameCount);
+            header.putInt(maxFrameSize);
+            header.putInt(-1); // Qualität
+            header.putInt(0); // Sample-Größe
+            header.putShort((short) 0).putShort((short) 0).putShort((short) width).putShort((short) height);
+
+            putFourCC(header, "strf").putInt(40);
+            header.putInt(40);
+            header.putInt(width);
+            header.putInt(height);
+            header.putShort((short) 1); // Ebenen
+            header.putShort((short) 24); // Bits pro Pixel
+            putFourCC(header, "MJPG");
+            header.putInt(width * height * 3);
+            header.putInt(0).putInt(0).putInt(0).putInt(0);
+
+            putFourCC(header, "LIST").putInt(0);
+            putFourCC(header, "movi");
+
+            header.flip();
+
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+
+        private static ByteBuffer putFourCC(ByteBuffer buffer, String fourCC) {
+            for (int i = 0; i < 4; i++) {
+                buffer.put((byte) fourCC.charAt(i));
+            }
+
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.io;
+
+import ea.internal.annotations.Internal;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Eine unveränderliche Folge dekodierter Frames, z.B. alle Frames eines GIFs oder alle Kacheln eines Spritesheets.
+ * Wird über den {@link FrameSequenceCache} von allen Animationen derselben Quelle geteilt.
+ */
+@Internal
+public final class FrameSequence {
+    private final String key;
+    private final BufferedImage[] images;
+    private final int[] delays;
+    private final long bytes;
+
+    /**
+     * @param key    Schlüssel aus Quelle und Aufteilungsparametern.
+     * @param images Die Frames, werden nicht kopiert.
+     * @param delays Anzeigedauer je Frame in Millisekunden oder <code>null</code>, wenn die Quelle keine kennt.
+     */
+    public FrameSequence(String key, BufferedImage[] images, int[] delays) {
+        if (delays != null && delays.length != images.length) {
+            throw new IllegalArgumentException("Für jeden Frame muss genau eine Dauer angegeben sein");
+        }
+
+        long bytes = 0;
+
+        for (BufferedImage image : images) {
+            bytes += 4L * image.getWidth() * image.getHeight();
+        }
+
+        this.key = key;
+        this.images = images;
+        this.delays = delays;
+        this.bytes = bytes;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    public int getFrameCount() {
+        return images.length;
+    }
+
+    public BufferedImage getImage(int index) {
+        return images[index];
+    }
+
+    /**
+     * @return Anzeigedauer des Frames in Millisekunden.
+     *
+     * @throws IllegalStateException Wenn die Quelle keine Anzeigedauern kennt.
+     */
+    public int getDelay(int index) {
+        if (delays == null) {
+            throw new IllegalStateException("Die Frame-Folge hat keine Anzeigedauern: " + key);
+        }
+
+        return delays[index];
+    }
+
+    /**
+     * @return Geschätzter Speicherbedarf der dekodierten Pixel in Bytes.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+}
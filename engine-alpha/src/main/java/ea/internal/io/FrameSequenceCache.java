@@ -0,0 +1,293 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.io;
+
+import ea.internal.annotations.API;
+import ea.internal.annotations.Internal;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache für dekodierte Frame-Folgen, den alle Animationen teilen. Jede Quelle wird nur einmal dekodiert, auch wenn
+ * viele Threads sie gleichzeitig anfordern; 100 Figuren aus demselben GIF teilen sich dieselben Bilder.
+ * <p>
+ * Einträge werden referenzgezählt: Solange eine Folge benutzt wird, bleibt sie im Cache. Unbenutzte Folgen werden
+ * in der Reihenfolge ihrer letzten Verwendung verdrängt, sobald der Speicherbedarf aller Folgen die Obergrenze
+ * überschreitet.
+ */
+@Internal
+public final class FrameSequenceCache {
+    private static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private static final class Entry {
+        private final String key;
+
+        private FrameSequence sequence;
+        private int references;
+        private long lastUse;
+        private long evictionOrder;
+        private boolean removed;
+
+        private Entry(String key) {
+            this.key = key;
+        }
+    }
+
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Bildgrößen aus {@link #getImageSize(String)}, nur wenige Bytes je Pfad.
+     */
+    private static final Map<String, Dimension> sizes = new ConcurrentHashMap<>();
+
+    private static final AtomicLong bytes = new AtomicLong();
+    private static final AtomicLong clock = new AtomicLong();
+
+    private static volatile long maxBytes = DEFAULT_MAX_BYTES;
+
+    private FrameSequenceCache() {
+        // keine Objekte erlaubt!
+    }
+
+    /**
+     * Liefert die Frame-Folge zum Schlüssel und erhöht ihren Referenzzähler. Ist sie noch nicht im Cache, wird sie
+     * genau einmal dekodiert; weitere Threads mit demselben Schlüssel warten auf das Ergebnis.
+     *
+     * @param key     Schlüssel aus Quelle und Aufteilungsparametern.
+     * @param decoder Dekodiert die Folge, falls sie nicht im Cache ist.
+     *
+     * @return Die geteilte Frame-Folge. Muss mit {@link #release(FrameSequence)} oder
+     * {@link #releaseWhenUnreachable(Object, FrameSequence)} wieder freigegeben werden.
+     */
+    public static FrameSequence acquire(String key, Supplier<BufferedImage[]> decoder) {
+        return acquireSequence(key, () -> new FrameSequence(key, decoder.get(), null));
+    }
+
+    /**
+     * Wie {@link #acquire(String, Supplier)}, der Dekodierer liefert aber selbst die Folge, z.B. mit Anzeigedauern.
+     */
+    public static FrameSequence acquireSequence(String key, Supplier<FrameSequence> decoder) {
+        while (true) {
+            Entry entry = entries.computeIfAbsent(key, Entry::new);
+            FrameSequence sequence;
+            boolean decoded = false;
+
+            synchronized (entry) {
+                if (entry.removed) {
+                    continue; // wurde gerade verdrängt, neuen Eintrag anlegen
+                }
+
+                if (entry.sequence == null) {
+                    try {
+                        entry.sequence = decoder.get();
+                    } catch (RuntimeException e) {
+                        entry.removed = true;
+                        entries.remove(key, entry);
+
+                        throw e;
+                    }
+
+                    if (!key.equals(entry.sequence.getKey())) {
+                        entry.removed = true;
+                        entries.remove(key, entry);
+
+                        throw new IllegalStateException("Die dekodierte Frame-Folge hat einen anderen Schlüssel: " + entry.sequence.getKey());
+                    }
+
+                    bytes.addAndGet(entry.sequence.getBytes());
+                    decoded = true;
+                }
+
+                entry.references++;
+
+                entry.lastUse = clock.incrementAndGet();
+                sequence = entry.sequence;
+            }
+
+            if (decoded) {
+                evict(maxBytes);
+            }
+
+            return sequence;
+        }
+    }
+
+    /**
+     * Verringert den Referenzzähler einer Folge. Unbenutzte Folgen bleiben im Cache, bis sie verdrängt werden.
+     */
+    public static void release(FrameSequence sequence) {
+        Entry entry = entries.get(sequence.getKey());
+
+        if (entry != null) {
+            synchronized (entry) {
+                if (entry.sequence == sequence && entry.references > 0) {
+                    entry.references--;
+                }
+            }
+        }
+
+        evict(maxBytes);
+    }
+
+    /**
+     * Gibt eine Folge frei, sobald der Besitzer nicht mehr erreichbar ist, z.B. das Frame-Array einer Animation.
+     *
+     * @param owner    Objekt, das die Folge benutzt. Darf nicht von <code>sequence</code> referenziert werden.
+     * @param sequence Die Folge.
+     */
+    public static void releaseWhenUnreachable(Object owner, FrameSequence sequence) {
+        CLEANER.register(owner, () -> release(sequence));
+    }
+
+    /**
+     * Ermittelt die Größe eines Bildes, ohne seine Pixel zu dekodieren. Bei GIFs ist das die Größe des ersten
+     * Frames.
+     *
+     * @param path Pfad des Bildes.
+     *
+     * @return Breite und Höhe in Pixeln.
+     */
+    @API
+    public static Dimension getImageSize(String path) {
+        return new Dimension(sizes.computeIfAbsent(path, FrameSequenceCache::readImageSize));
+    }
+
+    private static Dimension readImageSize(String path) {
+        BufferedImage bundled = ResourceLoader.loadBundledImage(path);
+
+        if (bundled != null) {
+            return new Dimension(bundled.getWidth(), bundled.getHeight());
+        }
+
+        try (ImageInputStream stream = new ByteBufferImageInputStream(ResourceLoader.loadAsBuffer(path))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+
+            if (!readers.hasNext()) {
+                throw new RuntimeException("Das Bildformat wird nicht unterstützt: " + path);
+            }
+
+            ImageReader reader = readers.next();
+
+            try {
+                reader.setInput(stream, true, true);
+
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Das Image konnte nicht geladen werden: " + path);
+        }
+    }
+
+    /**
+     * Setzt die Obergrenze für den Speicherbedarf unbenutzter Folgen. Benutzte Folgen werden nie verdrängt und
+     * können die Grenze daher überschreiten.
+     *
+     * @param maxBytes Obergrenze in Bytes.
+     */
+    @API
+    public static void setMaxBytes(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Die Obergrenze darf nicht negativ sein, war " + maxBytes);
+        }
+
+        FrameSequenceCache.maxBytes = maxBytes;
+
+        evict(maxBytes);
+    }
+
+    /**
+     * @return Speicherbedarf aller Folgen im Cache in Bytes.
+     */
+    @API
+    public static long getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * @return Anzahl Folgen im Cache.
+     */
+    @API
+    public static int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Entfernt alle unbenutzten Folgen und alle gemerkten Bildgrößen.
+     */
+    @API
+    public static void clear() {
+        sizes.clear();
+        evict(0);
+    }
+
+    private static synchronized void evict(long limit) {
+        if (bytes.get() <= limit) {
+            return;
+        }
+
+        List<Entry> candidates = new ArrayList<>();
+
+        for (Entry entry : entries.values()) {
+            synchronized (entry) {
+                if (entry.references == 0 && entry.sequence != null && !entry.removed) {
+                    entry.evictionOrder = entry.lastUse;
+                    candidates.add(entry);
+                }
+            }
+        }
+
+        candidates.sort(Comparator.comparingLong(entry -> entry.evictionOrder));
+
+        for (Entry entry : candidates) {
+            if (bytes.get() <= limit) {
+                return;
+            }
+
+            synchronized (entry) {
+                // Zwischenzeitlich wieder angefordert?
+                if (entry.references > 0 || entry.removed) {
+                    continue;
+                }
+
+                entry.removed = true;
+                entries.remove(entry.key, entry);
+                bytes.addAndGet(-entry.sequence.getBytes());
+            }
+        }
+    }
+}
@@ -20,13 +20,22 @@
 package ea.internal.io;
 
 import ea.internal.annotations.API;
+import ea.internal.monitoring.EngineStatistics;
+import ea.internal.monitoring.ImageLoadEvent;
 import ea.internal.util.Optimizer;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Lädt Bilder vom Dateisystem und optimiert diese direkt für die Anzeige.
@@ -37,7 +46,7 @@ final public class ImageLoader {
     /**
      * Cache, damit viele gleiche Bilder nicht jedes Mal neu geladen werden müssen.
      */
-    private static final Map<String, BufferedImage> cache = new HashMap<>();
+    private static final Map<String, BufferedImage> cache = new ConcurrentHashMap<>();
 
     private ImageLoader() {
         // keine Objekte erlaubt!
@@ -51,16 +60,94 @@ final public class ImageLoader {
      * @return geladenes Image
      */
     public static BufferedImage load(String path) {
-        if (cache.containsKey(path)) {
-            return cache.get(path);
+        ImageLoadEvent event = new ImageLoadEvent();
+        event.begin();
+
+        BufferedImage cached = cache.get(path);
+
+        if (cached != null) {
+            EngineStatistics.imageLoaded(true, 0);
+            commit(event, path, cached, true);
+
+            return cached;
+        }
+
+        // Außerhalb der Map dekodieren, damit parallele Ladevorgänge sich nicht gegenseitig blockieren
+        long decodeStart = System.nanoTime();
+        BufferedImage img = decode(path);
+        EngineStatistics.imageLoaded(false, System.nanoTime() - decodeStart);
+
+        BufferedImage previous = cache.putIfAbsent(path, img);
+        BufferedImage result = previous != null ? previous : img;
+
+        commit(event, path, result, false);
+
+        return result;
+    }
+
+    private static void commit(ImageLoadEvent event, String path, BufferedImage image, boolean cacheHit) {
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.path = path;
+            event.cacheHit = cacheHit;
+            event.width = image.getWidth();
+            event.height = image.getHeight();
+            event.commit();
         }
+    }
+
+    /**
+     * Lädt mehrere Images parallel auf allen Prozessorkernen in den Cache. Nachfolgende Aufrufe von
+     * {@link #load(String)} mit diesen Pfaden kehren sofort zurück.
+     *
+     * @param paths Pfade der Bilder.
+     */
+    @API
+    public static void preload(String... paths) {
+        Arrays.stream(paths).parallel().distinct().forEach(ImageLoader::load);
+    }
+
+    /**
+     * Übernimmt ein vorab dekodiertes Bild aus einem Asset-Archiv oder dekodiert ein Bild direkt aus den (möglichst
+     * eingeblendeten) Dateidaten, ohne Zwischenkopie über einen Stream.
+     * <p>
+     * Bietet der Decoder das Format des Bildschirms an, wird direkt in ein passendes Bild dekodiert. Sonst wird das
+     * dekodierte Bild einmal umgewandelt.
+     */
+    private static BufferedImage decode(String path) {
+        BufferedImage bundled = ResourceLoader.loadBundledImage(path);
+
+        if (bundled != null) {
+            return bundled; // Bereits im Format des Bildschirms
+        }
+
+        try (ImageInputStream stream = new ByteBufferImageInputStream(ResourceLoader.loadAsBuffer(path))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+
+            if (!readers.hasNext()) {
+                throw new RuntimeException("Das Bildformat wird nicht unterstützt: " + path);
+            }
+
+            ImageReader reader = readers.next();
+
+            try {
+                reader.setInput(stream, true, true);
 
-        try {
-            BufferedImage img = Optimizer.toCompatibleImage(ImageIO.read(ResourceLoader.loadAsStream(path)));
+                ImageReadParam param = reader.getDefaultReadParam();
+                int compatibleType = Optimizer.getTranslucentImageType();
 
-            cache.put(path, img);
+                for (Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0); types.hasNext() && compatibleType != BufferedImage.TYPE_CUSTOM; ) {
+                    if (types.next().getBufferedImageType() == compatibleType) {
+                        param.setDestination(Optimizer.createCompatibleImage(reader.getWidth(0), reader.getHeight(0), Transparency.TRANSLUCENT));
+                        break;
+                    }
+                }
 
-            return img;
+                return Optimizer.toCompatibleImage(reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
         } catch (IOException e) {
             throw new RuntimeException("Das Image konnte nicht geladen werden: " + path);
         }
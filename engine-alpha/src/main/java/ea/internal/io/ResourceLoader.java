@@ -19,17 +19,24 @@
 
 package ea.internal.io;
 
+import ea.internal.annotations.API;
 import ea.internal.util.Logger;
 
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Lädt Dateien aus der JAR oder dem aktuellen Arbeitsverzeichnis.
@@ -37,11 +44,70 @@ import java.nio.file.Paths;
  * @author Niklas Keller
  */
 final public class ResourceLoader {
+    /**
+     * Eingebundene Asset-Archive. Werden vor dem Klassenpfad und dem Dateisystem durchsucht.
+     */
+    private static final List<AssetBundle> bundles = new CopyOnWriteArrayList<>();
+
     private ResourceLoader() {
         // keine Objekte erlaubt!
     }
 
+    /**
+     * Bindet ein mit dem {@link AssetBundleWriter} gepacktes Archiv ein. Alle enthaltenen Dateien werden ab sofort
+     * direkt aus dem eingeblendeten Archiv geladen; Dateien, die nicht im Archiv liegen, weiterhin einzeln vom
+     * Klassenpfad bzw. aus dem Dateisystem.
+     *
+     * @param filename Pfad zur Archivdatei.
+     */
+    @API
+    public static void mountBundle(String filename) {
+        try {
+            bundles.add(AssetBundle.open(loadAsFile(filename).toPath()));
+        } catch (IOException e) {
+            throw new RuntimeException("Das Asset-Archiv konnte nicht geladen werden: " + filename + " (" + e.getMessage() + ")");
+        }
+    }
+
+    /**
+     * Sucht ein vorab dekodiertes Bild in den eingebundenen Archiven.
+     *
+     * @return Das Bild oder <code>null</code>, falls kein Archiv ein dekodiertes Bild zu diesem Pfad enthält.
+     */
+    static BufferedImage loadBundledImage(String filename) {
+        for (AssetBundle bundle : bundles) {
+            BufferedImage image = bundle.getImage(filename);
+
+            if (image != null) {
+                return image;
+            }
+        }
+
+        return null;
+    }
+
+    private static ByteBuffer loadBundledData(String filename) {
+        for (AssetBundle bundle : bundles) {
+            ByteBuffer data = bundle.getData(filename);
+
+            if (data != null) {
+                return data;
+            }
+        }
+
+        return null;
+    }
+
     public static byte[] load(String filename) throws IOException {
+        ByteBuffer bundled = loadBundledData(filename);
+
+        if (bundled != null) {
+            byte[] bytes = new byte[bundled.remaining()];
+            bundled.get(bytes);
+
+            return bytes;
+        }
+
         String normalizedFilename = normalizePath(filename);
         Path path = Paths.get(normalizedFilename);
 
@@ -57,7 +123,53 @@ final public class ResourceLoader {
         return Files.readAllBytes(path);
     }
 
+    /**
+     * Lädt eine Datei als nur lesbaren {@link ByteBuffer}. Liegt die Datei direkt im Dateisystem (auch als
+     * entpackte Ressource im Klassenpfad), wird sie per {@link FileChannel#map} eingeblendet und nicht kopiert.
+     * Ressourcen aus einer JAR werden einmalig in den Speicher gelesen. Dateien aus einem eingebundenen
+     * {@link #mountBundle(String) Archiv} sind ein Ausschnitt des bereits eingeblendeten Archivs.
+     *
+     * @param filename Pfad der Datei.
+     *
+     * @return Ein Buffer mit dem Dateiinhalt, Position <code>0</code>.
+     */
+    public static ByteBuffer loadAsBuffer(String filename) throws IOException {
+        ByteBuffer bundled = loadBundledData(filename);
+
+        if (bundled != null) {
+            return bundled;
+        }
+
+        String normalizedFilename = normalizePath(filename);
+        Path path = Paths.get(normalizedFilename);
+
+        URL url = ResourceLoader.class.getResource("/" + normalizedFilename);
+        if (url != null) {
+            if (!"file".equals(url.getProtocol())) {
+                try (InputStream stream = url.openStream()) {
+                    return ByteBuffer.wrap(stream.readAllBytes()).asReadOnlyBuffer();
+                }
+            }
+
+            try {
+                path = Paths.get(url.toURI());
+            } catch (URISyntaxException e) {
+                throw new IOException("Could not convert URL to URI", e);
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
     public static InputStream loadAsStream(String filename) throws IOException {
+        ByteBuffer bundled = loadBundledData(filename);
+
+        if (bundled != null) {
+            return new ByteBufferInputStream(bundled);
+        }
+
         String normalizedFilename = normalizePath(filename);
 
         if (ResourceLoader.class.getResource("/" + normalizedFilename) != null) {
@@ -82,6 +194,43 @@ final public class ResourceLoader {
         return new File(normalizePath(normalizedFilename));
     }
 
+    /**
+     * Liest direkt aus einem Buffer, ohne Zwischenpuffer.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
     static String normalizePath(String path) {
         return path.replace("\\", File.separator).replace("/", File.separator);
     }
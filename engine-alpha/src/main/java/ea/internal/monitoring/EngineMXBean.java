@@ -0,0 +1,97 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.monitoring;
+
+import ea.internal.annotations.Internal;
+
+/**
+ * Live-Zähler der Engine, erreichbar über JMX unter <code>ea:type=Engine</code>, z.B. mit JConsole oder VisualVM.
+ * Werte "im letzten Frame" beziehen sich auf den zuletzt abgeschlossenen Durchlauf der Spielschleife.
+ *
+ * @see EngineStatistics
+ */
+@Internal
+public interface EngineMXBean {
+    /**
+     * @return Anzahl abgeschlossener Frames.
+     */
+    long getFrameCount();
+
+    /**
+     * @return Dauer des letzten Frames inklusive Wartezeit in Millisekunden.
+     */
+    double getLastFrameMillis();
+
+    /**
+     * @return Gleitender Mittelwert der Frame-Dauer in Millisekunden.
+     */
+    double getAverageFrameMillis();
+
+    /**
+     * @return Wartezeit im letzten Frame in Millisekunden.
+     */
+    double getLastSleepMillis();
+
+    /**
+     * @return Anzahl der im letzten Frame ausgeführten Aufgaben aus {@link ea.GameLogic#enqueue(Runnable)}.
+     */
+    int getLastDispatchedTasks();
+
+    /**
+     * @return Anzahl aller bisher gerechneten Physik-Teilschritte über alle Layer.
+     */
+    long getWorldSubsteps();
+
+    /**
+     * @return Anzahl der Bodies aller im letzten Frame simulierten Layer.
+     */
+    int getBodyCount();
+
+    /**
+     * @return Anzahl der Kontakte aller im letzten Frame simulierten Layer.
+     */
+    int getContactCount();
+
+    /**
+     * @return Anzahl der Bilder, die aus dem Cache kamen.
+     */
+    long getImageCacheHits();
+
+    /**
+     * @return Anzahl der Bilder, die dekodiert werden mussten.
+     */
+    long getImageCacheMisses();
+
+    /**
+     * @return Gesamte Zeit zum Dekodieren von Bildern in Millisekunden.
+     */
+    double getImageDecodeMillis();
+
+    /**
+     * @return Anzahl der im letzten Frame gezeichneten Actors. Beim Zeichnen in Streifen zählt ein Actor für jeden
+     * Streifen, den er berührt.
+     */
+    int getActorsDrawn();
+
+    /**
+     * @return Anzahl der im letzten Frame verworfenen, weil unsichtbaren oder nicht im Bild liegenden Actors.
+     */
+    int getActorsCulled();
+}
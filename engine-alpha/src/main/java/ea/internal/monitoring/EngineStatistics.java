@@ -0,0 +1,220 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.monitoring;
+
+import ea.internal.annotations.Internal;
+import ea.internal.util.Logger;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sammelt die Zähler für {@link EngineMXBean}. Die Zähler laufen immer mit; sie bestehen nur aus einfachen
+ * Additionen, die Physik-Threads und Bild-Ladevorgänge über {@link LongAdder} ohne gemeinsame Sperre erhöhen.
+ * Genauere Messungen liefern die JFR-Events in diesem Paket, die nur während einer Aufzeichnung etwas kosten.
+ */
+@Internal
+public final class EngineStatistics {
+    /**
+     * Name, unter dem die Zähler im Plattform-MBean-Server zu finden sind.
+     */
+    public static final String OBJECT_NAME = "ea:type=Engine";
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * Gewicht des aktuellen Frames im gleitenden Mittelwert.
+     */
+    private static final double AVERAGE_WEIGHT = 0.05;
+
+    private static final AtomicBoolean registered = new AtomicBoolean(false);
+
+    private static final LongAdder worldSubsteps = new LongAdder();
+    private static final LongAdder frameBodies = new LongAdder();
+    private static final LongAdder frameContacts = new LongAdder();
+    private static final LongAdder frameDrawn = new LongAdder();
+    private static final LongAdder frameCulled = new LongAdder();
+
+    private static final LongAdder imageCacheHits = new LongAdder();
+    private static final LongAdder imageCacheMisses = new LongAdder();
+    private static final LongAdder imageDecodeNanos = new LongAdder();
+
+    // Nur vom Spiel-Thread geschrieben
+    private static volatile long frameCount;
+    private static volatile long lastFrameNanos;
+    private static volatile double averageFrameNanos;
+    private static volatile long lastSleepNanos;
+    private static volatile int lastDispatchedTasks;
+    private static volatile int bodyCount;
+    private static volatile int contactCount;
+    private static volatile int actorsDrawn;
+    private static volatile int actorsCulled;
+
+    private EngineStatistics() {
+        // keine Objekte erlaubt!
+    }
+
+    /**
+     * Meldet die Zähler beim Plattform-MBean-Server an. Weitere Aufrufe haben keine Wirkung.
+     */
+    public static void register() {
+        if (!registered.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Die Engine wurde von einem anderen Classloader bereits angemeldet
+        } catch (JMException | SecurityException e) {
+            Logger.warning("Die Engine-Statistik konnte nicht über JMX angemeldet werden: " + e.getMessage(), "Monitoring");
+        }
+    }
+
+    /**
+     * Schließt einen Frame ab und übernimmt die seit dem letzten Frame gesammelten Werte.
+     *
+     * @param frameNanos      Dauer des Frames inklusive Wartezeit.
+     * @param sleepNanos      Wartezeit am Ende des Frames.
+     * @param dispatchedTasks Anzahl ausgeführter Aufgaben.
+     */
+    public static void frameFinished(long frameNanos, long sleepNanos, int dispatchedTasks) {
+        lastFrameNanos = frameNanos;
+        averageFrameNanos = frameCount == 0 ? frameNanos : averageFrameNanos + AVERAGE_WEIGHT * (frameNanos - averageFrameNanos);
+        lastSleepNanos = sleepNanos;
+        lastDispatchedTasks = dispatchedTasks;
+        bodyCount = (int) frameBodies.sumThenReset();
+        contactCount = (int) frameContacts.sumThenReset();
+        actorsDrawn = (int) frameDrawn.sumThenReset();
+        actorsCulled = (int) frameCulled.sumThenReset();
+        frameCount++;
+    }
+
+    /**
+     * @param substeps Anzahl gerechneter Teilschritte.
+     * @param bodies   Anzahl der Bodies in der Welt.
+     * @param contacts Anzahl der Kontakte in der Welt.
+     */
+    public static void worldStepped(int substeps, int bodies, int contacts) {
+        worldSubsteps.add(substeps);
+        frameBodies.add(bodies);
+        frameContacts.add(contacts);
+    }
+
+    /**
+     * @param drawn  Anzahl gezeichneter Actors.
+     * @param culled Anzahl verworfener Actors.
+     */
+    public static void layerRendered(int drawn, int culled) {
+        frameDrawn.add(drawn);
+        frameCulled.add(culled);
+    }
+
+    /**
+     * @param cacheHit    Ob das Bild bereits im Cache lag.
+     * @param decodeNanos Dauer des Dekodierens, bei einem Treffer <code>0</code>.
+     */
+    public static void imageLoaded(boolean cacheHit, long decodeNanos) {
+        if (cacheHit) {
+            imageCacheHits.increment();
+        } else {
+            imageCacheMisses.increment();
+            imageDecodeNanos.add(decodeNanos);
+        }
+    }
+
+    /**
+     * @return Die Zähler, wie sie auch über JMX erreichbar sind.
+     */
+    public static EngineMXBean get() {
+        return new Bean();
+    }
+
+    private static final class Bean implements EngineMXBean {
+        @Override
+        public long getFrameCount() {
+            return frameCount;
+        }
+
+        @Override
+        public double getLastFrameMillis() {
+            return lastFrameNanos / NANOS_PER_MILLI;
+        }
+
+        @Override
+        public double getAverageFrameMillis() {
+            return averageFrameNanos / NANOS_PER_MILLI;
+        }
+
+        @Override
+        public double getLastSleepMillis() {
+            return lastSleepNanos / NANOS_PER_MILLI;
+        }
+
+        @Override
+        public int getLastDispatchedTasks() {
+            return lastDispatchedTasks;
+        }
+
+        @Override
+        public long getWorldSubsteps() {
+            return worldSubsteps.sum();
+        }
+
+        @Override
+        public int getBodyCount() {
+            return bodyCount;
+        }
+
+        @Override
+        public int getContactCount() {
+            return contactCount;
+        }
+
+        @Override
+        public long getImageCacheHits() {
+            return imageCacheHits.sum();
+        }
+
+        @Override
+        public long getImageCacheMisses() {
+            return imageCacheMisses.sum();
+        }
+
+        @Override
+        public double getImageDecodeMillis() {
+            return imageDecodeNanos.sum() / NANOS_PER_MILLI;
+        }
+
+        @Override
+        public int getActorsDrawn() {
+            return actorsDrawn;
+        }
+
+        @Override
+        public int getActorsCulled() {
+            return actorsCulled;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.monitoring;
+
+import ea.internal.annotations.Internal;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR-Event für einen vollständigen Frame der {@link ea.GameLogic}, vom Beginn der Simulation bis zum Ende der
+ * Wartezeit.
+ */
+@Internal
+@Name("ea.Frame")
+@Label("Frame")
+@Category({"Engine Alpha", "Game Loop"})
+@Description("Ein Durchlauf der Spielschleife inklusive Wartezeit")
+@StackTrace(false)
+public final class FrameEvent extends jdk.jfr.Event {
+    @Label("Frame-Nummer")
+    public long frame;
+
+    @Label("Simulierte Zeit")
+    @Timespan(Timespan.NANOSECONDS)
+    public long deltaTime;
+
+    @Label("Wartezeit")
+    @Timespan(Timespan.NANOSECONDS)
+    public long sleepDuration;
+
+    @Label("Abarbeitung der Warteschlange")
+    @Timespan(Timespan.NANOSECONDS)
+    public long dispatchDuration;
+
+    @Label("Ausgeführte Aufgaben")
+    public int dispatchedTasks;
+}
@@ -0,0 +1,48 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.monitoring;
+
+import ea.internal.annotations.Internal;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-Event für das Laden eines Bildes über {@link ea.internal.io.ImageLoader}.
+ */
+@Internal
+@Name("ea.ImageLoad")
+@Label("Image Load")
+@Category({"Engine Alpha", "Ressourcen"})
+@Description("Laden eines Bildes, aus dem Cache oder neu dekodiert")
+public final class ImageLoadEvent extends jdk.jfr.Event {
+    @Label("Pfad")
+    public String path;
+
+    @Label("Aus dem Cache")
+    public boolean cacheHit;
+
+    @Label("Breite")
+    public int width;
+
+    @Label("Höhe")
+    public int height;
+}
@@ -0,0 +1,50 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.monitoring;
+
+import ea.internal.annotations.Internal;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-Event für das Zeichnen eines Layers.
+ */
+@Internal
+@Name("ea.LayerRender")
+@Label("Layer Render")
+@Category({"Engine Alpha", "Grafik"})
+@Description("Zeichnen aller Actors eines Layers")
+@StackTrace(false)
+public final class LayerRenderEvent extends jdk.jfr.Event {
+    @Label("Layer-Position")
+    public int layerPosition;
+
+    @Label("Gezeichnete Actors")
+    public int drawn;
+
+    @Label("Verworfene Actors")
+    public int culled;
+
+    @Label("Über den Zwischenspeicher gezeichnet")
+    public boolean cached;
+}
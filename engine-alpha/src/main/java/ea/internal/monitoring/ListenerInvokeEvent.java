@@ -0,0 +1,45 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.monitoring;
+
+import ea.internal.annotations.Internal;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR-Event für das Aufrufen aller Listener einer {@link ea.event.EventListeners}-Liste. Standardmäßig werden nur
+ * Aufrufe ab einer Millisekunde aufgezeichnet, da die Listener sehr häufig laufen.
+ */
+@Internal
+@Name("ea.ListenerInvoke")
+@Label("Listener Invoke")
+@Category({"Engine Alpha", "Events"})
+@Description("Aufruf aller Listener einer Liste")
+@Threshold("1 ms")
+public final class ListenerInvokeEvent extends jdk.jfr.Event {
+    @Label("Listener")
+    public int listeners;
+
+    @Label("Typ des ersten Listeners")
+    public Class<?> listenerType;
+}
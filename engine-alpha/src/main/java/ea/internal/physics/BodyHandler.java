@@ -337,9 +337,14 @@ public class BodyHandler implements PhysicsHandler {
         bodyBounds.upperBound.x = -Float.MAX_VALUE;
         bodyBounds.upperBound.y = -Float.MAX_VALUE;
 
+        // Aus den Formen statt aus der Broadphase, damit es auch für inaktive Bodies stimmt
+        AABB shapeBounds = new AABB();
+
         for (Fixture fixture = body.m_fixtureList; fixture != null; fixture = fixture.m_next) {
-            // TODO Include chain shapes (more than one child)
-            bodyBounds.combine(bodyBounds, fixture.getAABB(0));
+            for (int child = 0; child < fixture.m_shape.getChildCount(); child++) {
+                fixture.m_shape.computeAABB(shapeBounds, body.getTransform(), child);
+                bodyBounds.combine(bodyBounds, shapeBounds);
+            }
         }
 
         return bodyBounds;
@@ -362,7 +367,7 @@ public class BodyHandler implements PhysicsHandler {
 
         Fixture[] groundCandidates = worldHandler.queryAABB(testAABB);
         for (Fixture fixture : groundCandidates) {
-            Actor corresponding = (Actor) fixture.getBody().getUserData();
+            Actor corresponding = WorldHandler.getActor(fixture);
             if (corresponding != null && corresponding.getBodyType() == BodyType.STATIC) {
                 return true;
             }
@@ -404,7 +409,8 @@ public class BodyHandler implements PhysicsHandler {
         for (ContactEdge contact = body.getContactList(); contact != null; contact = contact.next) {
             // Contact exists with other Body. Next, check if they are actually touching
             if (contact.contact.isTouching()) {
-                contacts.add(new CollisionEvent<>(contact.contact, (Actor) contact.other.getUserData()));
+                Fixture other = contact.contact.getFixtureA().getBody() == body ? contact.contact.getFixtureB() : contact.contact.getFixtureA();
+                contacts.add(new CollisionEvent<>(contact.contact, WorldHandler.getActor(other, contact.contact)));
             }
         }
 
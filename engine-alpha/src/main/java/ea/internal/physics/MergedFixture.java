@@ -0,0 +1,114 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package ea.internal.physics;
+
+import ea.actor.Actor;
+import ea.internal.annotations.Internal;
+import org.jbox2d.collision.WorldManifold;
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.Fixture;
+import org.jbox2d.dynamics.contacts.Contact;
+
+/**
+ * Nutzdaten einer Fixture, in der mehrere achsenparallele Rechtecke verschiedener Actors zu einem verschmolzen sind
+ * (siehe {@link ea.Layer#setStaticGeometryBaked(boolean)}). Merkt sich für jedes ursprüngliche Rechteck seinen Actor,
+ * damit Kollisionen den Actor unter dem Berührungspunkt melden.
+ */
+@Internal
+public final class MergedFixture {
+    private static final ThreadLocal<WorldManifold> worldManifold = ThreadLocal.withInitial(WorldManifold::new);
+
+    /**
+     * Die Rechtecke in Weltkoordinaten als x0, y0, x1, y1.
+     */
+    private final float[] bounds;
+    private final Actor[] actors;
+
+    /**
+     * @param bounds Die Rechtecke in Weltkoordinaten als x0, y0, x1, y1.
+     * @param actors Der Actor jedes Rechtecks.
+     */
+    public MergedFixture(float[] bounds, Actor[] actors) {
+        if (bounds.length != actors.length * 4 || actors.length == 0) {
+            throw new IllegalArgumentException("Zu jedem Actor gehört genau ein Rechteck");
+        }
+
+        this.bounds = bounds;
+        this.actors = actors;
+    }
+
+    /**
+     * @return Der Actor des ersten Rechtecks. Alle Actors einer Fixture haben denselben Körper-Typ.
+     */
+    public Actor getFirstActor() {
+        return actors[0];
+    }
+
+    /**
+     * @return Der Actor, dessen Rechteck dem Punkt am nächsten liegt oder ihn enthält.
+     */
+    public Actor getActor(float x, float y) {
+        Actor nearest = actors[0];
+        float nearestDistance = Float.POSITIVE_INFINITY;
+
+        for (int i = 0; i < actors.length; i++) {
+            float dx = Math.max(Math.max(bounds[4 * i] - x, x - bounds[4 * i + 2]), 0);
+            float dy = Math.max(Math.max(bounds[4 * i + 1] - y, y - bounds[4 * i + 3]), 0);
+            float distance = dx * dx + dy * dy;
+
+            if (distance < nearestDistance) {
+                nearest = actors[i];
+                nearestDistance = distance;
+            }
+        }
+
+        return nearest;
+    }
+
+    /**
+     * Bestimmt den Actor an einem Kontakt mit dieser Fixture: den unter der Mitte der Berührungspunkte oder, wenn sich
+     * die Körper nicht mehr berühren, den nächsten zum Schwerpunkt des anderen Körpers.
+     *
+     * @param contact Ein Kontakt, an dem diese Fixture beteiligt ist.
+     */
+    public Actor getActor(Contact contact) {
+        int pointCount = contact.getManifold().pointCount;
+
+        if (pointCount == 0) {
+            Fixture other = contact.getFixtureA().getUserData() == this ? contact.getFixtureB() : contact.getFixtureA();
+            Vec2 center = other.getBody().getWorldCenter();
+
+            return getActor(center.x, center.y);
+        }
+
+        WorldManifold manifold = worldManifold.get();
+        contact.getWorldManifold(manifold);
+
+        float x = 0, y = 0;
+
+        for (int i = 0; i < pointCount; i++) {
+            x += manifold.points[i].x;
+            y += manifold.points[i].y;
+        }
+
+        return getActor(x / pointCount, y / pointCount);
+    }
+}
@@ -6,15 +6,22 @@ import ea.actor.Joint;
 import ea.collision.CollisionEvent;
 import ea.collision.CollisionListener;
 import ea.internal.annotations.Internal;
+import ea.internal.monitoring.EngineStatistics;
+import ea.internal.monitoring.WorldStepEvent;
 import ea.internal.util.Logger;
 import org.jbox2d.callbacks.ContactImpulse;
 import org.jbox2d.callbacks.ContactListener;
 import org.jbox2d.callbacks.QueryCallback;
 import org.jbox2d.collision.AABB;
+import org.jbox2d.collision.broadphase.BroadPhase;
+import org.jbox2d.collision.broadphase.DefaultBroadPhaseBuffer;
+import org.jbox2d.collision.broadphase.DynamicTree;
 import org.jbox2d.collision.Manifold;
 import org.jbox2d.common.Vec2;
 import org.jbox2d.dynamics.Body;
 import org.jbox2d.dynamics.BodyDef;
+import org.jbox2d.dynamics.BodyType;
+import org.jbox2d.dynamics.ContactManager;
 import org.jbox2d.dynamics.Fixture;
 import org.jbox2d.dynamics.World;
 import org.jbox2d.dynamics.contacts.Contact;
@@ -73,6 +80,11 @@ public class WorldHandler implements ContactListener {
 
     private float simulationAccumulator = 0;
 
+    /**
+     * <code>true</code>, wenn der nächste Schritt ohne Warmstart gerechnet wird.
+     */
+    private boolean discardWarmStart = false;
+
     /**
      * Erstellt eine neue standardisierte Physik ohne Schwerkraft.
      */
@@ -116,6 +128,118 @@ public class WorldHandler implements ContactListener {
         }
     }
 
+    /**
+     * @return Simulationszeit, die noch nicht in einem festen Schritt verrechnet wurde.
+     */
+    @Internal
+    public float getSimulationAccumulator() {
+        return simulationAccumulator;
+    }
+
+    @Internal
+    public void setSimulationAccumulator(float simulationAccumulator) {
+        this.simulationAccumulator = simulationAccumulator;
+    }
+
+    /**
+     * Verwirft den Zustand des Solvers, den {@link ea.SceneSnapshot} nicht speichert: Die Broad-Phase und alle
+     * Kontakte werden in der Reihenfolge der Körper neu aufgebaut, und der nächste Simulationsschritt rechnet ohne die
+     * Impulse der vorherigen Schritte (Warmstart) von Kontakten und Joints. Danach hängt die weitere Simulation nur
+     * noch von der Lage und Bewegung der Körper ab, sodass ein zurückgespielter Snapshot genauso weiterrechnet wie
+     * nach dem Erstellen.
+     * <p>
+     * Berührungen bleiben erhalten, es werden dabei keine Kollisions-Ereignisse ausgelöst.
+     *
+     * @param touching Welche der neu aufgebauten Kontakte sich berühren, wie von einem früheren Aufruf geliefert,
+     *                 oder <code>null</code>, um die Berührungen der bisherigen Kontakte zu übernehmen.
+     *
+     * @return Welche der neu aufgebauten Kontakte sich berühren, als Bitmaske in der Reihenfolge der Kontakte.
+     */
+    @Internal
+    public int[] resetSolverState(int[] touching) {
+        assertNoWorldStep();
+
+        ContactManager contactManager = world.getContactManager();
+        Set<FixturePair> previous = new HashSet<>();
+
+        if (touching == null) {
+            for (Contact contact = contactManager.m_contactList; contact != null; contact = contact.m_next) {
+                if (contact.isTouching()) {
+                    previous.add(new FixturePair(contact.m_fixtureA, contact.m_fixtureB));
+                }
+            }
+        }
+
+        // Kontakte ohne Ereignisse entfernen, die Berührungen werden unten wiederhergestellt
+        ContactListener listener = contactManager.m_contactListener;
+        contactManager.m_contactListener = null;
+
+        while (contactManager.m_contactList != null) {
+            contactManager.destroy(contactManager.m_contactList);
+        }
+
+        contactManager.m_contactListener = listener;
+
+        BroadPhase broadPhase = new DefaultBroadPhaseBuffer(new DynamicTree());
+
+        for (Body body = world.getBodyList(); body != null; body = body.getNext()) {
+            if (body.isActive()) {
+                for (Fixture fixture = body.getFixtureList(); fixture != null; fixture = fixture.getNext()) {
+                    fixture.destroyProxies(contactManager.m_broadPhase);
+                    fixture.createProxies(broadPhase, body.getTransform());
+                }
+            }
+        }
+
+        contactManager.m_broadPhase = broadPhase;
+
+        contactManager.findNewContacts();
+
+        int[] result = new int[(contactManager.m_contactCount + 31) / 32];
+        int index = 0;
+
+        for (Contact contact = contactManager.m_contactList; contact != null; contact = contact.m_next, index++) {
+            boolean wasTouching = touching == null ? previous.contains(new FixturePair(contact.m_fixtureA, contact.m_fixtureB)) : index / 32 < touching.length && (touching[index / 32] & 1 << index % 32) != 0;
+
+            if (wasTouching) {
+                contact.m_flags |= Contact.TOUCHING_FLAG;
+                result[index / 32] |= 1 << index % 32;
+            }
+        }
+
+        discardWarmStart = true;
+
+        return result;
+    }
+
+    /**
+     * @return <code>true</code>, wenn sich ein wacher, nicht-statischer Körper bewegt. Schlafende und statische Körper
+     * kosten nur einen Vergleich, die Suche endet beim ersten bewegten Körper.
+     */
+    @Internal
+    public boolean hasMovingBodies() {
+        for (Body body = world.getBodyList(); body != null; body = body.getNext()) {
+            if (body.getType() != BodyType.STATIC && body.isAwake() && (body.m_linearVelocity.x != 0 || body.m_linearVelocity.y != 0 || body.m_angularVelocity != 0)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void stepWorld() {
+        if (discardWarmStart) {
+            discardWarmStart = false;
+
+            boolean warmStarting = world.isWarmStarting();
+            world.setWarmStarting(false);
+            world.step(STEP_TIME, 6, 3);
+            world.setWarmStarting(warmStarting);
+        } else {
+            world.step(STEP_TIME, 6, 3);
+        }
+    }
+
     public void step(float deltaSeconds) {
         if (worldPaused) {
             return;
@@ -127,15 +251,93 @@ public class WorldHandler implements ContactListener {
                 // https://gamedev.stackexchange.com/q/86609/38865
                 simulationAccumulator += deltaSeconds;
 
+                WorldStepEvent event = new WorldStepEvent();
+                event.begin();
+
+                int substeps = 0;
+                long longestSubstep = 0;
+                boolean timed = event.isEnabled();
+
                 while (simulationAccumulator >= STEP_TIME) {
                     simulationAccumulator -= STEP_TIME;
 
-                    this.world.step(STEP_TIME, 6, 3);
+                    long substepStart = timed ? System.nanoTime() : 0;
+                    stepWorld();
+                    substeps++;
+
+                    if (timed) {
+                        longestSubstep = Math.max(longestSubstep, System.nanoTime() - substepStart);
+                    }
+                }
+
+                event.end();
+                recordStep(event, substeps, longestSubstep);
+            }
+        }
+    }
+
+    /**
+     * Führt eine feste Anzahl an Simulationsschritten aus, unabhängig von der gemessenen Zeit und ohne den
+     * Zeitspeicher von {@link #step(float)} zu verändern. Damit bleibt die Simulation auf allen Rechnern
+     * bitgenau gleich.
+     *
+     * @param steps Anzahl Schritte der Länge {@link #STEP_TIME}.
+     */
+    @Internal
+    public void stepFixed(int steps) {
+        if (worldPaused) {
+            return;
+        }
+
+        synchronized (this) {
+            synchronized (this.world) {
+                WorldStepEvent event = new WorldStepEvent();
+                event.begin();
+
+                long longestSubstep = 0;
+                boolean timed = event.isEnabled();
+
+                for (int i = 0; i < steps; i++) {
+                    long substepStart = timed ? System.nanoTime() : 0;
+                    stepWorld();
+
+                    if (timed) {
+                        longestSubstep = Math.max(longestSubstep, System.nanoTime() - substepStart);
+                    }
                 }
+
+                event.end();
+                recordStep(event, steps, longestSubstep);
             }
         }
     }
 
+    private void recordStep(WorldStepEvent event, int substeps, long longestSubstep) {
+        int bodies = world.getBodyCount();
+        int contacts = world.getContactCount();
+
+        EngineStatistics.worldStepped(substeps, bodies, contacts);
+
+        if (event.shouldCommit()) {
+            event.substeps = substeps;
+            event.bodies = bodies;
+            event.contacts = contacts;
+            event.longestSubstep = longestSubstep;
+            event.commit();
+        }
+    }
+
+    /**
+     * Sucht neue Kontakte in der Broadphase, ohne die Simulation weiterzurechnen. Da JBox2D den Beginn eines
+     * Kontakts erst im nächsten {@link #step(float)} meldet, werden dabei keine Kollisions-Listener aufgerufen.
+     */
+    @Internal
+    public void findNewContacts() {
+        synchronized (this.world) {
+            this.world.getContactManager().findNewContacts();
+        }
+    }
+
     /**
      * Erstellt einen Body und mappt ihn intern zum analogen Actor-Objekt.
      *
@@ -246,8 +448,8 @@ public class WorldHandler implements ContactListener {
         /*
          * ~~~~~~~~~~~~~~~~~~~~~~~ TEIL II : Allgemeine Checkups ~~~~~~~~~~~~~~~~~~~~~~~
          */
-        generalCheckup(b1, b2, contact, isBegin);
-        generalCheckup(b2, b1, contact, isBegin);
+        generalCheckup(b1, contact.getFixtureB(), contact, isBegin);
+        generalCheckup(b2, contact.getFixtureA(), contact, isBegin);
 
         if (!isBegin) {
             //Contact ist beendet -> Set Enabled and remove from blacklist
@@ -272,10 +474,10 @@ public class WorldHandler implements ContactListener {
     }
 
     @Internal
-    private void generalCheckup(Body act, Body col, Contact contact, final boolean isBegin) {
+    private void generalCheckup(Body act, Fixture col, Contact contact, final boolean isBegin) {
         List<CollisionListener<Actor>> list = generalCollisonListeners.get(act);
         if (list != null) {
-            Actor other = (Actor)col.getUserData();
+            Actor other = getActor(col, contact);
             if (other == null) {
                 return; // Is null on async removals
             }
@@ -309,6 +511,66 @@ public class WorldHandler implements ContactListener {
         return layer;
     }
 
+    /**
+     * Liefert den Actor zu einer Fixture. Fixtures zusammengefasster Körper (siehe
+     * {@link Layer#setStaticGeometryBaked(boolean)}) verweisen selbst auf ihren Actor, alle anderen über ihren Body.
+     * Bei verschmolzenen Rechtecken ist das der Actor des ersten Rechtecks, siehe {@link #getActor(Fixture, Contact)}.
+     *
+     * @return Der Actor oder <code>null</code>, falls die Fixture zu keinem Actor gehört.
+     */
+    @Internal
+    public static Actor getActor(Fixture fixture) {
+        Object userData = fixture.getUserData();
+
+        if (userData instanceof Actor) {
+            return (Actor) userData;
+        }
+
+        if (userData instanceof MergedFixture) {
+            return ((MergedFixture) userData).getFirstActor();
+        }
+
+        return (Actor) fixture.getBody().getUserData();
+    }
+
+    /**
+     * Liefert den Actor zu einer Fixture an einem Kontakt. Bei verschmolzenen Rechtecken ist das der Actor, dessen
+     * Rechteck berührt wird.
+     *
+     * @param fixture Eine der beiden Fixtures des Kontakts.
+     * @param contact Der Kontakt.
+     *
+     * @return Der Actor oder <code>null</code>, falls die Fixture zu keinem Actor gehört.
+     */
+    @Internal
+    public static Actor getActor(Fixture fixture, Contact contact) {
+        Object userData = fixture.getUserData();
+
+        if (userData instanceof MergedFixture) {
+            return ((MergedFixture) userData).getActor(contact);
+        }
+
+        return getActor(fixture);
+    }
+
+    /**
+     * Sammelt alle Bodies, für die Kollisions-Listener angemeldet sind.
+     *
+     * @param target Wird um die Bodies ergänzt.
+     */
+    @Internal
+    public void collectListenedBodies(Set<Body> target) {
+        target.addAll(generalCollisonListeners.keySet());
+
+        for (Map.Entry<Body, List<Checkup>> entry : specificCollisionListeners.entrySet()) {
+            target.add(entry.getKey());
+
+            for (Checkup checkup : entry.getValue()) {
+                target.add(checkup.body);
+            }
+        }
+    }
+
     /* ____________ On-Request Collision Checkups ____________ */
 
     @Internal
@@ -484,5 +746,15 @@ public class WorldHandler implements ContactListener {
         public boolean matches(Fixture a, Fixture b) {
             return (f1 == a && f2 == b) || (f1 == b && f2 == a);
         }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof FixturePair && matches(((FixturePair) o).f1, ((FixturePair) o).f2);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(f1) ^ System.identityHashCode(f2);
+        }
     }
 }
@@ -29,6 +29,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * GIF Decoder <a href="http://www.java2s.com/Code/Java/2D-Graphics-GUI/DecodesaGIFfileintooneormoreframes.htm">
@@ -198,18 +199,17 @@ public final class GifDecoder {
                 // copy pixels
 
                 if (lastDispose == 2) {
-                    // fill last image rect area with background color
-                    Graphics2D g = image.createGraphics();
-                    Color c = null;
-                    if (transparency) {
-                        c = new Color(0, 0, 0, 0);  // assume background is transparent
-                    } else {
-                        c = new Color(lastBgColor); // use given background color
+                    // fill last image rect area with background color, directly in the pixel array
+                    int c = transparency ? 0 : (0xff000000 | lastBgColor); // transparent or opaque background
+                    int right = Math.min(lastRect.x + lastRect.width, width);
+                    int bottom = Math.min(lastRect.y + lastRect.height, height);
+                    for (int line = Math.max(lastRect.y, 0); line < bottom; line++) {
+                        int start = line * width + Math.max(lastRect.x, 0);
+                        int end = line * width + right;
+                        if (start < end) {
+                            Arrays.fill(dest, start, end, c);
+                        }
                     }
-                    g.setColor(c);
-                    g.setComposite(AlphaComposite.Src); // replace area
-                    g.fill(lastRect);
-                    g.dispose();
                 }
             }
         }
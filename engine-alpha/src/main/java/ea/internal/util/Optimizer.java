@@ -29,7 +29,15 @@ import java.awt.image.ColorModel;
  * @author Niklas Keller {@literal <me@kelunik.com>}
  */
 final public class Optimizer {
-    private static final GraphicsConfiguration graphicsConfig = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+    /**
+     * <code>null</code>, wenn es keinen Bildschirm gibt.
+     */
+    private static final GraphicsConfiguration graphicsConfig = GraphicsEnvironment.isHeadless() ? null : GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+
+    /**
+     * Typ der Images, die {@link #createCompatibleImage(int, int, int)} für durchscheinende Bilder erstellt.
+     */
+    private static final int translucentType = createCompatibleImage(1, 1, Transparency.TRANSLUCENT).getType();
 
     private Optimizer() {
         // keine Objekte erlaubt!
@@ -43,6 +51,10 @@ final public class Optimizer {
      * @return optimiertes Image
      */
     public static BufferedImage toCompatibleImage(BufferedImage img) {
+        if (graphicsConfig == null) {
+            return img;
+        }
+
         ColorModel a = img.getColorModel();
         ColorModel b = graphicsConfig.getColorModel(a.getTransparency());
 
@@ -58,4 +70,30 @@ final public class Optimizer {
 
         return compat;
     }
+
+    /**
+     * Erstellt ein leeres Image im Format des Bildschirms, damit Pixel direkt dort hineingeschrieben werden können
+     * statt über ein Zwischenbild.
+     *
+     * @param width        Breite in Pixeln
+     * @param height       Höhe in Pixeln
+     * @param transparency Eine der Konstanten aus {@link Transparency}
+     *
+     * @return leeres Image, ohne Bildschirm vom Typ {@link BufferedImage#TYPE_INT_ARGB}
+     */
+    public static BufferedImage createCompatibleImage(int width, int height, int transparency) {
+        if (graphicsConfig == null) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+
+        return graphicsConfig.createCompatibleImage(width, height, transparency);
+    }
+
+    /**
+     * @return Der {@link BufferedImage}-Typ durchscheinender Images im Format des Bildschirms, ggf.
+     * {@link BufferedImage#TYPE_CUSTOM}.
+     */
+    public static int getTranslucentImageType() {
+        return translucentType;
+    }
 }
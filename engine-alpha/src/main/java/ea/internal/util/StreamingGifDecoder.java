@@ -0,0 +1,605 @@
+/*
+ * Engine Alpha ist eine anfängerorientierte 2D-Gaming Engine.
+ *
+ * Copyright (c) 2011 - 2023 Michael Andonie and contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ea.internal.util;
+
+import ea.internal.annotations.Internal;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Dekodiert ein animiertes GIF <b>frameweise bei Bedarf</b>. Anders als der {@link GifDecoder} werden nicht alle
+ * Frames vorab in je ein eigenes Bild dekodiert: Beim Einlesen werden nur die Metadaten der Frames (Position, Größe,
+ * Farbtabelle, Disposal) und die Lage der komprimierten LZW-Daten im Buffer gemerkt. Die Pixel eines Frames entstehen
+ * erst beim Aufruf von {@link #decodeNext()} in einer einzigen, wiederverwendeten Leinwand.
+ * <p>
+ * Die Frames werden in Abspielreihenfolge dekodiert, da jeder Frame auf dem Ergebnis des vorherigen aufbaut. Nach dem
+ * letzten Frame beginnt der Decoder wieder beim ersten. Sollen ohnehin alle Frames dekodiert werden, entpackt
+ * {@link #decodeAll()} die Frames parallel. Instanzen sind <b>nicht</b> thread-sicher.
+ *
+ * @see GifDecoder
+ */
+@Internal
+public final class StreamingGifDecoder {
+    private static final int MAX_STACK_SIZE = 4096;
+
+    private static final int DISPOSE_RESTORE_BACKGROUND = 2;
+    private static final int DISPOSE_RESTORE_PREVIOUS = 3;
+
+    /**
+     * Metadaten eines einzelnen Frames. Die Pixeldaten bleiben komprimiert im Buffer.
+     */
+    private static final class FrameInfo {
+        private int x, y, width, height;
+        private boolean interlace;
+        private int[] colorTable;
+        private boolean transparency;
+        private int transparentIndex;
+        private int dispose;
+        private int delay;
+        private int background;
+        private int dataOffset;
+    }
+
+    /**
+     * Die komprimierten Daten der GIF-Datei, z.B. ein eingeblendeter Dateibereich.
+     */
+    private final ByteBuffer data;
+
+    /**
+     * Wird nach dem Einlesen nicht mehr verändert und von Kopien geteilt.
+     */
+    private final List<FrameInfo> frames;
+
+    private int width;
+    private int height;
+
+    /**
+     * Die aktuelle Leinwand als ARGB-Pixel. GIF-Pixel sind entweder voll deckend oder voll transparent, daher ist
+     * der Inhalt auch als vormultipliziertes ARGB gültig.
+     */
+    private final int[] canvas;
+
+    /**
+     * Zustand der Leinwand vor dem letzten Frame, benötigt für Disposal-Methode 3.
+     */
+    private int[] restoreCanvas;
+
+    // LZW-Arbeitsspeicher, einmal pro Decoder angelegt
+    private final LzwDecoder lzw = new LzwDecoder();
+    private byte[] pixels;
+
+    /**
+     * LZW-Arbeitsspeicher der Threads, die in {@link #decodeAll()} parallel dekodieren.
+     */
+    private static final ThreadLocal<LzwDecoder> parallelLzw = ThreadLocal.withInitial(LzwDecoder::new);
+
+    /**
+     * Index des Frames, der beim nächsten Aufruf von {@link #decodeNext()} dekodiert wird.
+     */
+    private int nextFrame = 0;
+
+    /**
+     * Position im Buffer während des Einlesens der Struktur.
+     */
+    private int position;
+
+    /**
+     * Liest die Struktur eines GIFs ein. Es wird noch kein Frame dekodiert.
+     *
+     * @param data Die Bytes der GIF-Datei ab der aktuellen Position. Der Buffer wird nicht verändert.
+     *
+     * @throws IllegalArgumentException Wenn die Daten kein gültiges GIF beschreiben.
+     */
+    public StreamingGifDecoder(ByteBuffer data) {
+        this.data = data.slice();
+        this.frames = new ArrayList<>();
+
+        readStructure();
+
+        if (frames.isEmpty()) {
+            throw new IllegalArgumentException("Das GIF enthält keine Frames.");
+        }
+
+        this.canvas = new int[width * height];
+    }
+
+    private StreamingGifDecoder(StreamingGifDecoder original) {
+        this.data = original.data;
+        this.frames = original.frames;
+        this.width = original.width;
+        this.height = original.height;
+        this.canvas = new int[width * height];
+    }
+
+    /**
+     * Erstellt einen weiteren Decoder über denselben komprimierten Daten. Die eingelesene Struktur wird geteilt, die
+     * Leinwand und die Abspielposition hat jeder Decoder für sich. Die Kopie beginnt beim ersten Frame.
+     *
+     * @return Der neue Decoder.
+     */
+    public StreamingGifDecoder copy() {
+        return new StreamingGifDecoder(this);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getFrameCount() {
+        return frames.size();
+    }
+
+    /**
+     * @param index Index des Frames.
+     *
+     * @return Die Anzeigedauer des Frames in Millisekunden.
+     */
+    public int getDelay(int index) {
+        return frames.get(index).delay;
+    }
+
+    /**
+     * @return Der Index des Frames, den {@link #decodeNext()} als nächstes liefert.
+     */
+    public int getNextFrameIndex() {
+        return nextFrame;
+    }
+
+    /**
+     * Setzt den Decoder auf den ersten Frame zurück.
+     */
+    public void reset() {
+        nextFrame = 0;
+    }
+
+    /**
+     * Dekodiert den nächsten Frame in die interne Leinwand.
+     *
+     * @return Die Leinwand mit dem vollständig zusammengesetzten Frame (<code>width * height</code> ARGB-Pixel). Das
+     * Array wird beim nächsten Aufruf überschrieben und darf nicht verändert werden.
+     */
+    public int[] decodeNext() {
+        pixels = lzw.decode(data, frames.get(nextFrame), pixels);
+
+        return composeNext(pixels);
+    }
+
+    /**
+     * Dekodiert alle Frames auf einmal. Die LZW-Daten der Frames sind voneinander unabhängig und werden parallel auf
+     * allen Prozessorkernen entpackt; nur das Zusammensetzen der Frames auf der Leinwand erfolgt danach der Reihe
+     * nach, da jeder Frame auf seinem Vorgänger aufbaut. Anschließend steht der Decoder wieder am ersten Frame.
+     *
+     * @return Je Frame ein eigenes Bild (<code>TYPE_INT_ARGB_PRE</code>), in das die Pixel direkt geschrieben wurden.
+     */
+    public BufferedImage[] decodeAll() {
+        int frameCount = frames.size();
+        byte[][] indices = new byte[frameCount][];
+
+        IntStream.range(0, frameCount).parallel().forEach(i -> indices[i] = parallelLzw.get().decode(data, frames.get(i), null));
+
+        BufferedImage[] images = new BufferedImage[frameCount];
+
+        nextFrame = 0;
+
+        for (int i = 0; i < frameCount; i++) {
+            images[i] = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+
+            int[] target = ((DataBufferInt) images[i].getRaster().getDataBuffer()).getData();
+            System.arraycopy(composeNext(indices[i]), 0, target, 0, canvas.length);
+
+            indices[i] = null; // Sofort freigeben, die Indizes werden nicht mehr benötigt
+        }
+
+        return images;
+    }
+
+    /**
+     * Setzt den nächsten Frame aus seinen bereits dekodierten Farbindizes auf der Leinwand zusammen.
+     */
+    private int[] composeNext(byte[] indices) {
+        if (nextFrame == 0) {
+            Arrays.fill(canvas, 0);
+        } else {
+            dispose(frames.get(nextFrame - 1));
+        }
+
+        FrameInfo frame = frames.get(nextFrame);
+
+        if (frame.dispose == DISPOSE_RESTORE_PREVIOUS) {
+            if (restoreCanvas == null) {
+                restoreCanvas = new int[canvas.length];
+            }
+
+            System.arraycopy(canvas, 0, restoreCanvas, 0, canvas.length);
+        }
+
+        drawPixels(frame, indices);
+
+        nextFrame = (nextFrame + 1) % frames.size();
+
+        return canvas;
+    }
+
+    /**
+     * Wendet die Disposal-Methode eines bereits gezeichneten Frames auf die Leinwand an.
+     */
+    private void dispose(FrameInfo previous) {
+        if (previous.dispose == DISPOSE_RESTORE_BACKGROUND) {
+            int color = previous.background;
+
+            for (int line = previous.y; line < Math.min(previous.y + previous.height, height); line++) {
+                int start = line * width + previous.x;
+                int end = line * width + Math.min(previous.x + previous.width, width);
+
+                if (start < end) {
+                    Arrays.fill(canvas, start, end, color);
+                }
+            }
+        } else if (previous.dispose == DISPOSE_RESTORE_PREVIOUS && restoreCanvas != null) {
+            System.arraycopy(restoreCanvas, 0, canvas, 0, canvas.length);
+        }
+    }
+
+    /**
+     * Überträgt die dekodierten Farbindizes direkt in die Leinwand.
+     */
+    private void drawPixels(FrameInfo frame, byte[] pixels) {
+        int[] colors = frame.colorTable;
+        int transparent = frame.transparency ? frame.transparentIndex : -1;
+
+        int pass = 1;
+        int increment = 8;
+        int interlaceLine = 0;
+
+        for (int i = 0; i < frame.height; i++) {
+            int line = i;
+
+            if (frame.interlace) {
+                if (interlaceLine >= frame.height) {
+                    pass++;
+
+                    switch (pass) {
+                        case 2:
+                            interlaceLine = 4;
+                            break;
+                        case 3:
+                            interlaceLine = 2;
+                            increment = 4;
+                            break;
+                        case 4:
+                            interlaceLine = 1;
+                            increment = 2;
+                            break;
+                    }
+                }
+
+                line = interlaceLine;
+                interlaceLine += increment;
+            }
+
+            line += frame.y;
+
+            if (line >= height) {
+                continue;
+            }
+
+            int rowStart = line * width;
+            int dx = rowStart + frame.x;
+            int dlim = Math.min(dx + frame.width, rowStart + width);
+            int sx = i * frame.width;
+
+            while (dx < dlim) {
+                int index = pixels[sx++] & 0xff;
+
+                if (index != transparent) {
+                    int color = colors[index];
+
+                    if (color != 0) {
+                        canvas[dx] = color;
+                    }
+                }
+
+                dx++;
+            }
+        }
+    }
+
+    /* ____________ Einlesen der Struktur ____________ */
+
+    private void readStructure() {
+        position = 0;
+
+        if (data.limit() < 13 || readByte() != 'G' || readByte() != 'I' || readByte() != 'F') {
+            throw new IllegalArgumentException("Die Daten beschreiben kein GIF.");
+        }
+
+        position += 3; // Version
+
+        width = readShort();
+        height = readShort();
+
+        int packed = readByte();
+        boolean globalTableFlag = (packed & 0x80) != 0;
+        int globalTableSize = 2 << (packed & 7);
+        int backgroundIndex = readByte();
+        position++; // Pixel aspect ratio
+
+        int[] globalTable = globalTableFlag ? readColorTable(globalTableSize) : null;
+
+        int dispose = 0;
+        boolean transparency = false;
+        int transparentIndex = 0;
+        int delay = 0;
+
+        while (position < data.limit()) {
+            int code = readByte();
+
+            switch (code) {
+                case 0x2C: // Image separator
+                    FrameInfo frame = new FrameInfo();
+                    frame.x = readShort();
+                    frame.y = readShort();
+                    frame.width = readShort();
+                    frame.height = readShort();
+
+                    int imagePacked = readByte();
+                    frame.interlace = (imagePacked & 0x40) != 0;
+                    frame.colorTable = (imagePacked & 0x80) != 0 ? readColorTable(2 << (imagePacked & 7)) : globalTable;
+
+                    if (frame.colorTable == null) {
+                        throw new IllegalArgumentException("Das GIF definiert keine Farbtabelle.");
+                    }
+
+                    frame.transparency = transparency;
+                    frame.transparentIndex = transparentIndex;
+                    frame.dispose = dispose == 0 ? 1 : dispose;
+                    frame.delay = delay;
+                    frame.background = transparency || globalTable == null ? 0 : globalTable[backgroundIndex];
+                    frame.dataOffset = position;
+
+                    position++; // LZW minimum code size
+                    skipBlocks();
+
+                    frames.add(frame);
+
+                    dispose = 0;
+                    transparency = false;
+                    delay = 0;
+                    break;
+
+                case 0x21: // Extension
+                    int label = readByte();
+
+                    if (label == 0xF9) {
+                        position++; // Block size
+                        int gcePacked = readByte();
+                        dispose = (gcePacked & 0x1C) >> 2;
+                        transparency = (gcePacked & 1) != 0;
+                        delay = readShort() * 10;
+                        transparentIndex = readByte();
+                        position++; // Block terminator
+                    } else {
+                        skipBlocks();
+                    }
+                    break;
+
+                case 0x3B: // Trailer
+                    return;
+
+                case 0x00: // Ungültiges Byte, wird wie beim GifDecoder toleriert
+                    break;
+
+                default:
+                    if (frames.isEmpty()) {
+                        throw new IllegalArgumentException("Fehlerhafte GIF-Struktur.");
+                    }
+
+                    Logger.warning("GIF-Daten enden mit unbekanntem Block, restliche Daten werden ignoriert.", "IO");
+                    return;
+            }
+        }
+    }
+
+    private int[] readColorTable(int colorCount) {
+        int[] table = new int[256]; // Maximalgröße, um Bereichsprüfungen zu vermeiden
+
+        for (int i = 0; i < colorCount; i++) {
+            int r = readByte();
+            int g = readByte();
+            int b = readByte();
+            table[i] = 0xff000000 | (r << 16) | (g << 8) | b;
+        }
+
+        return table;
+    }
+
+    private void skipBlocks() {
+        int blockSize;
+
+        do {
+            blockSize = readByte();
+            position += blockSize;
+        } while (blockSize > 0 && position < data.limit());
+    }
+
+    private int readByte() {
+        if (position >= data.limit()) {
+            position++;
+            return 0;
+        }
+
+        return data.get(position++) & 0xff;
+    }
+
+    private int readShort() {
+        return readByte() | (readByte() << 8);
+    }
+
+    /**
+     * Arbeitsspeicher für das Dekodieren der LZW-Daten. Wird pro Decoder bzw. pro Thread einmal angelegt und für
+     * alle Frames wiederverwendet.
+     */
+    private static final class LzwDecoder {
+        private final short[] prefix = new short[MAX_STACK_SIZE];
+        private final byte[] suffix = new byte[MAX_STACK_SIZE];
+        private final byte[] pixelStack = new byte[MAX_STACK_SIZE + 1];
+
+        private ByteBuffer data;
+        private int position;
+
+        /**
+         * Dekodiert die LZW-Daten eines Frames in ein Array von Farbindizes. Adaptiert aus dem {@link GifDecoder},
+         * liest jedoch mit absoluten Zugriffen direkt aus dem Buffer statt aus einem Stream. Der Buffer wird dabei
+         * nicht verändert, mehrere Threads können also gleichzeitig aus demselben Buffer dekodieren.
+         *
+         * @param data   Die GIF-Daten.
+         * @param frame  Der zu dekodierende Frame.
+         * @param pixels Ziel-Array. Ist es <code>null</code> oder zu klein, wird ein neues angelegt.
+         *
+         * @return Das Array mit den Farbindizes, zeilenweise in der Reihenfolge der Datei.
+         */
+        private byte[] decode(ByteBuffer data, FrameInfo frame, byte[] pixels) {
+            int npix = frame.width * frame.height;
+
+            if (pixels == null || pixels.length < npix) {
+                pixels = new byte[npix];
+            }
+
+            this.data = data;
+            this.position = frame.dataOffset;
+
+            int dataSize = readByte();
+            int clear = 1 << dataSize;
+            int endOfInformation = clear + 1;
+            int available = clear + 2;
+            int oldCode = -1;
+            int codeSize = dataSize + 1;
+            int codeMask = (1 << codeSize) - 1;
+
+            for (int code = 0; code < clear; code++) {
+                prefix[code] = 0;
+                suffix[code] = (byte) code;
+            }
+
+            int datum = 0, bits = 0, count = 0, first = 0, top = 0, pi = 0;
+
+            for (int i = 0; i < npix; ) {
+                if (top == 0) {
+                    if (bits < codeSize) {
+                        if (count == 0) {
+                            count = readByte();
+
+                            if (count <= 0) {
+                                break;
+                            }
+                        }
+
+                        datum += readByte() << bits;
+                        bits += 8;
+                        count--;
+                        continue;
+                    }
+
+                    int code = datum & codeMask;
+                    datum >>= codeSize;
+                    bits -= codeSize;
+
+                    if (code > available || code == endOfInformation) {
+                        break;
+                    }
+
+                    if (code == clear) {
+                        codeSize = dataSize + 1;
+                        codeMask = (1 << codeSize) - 1;
+                        available = clear + 2;
+                        oldCode = -1;
+                        continue;
+                    }
+
+                    if (oldCode == -1) {
+                        pixelStack[top++] = suffix[code];
+                        oldCode = code;
+                        first = code;
+                        continue;
+                    }
+
+                    int inCode = code;
+
+                    if (code == available) {
+                        pixelStack[top++] = (byte) first;
+                        code = oldCode;
+                    }
+
+                    while (code > clear) {
+                        pixelStack[top++] = suffix[code];
+                        code = prefix[code];
+                    }
+
+                    first = suffix[code] & 0xff;
+
+                    if (available >= MAX_STACK_SIZE) {
+                        break;
+                    }
+
+                    pixelStack[top++] = (byte) first;
+                    prefix[available] = (short) oldCode;
+                    suffix[available] = (byte) first;
+                    available++;
+
+                    if ((available & codeMask) == 0 && available < MAX_STACK_SIZE) {
+                        codeSize++;
+                        codeMask += available;
+                    }
+
+                    oldCode = inCode;
+                }
+
+                top--;
+                pixels[pi++] = pixelStack[top];
+                i++;
+            }
+
+            Arrays.fill(pixels, pi, npix, (byte) 0);
+
+            this.data = null;
+
+            return pixels;
+        }
+
+        private int readByte() {
+            if (position >= data.limit()) {
+                position++;
+                return 0;
+            }
+
+            return data.get(position++) & 0xff;
+        }
+    }
+}
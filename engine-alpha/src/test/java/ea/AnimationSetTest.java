@@ -0,0 +1,105 @@
+package ea;
+
+import ea.actor.Animation;
+import ea.actor.AnimationSet;
+import ea.actor.StatefulAnimation;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AnimationSetTest {
+    private static Animation animation(int frames, float frameDuration) {
+        BufferedImage[] images = new BufferedImage[frames];
+
+        for (int i = 0; i < frames; i++) {
+            images[i] = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        }
+
+        return Animation.createFromBufferedImages(frameDuration, 1, 1, images);
+    }
+
+    private static void step(Scene scene, float deltaSeconds) {
+        scene.invokeFrameUpdateListeners(deltaSeconds);
+    }
+
+    @Test
+    public void setsAreImmutableAndShared () {
+        AnimationSet<String> empty = AnimationSet.empty();
+        AnimationSet<String> walk = empty.withState("walk", animation(2, 0.1f));
+        AnimationSet<String> set = walk.withState("die", animation(3, 0.1f)).withStateTransition("die", "walk");
+
+        assertFalse(empty.hasState("walk"));
+        assertEquals(List.of("walk"), walk.getStates());
+        assertEquals(List.of("walk", "die"), set.getStates());
+
+        StatefulAnimation<String> a = new StatefulAnimation<>(1, 1, set);
+        StatefulAnimation<String> b = new StatefulAnimation<>(1, 1, set);
+
+        assertEquals("walk", a.getCurrentState());
+        assertSame(set, b.getAnimationSet());
+
+        // Änderungen einer Instanz betreffen die geteilte Beschreibung nicht
+        a.setFrameDuration("walk", 1);
+        assertSame(set, b.getAnimationSet());
+    }
+
+    @Test
+    public void systemAdvancesMountedAnimations () {
+        AnimationSet<String> set = AnimationSet.<String>empty()
+                .withState("walk", animation(2, 0.1f))
+                .withState("die", animation(3, 0.1f))
+                .withStateTransition("die", "walk");
+
+        Scene scene = new Scene();
+        StatefulAnimation<String> a = new StatefulAnimation<>(1, 1, set);
+        StatefulAnimation<String> b = new StatefulAnimation<>(1, 1, set);
+
+        scene.add(a, b);
+        step(scene, 0); // Anmeldung erfolgt verzögert
+
+        assertEquals(2, scene.getMainLayer().getAnimations().size());
+
+        a.setState("die");
+        step(scene, 0.35f);
+
+        assertEquals("walk", a.getCurrentState());
+        assertEquals("walk", b.getCurrentState());
+
+        scene.remove(b);
+        step(scene, 0);
+
+        assertEquals(1, scene.getMainLayer().getAnimations().size());
+
+        a.setState("die");
+        a.setAnimationPaused(true);
+        step(scene, 1);
+        assertEquals("die", a.getCurrentState());
+    }
+
+    @Test
+    public void legacyApiStillWorks () {
+        StatefulAnimation<String> animation = new StatefulAnimation<>(1, 1);
+        assertEquals(null, animation.getCurrentState());
+
+        animation.addState("idle", animation(1, 0.1f));
+        animation.addState("jump", animation(1, 0.1f));
+        animation.setStateTransition("jump", "idle");
+
+        assertTrue(animation.hasState("jump"));
+        assertEquals("idle", animation.getCurrentState());
+
+        Scene scene = new Scene();
+        scene.add(animation);
+        step(scene, 0);
+
+        animation.changeState("jump");
+        step(scene, 0.15f);
+        assertEquals("idle", animation.getCurrentState());
+    }
+}
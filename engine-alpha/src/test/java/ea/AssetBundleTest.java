@@ -0,0 +1,58 @@
+package ea;
+
+import ea.internal.io.AssetBundle;
+import ea.internal.io.AssetBundleWriter;
+import ea.internal.io.ResourceLoader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AssetBundleTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTrip () throws Exception {
+        Path source = folder.newFolder("assets").toPath();
+        Files.createDirectories(source.resolve("gif"));
+
+        byte[] gif = ResourceLoader.load("gif/coin.gif");
+        Files.write(source.resolve("gif/coin.gif"), gif);
+
+        BufferedImage image = new BufferedImage(3, 2, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, 0xffff0000);
+        image.setRGB(2, 1, 0x8000ff00);
+        ImageIO.write(image, "png", source.resolve("sprite.png").toFile());
+
+        File target = folder.newFile("assets.eab");
+        assertEquals(2, AssetBundleWriter.write(source, target.toPath()));
+
+        AssetBundle bundle = AssetBundle.open(target.toPath());
+
+        assertTrue(bundle.contains("gif/coin.gif"));
+        assertTrue(bundle.contains("./sprite.png"));
+
+        ByteBuffer data = bundle.getData("gif\\coin.gif");
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        assertArrayEquals(gif, bytes);
+
+        BufferedImage decoded = bundle.getImage("sprite.png");
+        assertArrayEquals(image.getRGB(0, 0, 3, 2, null, 0, 3), decoded.getRGB(0, 0, 3, 2, null, 0, 3));
+
+        assertNull(bundle.getImage("gif/coin.gif"));
+        assertNull(bundle.getData("missing.png"));
+    }
+}
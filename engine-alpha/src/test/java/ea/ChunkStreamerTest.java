@@ -0,0 +1,118 @@
+package ea;
+
+import ea.actor.Actor;
+import ea.actor.Rectangle;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChunkStreamerTest {
+    private static final float CHUNK_SIZE = 10;
+
+    private static List<Actor> createChunk(int chunkX, int chunkY) {
+        List<Actor> actors = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            Rectangle rectangle = new Rectangle(1, 1);
+            rectangle.setPosition(chunkX * CHUNK_SIZE + 3 * i, chunkY * CHUNK_SIZE);
+            actors.add(rectangle);
+        }
+
+        return actors;
+    }
+
+    private static void runUntilLoaded(Scene scene, ChunkStreamer streamer) throws InterruptedException {
+        for (int i = 0; i < 500 && (streamer.getPendingChunkCount() > 0 || i < 2); i++) {
+            scene.invokeFrameUpdateListeners(0);
+            Thread.sleep(2);
+        }
+
+        // Angemeldet wird erst im nächsten Frame
+        scene.invokeFrameUpdateListeners(0);
+    }
+
+    @Test
+    public void loadsAndUnloadsAroundCamera () throws InterruptedException {
+        AtomicInteger loads = new AtomicInteger();
+
+        Scene scene = new Scene();
+        Layer layer = scene.getMainLayer();
+
+        ChunkStreamer streamer = new ChunkStreamer(layer, CHUNK_SIZE, (chunkX, chunkY) -> {
+            loads.incrementAndGet();
+            return createChunk(chunkX, chunkY);
+        });
+        streamer.setRadius(1, 1);
+        streamer.setMountBudget(4);
+        streamer.start();
+
+        runUntilLoaded(scene, streamer);
+
+        assertEquals(9, streamer.getLoadedChunkCount());
+        assertEquals(27, streamer.getMountedActorCount());
+        assertEquals(27, layer.getActors().size());
+        assertTrue(streamer.isChunkLoaded(-1, -1));
+        assertFalse(streamer.isChunkLoaded(2, 0));
+
+        // Eine Chunk-Breite nach rechts: linke Spalte fällt weg, rechte kommt dazu
+        scene.getCamera().setPosition(new Vector(15, 5));
+        runUntilLoaded(scene, streamer);
+
+        assertEquals(12, loads.get());
+        assertEquals(9, streamer.getLoadedChunkCount());
+        assertEquals(27, layer.getActors().size());
+        assertFalse(streamer.isChunkLoaded(-1, 0));
+        assertTrue(streamer.isChunkLoaded(2, 0));
+
+        for (Actor actor : layer.getActors()) {
+            assertTrue(actor.getPosition().getX() >= 0);
+        }
+
+        streamer.stop();
+        scene.invokeFrameUpdateListeners(0);
+
+        assertEquals(0, streamer.getMountedActorCount());
+        assertEquals(0, layer.getActors().size());
+    }
+
+    @Test
+    public void mountsInBatches () throws InterruptedException {
+        Scene scene = new Scene();
+        Layer layer = scene.getMainLayer();
+
+        ChunkStreamer streamer = new ChunkStreamer(layer, CHUNK_SIZE, (chunkX, chunkY) -> {
+            List<Actor> actors = new ArrayList<>();
+
+            for (int i = 0; i < 10; i++) {
+                actors.add(new Rectangle(1, 1));
+            }
+
+            return actors;
+        });
+        streamer.setRadius(0, 0);
+        streamer.setMountBudget(4);
+        streamer.start();
+
+        for (int i = 0; i < 500 && streamer.getMountedActorCount() == 0; i++) {
+            scene.invokeFrameUpdateListeners(0);
+            Thread.sleep(2);
+        }
+
+        assertEquals(4, streamer.getMountedActorCount());
+
+        scene.invokeFrameUpdateListeners(0);
+        assertEquals(8, streamer.getMountedActorCount());
+
+        scene.invokeFrameUpdateListeners(0);
+        assertEquals(10, streamer.getMountedActorCount());
+        assertEquals(1, streamer.getLoadedChunkCount());
+
+        streamer.stop();
+    }
+}
@@ -0,0 +1,78 @@
+package ea;
+
+import ea.actor.DrawingCanvas;
+import org.jbox2d.collision.AABB;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DrawingCanvasTest {
+    @Test
+    public void linesAcrossTilesAreRendered () {
+        DrawingCanvas canvas = new DrawingCanvas(10);
+
+        // Kreuzt die Kachelgrenzen bei x = 0 und y = 0
+        canvas.drawLine(new Vector(-5, 0), new Vector(5, 0), Color.RED, 1);
+
+        BufferedImage image = new BufferedImage(200, 200, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.translate(100, 100);
+        canvas.render(g, 10);
+        g.dispose();
+
+        assertEquals(0xffff0000, image.getRGB(60, 100));
+        assertEquals(0xffff0000, image.getRGB(100, 100));
+        assertEquals(0xffff0000, image.getRGB(140, 100));
+        assertEquals(0, image.getRGB(100, 120));
+        assertEquals(0, image.getRGB(160, 100));
+
+        canvas.clear();
+
+        image = new BufferedImage(200, 200, BufferedImage.TYPE_INT_ARGB);
+        g = image.createGraphics();
+        g.translate(100, 100);
+        canvas.render(g, 10);
+        g.dispose();
+
+        assertEquals(0, image.getRGB(100, 100));
+    }
+
+    @Test
+    public void renderBoundsCoverDrawings () {
+        Scene scene = new Scene();
+        DrawingCanvas canvas = new DrawingCanvas(10);
+        canvas.setPosition(2, 1);
+        scene.add(canvas);
+        scene.invokeFrameUpdateListeners(0);
+
+        AABB bounds = new AABB();
+
+        assertTrue(canvas.computeRenderBounds(bounds));
+        assertEquals(2, bounds.lowerBound.x, 0.001f);
+        assertEquals(1, bounds.upperBound.y, 0.001f);
+
+        // Weit außerhalb der winzigen Physik-Form der Zeichenfläche
+        canvas.drawLine(new Vector(-5, 3), new Vector(5, 3), Color.RED, 1);
+
+        assertTrue(canvas.computeRenderBounds(bounds));
+        assertTrue(bounds.lowerBound.x <= -3.5f && bounds.upperBound.x >= 7.5f);
+        assertTrue(bounds.lowerBound.y <= 3.5f && bounds.upperBound.y >= 4.5f);
+
+        // Um 90° gedreht verläuft die Linie senkrecht links von der Zeichenfläche
+        canvas.setRotation(90);
+
+        assertTrue(canvas.computeRenderBounds(bounds));
+        assertTrue(bounds.lowerBound.x <= -1.5f && bounds.upperBound.x >= -0.5f);
+        assertTrue(bounds.lowerBound.y <= -4.5f && bounds.upperBound.y >= 6.5f);
+
+        canvas.clear();
+
+        assertTrue(canvas.computeRenderBounds(bounds));
+        assertEquals(bounds.lowerBound.x, bounds.upperBound.x, 0.001f);
+    }
+}
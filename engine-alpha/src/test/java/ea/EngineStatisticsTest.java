@@ -0,0 +1,63 @@
+package ea;
+
+import ea.actor.Rectangle;
+import ea.internal.monitoring.EngineStatistics;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EngineStatisticsTest {
+    @Test
+    public void exposesSubstepsOverJmx () throws Exception {
+        EngineStatistics.register();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(EngineStatistics.OBJECT_NAME);
+        assertTrue(server.isRegistered(name));
+
+        long before = (Long) server.getAttribute(name, "WorldSubsteps");
+
+        Scene scene = new Scene();
+        scene.stepFixed(3);
+
+        assertEquals(before + 3, (long) (Long) server.getAttribute(name, "WorldSubsteps"));
+    }
+
+    @Test
+    public void recordsWorldStepEvents () throws Exception {
+        Scene scene = new Scene();
+        scene.add(new Rectangle(1, 1), new Rectangle(1, 1));
+        scene.invokeFrameUpdateListeners(0);
+
+        Path file = Files.createTempFile("ea-", ".jfr");
+
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable("ea.WorldStep");
+                recording.start();
+                scene.stepFixed(4);
+                recording.stop();
+                recording.dump(file);
+            }
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            RecordedEvent step = events.stream().filter(e -> e.getEventType().getName().equals("ea.WorldStep")).findFirst().orElseThrow(AssertionError::new);
+
+            assertEquals(4, step.getInt("substeps"));
+            assertEquals(2, step.getInt("bodies"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
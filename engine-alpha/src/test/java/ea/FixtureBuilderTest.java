@@ -0,0 +1,74 @@
+package ea;
+
+import ea.internal.FixtureBuilder;
+import ea.internal.FixtureTemplate;
+import ea.internal.physics.FixtureData;
+import org.jbox2d.collision.shapes.CircleShape;
+import org.jbox2d.collision.shapes.PolygonShape;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class FixtureBuilderTest {
+    @Test
+    public void parsesAllShapeTypes () {
+        List<FixtureData> fixtures = FixtureBuilder.fromString("R0,0,4,5 & P0,0, 2,0,1,2&C1.5,-1,0.5").get();
+
+        assertEquals(3, fixtures.size());
+
+        PolygonShape rectangle = (PolygonShape) fixtures.get(0).getShape();
+        assertEquals(4, rectangle.m_count);
+        assertEquals(2, rectangle.m_centroid.x, 0.0001f);
+        assertEquals(2.5f, rectangle.m_centroid.y, 0.0001f);
+
+        assertEquals(3, ((PolygonShape) fixtures.get(1).getShape()).m_count);
+
+        CircleShape circle = (CircleShape) fixtures.get(2).getShape();
+        assertEquals(1.5f, circle.m_p.x, 0);
+        assertEquals(-1, circle.m_p.y, 0);
+        assertEquals(0.5f, circle.m_radius, 0);
+    }
+
+    @Test
+    public void compiledTemplatesAreSharedButFixtureDataIsNot () {
+        FixtureTemplate first = FixtureBuilder.compile("C0,0,1&R0,0,1,1");
+        FixtureTemplate second = FixtureBuilder.compile("C0,0,1&R0,0,1,1");
+
+        assertSame(first, second);
+        assertEquals(2, first.getShapeCount());
+
+        FixtureData a = first.get().get(0);
+        FixtureData b = first.get().get(0);
+
+        assertNotSame(a, b);
+        assertSame(a.getShape(), b.getShape());
+
+        a.setDensity(42);
+        assertNotEquals(42, b.getDensity(), 0);
+    }
+
+    @Test
+    public void simpleRectanglesShareShapes () {
+        FixtureData a = FixtureBuilder.createSimpleRectangularFixture(2, 3);
+        FixtureData b = FixtureBuilder.createSimpleRectangularFixture(2, 3);
+
+        assertNotSame(a, b);
+        assertSame(a.getShape(), b.getShape());
+        assertNotSame(a.getShape(), FixtureBuilder.createSimpleRectangularFixture(3, 2).getShape());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsWrongNumberOfValues () {
+        FixtureBuilder.compile("R0,0,1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidNumbers () {
+        FixtureBuilder.compile("C0,x,1");
+    }
+}
@@ -0,0 +1,139 @@
+package ea;
+
+import ea.internal.io.FrameRecorder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+
+public class FrameRecorderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void capture(FrameRecorder recorder, int frames) {
+        for (int i = 0; i < frames; i++) {
+            Color color = new Color(i * 40, 0, 0);
+
+            recorder.capture((g, width, height) -> {
+                g.setColor(color);
+                g.fillRect(0, 0, width, height);
+                g.dispose();
+            });
+        }
+    }
+
+    @Test
+    public void writesPngSequence () throws Exception {
+        Path directory = folder.getRoot().toPath().resolve("frames");
+
+        FrameRecorder recorder = new FrameRecorder(directory, FrameRecorder.Format.PNG_SEQUENCE, 8, 6, 60, 8, 2);
+        capture(recorder, 3);
+        recorder.close();
+
+        assertEquals(3, recorder.getFrameCount());
+        assertEquals(3, recorder.getWrittenFrames() + recorder.getDroppedFrames());
+
+        for (int i = 0; i < recorder.getWrittenFrames(); i++) {
+            BufferedImage image = ImageIO.read(directory.resolve(String.format("frame-%06d.png", i)).toFile());
+
+            assertEquals(8, image.getWidth());
+            assertEquals(i * 40, new Color(image.getRGB(3, 3)).getRed());
+        }
+    }
+
+    @Test
+    public void writesAviWithPatchedHeader () throws Exception {
+        Path file = folder.getRoot().toPath().resolve("video.avi");
+
+        FrameRecorder recorder = new FrameRecorder(file, FrameRecorder.Format.MJPEG_AVI, 16, 16, 30, 1, 1);
+        capture(recorder, 5);
+        recorder.close();
+
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+
+        assertEquals(0x46464952, data.getInt(0)); // "RIFF"
+        assertEquals(data.limit() - 8, data.getInt(4));
+        assertEquals(5, data.getInt(48)); // Frames im avih-Header
+        assertEquals(5, data.getInt(140)); // Länge im strh-Header
+
+        // Index am Ende: ein Eintrag je Frame, auch für verworfene
+        int indexPosition = data.limit() - 8 - 16 * 5;
+        assertEquals(0x31786469, data.getInt(indexPosition)); // "idx1"
+        assertEquals(4, data.getInt(indexPosition + 16));
+        assertEquals(recorder.getWrittenFrames() + recorder.getDroppedFrames(), 5);
+    }
+
+    @Test
+    public void aviChunkSizesAddUp () throws Exception {
+        Path file = folder.getRoot().toPath().resolve("sizes.avi");
+
+        FrameRecorder recorder = new FrameRecorder(file, FrameRecorder.Format.MJPEG_AVI, 15, 9, 30, 1, 1);
+        capture(recorder, 4);
+        recorder.close();
+
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+
+        // Oberste Ebene: hdrl-Liste, movi-Liste und Index müssen lückenlos bis zum Dateiende reichen
+        int position = 12;
+        int moviStart = -1;
+        int moviEnd = -1;
+
+        while (position < data.limit()) {
+            int size = data.getInt(position + 4);
+
+            if (data.getInt(position) == 0x5453494c && data.getInt(position + 8) == 0x69766f6d) { // "LIST", "movi"
+                moviStart = position + 12;
+                moviEnd = position + 8 + size;
+            }
+
+            position += 8 + size + (size & 1);
+        }
+
+        assertEquals(data.limit(), position);
+        assertEquals(data.getInt(4), data.limit() - 8);
+
+        // Innerhalb der movi-Liste: genau ein Chunk je Frame
+        int chunks = 0;
+
+        for (position = moviStart; position < moviEnd; chunks++) {
+            assertEquals(0x63643030, data.getInt(position)); // "00dc"
+
+            int size = data.getInt(position + 4);
+            position += 8 + size + (size & 1);
+        }
+
+        assertEquals(moviEnd, position);
+        assertEquals(4, chunks);
+    }
+
+    @Test
+    public void presentsRecordedFrame () throws Exception {
+        Path directory = folder.getRoot().toPath().resolve("presented");
+
+        FrameRecorder recorder = new FrameRecorder(directory, FrameRecorder.Format.PNG_SEQUENCE, 8, 6, 60, 1, 1);
+        BufferedImage screen = new BufferedImage(16, 12, BufferedImage.TYPE_INT_RGB);
+        int[] renders = new int[1];
+
+        recorder.capture(screen.createGraphics(), 16, 12, (g, width, height) -> {
+            renders[0]++;
+            g.setColor(Color.GREEN);
+            g.fillRect(0, 0, width, height);
+            g.dispose();
+        });
+
+        recorder.close();
+
+        assertEquals(1, renders[0]);
+        assertEquals(Color.GREEN.getRGB(), screen.getRGB(15, 11));
+        assertEquals(Color.GREEN.getRGB(), ImageIO.read(directory.resolve("frame-000000.png").toFile()).getRGB(7, 5));
+    }
+}
@@ -0,0 +1,117 @@
+package ea;
+
+import ea.internal.io.FrameSequence;
+import ea.internal.io.FrameSequenceCache;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class FrameSequenceCacheTest {
+    private static BufferedImage[] images(int count) {
+        BufferedImage[] images = new BufferedImage[count];
+
+        for (int i = 0; i < count; i++) {
+            images[i] = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB); // 1 KiB
+        }
+
+        return images;
+    }
+
+    @After
+    public void resetLimit() {
+        FrameSequenceCache.setMaxBytes(256L * 1024 * 1024);
+    }
+
+    @Test
+    public void concurrentRequestsDecodeOnce () throws Exception {
+        AtomicInteger decodes = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<FrameSequence>> results = new ArrayList<>();
+
+            for (int i = 0; i < 32; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+
+                    return FrameSequenceCache.acquire("test:concurrent", () -> {
+                        decodes.incrementAndGet();
+                        return images(4);
+                    });
+                }));
+            }
+
+            start.countDown();
+
+            FrameSequence first = results.get(0).get(10, TimeUnit.SECONDS);
+
+            for (Future<FrameSequence> result : results) {
+                assertSame(first, result.get(10, TimeUnit.SECONDS));
+                FrameSequenceCache.release(first);
+            }
+
+            assertEquals(1, decodes.get());
+            assertEquals(4, first.getFrameCount());
+            assertEquals(4096, first.getBytes());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void onlyUnusedSequencesAreEvicted () {
+        FrameSequenceCache.clear();
+
+        FrameSequence used = FrameSequenceCache.acquire("test:used", () -> images(2));
+        FrameSequence old = FrameSequenceCache.acquire("test:old", () -> images(2));
+        FrameSequence recent = FrameSequenceCache.acquire("test:recent", () -> images(2));
+
+        FrameSequenceCache.release(old);
+        FrameSequenceCache.release(recent);
+
+        // Platz für zwei Folgen: die zuletzt unbenutzte bleibt, die benutzte sowieso
+        FrameSequenceCache.setMaxBytes(FrameSequenceCache.getBytes() - old.getBytes());
+
+        assertSame(used, FrameSequenceCache.acquire("test:used", () -> images(1)));
+        assertSame(recent, FrameSequenceCache.acquire("test:recent", () -> images(1)));
+
+        FrameSequence reloaded = FrameSequenceCache.acquire("test:old", () -> images(1));
+        assertNotSame(old, reloaded);
+
+        FrameSequenceCache.release(used);
+        FrameSequenceCache.release(used);
+        FrameSequenceCache.release(recent);
+        FrameSequenceCache.clear();
+
+        assertEquals(reloaded.getBytes(), FrameSequenceCache.getBytes());
+
+        FrameSequenceCache.release(reloaded);
+    }
+
+    @Test
+    public void imageSizeIsReadWithoutDecoding () throws Exception {
+        File file = File.createTempFile("frame-sequence", ".png");
+        file.deleteOnExit();
+
+        ImageIO.write(new BufferedImage(24, 12, BufferedImage.TYPE_INT_ARGB), "png", file);
+
+        assertEquals(new Dimension(24, 12), FrameSequenceCache.getImageSize(file.getAbsolutePath()));
+    }
+}
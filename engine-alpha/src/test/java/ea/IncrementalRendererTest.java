@@ -0,0 +1,137 @@
+package ea;
+
+import ea.actor.DrawingCanvas;
+import ea.actor.Rectangle;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.GraphicsEnvironment;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+public class IncrementalRendererTest {
+    private static final int WIDTH = 200;
+    private static final int HEIGHT = 150;
+
+    private static int[] renderFull(Scene scene) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+
+        g.setColor(scene.getBackgroundColor());
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        scene.render(g, WIDTH, HEIGHT);
+        g.dispose();
+
+        return image.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH);
+    }
+
+    private static int[] renderIncremental(IncrementalRenderer renderer, Scene scene) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+
+        renderer.render(g, scene, WIDTH, HEIGHT);
+        g.dispose();
+
+        return image.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH);
+    }
+
+    @Test
+    public void repaintsOnlyChangedRegions () {
+        assumeFalse(GraphicsEnvironment.isHeadless());
+
+        Scene scene = new Scene();
+        scene.setBackgroundColor(Color.DARK_GRAY);
+
+        Rectangle moving = new Rectangle(1, 1);
+        moving.setColor(Color.RED);
+        Rectangle still = new Rectangle(2, 1);
+        still.setColor(Color.BLUE);
+        still.setPosition(-5, 2);
+
+        scene.add(moving, still);
+        scene.invokeFrameUpdateListeners(0);
+
+        scene.setIncrementalRendering(true);
+        IncrementalRenderer renderer = scene.getIncrementalRenderer();
+
+        assertTrue(renderer.update(scene));
+        assertArrayEquals(renderFull(scene), renderIncremental(renderer, scene));
+        assertEquals((long) WIDTH * HEIGHT, renderer.getRepaintedPixels());
+
+        // Nichts geändert: nichts zu zeichnen
+        assertFalse(renderer.update(scene));
+
+        moving.setPosition(1, 0);
+        assertTrue(renderer.update(scene));
+        assertArrayEquals(renderFull(scene), renderIncremental(renderer, scene));
+
+        long repainted = renderer.getRepaintedPixels() - (long) WIDTH * HEIGHT;
+        assertTrue("neu gezeichnet: " + repainted, repainted > 0 && repainted < WIDTH * HEIGHT / 4);
+
+        // Aussehen ohne Bewegung
+        still.setColor(Color.GREEN);
+        assertTrue(renderer.update(scene));
+        assertArrayEquals(renderFull(scene), renderIncremental(renderer, scene));
+
+        // Entfernen
+        scene.remove(moving);
+        scene.invokeFrameUpdateListeners(0);
+        assertTrue(renderer.update(scene));
+        assertArrayEquals(renderFull(scene), renderIncremental(renderer, scene));
+        assertFalse(renderer.update(scene));
+    }
+
+    @Test
+    public void cameraMovementRedrawsEverything () {
+        assumeFalse(GraphicsEnvironment.isHeadless());
+
+        Scene scene = new Scene();
+        Rectangle rectangle = new Rectangle(1, 1);
+        scene.add(rectangle);
+        scene.invokeFrameUpdateListeners(0);
+
+        scene.setIncrementalRendering(true);
+        IncrementalRenderer renderer = scene.getIncrementalRenderer();
+        renderIncremental(renderer, scene);
+
+        scene.getCamera().setPosition(new Vector(3, 1));
+        assertTrue(renderer.update(scene));
+        assertArrayEquals(renderFull(scene), renderIncremental(renderer, scene));
+    }
+
+    @Test
+    public void repaintsCanvasBeyondItsShape () {
+        assumeFalse(GraphicsEnvironment.isHeadless());
+
+        Scene scene = new Scene();
+        scene.setBackgroundColor(Color.DARK_GRAY);
+
+        // Die Physik-Form der Zeichenfläche liegt außerhalb des Bildes, die Linien mitten darin
+        DrawingCanvas canvas = new DrawingCanvas();
+        canvas.setPosition(-20, 0);
+        scene.add(canvas);
+        scene.invokeFrameUpdateListeners(0);
+
+        scene.setIncrementalRendering(true);
+        IncrementalRenderer renderer = scene.getIncrementalRenderer();
+        renderIncremental(renderer, scene);
+
+        canvas.drawLine(new Vector(18, -1), new Vector(22, 1), Color.ORANGE, 0.3f);
+        assertTrue(renderer.update(scene));
+        assertArrayEquals(renderFull(scene), renderIncremental(renderer, scene));
+
+        canvas.drawLine(new Vector(18, 1), new Vector(22, -1), Color.CYAN, 0.3f);
+        assertTrue(renderer.update(scene));
+        assertArrayEquals(renderFull(scene), renderIncremental(renderer, scene));
+
+        canvas.clear();
+        assertTrue(renderer.update(scene));
+        assertArrayEquals(renderFull(scene), renderIncremental(renderer, scene));
+    }
+}
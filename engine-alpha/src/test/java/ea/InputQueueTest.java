@@ -0,0 +1,125 @@
+package ea;
+
+import ea.event.KeyListener;
+import ea.event.MouseButton;
+import ea.event.MouseClickListener;
+import ea.internal.graphics.PresentationMonitor;
+import ea.internal.input.InputQueue;
+import ea.internal.input.KeyStates;
+import org.junit.Test;
+
+import java.awt.Component;
+import java.awt.Point;
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InputQueueTest {
+    private static final Component SOURCE = new Component() {
+        // leer
+    };
+
+    @Test
+    public void keyStatesIgnoreRepeatedPresses () {
+        KeyStates keys = new KeyStates();
+
+        assertTrue(keys.press(KeyEvent.VK_W));
+        assertFalse(keys.press(KeyEvent.VK_W));
+        assertTrue(keys.isPressed(KeyEvent.VK_W));
+        assertFalse(keys.isPressed(KeyEvent.VK_S));
+
+        int extended = KeyEvent.getExtendedKeyCodeForChar('€');
+        assertTrue(keys.press(extended));
+        assertTrue(keys.isPressed(extended));
+
+        assertTrue(keys.release(KeyEvent.VK_W));
+        assertFalse(keys.release(KeyEvent.VK_W));
+        assertFalse(keys.isPressed(KeyEvent.VK_W));
+    }
+
+    @Test
+    public void drainDispatchesInOrderAndCoalescesWheel () {
+        Scene scene = new Scene();
+        List<String> log = new ArrayList<>();
+
+        scene.addKeyListener(new KeyListener() {
+            @Override
+            public void onKeyDown(KeyEvent e) {
+                log.add("down " + e.getKeyCode());
+            }
+
+            @Override
+            public void onKeyUp(KeyEvent e) {
+                log.add("up " + e.getKeyCode());
+            }
+        });
+        scene.addMouseClickListener(new MouseClickListener() {
+            @Override
+            public void onMouseDown(Vector position, MouseButton button) {
+                log.add(button + " " + position.getX());
+            }
+        });
+        scene.addMouseWheelListener(event -> log.add("wheel " + event.getPreciseWheelRotation()));
+
+        GameLogic gameLogic = new GameLogic(source -> {
+            // kein Rendern
+        }, () -> scene, () -> false, new PresentationMonitor());
+
+        InputQueue queue = gameLogic.getInputQueue();
+        queue.pushKey(new KeyEvent(SOURCE, KeyEvent.KEY_PRESSED, 0, 0, KeyEvent.VK_A, 'a'), true);
+        queue.addMouseWheelRotation(1);
+        queue.pushMouseButton(new Vector(3, 4), MouseButton.LEFT, true);
+        queue.addMouseWheelRotation(0.5f);
+        queue.pushKey(new KeyEvent(SOURCE, KeyEvent.KEY_RELEASED, 0, 0, KeyEvent.VK_A, 'a'), false);
+
+        assertEquals(1.5f, queue.drain(gameLogic), 0);
+        assertEquals(List.of("down " + KeyEvent.VK_A, "LEFT 3.0", "up " + KeyEvent.VK_A, "wheel 1.5"), log);
+
+        log.clear();
+        assertEquals(0, queue.drain(gameLogic), 0);
+        assertTrue(log.isEmpty());
+    }
+
+    @Test
+    public void fullQueueDropsNewEvents () {
+        InputQueue queue = new InputQueue();
+        int accepted = 0;
+
+        for (int i = 0; i < 10000; i++) {
+            if (queue.pushMouseButton(Vector.NULL, MouseButton.LEFT, true)) {
+                accepted++;
+            }
+        }
+
+        assertTrue(accepted > 0 && accepted < 10000);
+    }
+
+    @Test
+    public void snapshotTracksEdgesAndMouseDelta () {
+        KeyStates keys = new KeyStates();
+        InputSnapshot snapshot = new InputSnapshot();
+
+        snapshot.update(keys, new Point(10, 10), 0);
+        keys.press(KeyEvent.VK_SPACE);
+        snapshot.update(keys, new Point(15, 8), 2);
+
+        assertTrue(snapshot.isKeyPressed(KeyEvent.VK_SPACE));
+        assertTrue(snapshot.isKeyJustPressed(KeyEvent.VK_SPACE));
+        assertEquals(5, snapshot.getMouseDeltaX());
+        assertEquals(-2, snapshot.getMouseDeltaY());
+        assertEquals(2, snapshot.getMouseWheelRotation(), 0);
+
+        keys.release(KeyEvent.VK_SPACE);
+        assertTrue(snapshot.isKeyPressed(KeyEvent.VK_SPACE)); // bleibt für den ganzen Frame gleich
+
+        snapshot.update(keys, new Point(15, 8), 0);
+        assertTrue(snapshot.isKeyJustReleased(KeyEvent.VK_SPACE));
+        assertFalse(snapshot.isKeyJustPressed(KeyEvent.VK_SPACE));
+        assertEquals(0, snapshot.getMouseDeltaX());
+        assertEquals(2, snapshot.getFrame());
+    }
+}
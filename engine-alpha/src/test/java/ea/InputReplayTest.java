@@ -0,0 +1,266 @@
+package ea;
+
+import ea.event.KeyListener;
+import ea.event.MouseButton;
+import ea.event.MouseClickListener;
+import ea.internal.graphics.PresentationMonitor;
+import ea.internal.input.InputRecorder;
+import ea.internal.input.InputReplay;
+import ea.internal.input.KeyStates;
+import org.junit.Test;
+
+import java.awt.Component;
+import java.awt.Point;
+import java.awt.event.KeyEvent;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InputReplayTest {
+    private static final Component SOURCE = new Component() {
+        // leer
+    };
+
+    /**
+     * Spiellogik, die Tasten abfragt statt auf Ereignisse zu reagieren.
+     */
+    private static final class PolledLogic implements FrameUpdateListener {
+        private final IntPredicate isKeyPressed;
+        private final Supplier<InputSnapshot> input;
+
+        private long state = 17;
+        private float x;
+        private float wheel;
+
+        private PolledLogic(IntPredicate isKeyPressed, Supplier<InputSnapshot> input) {
+            this.isKeyPressed = isKeyPressed;
+            this.input = input;
+        }
+
+        @Override
+        public void onFrameUpdate(float deltaSeconds) {
+            InputSnapshot snapshot = input.get();
+            boolean right = isKeyPressed.test(KeyEvent.VK_RIGHT);
+
+            state = state * 31 + (right ? 1 : 0) + (snapshot.isKeyPressed(KeyEvent.VK_RIGHT) ? 2 : 0) + (snapshot.isKeyJustPressed(KeyEvent.VK_SPACE) ? 4 : 0);
+            x += right ? deltaSeconds : 0;
+            wheel += snapshot.getMouseWheelRotation();
+        }
+    }
+
+    @Test
+    public void replaysFramesAndEventsInOrder () throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Point mouse = new Point(10, 20);
+
+        try (InputRecorder recorder = new InputRecorder(out, () -> mouse)) {
+            recorder.beginFrame(0.016f);
+            recorder.recordKey(KeyEvent.VK_A, 'a', true);
+            recorder.beginFrame(0.02f);
+            recorder.recordMouseButton(new Vector(1.5f, -2), MouseButton.RIGHT, true);
+            recorder.beginFrame(0.016f);
+            recorder.recordKey(KeyEvent.VK_A, 'a', false);
+
+            assertEquals(3, recorder.getFrameCount());
+        }
+
+        List<String> log = new ArrayList<>();
+        float[] time = {0};
+
+        Scene scene = new Scene();
+        scene.addFrameUpdateListener(deltaSeconds -> time[0] += deltaSeconds);
+        scene.addKeyListener(new KeyListener() {
+            @Override
+            public void onKeyDown(KeyEvent e) {
+                log.add("down " + e.getKeyChar());
+            }
+
+            @Override
+            public void onKeyUp(KeyEvent e) {
+                log.add("up " + e.getKeyChar());
+            }
+        });
+        scene.addMouseClickListener(new MouseClickListener() {
+            @Override
+            public void onMouseDown(Vector position, MouseButton button) {
+                log.add(button + " " + position.getX() + " " + position.getY());
+            }
+        });
+
+        InputReplay replay = new InputReplay(ByteBuffer.wrap(out.toByteArray()));
+        GameLogic.replayHeadless(scene, replay);
+
+        assertEquals(List.of("down a", "RIGHT 1.5 -2.0", "up a"), log);
+        assertEquals(0.052f, time[0], 0.0001f);
+        assertEquals(3, replay.getFrameCount());
+        assertEquals(mouse, replay.getMousePosition());
+        assertFalse(replay.isKeyPressed(KeyEvent.VK_A));
+        assertFalse(replay.hasRemaining());
+    }
+
+    @Test
+    public void truncatedRecordingEndsCleanly () throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (InputRecorder recorder = new InputRecorder(out, null)) {
+            recorder.beginFrame(0.016f);
+            recorder.recordKey(KeyEvent.VK_B, 'b', true);
+            recorder.beginFrame(0.016f);
+        }
+
+        byte[] data = out.toByteArray();
+        InputReplay replay = new InputReplay(ByteBuffer.wrap(data, 0, data.length - 2));
+
+        assertEquals(0.016f, replay.nextFrame(), 0);
+        assertTrue(replay.nextFrame() < 0);
+        assertTrue(replay.isKeyPressed(KeyEvent.VK_B));
+    }
+
+    private static void pressKey(GameLogic gameLogic, KeyStates keys, int keyCode, boolean down) {
+        // So wie der AWT-Thread: Zustand sofort, Ereignis über die Warteschlange
+        if (down) {
+            keys.press(keyCode);
+        } else {
+            keys.release(keyCode);
+        }
+
+        gameLogic.getInputQueue().pushKey(new KeyEvent(SOURCE, down ? KeyEvent.KEY_PRESSED : KeyEvent.KEY_RELEASED, 0, 0, keyCode, KeyEvent.CHAR_UNDEFINED), down);
+    }
+
+    @Test
+    public void polledKeysMatchRecordedSession () throws Exception {
+        final int frames = 20;
+
+        KeyStates keys = new KeyStates();
+        GameLogic[] live = new GameLogic[1];
+        int[] frame = {0};
+
+        Scene liveScene = new Scene();
+        PolledLogic liveLogic = new PolledLogic(keys::isPressed, () -> live[0].getInput());
+        liveScene.addFrameUpdateListener(liveLogic);
+
+        // Eingaben treffen zwischen zwei Frames ein, während des Zeichnens
+        live[0] = new GameLogic(source -> {
+            switch (++frame[0]) {
+                case 3:
+                    pressKey(live[0], keys, KeyEvent.VK_RIGHT, true);
+                    break;
+                case 6:
+                    live[0].getInputQueue().addMouseWheelRotation(1.5f);
+                    break;
+                case 9:
+                    pressKey(live[0], keys, KeyEvent.VK_RIGHT, false);
+                    pressKey(live[0], keys, KeyEvent.VK_SPACE, true);
+                    break;
+                case 10:
+                    pressKey(live[0], keys, KeyEvent.VK_SPACE, false);
+                    break;
+                case 14:
+                    pressKey(live[0], keys, KeyEvent.VK_RIGHT, true);
+                    break;
+                case frames:
+                    Thread.currentThread().interrupt();
+                    break;
+            }
+        }, () -> liveScene, () -> false, new PresentationMonitor());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        live[0].setInputSources(keys, () -> null);
+        live[0].setRecorder(new InputRecorder(out, null));
+
+        Thread gameThread = new Thread(live[0]::run);
+        gameThread.start();
+        gameThread.join();
+
+        InputReplay replay = new InputReplay(ByteBuffer.wrap(out.toByteArray()));
+        GameLogic[] replayed = new GameLogic[1];
+
+        Scene replayScene = new Scene();
+        PolledLogic replayLogic = new PolledLogic(replay::isKeyPressed, () -> replayed[0].getInput());
+        replayScene.addFrameUpdateListener(replayLogic);
+
+        replayed[0] = new GameLogic(source -> {
+            // kein Rendern
+        }, () -> replayScene, () -> false, new PresentationMonitor());
+        replayed[0].setReplay(replay, 0);
+        replayed[0].setStopAfterReplay(true);
+        replayed[0].run();
+
+        assertEquals(frames, replay.getFrameCount());
+        assertEquals(liveLogic.state, replayLogic.state);
+        assertEquals(Float.floatToIntBits(liveLogic.x), Float.floatToIntBits(replayLogic.x));
+        assertEquals(1.5f, replayLogic.wheel, 0);
+        assertEquals(liveLogic.wheel, replayLogic.wheel, 0);
+        assertTrue(replay.isKeyPressed(KeyEvent.VK_RIGHT));
+    }
+
+    /**
+     * Zählt die Frames einer Szene.
+     */
+    private static Scene countingScene(int[] frames, int index) {
+        Scene scene = new Scene();
+        scene.addFrameUpdateListener(deltaSeconds -> frames[index]++);
+
+        return scene;
+    }
+
+    @Test
+    public void sceneTransitionFromKeyHandlerMatchesRecordedSession () throws Exception {
+        final int frames = 10;
+
+        // Wie Game.transitionToScene: Der Wechsel wird aus dem Tasten-Handler eingereiht
+        int[] liveFrames = new int[2];
+        Scene[] liveScenes = {countingScene(liveFrames, 0), countingScene(liveFrames, 1)};
+        Scene[] liveCurrent = {liveScenes[0]};
+        GameLogic[] live = new GameLogic[1];
+        KeyStates keys = new KeyStates();
+        int[] frame = {0};
+
+        liveScenes[0].addKeyListener(e -> live[0].enqueue(() -> liveCurrent[0] = liveScenes[1]));
+
+        live[0] = new GameLogic(source -> {
+            switch (++frame[0]) {
+                case 4:
+                    pressKey(live[0], keys, KeyEvent.VK_ENTER, true);
+                    break;
+                case frames:
+                    Thread.currentThread().interrupt();
+                    break;
+            }
+        }, () -> liveCurrent[0], () -> false, new PresentationMonitor());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        live[0].setInputSources(keys, () -> null);
+        live[0].setRecorder(new InputRecorder(out, null));
+
+        Thread gameThread = new Thread(live[0]::run);
+        gameThread.start();
+        gameThread.join();
+
+        int[] replayFrames = new int[2];
+        Scene[] replayScenes = {countingScene(replayFrames, 0), countingScene(replayFrames, 1)};
+        Scene[] replayCurrent = {replayScenes[0]};
+        GameLogic[] replayed = new GameLogic[1];
+
+        replayScenes[0].addKeyListener(e -> replayed[0].enqueue(() -> replayCurrent[0] = replayScenes[1]));
+
+        InputReplay replay = new InputReplay(ByteBuffer.wrap(out.toByteArray()));
+        replayed[0] = new GameLogic(source -> {
+            // kein Rendern
+        }, () -> replayCurrent[0], () -> false, new PresentationMonitor());
+        replayed[0].setReplay(replay, 0);
+        replayed[0].setStopAfterReplay(true);
+        replayed[0].run();
+
+        assertTrue(liveFrames[1] > 0);
+        assertEquals(liveFrames[0], replayFrames[0]);
+        assertEquals(liveFrames[1], replayFrames[1]);
+    }
+}
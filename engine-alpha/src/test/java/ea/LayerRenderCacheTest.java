@@ -0,0 +1,154 @@
+package ea;
+
+import ea.actor.Rectangle;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeFalse;
+
+public class LayerRenderCacheTest {
+    private static final int WIDTH = 200;
+    private static final int HEIGHT = 150;
+
+    /**
+     * Zählt, wie oft er gezeichnet wird.
+     */
+    private static final class CountingRectangle extends Rectangle {
+        private int renders = 0;
+
+        private CountingRectangle(float width, float height) {
+            super(width, height);
+        }
+
+        @Override
+        public void render(Graphics2D g, float pixelPerMeter) {
+            renders++;
+            super.render(g, pixelPerMeter);
+        }
+    }
+
+    private static int[] render(Scene scene) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+
+        g.setColor(scene.getBackgroundColor());
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        scene.render(g, WIDTH, HEIGHT);
+        g.dispose();
+
+        return image.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH);
+    }
+
+    private static int[] renderUncached(Scene scene) {
+        scene.getMainLayer().setRenderCached(false);
+        int[] result = render(scene);
+        scene.getMainLayer().setRenderCached(true);
+
+        return result;
+    }
+
+    private static Scene createScene(CountingRectangle... rectangles) {
+        Scene scene = new Scene();
+        scene.setBackgroundColor(Color.DARK_GRAY);
+        scene.add(rectangles);
+        scene.invokeFrameUpdateListeners(0);
+        scene.getMainLayer().setRenderCached(true);
+
+        return scene;
+    }
+
+    @Test
+    public void reusesImageWhileNothingChanges () {
+        assumeFalse(GraphicsEnvironment.isHeadless());
+
+        CountingRectangle rectangle = new CountingRectangle(1, 1);
+        rectangle.setColor(Color.RED);
+        Scene scene = createScene(rectangle);
+
+        int[] first = render(scene);
+        assertEquals(1, rectangle.renders);
+
+        for (int i = 0; i < 5; i++) {
+            assertArrayEquals(first, render(scene));
+        }
+
+        assertEquals(1, rectangle.renders);
+        assertArrayEquals(renderUncached(scene), first);
+    }
+
+    @Test
+    public void redrawsWhenActorChanges () {
+        assumeFalse(GraphicsEnvironment.isHeadless());
+
+        CountingRectangle rectangle = new CountingRectangle(1, 1);
+        rectangle.setColor(Color.RED);
+        CountingRectangle other = new CountingRectangle(2, 1);
+        other.setPosition(-5, 2);
+        Scene scene = createScene(rectangle, other);
+
+        render(scene);
+        assertEquals(1, other.renders);
+
+        rectangle.setPosition(2, 1);
+        int[] moved = render(scene);
+        assertEquals(2, other.renders);
+        assertArrayEquals(renderUncached(scene), moved);
+
+        // Aussehen ohne Bewegung, gemeldet über invalidateAppearance()
+        render(scene);
+        int renders = other.renders;
+        rectangle.setColor(Color.GREEN);
+        int[] recolored = render(scene);
+        assertEquals(renders + 1, other.renders);
+        assertArrayEquals(renderUncached(scene), recolored);
+
+        render(scene);
+        renders = other.renders;
+        rectangle.setVisible(false);
+        render(scene);
+        assertEquals(renders + 1, other.renders);
+
+        // Unveränderter Wert
+        rectangle.setVisible(false);
+        render(scene);
+        assertEquals(renders + 1, other.renders);
+    }
+
+    @Test
+    public void redrawsWhenActorsAreAddedOrRemoved () {
+        assumeFalse(GraphicsEnvironment.isHeadless());
+
+        CountingRectangle rectangle = new CountingRectangle(1, 1);
+        rectangle.setColor(Color.RED);
+        Scene scene = createScene(rectangle);
+
+        render(scene);
+
+        CountingRectangle added = new CountingRectangle(1, 1);
+        added.setColor(Color.BLUE);
+        added.setPosition(3, 0);
+        scene.add(added);
+        scene.invokeFrameUpdateListeners(0);
+
+        int[] withAdded = render(scene);
+        assertEquals(2, rectangle.renders);
+        assertEquals(1, added.renders);
+        assertArrayEquals(renderUncached(scene), withAdded);
+
+        render(scene);
+        int renders = rectangle.renders;
+
+        scene.remove(added);
+        scene.invokeFrameUpdateListeners(0);
+
+        int[] withoutAdded = render(scene);
+        assertEquals(renders + 1, rectangle.renders);
+        assertArrayEquals(renderUncached(scene), withoutAdded);
+    }
+}
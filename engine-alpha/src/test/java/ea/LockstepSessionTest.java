@@ -0,0 +1,189 @@
+package ea;
+
+import ea.actor.BodyType;
+import ea.actor.Rectangle;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LockstepSessionTest {
+    private static final int TICKS = 120;
+
+    /**
+     * Stellt Eingaben erst nach einer festen Anzahl an Aufrufen von {@link #receive(InputSink)} zu.
+     */
+    private static class DelayedTransport implements LockstepTransport {
+        private final int latency;
+        private final Deque<int[]> queue = new ArrayDeque<>();
+        private DelayedTransport peer;
+        private int time;
+
+        DelayedTransport (int latency) {
+            this.latency = latency;
+        }
+
+        @Override
+        public void send (int player, int tick, int input) {
+            peer.queue.add(new int[]{peer.time + latency, player, tick, input});
+        }
+
+        @Override
+        public void receive (InputSink sink) {
+            time++;
+
+            while (!queue.isEmpty() && queue.peek()[0] <= time) {
+                int[] message = queue.poll();
+                sink.accept(message[1], message[2], message[3]);
+            }
+        }
+
+        @Override
+        public void close () {
+            // nichts zu tun
+        }
+    }
+
+    private static Scene createScene () {
+        Scene scene = new Scene();
+        scene.getRandom().setSeed(5);
+
+        Rectangle ground = new Rectangle(20, 1);
+        ground.setPosition(-10, -5);
+        scene.add(ground);
+
+        for (int i = 0; i < 2; i++) {
+            Rectangle player = new Rectangle(1, 1);
+            player.setPosition(-3 + 4 * i, 0);
+            player.setBodyType(BodyType.DYNAMIC);
+            scene.add(player);
+        }
+
+        // Actors werden verzögert angemeldet
+        scene.invokeFrameUpdateListeners(0);
+
+        return scene;
+    }
+
+    private static LockstepSession.TickListener controls (Scene scene) {
+        return (tick, inputs) -> {
+            List<ea.actor.Actor> actors = scene.getMainLayer().getActors();
+
+            for (int player = 0; player < inputs.length; player++) {
+                if (inputs[player] != 0) {
+                    actors.get(1 + player).applyImpulse(new Vector(inputs[player], 4 + scene.getRandom().nextFloat()));
+                }
+            }
+        };
+    }
+
+    /**
+     * Eingabe von Spieler <code>player</code>, die er beim Aufruf Nummer <code>call</code> drückt.
+     */
+    private static int input (int player, int call) {
+        return (call / (7 + player * 5)) % 3 - 1;
+    }
+
+    private static float[] state (Scene scene) {
+        List<ea.actor.Actor> actors = scene.getMainLayer().getActors();
+        float[] result = new float[actors.size() * 2];
+
+        for (int i = 0; i < actors.size(); i++) {
+            result[i * 2] = actors.get(i).getX();
+            result[i * 2 + 1] = actors.get(i).getY();
+        }
+
+        return result;
+    }
+
+    private static LockstepSession session (Scene scene, int player, LockstepTransport transport) {
+        int[] calls = {0};
+
+        return new LockstepSession(scene, player, 2, transport, () -> input(player, calls[0]++), controls(scene));
+    }
+
+    private static float[][] run (int latency) throws Exception {
+        DelayedTransport a = new DelayedTransport(latency);
+        DelayedTransport b = new DelayedTransport(latency);
+        a.peer = b;
+        b.peer = a;
+
+        Scene sceneA = createScene();
+        Scene sceneB = createScene();
+        LockstepSession first = session(sceneA, 0, a);
+        LockstepSession second = session(sceneB, 1, b);
+
+        while (first.getTick() < TICKS || second.getTick() < TICKS) {
+            first.update(first.getTick() < TICKS ? LockstepSession.TICK_SECONDS : 0);
+            second.update(second.getTick() < TICKS ? LockstepSession.TICK_SECONDS : 0);
+        }
+
+        // Ausstehende Eingaben zustellen
+        for (int i = 0; i <= latency; i++) {
+            first.update(0);
+            second.update(0);
+        }
+
+        if (latency > 2) {
+            assertTrue(first.getRollbackCount() > 0);
+        }
+
+        return new float[][]{state(sceneA), state(sceneB)};
+    }
+
+    @Test
+    public void rollbackConvergesToSameStateAsWithoutLatency () throws Exception {
+        float[][] reference = run(0);
+        float[][] delayed = run(5);
+
+        assertArrayEquals(reference[0], reference[1], 0);
+        assertArrayEquals(reference[0], delayed[0], 0);
+        assertArrayEquals(reference[0], delayed[1], 0);
+    }
+
+    @Test
+    public void waitsForSlowPlayer () throws Exception {
+        DelayedTransport a = new DelayedTransport(0);
+        DelayedTransport b = new DelayedTransport(0);
+        a.peer = b;
+        b.peer = a;
+
+        LockstepSession session = session(createScene(), 0, a);
+        session.setMaxRollback(3);
+
+        for (int i = 0; i < 20; i++) {
+            session.update(LockstepSession.TICK_SECONDS);
+        }
+
+        // 2 Ticks mit leeren Eingaben durch die Verzögerung, danach maximal 3 vorhergesagte Ticks
+        assertEquals(5, session.getTick());
+    }
+
+    @Test
+    public void loopbackTransportDeliversInputs () throws Exception {
+        LoopbackTransport[] pair = LoopbackTransport.pair();
+
+        try {
+            pair[0].send(1, 42, -7);
+            pair[0].send(1, 43, 8);
+
+            int[] received = new int[2];
+            long deadline = System.currentTimeMillis() + 5000;
+
+            while (received[1] == 0 && System.currentTimeMillis() < deadline) {
+                pair[1].receive((player, tick, input) -> received[tick - 42] = input * player);
+                Thread.sleep(1);
+            }
+
+            assertArrayEquals(new int[]{-7, 8}, received);
+        } finally {
+            pair[0].close();
+            pair[1].close();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ea;
+
+import ea.actor.Tile;
+import ea.actor.TileContainer;
+
+import java.util.Locale;
+
+/**
+ * Misst das Navigationsgitter auf einer großen, zufälligen Karte. Kein JUnit-Test, wird von Hand gestartet:
+ * <pre>
+ * mvn -pl engine-alpha test-compile
+ * java -cp engine-alpha/target/classes:engine-alpha/target/test-classes:&lt;jbox2d.jar&gt; ea.NavigationGridBenchmark [größe]
+ * </pre>
+ */
+public class NavigationGridBenchmark {
+    private static final Tile WALL = (g, width, height) -> {
+        // unsichtbar
+    };
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+
+    private interface Operation {
+        void run(int round);
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+        RandomGenerator random = new RandomGenerator(42);
+
+        Scene scene = new Scene();
+        TileContainer tiles = new TileContainer(size, size, 1);
+
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (random.nextFloat() < 0.25f) {
+                    tiles.setTile(x, y, WALL);
+                }
+            }
+        }
+
+        scene.add(tiles);
+        scene.invokeFrameUpdateListeners(0);
+
+        NavigationGrid grid = new NavigationGrid(scene.getMainLayer(), 0, 0, size, size, 1);
+
+        long start = System.nanoTime();
+        grid.update();
+        System.out.printf(Locale.ROOT, "%-20s %10.3f ms%n", "Aufbau", (System.nanoTime() - start) / 1e6);
+
+        int queries = 200;
+        Vector[] from = new Vector[queries * (WARMUP_ROUNDS + ROUNDS)];
+        Vector[] to = new Vector[from.length];
+
+        for (int i = 0; i < from.length; i++) {
+            from[i] = freeCell(grid, random, size);
+            to[i] = freeCell(grid, random, size);
+        }
+
+        measure("A*", queries, round -> {
+            for (int i = 0; i < queries; i++) {
+                grid.findPath(from[round * queries + i], to[round * queries + i]);
+            }
+        });
+
+        measure("Flussfeld", 1, round -> grid.computeFlowField(to[round]));
+
+        measure("setTile + Abgleich", 1, round -> {
+            tiles.setTile(round, 0, tiles.getTile(round, 0) == null ? WALL : null);
+            grid.update();
+        });
+    }
+
+    private static Vector freeCell(NavigationGrid grid, RandomGenerator random, int size) {
+        while (true) {
+            Vector position = new Vector(random.nextInt(size) + 0.5f, random.nextInt(size) + 0.5f);
+
+            if (!grid.isBlocked(position)) {
+                return position;
+            }
+        }
+    }
+
+    private static void measure(String name, int operationsPerRound, Operation operation) {
+        int round = 0;
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            operation.run(round++);
+        }
+
+        long best = Long.MAX_VALUE;
+
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            operation.run(round++);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        System.out.printf(Locale.ROOT, "%-20s %10.3f ms/op%n", name, best / 1e6 / operationsPerRound);
+    }
+}
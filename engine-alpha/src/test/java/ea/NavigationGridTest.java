@@ -0,0 +1,125 @@
+package ea;
+
+import ea.actor.BodyType;
+import ea.actor.Rectangle;
+import ea.actor.Tile;
+import ea.actor.TileContainer;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class NavigationGridTest {
+    private static final Tile WALL = (g, width, height) -> {
+        // unsichtbar
+    };
+
+    private static Rectangle createWall(Scene scene) {
+        Rectangle wall = new Rectangle(1, 8);
+        wall.setBodyType(BodyType.STATIC);
+        wall.setPosition(5, 0);
+
+        scene.add(wall);
+        scene.invokeFrameUpdateListeners(0);
+
+        return wall;
+    }
+
+    @Test
+    public void findsPathAroundStaticBodies () {
+        Scene scene = new Scene();
+        Rectangle wall = createWall(scene);
+
+        NavigationGrid grid = new NavigationGrid(scene.getMainLayer(), 0, 0, 10, 10, 1);
+        grid.update();
+
+        assertTrue(grid.isBlocked(new Vector(5.5f, 3.5f)));
+        assertFalse(grid.isBlocked(new Vector(4.5f, 3.5f)));
+        assertFalse(grid.isBlocked(new Vector(5.5f, 8.5f)));
+
+        List<Vector> path = grid.findPath(new Vector(1.5f, 1.5f), new Vector(8.5f, 1.5f));
+
+        assertFalse(path.isEmpty());
+        assertEquals(new Vector(8.5f, 1.5f), path.get(path.size() - 1));
+        assertTrue(path.stream().anyMatch(point -> point.getY() >= 8.5f));
+        assertTrue(path.stream().noneMatch(grid::isBlocked));
+
+        // Wand entfernt: direkter Weg
+        scene.remove(wall);
+        scene.invokeFrameUpdateListeners(0);
+        grid.update();
+
+        assertEquals(List.of(new Vector(8.5f, 1.5f)), grid.findPath(new Vector(1.5f, 1.5f), new Vector(8.5f, 1.5f)));
+        assertTrue(grid.findPath(new Vector(1.5f, 1.5f), new Vector(20, 1.5f)).isEmpty());
+    }
+
+    @Test
+    public void tracksTileChanges () {
+        Scene scene = new Scene();
+        TileContainer tiles = new TileContainer(3, 3, 1);
+        scene.add(tiles);
+        scene.invokeFrameUpdateListeners(0);
+
+        NavigationGrid grid = new NavigationGrid(scene.getMainLayer(), 0, 0, 3, 3, 1);
+        grid.update();
+        assertFalse(grid.isBlocked(new Vector(1.5f, 1.5f)));
+
+        tiles.setTile(1, 0, WALL); // oberste Reihe
+        grid.update();
+        assertTrue(grid.isBlocked(new Vector(1.5f, 2.5f)));
+        assertFalse(grid.isBlocked(new Vector(1.5f, 1.5f)));
+
+        tiles.setTile(1, 0, null);
+        grid.update();
+        assertFalse(grid.isBlocked(new Vector(1.5f, 2.5f)));
+    }
+
+    @Test
+    public void deliversResultsOnFrameUpdate () throws InterruptedException {
+        Scene scene = new Scene();
+        createWall(scene);
+
+        NavigationGrid grid = new NavigationGrid(scene.getMainLayer(), 0, 0, 10, 10, 1);
+        grid.start();
+
+        AtomicReference<List<Vector>> path = new AtomicReference<>();
+        AtomicReference<FlowField> flowField = new AtomicReference<>();
+
+        scene.invokeFrameUpdateListeners(0);
+        grid.requestPath(new Vector(1.5f, 1.5f), new Vector(8.5f, 1.5f), path::set);
+        grid.requestFlowField(new Vector(8.5f, 1.5f), flowField::set);
+
+        for (int i = 0; i < 500 && (path.get() == null || flowField.get() == null); i++) {
+            Thread.sleep(2);
+            scene.invokeFrameUpdateListeners(0);
+        }
+
+        grid.stop();
+
+        assertNotNull(path.get());
+        assertNotNull(flowField.get());
+
+        FlowField field = flowField.get();
+        Vector start = new Vector(1.5f, 1.5f);
+
+        assertTrue(field.isReachable(start));
+        assertTrue(field.getDirection(start).getY() > 0);
+        assertEquals(Vector.NULL, field.getDirection(new Vector(8.5f, 1.5f)));
+
+        // Der Weg ist genauso lang wie die Distanz im Flussfeld
+        float length = 0;
+        Vector previous = start;
+
+        for (Vector point : path.get()) {
+            length += point.subtract(previous).getLength();
+            previous = point;
+        }
+
+        assertEquals(length, field.getDistance(start), 0.5f);
+    }
+}
@@ -0,0 +1,96 @@
+package ea;
+
+import ea.actor.Circle;
+import ea.actor.Rectangle;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Locale;
+
+/**
+ * Vergleicht das Zeichnen im Spiel-Thread mit dem Zeichnen in Streifen bei 1080p und 4K. Kein JUnit-Test, braucht
+ * einen Bildschirm und wird von Hand gestartet, am besten mit der Software-Pipeline:
+ * <pre>
+ * mvn -pl engine-alpha test-compile
+ * java -Dea.pipeline=software -cp engine-alpha/target/classes:engine-alpha/target/test-classes:&lt;jbox2d.jar&gt; ea.ParallelRendererBenchmark [actors]
+ * </pre>
+ */
+public class ParallelRendererBenchmark {
+    private static final int WARMUP_FRAMES = 20;
+    private static final int FRAMES = 50;
+
+    private static final int[][] RESOLUTIONS = {{1920, 1080}, {3840, 2160}};
+
+    public static void main(String[] args) {
+        int actorCount = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        RandomGenerator random = new RandomGenerator(42);
+
+        Scene scene = new Scene();
+        scene.setBackgroundColor(Color.DARK_GRAY);
+        scene.getCamera().setZoom(40);
+
+        for (int i = 0; i < actorCount; i++) {
+            if (random.nextBoolean()) {
+                Circle circle = new Circle(random.range(0.2f, 1.5f));
+                circle.setColor(new Color(random.nextInt() & 0xffffff));
+                circle.setPosition(random.range(-25, 25), random.range(-14, 14));
+                scene.add(circle);
+            } else {
+                Rectangle rectangle = new Rectangle(random.range(0.2f, 3), random.range(0.2f, 3));
+                rectangle.setColor(new Color(random.nextInt() & 0xffffff));
+                rectangle.setPosition(random.range(-25, 25), random.range(-14, 14));
+                rectangle.setRotation(random.range(0, 360));
+                scene.add(rectangle);
+            }
+        }
+
+        scene.invokeFrameUpdateListeners(0);
+
+        System.out.printf(Locale.ROOT, "%d Actors, %d Kerne%n", actorCount, Runtime.getRuntime().availableProcessors());
+
+        for (int[] resolution : RESOLUTIONS) {
+            int width = resolution[0];
+            int height = resolution[1];
+            BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            ParallelRenderer parallel = new ParallelRenderer();
+
+            double serialMillis = measure(target, g -> {
+                g.setColor(scene.getBackgroundColor());
+                g.fillRect(0, 0, width, height);
+                scene.render(g, width, height);
+            });
+
+            double parallelMillis = measure(target, g -> parallel.render(g, scene, width, height));
+
+            System.out.printf(Locale.ROOT, "%dx%d  seriell %8.2f ms  parallel %8.2f ms  Faktor %5.2f%n", width, height, serialMillis, parallelMillis, serialMillis / parallelMillis);
+        }
+    }
+
+    private interface Frame {
+        void render(Graphics2D g);
+    }
+
+    private static double measure(BufferedImage target, Frame frame) {
+        long total = 0;
+
+        for (int i = 0; i < WARMUP_FRAMES + FRAMES; i++) {
+            Graphics2D g = target.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+
+            long start = System.nanoTime();
+            frame.render(g);
+            long duration = System.nanoTime() - start;
+
+            g.dispose();
+
+            if (i >= WARMUP_FRAMES) {
+                total += duration;
+            }
+        }
+
+        return total / 1e6 / FRAMES;
+    }
+}
@@ -0,0 +1,193 @@
+package ea;
+
+import ea.actor.Circle;
+import ea.actor.DrawingCanvas;
+import ea.actor.Rectangle;
+import ea.internal.monitoring.EngineStatistics;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+public class ParallelRendererTest {
+    private static final int WIDTH = 320;
+    private static final int HEIGHT = 240;
+
+    private static int[] renderSerial(Scene scene) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+
+        g.setColor(scene.getBackgroundColor());
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        scene.render(g, WIDTH, HEIGHT);
+        g.dispose();
+
+        return image.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH);
+    }
+
+    private static int[] renderParallel(ParallelRenderer renderer, Scene scene) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+
+        renderer.render(g, scene, WIDTH, HEIGHT);
+        g.dispose();
+
+        return image.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH);
+    }
+
+    /**
+     * An Streifengrenzen rastert Java2D schräge Kanten teils um einen Pixel anders, der Inhalt muss aber gleich sein.
+     */
+    private static void assertNearlyEqual(int[] expected, int[] actual) {
+        int differences = 0;
+
+        for (int i = 0; i < expected.length; i++) {
+            if (expected[i] != actual[i]) {
+                differences++;
+            }
+        }
+
+        assertTrue("Abweichende Pixel: " + differences, differences <= WIDTH / 10);
+    }
+
+    @Test
+    public void matchesSerialRendering () {
+        assumeFalse(GraphicsEnvironment.isHeadless());
+
+        Scene scene = new Scene();
+        scene.setBackgroundColor(Color.DARK_GRAY);
+
+        Layer background = new Layer();
+        background.setLayerPosition(-10);
+        background.setParallaxPosition(0.5f, 0.5f);
+        scene.addLayer(background);
+
+        Rectangle wide = new Rectangle(20, 1);
+        wide.setColor(Color.BLUE);
+        wide.setPosition(-10, -1);
+        background.add(wide);
+
+        Circle[] circles = new Circle[40];
+
+        for (int i = 0; i < circles.length; i++) {
+            Circle circle = circles[i] = new Circle(0.6f);
+            circle.setColor(new Color(i * 6, 255 - i * 6, 128));
+            circle.setPosition(i % 10 - 5, i / 10 - 2.5f);
+            circle.setLayerPosition(i % 3);
+            scene.add(circle);
+        }
+
+        scene.invokeFrameUpdateListeners(0);
+        scene.getCamera().rotateTo(15);
+        scene.getCamera().setPosition(new Vector(1, 0.5f));
+
+        ParallelRenderer renderer = new ParallelRenderer();
+
+        assertNearlyEqual(renderSerial(scene), renderParallel(renderer, scene));
+
+        // Geänderte Ebenen-Position: Der Spiel-Thread sortiert erst nach dem Zeichnen, die Streifen vorher
+        circles[0].setLayerPosition(5);
+        scene.getCamera().setZoom(45);
+        renderSerial(scene);
+
+        assertNearlyEqual(renderSerial(scene), renderParallel(renderer, scene));
+    }
+
+    @Test
+    public void drawsCanvasBeyondItsShape () {
+        assumeFalse(GraphicsEnvironment.isHeadless());
+
+        Scene scene = new Scene();
+        scene.setBackgroundColor(Color.DARK_GRAY);
+
+        // Die Physik-Form der Zeichenfläche liegt außerhalb des Bildes, die Linien mitten darin
+        DrawingCanvas canvas = new DrawingCanvas();
+        canvas.setPosition(-20, 0);
+        canvas.drawLine(new Vector(15, -3), new Vector(25, 3), Color.ORANGE, 0.5f);
+        canvas.drawLine(new Vector(18, 3), new Vector(22, -3), Color.CYAN, 0.5f);
+        scene.add(canvas);
+
+        scene.invokeFrameUpdateListeners(0);
+
+        int[] expected = renderSerial(scene);
+        int painted = 0;
+
+        for (int pixel : expected) {
+            if (pixel != Color.DARK_GRAY.getRGB()) {
+                painted++;
+            }
+        }
+
+        assertTrue(painted > 1000);
+        assertNearlyEqual(expected, renderParallel(new ParallelRenderer(), scene));
+    }
+
+    @Test
+    public void countsCulledActorsOncePerLayer () {
+        assumeFalse(GraphicsEnvironment.isHeadless());
+
+        Scene scene = new Scene();
+
+        for (int i = 0; i < 10; i++) {
+            Circle visible = new Circle(0.5f);
+            visible.setPosition(i - 5, 0);
+            scene.add(visible);
+        }
+
+        for (int i = 0; i < 5; i++) {
+            Circle outside = new Circle(0.5f);
+            outside.setPosition(100 + i, 100);
+            scene.add(outside);
+        }
+
+        scene.invokeFrameUpdateListeners(0);
+
+        ParallelRenderer renderer = new ParallelRenderer();
+
+        EngineStatistics.frameFinished(0, 0, 0);
+        renderParallel(renderer, scene);
+        EngineStatistics.frameFinished(0, 0, 0);
+
+        assertEquals(5, EngineStatistics.get().getActorsCulled());
+    }
+
+    @Test
+    public void sortsCachedLayersBeforeDrawing () {
+        assumeFalse(GraphicsEnvironment.isHeadless());
+
+        Scene scene = new Scene();
+        scene.setBackgroundColor(Color.DARK_GRAY);
+        scene.getMainLayer().setRenderCached(true);
+
+        Rectangle[] rectangles = new Rectangle[20];
+
+        for (int i = 0; i < rectangles.length; i++) {
+            Rectangle rectangle = rectangles[i] = new Rectangle(2, 2);
+            rectangle.setColor(new Color(i * 12, 255 - i * 12, 128));
+            rectangle.setPosition(i % 5 - 3, i / 5 - 2);
+            rectangle.setLayerPosition(i);
+            scene.add(rectangle);
+        }
+
+        scene.invokeFrameUpdateListeners(0);
+
+        ParallelRenderer renderer = new ParallelRenderer();
+        renderParallel(renderer, scene);
+
+        // Die Streifen dürfen nicht selbst sortieren, der Spiel-Thread sortiert vor dem Zeichnen
+        for (int i = 0; i < rectangles.length; i++) {
+            rectangles[i].setLayerPosition(-i);
+        }
+
+        int[] parallel = renderParallel(renderer, scene);
+
+        assertEquals(rectangles[rectangles.length - 1], scene.getMainLayer().getActors().get(0));
+        assertNearlyEqual(renderSerial(scene), parallel);
+    }
+}
@@ -0,0 +1,37 @@
+package ea;
+
+import ea.internal.graphics.PresentationMonitor;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PresentationMonitorTest {
+    @Test
+    public void measuresOldestInputUntilPresentation () throws Exception {
+        PresentationMonitor monitor = new PresentationMonitor();
+
+        monitor.inputReceived();
+        Thread.sleep(20);
+        monitor.inputReceived(); // Die ältere Eingabe bestimmt die Latenz
+
+        long input = monitor.takePendingInput();
+        assertNotEquals(0, input);
+        assertEquals(0, monitor.takePendingInput());
+
+        monitor.framePresented(input);
+
+        assertTrue(monitor.getLastInputLatency() >= 0.02f);
+        assertEquals(monitor.getLastInputLatency(), monitor.getInputLatency(), 0);
+    }
+
+    @Test
+    public void framesWithoutInputAreIgnored () {
+        PresentationMonitor monitor = new PresentationMonitor();
+
+        monitor.framePresented(monitor.takePendingInput());
+
+        assertEquals(0, monitor.getInputLatency(), 0);
+    }
+}
@@ -0,0 +1,81 @@
+package ea;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RandomTest {
+    @Test
+    public void sameSeedGivesSameSequence () {
+        RandomGenerator a = new RandomGenerator(42);
+        RandomGenerator b = new RandomGenerator(42);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(a.nextInt(), b.nextInt());
+        }
+
+        assertNotEquals(new RandomGenerator(1).nextInt(), new RandomGenerator(2).nextInt());
+    }
+
+    @Test
+    public void rangesStayInBounds () {
+        RandomGenerator generator = new RandomGenerator(7);
+
+        for (int i = 0; i < 10000; i++) {
+            int value = generator.range(-3, 3);
+            assertTrue(value >= -3 && value <= 3);
+
+            float f = generator.nextFloat();
+            assertTrue(f >= 0 && f < 1);
+        }
+
+        assertEquals(Integer.MIN_VALUE, new RandomGenerator(1).range(Integer.MIN_VALUE, Integer.MIN_VALUE));
+    }
+
+    @Test
+    public void fillMatchesSingleDraws () {
+        RandomGenerator bulk = new RandomGenerator(3);
+        RandomGenerator single = new RandomGenerator(3);
+
+        float[] values = new float[1000];
+        bulk.fill(values, -5, 5);
+
+        for (float value : values) {
+            assertTrue(value >= -5 && value < 5);
+            assertEquals(single.range(-5f, 5f), value, 0);
+        }
+
+        assertEquals(single.nextInt(), bulk.nextInt());
+    }
+
+    @Test
+    public void staticMethodsAreReproducible () {
+        Random.setSeed(1234);
+        float[] first = new float[16];
+        Random.fill(first, 0, 1);
+        int firstInt = Random.range(0, 100);
+
+        Random.setSeed(1234);
+        float[] second = new float[16];
+        Random.fill(second, 0, 1);
+
+        assertArrayEquals(first, second, 0);
+        assertEquals(firstInt, Random.range(0, 100));
+    }
+
+    @Test
+    public void scenesHaveIndependentGenerators () {
+        Random.setSeed(99);
+
+        Scene scene = new Scene();
+        int expected = scene.getRandom().nextInt();
+
+        Random.current().nextInt(); // darf die Folge der Szene nicht beeinflussen
+
+        Random.setSeed(99);
+        assertEquals(expected, scene.getRandom().nextInt());
+    }
+}
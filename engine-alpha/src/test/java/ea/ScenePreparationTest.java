@@ -0,0 +1,59 @@
+package ea;
+
+import ea.actor.Rectangle;
+import org.junit.Test;
+
+import java.awt.GraphicsEnvironment;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+public class ScenePreparationTest {
+    @Test
+    public void mountsActorsWithoutInvokingListeners () {
+        AtomicInteger frameUpdates = new AtomicInteger();
+        AtomicInteger collisions = new AtomicInteger();
+        Rectangle[] boxes = new Rectangle[2];
+
+        Scene scene = new Scene();
+
+        boxes[0] = new Rectangle(1, 1);
+        boxes[1] = new Rectangle(1, 1);
+        boxes[1].setPosition(0.5f, 0.5f);
+        boxes[0].addCollisionListener(boxes[1], event -> collisions.incrementAndGet());
+
+        scene.add(boxes);
+        scene.addFrameUpdateListener(deltaSeconds -> frameUpdates.incrementAndGet());
+
+        // Ohne Fenster wird nicht gezeichnet
+        scene.prepare(0, 0);
+
+        assertTrue(boxes[0].isMounted());
+        assertTrue(boxes[1].isMounted());
+        assertEquals(1, scene.getMainLayer().getWorldHandler().getWorld().getContactCount());
+        assertEquals(0, frameUpdates.get());
+        assertEquals(0, collisions.get());
+
+        // Der erste echte Frame meldet die Kollision wie gewohnt
+        scene.stepFixed(1);
+        scene.invokeFrameUpdateListeners(0);
+
+        assertEquals(1, collisions.get());
+        assertEquals(1, frameUpdates.get());
+    }
+
+    @Test
+    public void rendersOffscreen () {
+        assumeFalse(GraphicsEnvironment.isHeadless());
+
+        Scene scene = new Scene();
+        Rectangle box = new Rectangle(1, 1);
+        scene.add(box);
+
+        scene.prepare(64, 64);
+
+        assertTrue(box.isMounted());
+    }
+}
@@ -0,0 +1,282 @@
+package ea;
+
+import ea.actor.Actor;
+import ea.actor.Animation;
+import ea.actor.AnimationSet;
+import ea.actor.BodyType;
+import ea.actor.Rectangle;
+import ea.actor.StatefulAnimation;
+import ea.animation.AnimationMode;
+import ea.animation.Easing;
+import ea.animation.Tween;
+import ea.collision.CollisionEvent;
+import ea.collision.CollisionListener;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SceneSnapshotTest {
+    private static void tick (Scene scene, int frames) throws InterruptedException {
+        for (int i = 0; i < frames; i++) {
+            scene.step(1 / 60f, task -> {
+                task.run();
+                return CompletableFuture.completedFuture(null);
+            });
+            scene.invokeFrameUpdateListeners(1 / 60f);
+        }
+    }
+
+    private static Scene createScene () throws InterruptedException {
+        Scene scene = new Scene();
+
+        Rectangle ground = new Rectangle(20, 1);
+        ground.setPosition(-10, -5);
+        scene.add(ground);
+
+        for (int i = 0; i < 10; i++) {
+            Rectangle box = new Rectangle(1, 1);
+            box.setPosition(-5 + i, i * 1.5f);
+            box.setBodyType(BodyType.DYNAMIC);
+            box.setRotation(i * 10);
+            scene.add(box);
+        }
+
+        tick(scene, 1); // Actors werden verzögert angemeldet
+
+        return scene;
+    }
+
+    private static float[] state (Scene scene) {
+        var actors = scene.getMainLayer().getActors();
+        float[] result = new float[actors.size() * 3 + 1];
+
+        for (int i = 0; i < actors.size(); i++) {
+            result[i * 3] = actors.get(i).getX();
+            result[i * 3 + 1] = actors.get(i).getY();
+            result[i * 3 + 2] = actors.get(i).getRotation();
+        }
+
+        result[result.length - 1] = scene.getRandom().nextFloat();
+
+        return result;
+    }
+
+    @Test
+    public void restoreRewindsSimulationExactly () throws Exception {
+        Scene scene = createScene();
+        tick(scene, 30);
+
+        SceneSnapshot snapshot = SceneSnapshot.capture(scene);
+
+        tick(scene, 45);
+        float[] expected = state(scene);
+
+        snapshot.restore(scene);
+        tick(scene, 45);
+
+        assertArrayEquals(expected, state(scene), 0);
+    }
+
+    @Test
+    public void resimulationMatchesWithRestingContactsAndJoints () throws Exception {
+        Scene scene = createScene();
+        scene.setGravity(new Vector(0, -10));
+        scene.getMainLayer().getActors().get(0).setBodyType(BodyType.STATIC);
+
+        // Pendel an einem statischen Anker, die Kisten fallen auf den Boden und rutschen übereinander
+        Rectangle anchor = new Rectangle(0.2f, 0.2f);
+        anchor.setPosition(8, 4);
+        anchor.setBodyType(BodyType.STATIC);
+        Rectangle pendulum = new Rectangle(0.5f, 0.5f);
+        pendulum.setPosition(10, 4);
+        pendulum.setBodyType(BodyType.DYNAMIC);
+        scene.add(anchor, pendulum);
+        tick(scene, 1);
+
+        pendulum.createRevoluteJoint(anchor, new Vector(-1.9f, 0.1f));
+        tick(scene, 120);
+
+        int[] events = {0};
+        scene.getMainLayer().getActors().get(0).addCollisionListener(new CollisionListener<>() {
+            @Override
+            public void onCollision(CollisionEvent<Actor> collisionEvent) {
+                events[0]++;
+            }
+
+            @Override
+            public void onCollisionEnd(CollisionEvent<Actor> collisionEvent) {
+                events[0]++;
+            }
+        });
+
+        SceneSnapshot snapshot = SceneSnapshot.capture(scene);
+
+        tick(scene, 60);
+        float[] expected = state(scene);
+        int expectedEvents = events[0];
+
+        // Weiterlaufen lassen, damit Kontakte und Gelenke beim Zurückspielen einen anderen Zustand haben
+        tick(scene, 60);
+
+        snapshot.restore(scene);
+        events[0] = 0;
+        tick(scene, 60);
+
+        float[] actual = state(scene);
+        assertEquals(expectedEvents, events[0]);
+
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("Wert " + i, Float.floatToRawIntBits(expected[i]), Float.floatToRawIntBits(actual[i]));
+        }
+    }
+
+    @Test
+    public void fileRoundTripRestoresSameState () throws Exception {
+        Scene scene = createScene();
+        tick(scene, 20);
+
+        Path file = Files.createTempFile("scene", ".eas");
+
+        try {
+            SceneSnapshot.capture(scene).write(file);
+
+            tick(scene, 30);
+            float[] expected = state(scene);
+
+            tick(scene, 30);
+            assertFalse(Arrays.equals(expected, state(scene)));
+
+            SceneSnapshot.read(file).restore(scene);
+            tick(scene, 30);
+
+            assertArrayEquals(expected, state(scene), 0);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void restoreRewindsTasks () throws Exception {
+        Scene scene = createScene();
+        int[] calls = {0};
+        scene.repeat(0.1f, () -> calls[0]++);
+
+        tick(scene, 3);
+        SceneSnapshot snapshot = SceneSnapshot.capture(scene);
+
+        tick(scene, 10);
+        int callsAfterFirstRun = calls[0];
+
+        snapshot.restore(scene);
+        tick(scene, 10);
+
+        assertEquals(callsAfterFirstRun * 2, calls[0]);
+    }
+
+    @Test
+    public void restoreRewindsTweens () throws Exception {
+        Scene scene = createScene();
+        Actor actor = scene.getMainLayer().getActors().get(1);
+        float[] value = {0};
+
+        Tween tween = actor.tween(0.5f, 0, 10, Easing.LINEAR, AnimationMode.SINGLE, v -> value[0] = v);
+        tick(scene, 10);
+
+        SceneSnapshot snapshot = SceneSnapshot.capture(scene);
+        Path file = Files.createTempFile("scene", ".eas");
+
+        try {
+            snapshot.write(file);
+
+            tick(scene, 10);
+            float expected = value[0];
+
+            tick(scene, 20);
+            assertTrue(tween.isDone());
+
+            Tween later = actor.tween(1, 0, 1, Easing.LINEAR, AnimationMode.REPEATED, v -> {});
+
+            snapshot.restore(scene);
+            assertFalse(tween.isDone());
+            assertEquals(1, scene.getMainLayer().getTweens().size());
+
+            tick(scene, 10);
+            assertEquals(expected, value[0], 0);
+
+            // Gelesene Snapshots übertragen den Zustand der Reihe nach auf die laufenden Tweens
+            tick(scene, 5);
+            SceneSnapshot.read(file).restore(scene);
+            tick(scene, 10);
+            assertEquals(expected, value[0], 0);
+            assertFalse(later.isDone());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static int[] playhead (StatefulAnimation<?> animation) {
+        int[] playhead = new int[StatefulAnimation.PLAYHEAD_SIZE];
+        animation.writePlayhead(playhead, 0);
+
+        return playhead;
+    }
+
+    @Test
+    public void restoreRewindsAnimationPlayheads () throws Exception {
+        BufferedImage[] images = {new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB), new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB), new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB)};
+        AnimationSet<String> set = AnimationSet.<String>empty()
+                .withState("walk", Animation.createFromBufferedImages(0.1f, 1, 1, images))
+                .withState("jump", Animation.createFromBufferedImages(0.25f, 1, 1, images))
+                .withStateTransition("walk", "jump");
+
+        Scene scene = createScene();
+        StatefulAnimation<String> animation = new StatefulAnimation<>(1, 1, set);
+        scene.add(animation);
+        tick(scene, 10);
+
+        SceneSnapshot snapshot = SceneSnapshot.capture(scene);
+        Path file = Files.createTempFile("scene", ".eas");
+
+        try {
+            snapshot.write(file);
+
+            tick(scene, 20);
+            int[] expected = playhead(animation);
+            assertEquals("jump", animation.getCurrentState());
+
+            tick(scene, 40);
+            assertFalse(Arrays.equals(expected, playhead(animation)));
+
+            snapshot.restore(scene);
+            assertEquals("walk", animation.getCurrentState());
+            tick(scene, 20);
+            assertArrayEquals(expected, playhead(animation));
+
+            SceneSnapshot.read(file).restore(scene);
+            tick(scene, 20);
+            assertArrayEquals(expected, playhead(animation));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsStructurallyDifferentScene () throws Exception {
+        Scene scene = createScene();
+        SceneSnapshot snapshot = SceneSnapshot.capture(scene);
+
+        scene.add(new Rectangle(1, 1));
+        tick(scene, 1);
+
+        snapshot.restore(scene);
+    }
+}
@@ -0,0 +1,132 @@
+package ea;
+
+import ea.actor.Actor;
+import ea.actor.BodyType;
+import ea.actor.Rectangle;
+import org.jbox2d.dynamics.Body;
+import org.jbox2d.dynamics.Fixture;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class StaticGeometryBakerTest {
+    private static Rectangle[] createFloor(Scene scene, int count) {
+        Rectangle[] pieces = new Rectangle[count];
+
+        for (int i = 0; i < count; i++) {
+            pieces[i] = new Rectangle(1, 1);
+            pieces[i].setBodyType(BodyType.STATIC);
+            pieces[i].setPosition(i, 0);
+        }
+
+        scene.add(pieces);
+        scene.invokeFrameUpdateListeners(0);
+
+        return pieces;
+    }
+
+    private static int countBakedFixtures(Layer layer) {
+        int count = 0;
+
+        for (Body body = layer.getWorldHandler().getWorld().getBodyList(); body != null; body = body.getNext()) {
+            if (body.getUserData() == null) {
+                for (Fixture fixture = body.getFixtureList(); fixture != null; fixture = fixture.getNext()) {
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    @Test
+    public void mergesRowsAndRebakesOnRemoval () {
+        Scene scene = new Scene();
+        Layer layer = scene.getMainLayer();
+        Rectangle[] floor = createFloor(scene, 10);
+
+        layer.setStaticGeometryBaked(true);
+
+        StaticGeometryBaker baker = layer.getStaticGeometryBaker();
+        assertEquals(1, baker.getBodyCount());
+        assertEquals(1, countBakedFixtures(layer));
+        assertFalse(floor[3].getPhysicsHandler().getBody().isActive());
+        assertTrue(floor[3].contains(new Vector(3.5f, 0.5f)));
+        assertEquals(new Vector(3.5f, 0.5f), floor[3].getCenter());
+
+        scene.remove(floor[4]);
+        scene.invokeFrameUpdateListeners(0);
+        assertEquals(2, countBakedFixtures(layer));
+
+        // Eigene Kollisions-Listener: Actor behält seinen Body
+        floor[0].addCollisionListener(event -> {
+        });
+        scene.invokeFrameUpdateListeners(0);
+
+        assertFalse(baker.isBaked(floor[0]));
+        assertTrue(floor[0].getPhysicsHandler().getBody().isActive());
+        assertEquals(2, countBakedFixtures(layer));
+
+        layer.setStaticGeometryBaked(false);
+        assertTrue(floor[5].getPhysicsHandler().getBody().isActive());
+        assertEquals(0, countBakedFixtures(layer));
+    }
+
+    @Test
+    public void dynamicBodiesLandOnBakedGeometry () {
+        Scene scene = new Scene();
+        Layer layer = scene.getMainLayer();
+        Rectangle[] floor = createFloor(scene, 10);
+
+        layer.setStaticGeometryBaked(true);
+        layer.setGravity(new Vector(0, -10));
+
+        Rectangle box = new Rectangle(1, 1);
+        box.setBodyType(BodyType.DYNAMIC);
+        box.setPosition(4.5f, 3);
+        scene.add(box);
+        scene.invokeFrameUpdateListeners(0);
+
+        Rectangle[] touched = {null};
+        box.addCollisionListener(event -> touched[0] = (Rectangle) event.getColliding());
+
+        layer.stepFixed(500);
+
+        assertEquals(1, box.getPosition().getY(), 0.05f);
+        assertTrue(box.isGrounded());
+        assertTrue(Arrays.asList(floor).contains(touched[0]));
+    }
+
+    @Test
+    public void collisionsReportTheTouchedPieceOfAMergedRow () {
+        Scene scene = new Scene();
+        Layer layer = scene.getMainLayer();
+        Rectangle[] floor = createFloor(scene, 10);
+
+        layer.setStaticGeometryBaked(true);
+        layer.setGravity(new Vector(0, -10));
+        assertEquals(1, countBakedFixtures(layer));
+
+        Rectangle box = new Rectangle(0.5f, 0.5f);
+        box.setBodyType(BodyType.DYNAMIC);
+        box.setPosition(7.25f, 3);
+        scene.add(box);
+        scene.invokeFrameUpdateListeners(0);
+
+        Actor[] touched = {null};
+        box.addCollisionListener(event -> touched[0] = event.getColliding());
+
+        layer.stepFixed(500);
+
+        assertSame(floor[7], touched[0]);
+        assertEquals(1, box.getCollisions().size());
+        assertSame(floor[7], box.getCollisions().get(0).getColliding());
+        // Wie bei einzelnen Bodies zeigt die Normale zum Kollisionspartner
+        assertEquals(-1, box.getCollisions().get(0).getTangentNormal().getY(), 0.001f);
+    }
+}
@@ -0,0 +1,129 @@
+package ea;
+
+import ea.actor.Animation;
+import ea.internal.graphics.AnimationFrame;
+import ea.internal.graphics.GifFrameStream;
+import ea.internal.io.ByteBufferImageInputStream;
+import ea.internal.io.ResourceLoader;
+import ea.internal.util.GifDecoder;
+import ea.internal.util.StreamingGifDecoder;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+public class StreamingGifDecoderTest {
+    private static final String[] GIFS = {"gif/coin.gif", "gif/idle.gif"};
+
+    @Test
+    public void matchesGifDecoder () throws Exception {
+        for (String path : GIFS) {
+            GifDecoder reference = new GifDecoder();
+            reference.read(path);
+
+            StreamingGifDecoder decoder = new StreamingGifDecoder(ResourceLoader.loadAsBuffer(path));
+
+            assertEquals(reference.getFrameCount(), decoder.getFrameCount());
+            assertEquals(reference.getFrameSize().width, decoder.getWidth());
+            assertEquals(reference.getFrameSize().height, decoder.getHeight());
+
+            // Zwei Durchläufe, um auch das Zurückspringen auf den ersten Frame zu prüfen
+            for (int loop = 0; loop < 2; loop++) {
+                for (int i = 0; i < decoder.getFrameCount(); i++) {
+                    assertEquals(reference.getDelay(i), decoder.getDelay(i));
+                    assertArrayEquals(path + " frame " + i, pixels(reference.getFrame(i)), decoder.decodeNext());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void decodeAllMatchesGifDecoder () throws Exception {
+        for (String path : GIFS) {
+            GifDecoder reference = new GifDecoder();
+            reference.read(path);
+
+            StreamingGifDecoder decoder = new StreamingGifDecoder(ResourceLoader.loadAsBuffer(path));
+            BufferedImage[] frames = decoder.decodeAll();
+
+            assertEquals(reference.getFrameCount(), frames.length);
+            assertEquals(0, decoder.getNextFrameIndex());
+
+            for (int i = 0; i < frames.length; i++) {
+                assertArrayEquals(path + " frame " + i, pixels(reference.getFrame(i)), pixels(frames[i]));
+            }
+        }
+    }
+
+    @Test
+    public void imageIoReadsFromBuffer () throws Exception {
+        for (String path : GIFS) {
+            BufferedImage expected = ImageIO.read(ResourceLoader.loadAsStream(path));
+            BufferedImage actual = ImageIO.read(new ByteBufferImageInputStream(ResourceLoader.loadAsBuffer(path)));
+
+            assertArrayEquals(path, pixels(expected), pixels(actual));
+        }
+    }
+
+    @Test
+    public void streamDeliversFramesInAnyOrder () throws Exception {
+        for (String path : GIFS) {
+            GifDecoder reference = new GifDecoder();
+            reference.read(path);
+
+            GifFrameStream stream = new GifFrameStream(new StreamingGifDecoder(ResourceLoader.loadAsBuffer(path)), 2);
+            int count = stream.getFrameCount();
+
+            for (int step = 0; step < count * 3; step++) {
+                int index = step < count * 2 ? step % count : (step * 7) % count;
+                assertArrayEquals(path + " frame " + index, pixels(reference.getFrame(index)), pixels(stream.getFrame(index)));
+            }
+        }
+    }
+
+    @Test
+    public void copiesPlayIndependently () throws Exception {
+        for (String path : GIFS) {
+            GifDecoder reference = new GifDecoder();
+            reference.read(path);
+
+            GifFrameStream stream = new GifFrameStream(new StreamingGifDecoder(ResourceLoader.loadAsBuffer(path)), 2);
+            GifFrameStream copy = stream.copy();
+            int count = stream.getFrameCount();
+
+            // Gegenläufig abspielen: Teilten sich beide einen Abspielkopf, würde jeder Frame den anderen verdrängen
+            for (int step = 0; step < count * 2; step++) {
+                int forward = step % count;
+                int backward = count - 1 - forward;
+
+                assertArrayEquals(path + " frame " + forward, pixels(reference.getFrame(forward)), pixels(stream.getFrame(forward)));
+                assertArrayEquals(path + " frame " + backward, pixels(reference.getFrame(backward)), pixels(copy.getFrame(backward)));
+            }
+        }
+    }
+
+    @Test
+    public void copiedAnimationsGetOwnStreams () {
+        Animation animation = Animation.createFromAnimatedGifStreamed("gif/coin.gif", 1, 1);
+        Animation copy = new Animation(animation);
+
+        AnimationFrame[] frames = animation.getFrames();
+        AnimationFrame[] copiedFrames = copy.getFrames();
+
+        assertEquals(frames.length, copiedFrames.length);
+
+        for (int i = 0; i < frames.length; i++) {
+            assertNotSame(frames[i], copiedFrames[i]);
+            assertEquals(frames[i].getDuration(), copiedFrames[i].getDuration(), 0);
+            assertArrayEquals(pixels(frames[i].getImage()), pixels(copiedFrames[i].getImage()));
+        }
+    }
+
+    private static int[] pixels (BufferedImage image) {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+}
@@ -0,0 +1,148 @@
+package ea;
+
+import ea.actor.Rectangle;
+import ea.animation.AnimationMode;
+import ea.animation.Easing;
+import ea.animation.Tween;
+import ea.animation.TweenEngine;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TweenEngineTest {
+    @Test
+    public void singleTweenReachesTargetAndCompletes () {
+        TweenEngine engine = new TweenEngine(null);
+        float[] value = {-1};
+        int[] completions = {0};
+
+        Tween tween = engine.add(1, 10, 20, Easing.LINEAR, AnimationMode.SINGLE, v -> value[0] = v);
+        tween.addCompletionListener(() -> completions[0]++);
+
+        engine.advance(0.25f);
+        assertEquals(12.5f, value[0], 0.0001f);
+
+        engine.advance(1);
+        assertEquals(20, value[0], 0);
+        assertTrue(tween.isDone());
+        assertEquals(1, completions[0]);
+        assertEquals(0, engine.size());
+
+        engine.advance(1);
+        assertEquals(1, completions[0]);
+    }
+
+    @Test
+    public void pingPongAndPauseAndCancel () {
+        TweenEngine engine = new TweenEngine(null);
+        float[] value = {-1};
+
+        Tween tween = engine.add(1, 0, 1, Easing.EASE_IN_OUT, AnimationMode.PINGPONG, v -> value[0] = v);
+
+        engine.advance(0.5f);
+        assertEquals(0.5f, value[0], 0.0001f);
+
+        engine.advance(0.6f);
+        assertEquals(1, value[0], 0);
+
+        engine.advance(0.5f);
+        assertEquals(0.5f, value[0], 0.0001f);
+
+        tween.setPaused(true);
+        engine.advance(0.3f);
+        assertEquals(0.5f, value[0], 0.0001f);
+
+        tween.cancel();
+        tween.setPaused(false);
+        engine.advance(0.3f);
+        assertEquals(0.5f, value[0], 0.0001f);
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    public void manyTweensSurviveRemovalInTheMiddle () {
+        TweenEngine engine = new TweenEngine(null);
+        float[] values = new float[100];
+        Tween[] tweens = new Tween[100];
+
+        for (int i = 0; i < values.length; i++) {
+            int index = i;
+            tweens[i] = engine.add(1 + i % 3, 0, i, Easing.LINEAR, AnimationMode.REPEATED, v -> values[index] = v);
+        }
+
+        for (int i = 0; i < values.length; i += 2) {
+            tweens[i].cancel();
+        }
+
+        engine.advance(0.5f);
+
+        assertEquals(50, engine.size());
+        assertEquals(0, values[98], 0);
+        assertEquals(99 * 0.5f / (1 + 99 % 3), values[99], 0.0001f);
+    }
+
+    @Test
+    public void actorTweenStartsOnMountAndRemovesParticle () {
+        Scene scene = new Scene();
+        Rectangle particle = new Rectangle(1, 1);
+        scene.add(particle);
+
+        Tween tween = particle.tweenParticle(0.5f);
+        assertFalse(tween.isDone());
+
+        for (int i = 0; i < 60; i++) {
+            scene.invokeFrameUpdateListeners(1 / 60f);
+        }
+
+        assertTrue(tween.isDone());
+        assertEquals(0, particle.getOpacity(), 0);
+        assertFalse(particle.isMounted());
+    }
+
+    @Test
+    public void tweensMayBeStartedAndCancelledFromOtherThreads () throws Exception {
+        TweenEngine engine = new TweenEngine(null);
+        int tweens = 20000;
+        AtomicInteger completions = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        // Wie ein paralleler EDU-Ablauf: startet Tweens und bricht jeden zweiten gleich wieder ab
+        Thread student = new Thread(() -> {
+            try {
+                for (int i = 0; i < tweens; i++) {
+                    Tween tween = engine.add(i % 2 == 0 ? 1000 : 0.01f, 0, 1, Easing.LINEAR, AnimationMode.SINGLE, v -> {
+                        // nichts
+                    });
+                    tween.addCompletionListener(completions::incrementAndGet);
+
+                    if (i % 2 == 0) {
+                        tween.cancel();
+                    }
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+
+        student.start();
+
+        while (student.isAlive()) {
+            engine.advance(0.001f);
+        }
+
+        student.join();
+
+        for (int i = 0; i < 20; i++) {
+            engine.advance(0.001f);
+        }
+
+        assertEquals(null, failure.get());
+        assertEquals(0, engine.size());
+        assertEquals(tweens / 2, completions.get());
+    }
+}
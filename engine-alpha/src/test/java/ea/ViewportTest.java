@@ -0,0 +1,155 @@
+package ea;
+
+import ea.actor.DrawingCanvas;
+import ea.actor.Rectangle;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+public class ViewportTest {
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsBoundsOutsideFrame () {
+        new Viewport(new Camera(), 0.5f, 0, 0.6f, 1);
+    }
+
+    @Test
+    public void camerasFollowTheirFocus () {
+        Scene scene = new Scene();
+        Rectangle first = new Rectangle(1, 1);
+        Rectangle second = new Rectangle(1, 1);
+        second.setPosition(10, 4);
+        scene.add(first, second);
+        scene.invokeFrameUpdateListeners(0);
+
+        Camera left = new Camera();
+        Camera right = new Camera();
+        left.setFocus(first);
+        right.setFocus(second);
+
+        scene.addViewport(new Viewport(left, 0, 0, 0.5f, 1));
+        scene.addViewport(new Viewport(right, 0.5f, 0, 0.5f, 1));
+        scene.updateCameras();
+
+        assertEquals(new Vector(0.5f, 0.5f), left.getPosition());
+        assertEquals(new Vector(10.5f, 4.5f), right.getPosition());
+        assertTrue(scene.hasFrameViewports());
+    }
+
+    @Test
+    public void convertsFramePositions () {
+        Scene scene = new Scene();
+        Camera camera = new Camera();
+        camera.setPosition(new Vector(10, 5));
+        camera.setZoom(20);
+
+        Viewport viewport = new Viewport(camera, 0.5f, 0, 0.5f, 1);
+
+        // Mitte der rechten Hälfte eines 400x300-Fensters
+        assertEquals(new Vector(10, 5), viewport.convertFramePosition(scene, 300, 150, 400, 300));
+        assertEquals(new Vector(11, 4), viewport.convertFramePosition(scene, 320, 170, 400, 300));
+        assertNull(viewport.convertFramePosition(scene, 100, 150, 400, 300));
+    }
+
+    @Test
+    public void routesFramePositionsToViewportUnderCursor () {
+        Scene scene = new Scene();
+        Camera left = new Camera();
+        left.setPosition(new Vector(-10, 0));
+        Camera right = new Camera();
+        right.setPosition(new Vector(10, 0));
+        Camera overlay = new Camera();
+        overlay.setPosition(new Vector(0, 100));
+
+        scene.addViewport(new Viewport(left, 0, 0, 0.5f, 1));
+        scene.addViewport(new Viewport(right, 0.5f, 0, 0.5f, 1));
+
+        // Jeweils die Mitte der Hälften eines 400x300-Fensters
+        assertEquals(new Vector(-10, 0), scene.convertViewportPosition(100, 150, 400, 300));
+        assertEquals(new Vector(10, 0), scene.convertViewportPosition(300, 150, 400, 300));
+
+        // Ein später hinzugefügter Viewport liegt oben
+        scene.addViewport(new Viewport(overlay, 0.625f, 0, 0.25f, 0.5f));
+
+        assertEquals(new Vector(0, 100), scene.convertViewportPosition(300, 75, 400, 300));
+        assertEquals(new Vector(10, 0), scene.convertViewportPosition(300, 150, 400, 300));
+
+        // Viewports mit eigenem Ziel liegen nicht im Fenster
+        Scene offscreen = new Scene();
+        offscreen.addViewport(new Viewport(left, source -> {
+            // nichts
+        }));
+
+        assertNull(offscreen.convertViewportPosition(100, 150, 400, 300));
+    }
+
+    @Test
+    public void rendersEachCameraIntoItsRegion () {
+        assumeFalse(GraphicsEnvironment.isHeadless());
+
+        Scene scene = new Scene();
+        scene.setBackgroundColor(Color.DARK_GRAY);
+
+        Rectangle red = new Rectangle(1, 1);
+        red.setColor(Color.RED);
+        Rectangle blue = new Rectangle(1, 1);
+        blue.setColor(Color.BLUE);
+        blue.setPosition(50, 0);
+        scene.add(red, blue);
+        scene.invokeFrameUpdateListeners(0);
+
+        Camera left = new Camera();
+        left.setPosition(new Vector(0.5f, 0.5f));
+        Camera right = new Camera();
+        right.setPosition(new Vector(50.5f, 0.5f));
+
+        scene.addViewport(new Viewport(left, 0, 0, 0.5f, 1));
+        scene.addViewport(new Viewport(right, 0.5f, 0, 0.5f, 1));
+
+        BufferedImage image = new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        scene.renderViewports(g, 400, 200);
+        g.dispose();
+
+        assertEquals(Color.RED.getRGB(), image.getRGB(100, 100));
+        assertEquals(Color.BLUE.getRGB(), image.getRGB(300, 100));
+        assertFalse(image.getRGB(200, 100) == Color.RED.getRGB());
+    }
+
+    @Test
+    public void drawsCanvasBeyondItsShape () {
+        assumeFalse(GraphicsEnvironment.isHeadless());
+
+        Scene scene = new Scene();
+        scene.setBackgroundColor(Color.DARK_GRAY);
+
+        // Der Ursprung der Zeichenfläche liegt außerhalb beider Viewports, die Linie im rechten
+        DrawingCanvas canvas = new DrawingCanvas();
+        canvas.setPosition(-20, 0);
+        canvas.drawLine(new Vector(65, 0), new Vector(75, 0), Color.ORANGE, 1);
+        scene.add(canvas);
+        scene.invokeFrameUpdateListeners(0);
+
+        Camera left = new Camera();
+        Camera right = new Camera();
+        right.setPosition(new Vector(50, 0));
+
+        scene.addViewport(new Viewport(left, 0, 0, 0.5f, 1));
+        scene.addViewport(new Viewport(right, 0.5f, 0, 0.5f, 1));
+
+        BufferedImage image = new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        scene.renderViewports(g, 400, 200);
+        g.dispose();
+
+        assertEquals(Color.ORANGE.getRGB(), image.getRGB(300, 100));
+    }
+}